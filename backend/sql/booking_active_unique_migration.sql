@@ -0,0 +1,32 @@
+-- ============================================
+-- 预约唯一约束调整 - 数据库迁移脚本
+-- 原 uk_user_course(user_id, course_id, status) 同时约束已取消的预约：
+-- 会员取消后重新预约再取消时，同一课程出现第二条已取消预约，违反唯一索引。
+-- 改为只约束有效预约：生成列在有效预约（status = 1 且未删除）时等于 course_id，其他状态为NULL，
+-- 唯一索引中的NULL互不冲突，已取消、已完成的预约不限条数
+-- 要求 MySQL 5.7 及以上版本（支持对虚拟生成列建立索引）
+-- ============================================
+
+USE swimming_sys;
+
+-- 1. 添加生成列（虚拟列，不占用存储）
+ALTER TABLE `booking`
+ADD COLUMN `active_course_id` BIGINT GENERATED ALWAYS AS (CASE WHEN `status` = 1 AND `is_delete` = 0 THEN `course_id` END) VIRTUAL
+COMMENT '有效预约的课程ID（生成列），非有效预约为NULL';
+
+-- 2. 新唯一索引：同一用户同一课程只有一条有效预约
+-- 原唯一索引已保证同一用户同一课程最多一条已预约记录，现有数据不会违反新索引
+CREATE UNIQUE INDEX `uk_user_active_course` ON `booking`(`user_id`, `active_course_id`);
+
+-- 3. 原唯一索引改为普通索引，保留按用户和课程查询预约使用的索引
+CREATE INDEX `idx_user_course` ON `booking`(`user_id`, `course_id`, `status`);
+DROP INDEX `uk_user_course` ON `booking`;
+
+-- ============================================
+-- 回滚脚本（如需回滚，请执行以下SQL）
+-- 回滚前需先处理同一用户同一课程同一状态的重复记录
+-- ============================================
+-- CREATE UNIQUE INDEX `uk_user_course` ON `booking`(`user_id`, `course_id`, `status`);
+-- DROP INDEX `idx_user_course` ON `booking`;
+-- DROP INDEX `uk_user_active_course` ON `booking`;
+-- ALTER TABLE `booking` DROP COLUMN `active_course_id`;
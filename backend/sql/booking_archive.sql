@@ -0,0 +1,26 @@
+-- ==========================================
+-- 预约归档表SQL脚本
+-- ==========================================
+-- 课程已结束或取消已久的预约由归档任务按主键分批从booking表移入booking_archive表，
+-- booking表只保留近期和有效的预约，热点查询的索引可以常驻缓冲池
+
+-- 使用数据库
+USE swimming_sys;
+
+-- 预约归档表（字段与booking表一致，保留原预约ID）
+CREATE TABLE IF NOT EXISTS `booking_archive` (
+    `id` BIGINT NOT NULL COMMENT '预约ID，与原booking表一致',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID',
+    `course_id` BIGINT NOT NULL COMMENT '课程ID',
+    `booking_time` DATETIME NOT NULL COMMENT '预约时间',
+    `status` TINYINT NOT NULL COMMENT '预约状态：0-已取消，1-已预约，2-已完成',
+    `cancel_time` DATETIME DEFAULT NULL COMMENT '取消时间',
+    `is_delete` TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除：0-未删除，1-已删除',
+    `created_time` DATETIME DEFAULT NULL COMMENT '创建时间',
+    `updated_time` DATETIME DEFAULT NULL COMMENT '更新时间',
+    `archived_time` DATETIME NOT NULL COMMENT '归档时间',
+    PRIMARY KEY (`id`),
+    INDEX `idx_user_booking_time` (`user_id`, `booking_time`) COMMENT '会员历史预约查询',
+    INDEX `idx_course_id` (`course_id`) COMMENT '课程历史预约查询',
+    INDEX `idx_booking_time` (`booking_time`) COMMENT '管理员按预约时间查询'
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='预约归档表';
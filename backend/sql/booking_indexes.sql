@@ -0,0 +1,16 @@
+-- ==========================================
+-- 课程预约模块索引优化SQL脚本
+-- ==========================================
+
+-- 使用数据库
+USE swimming_sys;
+
+-- ==========================================
+-- course表索引优化
+-- ==========================================
+
+-- 优化预约时间冲突检测（预约表联合课程表，按课程时间段重叠过滤）
+CREATE INDEX idx_start_end_time ON course(start_time, end_time);
+
+-- 说明：booking侧使用 statistics_indexes.sql 中的 idx_user_status_delete(user_id, status, is_delete)
+-- 定位用户的有效预约，再通过主键关联course表判断时间段是否重叠
@@ -10,6 +10,7 @@ CREATE TABLE IF NOT EXISTS `course` (
     `current_count` INT NOT NULL DEFAULT 0 COMMENT '当前已预约人数',
     `description` VARCHAR(500) DEFAULT NULL COMMENT '课程描述',
     `status` TINYINT NOT NULL DEFAULT 1 COMMENT '课程状态：0-已下架，1-已发布',
+    `series_key` VARCHAR(64) DEFAULT NULL COMMENT '系列课程标识（周期排课生成）',
     `version` INT NOT NULL DEFAULT 0 COMMENT '版本号（乐观锁）',
     `is_delete` TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除：0-未删除，1-已删除',
     `created_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
@@ -17,8 +18,11 @@ CREATE TABLE IF NOT EXISTS `course` (
     PRIMARY KEY (`id`),
     INDEX `idx_coach_id` (`coach_id`),
     INDEX `idx_start_time` (`start_time`),
+    INDEX `idx_start_end_time` (`start_time`, `end_time`) COMMENT '预约时间冲突检测',
     INDEX `idx_status` (`status`),
-    INDEX `idx_course_type` (`course_type`)
+    INDEX `idx_course_type` (`course_type`),
+    INDEX `idx_coach_start_time` (`coach_id`, `start_time`) COMMENT '教练时间冲突检测',
+    UNIQUE INDEX `uk_series_start` (`series_key`, `start_time`) COMMENT '同一系列同一时间只生成一节课程'
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='课程表';
 
 -- 预约表
@@ -32,11 +36,13 @@ CREATE TABLE IF NOT EXISTS `booking` (
     `is_delete` TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除：0-未删除，1-已删除',
     `created_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `updated_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    `active_course_id` BIGINT GENERATED ALWAYS AS (CASE WHEN `status` = 1 AND `is_delete` = 0 THEN `course_id` END) VIRTUAL COMMENT '有效预约的课程ID（生成列），非有效预约为NULL',
     PRIMARY KEY (`id`),
     INDEX `idx_user_id` (`user_id`),
     INDEX `idx_course_id` (`course_id`),
     INDEX `idx_status` (`status`),
-    UNIQUE INDEX `uk_user_course` (`user_id`, `course_id`, `status`) COMMENT '同一用户同一课程同一状态唯一'
+    INDEX `idx_user_course` (`user_id`, `course_id`, `status`),
+    UNIQUE INDEX `uk_user_active_course` (`user_id`, `active_course_id`) COMMENT '同一用户同一课程只有一条有效预约，已取消、已完成的记录不限条数'
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='预约表';
 
 -- 插入课程示例数据
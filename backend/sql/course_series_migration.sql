@@ -0,0 +1,24 @@
+-- ============================================
+-- 周期排课（系列课程）功能 - 数据库迁移脚本
+-- ============================================
+
+USE swimming_sys;
+
+-- 1. 添加系列课程标识字段
+ALTER TABLE `course`
+ADD COLUMN `series_key` VARCHAR(64) DEFAULT NULL COMMENT '系列课程标识（周期排课生成）'
+AFTER `status`;
+
+-- 2. 唯一索引：同一系列同一开始时间只有一节课程，重复提交同一排课规则不会生成重复课程
+-- 单独新增的课程 series_key 为 NULL，不受唯一约束影响
+CREATE UNIQUE INDEX `uk_series_start` ON `course`(`series_key`, `start_time`);
+
+-- 3. 教练时间冲突检测：按教练和时间范围查询
+CREATE INDEX `idx_coach_start_time` ON `course`(`coach_id`, `start_time`);
+
+-- ============================================
+-- 回滚脚本（如需回滚，请执行以下SQL）
+-- ============================================
+-- DROP INDEX `idx_coach_start_time` ON `course`;
+-- DROP INDEX `uk_series_start` ON `course`;
+-- ALTER TABLE `course` DROP COLUMN `series_key`;
@@ -0,0 +1,22 @@
+-- ==========================================
+-- 课程候补名单表
+-- ==========================================
+
+USE swimming_sys;
+
+-- 课程候补表（课程名额已满时会员按先后顺序排队，有人取消时自动转为预约）
+CREATE TABLE IF NOT EXISTS `course_waitlist` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT COMMENT '候补ID，主键（按ID先后顺序转正）',
+    `course_id` BIGINT NOT NULL COMMENT '课程ID，外键关联course表',
+    `user_id` BIGINT NOT NULL COMMENT '用户ID，外键关联user表',
+    `join_time` DATETIME NOT NULL COMMENT '加入候补时间',
+    `status` TINYINT NOT NULL DEFAULT 1 COMMENT '候补状态：0-已取消，1-候补中，2-已转正，3-已失效',
+    `booking_id` BIGINT DEFAULT NULL COMMENT '转正后生成的预约ID',
+    `promoted_time` DATETIME DEFAULT NULL COMMENT '转正时间',
+    `is_delete` TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除：0-未删除，1-已删除',
+    `created_time` DATETIME DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+    `updated_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+    PRIMARY KEY (`id`),
+    INDEX `idx_course_status_id` (`course_id`, `status`, `id`) COMMENT '按课程取队首候补',
+    INDEX `idx_user_status` (`user_id`, `status`)
+) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_unicode_ci COMMENT='课程候补表';
@@ -37,7 +37,7 @@ CREATE TABLE IF NOT EXISTS `entrance_record` (
     `updated_time` DATETIME DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
     PRIMARY KEY (`id`),
     INDEX `idx_user_id` (`user_id`),
-    INDEX `idx_qrcode_token` (`qrcode_token`),
+    UNIQUE INDEX `uk_qrcode_token` (`qrcode_token`) COMMENT '每个入场码只生成一条入场记录（批量写入重放时去重）',
     INDEX `idx_entrance_time` (`entrance_time`),
     INDEX `idx_verifier_id` (`verifier_id`),
     INDEX `idx_booking_id` (`booking_id`)
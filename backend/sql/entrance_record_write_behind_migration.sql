@@ -0,0 +1,19 @@
+-- ============================================
+-- 入场记录异步批量写入 - 数据库迁移脚本
+-- 开启 entrance.write-behind.enabled 前必须执行
+-- ============================================
+
+USE swimming_sys;
+
+-- 入场码令牌改为唯一索引：每个入场码只能使用一次，异步写入在重放本地日志时
+-- 使用 INSERT ... ON DUPLICATE KEY UPDATE 跳过已写入的记录（数据错误仍会报错，由写入服务移入死信目录）
+-- 执行前请确认没有重复的 qrcode_token：
+-- SELECT qrcode_token, COUNT(*) FROM entrance_record GROUP BY qrcode_token HAVING COUNT(*) > 1;
+ALTER TABLE `entrance_record`
+DROP INDEX `idx_qrcode_token`,
+ADD UNIQUE INDEX `uk_qrcode_token` (`qrcode_token`);
+
+-- ============================================
+-- 回滚脚本（如需回滚，请执行以下SQL）
+-- ============================================
+-- ALTER TABLE `entrance_record` DROP INDEX `uk_qrcode_token`, ADD INDEX `idx_qrcode_token` (`qrcode_token`);
@@ -0,0 +1,31 @@
+-- ==========================================
+-- 游标分页索引优化SQL脚本
+-- ==========================================
+
+-- 使用数据库
+USE swimming_sys;
+
+-- ==========================================
+-- user表索引优化
+-- ==========================================
+
+-- 优化用户列表游标分页（按删除标记过滤，按创建时间、id倒序定位）
+CREATE INDEX idx_delete_created_time ON user(is_delete, created_time);
+
+-- ==========================================
+-- booking表索引优化
+-- ==========================================
+
+-- 优化会员预约记录游标分页（按用户ID过滤，按预约时间、id倒序定位）
+CREATE INDEX idx_user_booking_time ON booking(user_id, booking_time);
+
+-- ==========================================
+-- 说明
+-- ==========================================
+--
+-- 游标分页条件为 (sort_col < ?) OR (sort_col = ? AND id < ?)，按 sort_col DESC, id DESC 排序并 LIMIT size+1，
+-- InnoDB二级索引隐含主键id，索引内即为 (sort_col, id) 有序，无需OFFSET扫描和COUNT统计：
+--
+-- 1. entrance_record 复用 statistics_indexes.sql 中的 idx_time_delete / idx_user_time_delete
+-- 2. booking 管理员列表复用 statistics_indexes.sql 中的 idx_time_status_delete
+-- 3. 执行前请确保 statistics_indexes.sql 已执行
@@ -23,6 +23,7 @@ CREATE TABLE `user` (
     `avatar` VARCHAR(255) DEFAULT NULL COMMENT '头像URL',
     `role` TINYINT NOT NULL DEFAULT 2 COMMENT '角色：0-管理员，1-会员，2-非会员',
     `status` TINYINT NOT NULL DEFAULT 1 COMMENT '状态：0-禁用，1-启用',
+    `guardian_id` BIGINT NOT NULL DEFAULT 0 COMMENT '家长账号ID，0表示未关联',
     `is_delete` TINYINT NOT NULL DEFAULT 0 COMMENT '逻辑删除：0-未删除，1-已删除',
     `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
     `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
@@ -30,7 +31,8 @@ CREATE TABLE `user` (
     UNIQUE KEY `uk_user_account` (`user_account`),
     INDEX `idx_phone` (`phone`),
     INDEX `idx_role` (`role`),
-    INDEX `idx_status` (`status`)
+    INDEX `idx_status` (`status`),
+    INDEX `idx_guardian_id` (`guardian_id`)
 ) ENGINE=InnoDB DEFAULT CHARSET=utf8mb4 COLLATE=utf8mb4_general_ci COMMENT='用户表';
 
 -- ============================================
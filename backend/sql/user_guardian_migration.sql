@@ -0,0 +1,20 @@
+-- ============================================
+-- 家庭成员关联 - 数据库迁移脚本
+-- 孩子等家庭成员的账号关联到家长账号，家长可为本人和已关联的家庭成员团体预约课程
+-- ============================================
+
+USE swimming_sys;
+
+-- 1. 添加家长账号字段（0表示未关联）
+ALTER TABLE `user`
+ADD COLUMN `guardian_id` BIGINT NOT NULL DEFAULT 0 COMMENT '家长账号ID，0表示未关联'
+AFTER `expiration_time`;
+
+-- 2. 创建索引：查询家长名下的家庭成员
+CREATE INDEX `idx_guardian_id` ON `user`(`guardian_id`);
+
+-- ============================================
+-- 回滚脚本（如需回滚，请执行以下SQL）
+-- ============================================
+-- DROP INDEX `idx_guardian_id` ON `user`;
+-- ALTER TABLE `user` DROP COLUMN `guardian_id`;
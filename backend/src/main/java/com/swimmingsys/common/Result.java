@@ -71,6 +71,18 @@ public class Result<T> implements Serializable {
         return result;
     }
 
+    /**
+     * 成功返回（指定状态码、消息和数据）
+     */
+    public static <T> Result<T> success(ResultCode resultCode, String message, T data) {
+        Result<T> result = new Result<>();
+        result.setSuccess(true);
+        result.setCode(resultCode.getCode());
+        result.setMessage(message);
+        result.setData(data);
+        return result;
+    }
+
     /**
      * 失败返回
      */
@@ -93,6 +105,18 @@ public class Result<T> implements Serializable {
         return result;
     }
 
+    /**
+     * 失败返回（带消息和数据，如逐项失败原因）
+     */
+    public static <T> Result<T> error(String message, T data) {
+        Result<T> result = new Result<>();
+        result.setSuccess(false);
+        result.setCode(ResultCode.ERROR.getCode());
+        result.setMessage(message);
+        result.setData(data);
+        return result;
+    }
+
     /**
      * 失败返回（带状态码和消息）
      */
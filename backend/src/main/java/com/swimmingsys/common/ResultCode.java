@@ -10,6 +10,16 @@ public enum ResultCode {
      */
     SUCCESS(200, "操作成功"),
 
+    /**
+     * 预约排队中（请求已受理，稍后查询结果）
+     */
+    BOOKING_QUEUED(202, "预约排队中"),
+
+    /**
+     * 预约排队超时（未在截止时间前开始处理，需重新预约）
+     */
+    BOOKING_TIMEOUT(408, "预约排队超时，请重新预约"),
+
     /**
      * 请求参数错误
      */
@@ -2,15 +2,29 @@ package com.swimmingsys.controller;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.swimmingsys.common.Result;
+import com.swimmingsys.common.ResultCode;
 import com.swimmingsys.common.RoleConstant;
 import com.swimmingsys.common.annotation.AuthCheck;
 import com.swimmingsys.model.dto.BookingAddDTO;
+import com.swimmingsys.model.dto.BookingBatchCancelDTO;
 import com.swimmingsys.model.dto.BookingConfirmDTO;
+import com.swimmingsys.model.dto.BookingGroupDTO;
 import com.swimmingsys.model.dto.BookingQueryDTO;
 import com.swimmingsys.model.entity.User;
+import com.swimmingsys.model.vo.AdmissionMetricsVO;
+import com.swimmingsys.model.vo.AdmissionTicketVO;
+import com.swimmingsys.model.vo.BookingArchiveReportVO;
+import com.swimmingsys.model.vo.BookingCompletionReportVO;
 import com.swimmingsys.model.vo.BookingConflictCheckVO;
 import com.swimmingsys.model.vo.BookingVO;
+import com.swimmingsys.model.vo.CursorPageVO;
+import com.swimmingsys.model.vo.GroupBookingVO;
+import com.swimmingsys.model.vo.WaitlistVO;
+import com.swimmingsys.service.BookingAdmissionService;
+import com.swimmingsys.service.BookingArchiveService;
+import com.swimmingsys.service.BookingCompletionService;
 import com.swimmingsys.service.BookingService;
+import com.swimmingsys.service.IdempotencyService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
@@ -20,6 +34,8 @@ import org.springframework.web.bind.annotation.*;
 import javax.annotation.Resource;
 import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import java.util.List;
+import java.util.Map;
 
 /**
  * 预约控制器
@@ -34,6 +50,18 @@ public class BookingController {
     @Resource
     private BookingService bookingService;
 
+    @Resource
+    private BookingAdmissionService bookingAdmissionService;
+
+    @Resource
+    private IdempotencyService idempotencyService;
+
+    @Resource
+    private BookingCompletionService bookingCompletionService;
+
+    @Resource
+    private BookingArchiveService bookingArchiveService;
+
     @Resource
     private com.swimmingsys.service.UserService userService;
 
@@ -65,6 +93,34 @@ public class BookingController {
         }
     }
 
+    /**
+     * 释放保留的名额
+     * 会员在确认前放弃预约时调用，保留的名额立即归还给其他会员
+     *
+     * @param courseId 课程ID
+     * @param request  请求对象（用于获取登录用户）
+     * @return 是否释放成功
+     */
+    @ApiOperation("释放预约请求阶段保留的名额")
+    @DeleteMapping("/hold/{courseId}")
+    @AuthCheck(mustRole = RoleConstant.MEMBER)
+    public Result<Boolean> releaseSeatHold(
+            @ApiParam(value = "课程ID", required = true) @PathVariable Long courseId,
+            HttpServletRequest request) {
+        // Controller层参数非空判断
+        if (courseId == null || courseId <= 0) {
+            return Result.error("课程ID无效");
+        }
+        try {
+            // 通过JWT令牌获取登录用户
+            User loginUser = userService.getLoginUser(request);
+            boolean result = bookingService.releaseSeatHold(courseId, loginUser);
+            return Result.success("释放成功", result);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 确认预约（支持强制替换）
      * 会员可调用，使用乐观锁处理并发问题
@@ -76,7 +132,7 @@ public class BookingController {
     @ApiOperation("确认预约（支持强制替换）")
     @PostMapping("/confirm")
     @AuthCheck(mustRole = RoleConstant.MEMBER)
-    public Result<BookingVO> confirmBooking(
+    public Result<?> confirmBooking(
             @Valid @RequestBody BookingConfirmDTO confirmDTO,
             HttpServletRequest request) {
         // Controller层参数非空判断
@@ -86,8 +142,181 @@ public class BookingController {
         try {
             // 通过JWT令牌获取登录用户
             User loginUser = userService.getLoginUser(request);
+            // 携带幂等键的重试请求直接返回首次成功的结果
+            // 排队中的结果重放时按排队凭证查询最新结果
+            return idempotencyService.execute("booking:confirm", loginUser.getId(),
+                    request.getHeader(IdempotencyService.HEADER_NAME),
+                    () -> doConfirmBooking(confirmDTO, loginUser),
+                    queued -> resolveQueuedBooking(queued, loginUser));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 执行确认预约
+     * 启用排队时按课程排队处理，快速响应窗口内未完成则返回排队凭证
+     *
+     * @param confirmDTO 确认预约信息
+     * @param loginUser  登录用户
+     * @return 预约结果
+     */
+    private Result<Object> doConfirmBooking(BookingConfirmDTO confirmDTO, User loginUser) {
+        if (!bookingAdmissionService.isEnabled()) {
             BookingVO bookingVO = bookingService.confirmBooking(confirmDTO, loginUser);
             return Result.success("预约成功", bookingVO);
+        }
+
+        AdmissionTicketVO ticketVO = bookingAdmissionService.submit(confirmDTO.getCourseId(), loginUser.getId(),
+                () -> bookingService.confirmBooking(confirmDTO, loginUser));
+        return toConfirmResult(ticketVO);
+    }
+
+    /**
+     * 按排队凭证查询排队中预约的最新结果（幂等重放使用）
+     *
+     * @param queued    保存的排队中结果
+     * @param loginUser 登录用户
+     * @return 最新结果，凭证无法识别时返回null
+     */
+    private Result<Object> resolveQueuedBooking(Result<Object> queued, User loginUser) {
+        if (!(queued.getData() instanceof AdmissionTicketVO)) {
+            return null;
+        }
+        AdmissionTicketVO queuedTicket = (AdmissionTicketVO) queued.getData();
+        return toConfirmResult(bookingAdmissionService.getTicket(queuedTicket.getTicketId(), loginUser.getId()));
+    }
+
+    /**
+     * 将排队凭证转换为确认预约结果
+     *
+     * @param ticketVO 排队凭证
+     * @return 预约成功、预约失败、排队超时或排队中结果
+     */
+    private Result<Object> toConfirmResult(AdmissionTicketVO ticketVO) {
+        if ("SUCCESS".equals(ticketVO.getStatus())) {
+            return Result.success("预约成功", ticketVO.getBooking());
+        }
+        if ("FAILED".equals(ticketVO.getStatus())) {
+            return Result.error(ticketVO.getMessage());
+        }
+        if ("TIMEOUT".equals(ticketVO.getStatus())) {
+            return Result.error(ResultCode.BOOKING_TIMEOUT);
+        }
+        return Result.success(ResultCode.BOOKING_QUEUED,
+                "已进入排队，当前第" + ticketVO.getPosition() + "位", ticketVO);
+    }
+
+    /**
+     * 手动执行预约自动完成任务（仅管理员）
+     * 将课程已结束的预约标记为已完成
+     *
+     * @return 运行报告
+     */
+    @ApiOperation("手动执行预约自动完成任务（仅管理员）")
+    @PostMapping("/completion/run")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<BookingCompletionReportVO> runBookingCompletion() {
+        try {
+            BookingCompletionReportVO report = bookingCompletionService.completeFinishedBookings("MANUAL");
+            return Result.success("执行完成", report);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 获取预约自动完成任务最近一次运行报告（仅管理员）
+     *
+     * @return 运行报告
+     */
+    @ApiOperation("获取预约自动完成任务运行报告（仅管理员）")
+    @GetMapping("/completion/report")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<BookingCompletionReportVO> getBookingCompletionReport() {
+        try {
+            BookingCompletionReportVO report = bookingCompletionService.getLastReport();
+            return Result.success("查询成功", report);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 手动执行预约归档任务（仅管理员）
+     * 将课程已结束或取消已久的预约移入归档表
+     *
+     * @return 运行报告
+     */
+    @ApiOperation("手动执行预约归档任务（仅管理员）")
+    @PostMapping("/archive/run")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<BookingArchiveReportVO> runBookingArchive() {
+        try {
+            BookingArchiveReportVO report = bookingArchiveService.archiveBookings("MANUAL");
+            return Result.success("执行完成", report);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 获取预约归档任务最近一次运行报告（仅管理员）
+     *
+     * @return 运行报告
+     */
+    @ApiOperation("获取预约归档任务运行报告（仅管理员）")
+    @GetMapping("/archive/report")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<BookingArchiveReportVO> getBookingArchiveReport() {
+        try {
+            BookingArchiveReportVO report = bookingArchiveService.getLastReport();
+            return Result.success("查询成功", report);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 查询预约排队结果
+     * 确认预约返回排队凭证后，客户端轮询此接口获取排队位置和最终结果
+     *
+     * @param ticketId 排队凭证ID
+     * @param request  请求对象（用于获取登录用户）
+     * @return 排队凭证
+     */
+    @ApiOperation("查询预约排队结果")
+    @GetMapping("/admission/{ticketId}")
+    @AuthCheck(mustRole = RoleConstant.MEMBER)
+    public Result<AdmissionTicketVO> getAdmissionTicket(
+            @ApiParam(value = "排队凭证ID", required = true) @PathVariable String ticketId,
+            HttpServletRequest request) {
+        // Controller层参数非空判断
+        if (ticketId == null || ticketId.trim().isEmpty()) {
+            return Result.error("排队凭证ID不能为空");
+        }
+        try {
+            // 通过JWT令牌获取登录用户
+            User loginUser = userService.getLoginUser(request);
+            AdmissionTicketVO ticketVO = bookingAdmissionService.getTicket(ticketId, loginUser.getId());
+            return Result.success("查询成功", ticketVO);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 获取预约排队监控指标（仅管理员）
+     *
+     * @return 各课程排队深度和等待时长
+     */
+    @ApiOperation("获取预约排队监控指标（仅管理员）")
+    @GetMapping("/admission/metrics")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<AdmissionMetricsVO> getAdmissionMetrics() {
+        try {
+            AdmissionMetricsVO metricsVO = bookingAdmissionService.getMetrics();
+            return Result.success("查询成功", metricsVO);
         } catch (Exception e) {
             return Result.error(e.getMessage());
         }
@@ -121,6 +350,61 @@ public class BookingController {
         }
     }
 
+    /**
+     * 团体预约
+     * 为多名会员（如同一家庭的孩子）一次性预约同一课程，全部可预约才生效
+     * 管理员可为任意会员预约；会员只能为本人和已关联到本人的家庭成员预约
+     *
+     * @param groupDTO 课程ID和会员ID列表
+     * @param request  HTTP请求
+     * @return 团体预约结果（含各会员的结果）
+     */
+    @ApiOperation("团体预约")
+    @PostMapping("/group")
+    @AuthCheck(anyRole = {RoleConstant.ADMIN, RoleConstant.MEMBER})
+    public Result<GroupBookingVO> groupBooking(@Valid @RequestBody BookingGroupDTO groupDTO,
+                                               HttpServletRequest request) {
+        // Controller层参数非空判断
+        if (groupDTO == null) {
+            return Result.error("团体预约信息不能为空");
+        }
+        try {
+            // 通过JWT令牌获取登录用户
+            User loginUser = userService.getLoginUser(request);
+            GroupBookingVO result = bookingService.groupBooking(groupDTO, loginUser);
+            if (!result.getSuccess()) {
+                return Result.error(result.getMessage(), result);
+            }
+            return Result.success(result.getMessage(), result);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 按课程批量取消预约
+     * 仅管理员可调用，用于教练请假等场景取消整门课程的预约
+     *
+     * @param batchCancelDTO 课程ID列表
+     * @return 操作结果
+     */
+    @ApiOperation("按课程批量取消预约（管理员）")
+    @PostMapping("/course-cancel")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<Map<String, Object>> cancelCourseBookings(
+            @Valid @RequestBody BookingBatchCancelDTO batchCancelDTO) {
+        // Controller层参数非空判断
+        if (batchCancelDTO == null) {
+            return Result.error("批量取消信息不能为空");
+        }
+        try {
+            Map<String, Object> result = bookingService.cancelCourseBookings(batchCancelDTO);
+            return Result.success("批量取消完成", result);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取我的预约记录
      * 会员可调用
@@ -172,6 +456,57 @@ public class BookingController {
         }
     }
 
+    /**
+     * 游标分页获取我的预约记录
+     * 不返回总数，使用返回的nextCursor获取下一页
+     *
+     * @param queryDTO 查询条件（cursor为上一页返回的游标）
+     * @param request  请求对象（用于获取登录用户）
+     * @return 预约游标分页列表
+     */
+    @ApiOperation("游标分页获取我的预约记录")
+    @GetMapping("/my/cursor")
+    @AuthCheck(mustRole = RoleConstant.MEMBER)
+    public Result<CursorPageVO<BookingVO>> getMyBookingsByCursor(
+            @Valid BookingQueryDTO queryDTO,
+            HttpServletRequest request) {
+        // Controller层参数非空判断
+        if (queryDTO == null) {
+            queryDTO = new BookingQueryDTO();
+        }
+        try {
+            // 通过JWT令牌获取登录用户
+            User loginUser = userService.getLoginUser(request);
+            CursorPageVO<BookingVO> bookingPage = bookingService.getMyBookingsByCursor(queryDTO, loginUser);
+            return Result.success("查询成功", bookingPage);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 游标分页获取所有预约记录（管理员）
+     * 不返回总数，使用返回的nextCursor获取下一页，翻页深度不影响查询耗时
+     *
+     * @param queryDTO 查询条件（cursor为上一页返回的游标）
+     * @return 预约游标分页列表
+     */
+    @ApiOperation("游标分页获取所有预约记录（管理员）")
+    @GetMapping("/cursor")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<CursorPageVO<BookingVO>> getAllBookingsByCursor(@Valid BookingQueryDTO queryDTO) {
+        // Controller层参数非空判断
+        if (queryDTO == null) {
+            queryDTO = new BookingQueryDTO();
+        }
+        try {
+            CursorPageVO<BookingVO> bookingPage = bookingService.getAllBookingsByCursor(queryDTO);
+            return Result.success("查询成功", bookingPage);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 获取指定课程的预约列表
      * 仅管理员可调用
@@ -224,4 +559,81 @@ public class BookingController {
             return Result.error(e.getMessage());
         }
     }
+
+    /**
+     * 加入课程候补名单
+     * 会员可调用，课程名额已满时排队，有人取消时自动转为预约
+     *
+     * @param addDTO  候补课程信息
+     * @param request 请求对象（用于获取登录用户）
+     * @return 候补信息（含排队位置）
+     */
+    @ApiOperation("加入课程候补名单")
+    @PostMapping("/waitlist")
+    @AuthCheck(mustRole = RoleConstant.MEMBER)
+    public Result<WaitlistVO> joinWaitlist(
+            @Valid @RequestBody BookingAddDTO addDTO,
+            HttpServletRequest request) {
+        // Controller层参数非空判断
+        if (addDTO == null) {
+            return Result.error("候补信息不能为空");
+        }
+        try {
+            // 通过JWT令牌获取登录用户
+            User loginUser = userService.getLoginUser(request);
+            WaitlistVO waitlistVO = bookingService.joinWaitlist(addDTO, loginUser);
+            return Result.success("已加入候补名单", waitlistVO);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 退出课程候补名单
+     * 会员可调用
+     *
+     * @param id      候补ID
+     * @param request 请求对象（用于获取登录用户）
+     * @return 是否退出成功
+     */
+    @ApiOperation("退出课程候补名单")
+    @DeleteMapping("/waitlist/{id}")
+    @AuthCheck(mustRole = RoleConstant.MEMBER)
+    public Result<Boolean> leaveWaitlist(
+            @ApiParam(value = "候补ID", required = true) @PathVariable Long id,
+            HttpServletRequest request) {
+        // Controller层参数非空判断
+        if (id == null || id <= 0) {
+            return Result.error("候补ID无效");
+        }
+        try {
+            // 通过JWT令牌获取登录用户
+            User loginUser = userService.getLoginUser(request);
+            boolean result = bookingService.leaveWaitlist(id, loginUser);
+            return Result.success("已退出候补名单", result);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 获取我的候补记录
+     * 会员可调用
+     *
+     * @param request 请求对象（用于获取登录用户）
+     * @return 候补列表
+     */
+    @ApiOperation("获取我的候补记录")
+    @GetMapping("/waitlist/my")
+    @AuthCheck(mustRole = RoleConstant.MEMBER)
+    public Result<List<WaitlistVO>> getMyWaitlist(HttpServletRequest request) {
+        try {
+            // 通过JWT令牌获取登录用户
+            User loginUser = userService.getLoginUser(request);
+            List<WaitlistVO> waitlist = bookingService.getMyWaitlist(loginUser);
+            return Result.success("查询成功", waitlist);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
 }
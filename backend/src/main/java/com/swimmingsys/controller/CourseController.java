@@ -6,17 +6,31 @@ import com.swimmingsys.common.RoleConstant;
 import com.swimmingsys.common.annotation.AuthCheck;
 import com.swimmingsys.model.dto.CourseAddDTO;
 import com.swimmingsys.model.dto.CourseQueryDTO;
+import com.swimmingsys.model.dto.CourseSeriesDTO;
 import com.swimmingsys.model.dto.CourseUpdateDTO;
+import com.swimmingsys.model.vo.CoachOverlapVO;
+import com.swimmingsys.model.vo.CourseSeriesVO;
 import com.swimmingsys.model.vo.CourseVO;
+import com.swimmingsys.model.vo.WeeklyTimetableVO;
+import com.swimmingsys.service.CoachScheduleService;
 import com.swimmingsys.service.CourseService;
+import com.swimmingsys.service.SeatEventService;
+import com.swimmingsys.service.TimetableService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
 import io.swagger.annotations.ApiParam;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.annotation.Resource;
 import javax.validation.Valid;
+import java.time.LocalDate;
+import java.util.List;
 
 /**
  * 课程控制器
@@ -31,6 +45,15 @@ public class CourseController {
     @Resource
     private CourseService courseService;
 
+    @Resource
+    private CoachScheduleService coachScheduleService;
+
+    @Resource
+    private SeatEventService seatEventService;
+
+    @Resource
+    private TimetableService timetableService;
+
     /**
      * 获取课程列表（分页/条件查询）
      * 管理员和会员可调用
@@ -54,6 +77,32 @@ public class CourseController {
         }
     }
 
+    /**
+     * 获取周课表
+     * 返回指定日期所在周（周一至周日）按天分组的课程，响应带ETag，课表未变化时返回304
+     *
+     * @param date        日期（为空时取本周）
+     * @param ifNoneMatch 客户端缓存的ETag
+     * @return 周课表
+     */
+    @ApiOperation("获取周课表")
+    @GetMapping("/timetable")
+    @AuthCheck(anyRole = {RoleConstant.ADMIN, RoleConstant.MEMBER, RoleConstant.NON_MEMBER})
+    public ResponseEntity<Result<WeeklyTimetableVO>> getWeeklyTimetable(
+            @ApiParam("日期（yyyy-MM-dd）") @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate date,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            WeeklyTimetableVO timetable = timetableService.getWeeklyTimetable(date);
+            String eTag = "\"" + timetable.getVersion() + "\"";
+            if (eTag.equals(ifNoneMatch)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(eTag).build();
+            }
+            return ResponseEntity.ok().eTag(eTag).body(Result.success("查询成功", timetable));
+        } catch (Exception e) {
+            return ResponseEntity.ok(Result.error(e.getMessage()));
+        }
+    }
+
     /**
      * 根据ID获取课程信息
      * 管理员和会员可调用
@@ -101,6 +150,77 @@ public class CourseController {
         }
     }
 
+    /**
+     * 周期排课
+     * 仅管理员可调用，按规则批量生成一个学期的系列课程
+     *
+     * @param seriesDTO 排课规则
+     * @return 排课结果
+     */
+    @ApiOperation("周期排课")
+    @PostMapping("/series")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<CourseSeriesVO> addCourseSeries(@Valid @RequestBody CourseSeriesDTO seriesDTO) {
+        // Controller层参数非空判断
+        if (seriesDTO == null) {
+            return Result.error("排课规则不能为空");
+        }
+        try {
+            CourseSeriesVO seriesVO = courseService.addCourseSeries(seriesDTO);
+            String message = "周期排课成功，新建" + seriesVO.getCreatedCount() + "节课程";
+            if (seriesVO.getDeletedSkippedCount() > 0) {
+                message += "，" + seriesVO.getDeletedSkippedCount() + "节课程此前已删除，未重新生成";
+            }
+            return Result.success(message, seriesVO);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 查询教练排课重叠
+     * 仅管理员可调用，列出同一教练时间重叠的所有未结束课程
+     *
+     * @return 重叠课程列表
+     */
+    @ApiOperation("查询教练排课重叠（管理员）")
+    @GetMapping("/coach-overlaps")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<List<CoachOverlapVO>> getCoachOverlaps() {
+        try {
+            List<CoachOverlapVO> overlaps = coachScheduleService.listOverlaps();
+            return Result.success("查询成功", overlaps);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 订阅课程剩余名额变化（Server-Sent Events）
+     * 连接建立后先推送当前剩余名额，之后名额变化时推送 seat 事件，数据为 课程ID -> 剩余名额
+     *
+     * @param courseIds 课程ID列表
+     * @return 事件流
+     */
+    @ApiOperation("订阅课程剩余名额变化")
+    @GetMapping(value = "/seats/stream", produces = "text/event-stream")
+    @AuthCheck(anyRole = {RoleConstant.ADMIN, RoleConstant.MEMBER, RoleConstant.NON_MEMBER})
+    public SseEmitter subscribeSeats(@ApiParam("课程ID列表") @RequestParam List<Long> courseIds) {
+        try {
+            return seatEventService.subscribe(courseIds);
+        } catch (Exception e) {
+            // 订阅失败时推送 error 事件后结束连接
+            SseEmitter emitter = new SseEmitter(0L);
+            try {
+                emitter.send(SseEmitter.event().name("error").data(e.getMessage()));
+                emitter.complete();
+            } catch (Exception ex) {
+                emitter.completeWithError(ex);
+            }
+            return emitter;
+        }
+    }
+
     /**
      * 更新课程信息
      * 仅管理员可调用
@@ -7,10 +7,16 @@ import com.swimmingsys.common.annotation.AuthCheck;
 import com.swimmingsys.model.dto.EntranceRecordQueryDTO;
 import com.swimmingsys.model.dto.EntranceVerifyDTO;
 import com.swimmingsys.model.entity.User;
+import com.swimmingsys.model.vo.CursorPageVO;
+import com.swimmingsys.model.vo.EntranceExitResultVO;
 import com.swimmingsys.model.vo.EntranceQrcodeVO;
 import com.swimmingsys.model.vo.EntranceRecordVO;
 import com.swimmingsys.model.vo.EntranceVerifyResultVO;
+import com.swimmingsys.model.vo.EntranceWriteMetricsVO;
+import com.swimmingsys.model.vo.OccupancyVO;
+import com.swimmingsys.service.EntranceRecordWriteService;
 import com.swimmingsys.service.EntranceService;
+import com.swimmingsys.service.IdempotencyService;
 import com.swimmingsys.service.UserService;
 import io.swagger.annotations.Api;
 import io.swagger.annotations.ApiOperation;
@@ -38,6 +44,12 @@ public class EntranceController {
     @Resource
     private UserService userService;
 
+    @Resource
+    private IdempotencyService idempotencyService;
+
+    @Resource
+    private EntranceRecordWriteService entranceRecordWriteService;
+
     /**
      * 生成入场二维码
      * 会员手动点击生成，包含用户信息和可选的课程预约信息
@@ -80,8 +92,74 @@ public class EntranceController {
         try {
             // 通过JWT令牌获取登录用户（验证人）
             User verifier = userService.getLoginUser(request);
-            EntranceVerifyResultVO resultVO = entranceService.verifyEntrance(verifyDTO, verifier);
-            return Result.success("验证成功，允许入场", resultVO);
+            // 扫码设备超时重试时携带相同幂等键，直接返回首次验证结果
+            return idempotencyService.execute("entrance:verify", verifier.getId(),
+                    request.getHeader(IdempotencyService.HEADER_NAME),
+                    () -> Result.success("验证成功，允许入场", entranceService.verifyEntrance(verifyDTO, verifier)));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 扫码离场
+     * 会员离场时出示入场码，管理员扫码后在馆人数减一
+     *
+     * @param verifyDTO 验证请求（包含二维码令牌）
+     * @param request   请求对象（用于获取登录用户）
+     * @return 离场结果
+     */
+    @ApiOperation("扫码离场")
+    @PostMapping("/exit")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<EntranceExitResultVO> exitEntrance(
+            @Valid @RequestBody EntranceVerifyDTO verifyDTO,
+            HttpServletRequest request) {
+        // Controller层参数非空判断
+        if (verifyDTO == null) {
+            return Result.error("验证信息不能为空");
+        }
+        try {
+            User verifier = userService.getLoginUser(request);
+            // 扫码设备超时重试时携带相同幂等键，直接返回首次离场结果
+            return idempotencyService.execute("entrance:exit", verifier.getId(),
+                    request.getHeader(IdempotencyService.HEADER_NAME),
+                    () -> Result.success("离场成功", entranceService.exitEntrance(verifyDTO, verifier)));
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 获取当前在馆人数（仅管理员）
+     * 包括容纳上限、剩余可入场人数和最近一段时间的每分钟人数
+     *
+     * @return 在馆人数信息
+     */
+    @ApiOperation("获取在馆人数（管理员）")
+    @GetMapping("/occupancy")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<OccupancyVO> getOccupancy() {
+        try {
+            return Result.success("查询成功", entranceService.getOccupancy());
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 清空在馆会员（仅管理员）
+     * 人工核对场馆内人数后使用，清空后重新按扫码统计
+     *
+     * @return 操作结果
+     */
+    @ApiOperation("清空在馆人数（管理员）")
+    @PostMapping("/occupancy/reset")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<Boolean> resetOccupancy() {
+        try {
+            entranceService.resetOccupancy();
+            return Result.success("已清空在馆人数", true);
         } catch (Exception e) {
             return Result.error(e.getMessage());
         }
@@ -138,6 +216,57 @@ public class EntranceController {
         }
     }
 
+    /**
+     * 游标分页获取我的入场记录
+     * 不返回总数，使用返回的nextCursor获取下一页
+     *
+     * @param queryDTO 查询条件（游标、时间范围）
+     * @param request  请求对象（用于获取登录用户）
+     * @return 入场记录游标分页列表
+     */
+    @ApiOperation("游标分页获取我的入场记录")
+    @GetMapping("/my/cursor")
+    @AuthCheck(mustRole = RoleConstant.MEMBER)
+    public Result<CursorPageVO<EntranceRecordVO>> getMyRecordsByCursor(
+            @Valid EntranceRecordQueryDTO queryDTO,
+            HttpServletRequest request) {
+        // Controller层参数非空判断
+        if (queryDTO == null) {
+            queryDTO = new EntranceRecordQueryDTO();
+        }
+        try {
+            // 通过JWT令牌获取登录用户
+            User loginUser = userService.getLoginUser(request);
+            CursorPageVO<EntranceRecordVO> recordPage = entranceService.getMyEntranceRecordsByCursor(queryDTO, loginUser);
+            return Result.success("查询成功", recordPage);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
+    /**
+     * 游标分页获取所有入场记录（管理员）
+     * 不返回总数，使用返回的nextCursor获取下一页，翻页深度不影响查询耗时
+     *
+     * @param queryDTO 查询条件（游标、用户ID、时间范围）
+     * @return 入场记录游标分页列表
+     */
+    @ApiOperation("游标分页获取所有入场记录（管理员）")
+    @GetMapping("/cursor")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<CursorPageVO<EntranceRecordVO>> getAllRecordsByCursor(@Valid EntranceRecordQueryDTO queryDTO) {
+        // Controller层参数非空判断
+        if (queryDTO == null) {
+            queryDTO = new EntranceRecordQueryDTO();
+        }
+        try {
+            CursorPageVO<EntranceRecordVO> recordPage = entranceService.getAllEntranceRecordsByCursor(queryDTO);
+            return Result.success("查询成功", recordPage);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 根据ID获取入场记录详情
      * 管理员和会员可查看入场记录详情
@@ -185,4 +314,21 @@ public class EntranceController {
             return Result.error(e.getMessage());
         }
     }
+
+    /**
+     * 获取入场记录异步写入指标（仅管理员）
+     * 包括待写入记录数、写入延迟、累计写入数和最近一次写入情况
+     *
+     * @return 写入指标
+     */
+    @ApiOperation("获取入场记录写入指标（管理员）")
+    @GetMapping("/write-behind/metrics")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<EntranceWriteMetricsVO> getWriteMetrics() {
+        try {
+            return Result.success("查询成功", entranceRecordWriteService.getMetrics());
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
 }
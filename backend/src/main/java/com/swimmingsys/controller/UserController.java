@@ -11,6 +11,7 @@ import com.swimmingsys.model.dto.UserQueryDTO;
 import com.swimmingsys.model.dto.UserRegisterDTO;
 import com.swimmingsys.model.dto.UserUpdateDTO;
 import com.swimmingsys.model.entity.User;
+import com.swimmingsys.model.vo.CursorPageVO;
 import com.swimmingsys.model.vo.UserVO;
 import com.swimmingsys.service.UserService;
 import io.swagger.annotations.Api;
@@ -122,6 +123,29 @@ public class UserController {
         }
     }
 
+    /**
+     * 游标分页获取用户列表
+     * 仅管理员可调用，不返回总数，使用返回的nextCursor获取下一页
+     *
+     * @param queryDTO 查询条件（cursor为上一页返回的游标）
+     * @return 用户游标分页列表
+     */
+    @ApiOperation("游标分页获取用户列表")
+    @GetMapping("/cursor")
+    @AuthCheck(mustRole = RoleConstant.ADMIN)
+    public Result<CursorPageVO<UserVO>> getUserListByCursor(@Valid UserQueryDTO queryDTO) {
+        // Controller层参数非空判断
+        if (queryDTO == null) {
+            queryDTO = new UserQueryDTO();
+        }
+        try {
+            CursorPageVO<UserVO> userPage = userService.getUserListByCursor(queryDTO);
+            return Result.success("查询成功", userPage);
+        } catch (Exception e) {
+            return Result.error(e.getMessage());
+        }
+    }
+
     /**
      * 根据ID获取用户信息
      * 管理员可查看所有用户，普通用户只能查看自己
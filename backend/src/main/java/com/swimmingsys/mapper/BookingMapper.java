@@ -1,12 +1,244 @@
 package com.swimmingsys.mapper;
 
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.core.toolkit.Constants;
 import com.swimmingsys.model.entity.Booking;
+import com.swimmingsys.model.vo.EntranceQrcodeVO;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Options;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 预约数据访问层
  */
 @Mapper
 public interface BookingMapper extends BaseMapper<Booking> {
+
+    /**
+     * 预约表与归档表共有的字段
+     */
+    String BOOKING_COLUMNS = "id, user_id, course_id, booking_time, status, cancel_time, is_delete, created_time, updated_time";
+
+    /**
+     * 查询用户在指定时间段内时间冲突的预约
+     * 冲突条件：课程开始时间 < 目标结束时间 且 课程结束时间 > 目标开始时间
+     *
+     * @param userId    用户ID
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     * @return 最早开始的冲突预约，没有冲突返回null
+     */
+    @Select("SELECT b.* FROM booking b " +
+            "INNER JOIN course c ON c.id = b.course_id " +
+            "WHERE b.user_id = #{userId} AND b.status = 1 AND b.is_delete = 0 " +
+            "AND c.is_delete = 0 " +
+            "AND c.start_time < #{endTime} AND c.end_time > #{startTime} " +
+            "ORDER BY c.start_time ASC, b.id ASC " +
+            "LIMIT 1")
+    Booking selectConflictBooking(@Param("userId") Long userId,
+                                  @Param("startTime") LocalDateTime startTime,
+                                  @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 批量查询多名用户在指定时间段内时间冲突的预约（团体预约使用）
+     *
+     * @param userIds   用户ID列表
+     * @param startTime 开始时间
+     * @param endTime   结束时间
+     * @return 冲突的预约列表，按课程开始时间升序
+     */
+    @Select("<script>" +
+            "SELECT b.* FROM booking b " +
+            "INNER JOIN course c ON c.id = b.course_id " +
+            "WHERE b.user_id IN <foreach collection='userIds' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND b.status = 1 AND b.is_delete = 0 " +
+            "AND c.is_delete = 0 " +
+            "AND c.start_time &lt; #{endTime} AND c.end_time &gt; #{startTime} " +
+            "ORDER BY c.start_time ASC, b.id ASC" +
+            "</script>")
+    List<Booking> selectConflictBookings(@Param("userIds") Collection<Long> userIds,
+                                         @Param("startTime") LocalDateTime startTime,
+                                         @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 查询会员在指定时间段内最早开始的有效预约课程（生成入场码时附加课程信息）
+     * 时间段内的课程数与会员历史预约数无关，按课程开始时间索引筛选后用 idx_user_course 关联预约
+     *
+     * @param userId 用户ID
+     * @param from   开始时间（不含）
+     * @param to     截止时间（不含）
+     * @return 预约课程信息（预约ID、课程名称、开始时间、教练姓名），没有返回null
+     */
+    @Select("SELECT b.id AS booking_id, c.course_name, c.start_time, co.name AS coach_name " +
+            "FROM course c " +
+            "INNER JOIN booking b ON b.course_id = c.id AND b.user_id = #{userId} AND b.status = 1 AND b.is_delete = 0 " +
+            "LEFT JOIN coach co ON co.id = c.coach_id " +
+            "WHERE c.start_time > #{from} AND c.start_time < #{to} AND c.is_delete = 0 " +
+            "ORDER BY c.start_time ASC, b.id ASC " +
+            "LIMIT 1")
+    EntranceQrcodeVO.CourseBookingInfo selectUpcomingBookingInfo(@Param("userId") Long userId,
+                                                                 @Param("from") LocalDateTime from,
+                                                                 @Param("to") LocalDateTime to);
+
+    /**
+     * 按预约ID查询有效预约的课程信息（签名入场码显示信息丢失时使用）
+     *
+     * @param bookingId 预约ID
+     * @param userId    用户ID（预约必须属于该会员）
+     * @return 预约课程信息（预约ID、课程名称、开始时间、教练姓名），预约无效返回null
+     */
+    @Select("SELECT b.id AS booking_id, c.course_name, c.start_time, co.name AS coach_name " +
+            "FROM booking b " +
+            "INNER JOIN course c ON c.id = b.course_id " +
+            "LEFT JOIN coach co ON co.id = c.coach_id " +
+            "WHERE b.id = #{bookingId} AND b.user_id = #{userId} AND b.status = 1 AND b.is_delete = 0")
+    EntranceQrcodeVO.CourseBookingInfo selectBookingInfoById(@Param("bookingId") Long bookingId,
+                                                             @Param("userId") Long userId);
+
+    /**
+     * 批量插入预约记录（一条多值INSERT），插入后回填预约ID
+     *
+     * @param bookings 预约记录列表
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO booking (user_id, course_id, booking_time, status) VALUES " +
+            "<foreach collection='bookings' item='b' separator=','>" +
+            "(#{b.userId}, #{b.courseId}, #{b.bookingTime}, #{b.status})" +
+            "</foreach>" +
+            "</script>")
+    @Options(useGeneratedKeys = true, keyProperty = "id")
+    int insertBatch(@Param("bookings") List<Booking> bookings);
+
+    /**
+     * 按主键游标查询下一批待完成的预约ID（课程已结束但仍为已预约状态）
+     *
+     * @param lastId 上一批最大预约ID
+     * @param cutoff 课程结束时间截止点
+     * @param limit  批次大小
+     * @return 预约ID列表（升序）
+     */
+    @Select("SELECT b.id FROM booking b " +
+            "INNER JOIN course c ON c.id = b.course_id " +
+            "WHERE b.id > #{lastId} AND b.status = 1 AND b.is_delete = 0 " +
+            "AND c.end_time < #{cutoff} " +
+            "ORDER BY b.id ASC " +
+            "LIMIT #{limit}")
+    List<Long> selectCompletableIds(@Param("lastId") Long lastId,
+                                    @Param("cutoff") LocalDateTime cutoff,
+                                    @Param("limit") int limit);
+
+    /**
+     * 将主键区间内课程已结束的预约批量标记为已完成
+     * 区间由 selectCompletableIds 确定，单条语句只锁定一个批次的行
+     *
+     * @param fromId 区间起点（不含）
+     * @param toId   区间终点（含）
+     * @param cutoff 课程结束时间截止点
+     * @return 影响行数
+     */
+    @Update("UPDATE booking b " +
+            "INNER JOIN course c ON c.id = b.course_id " +
+            "SET b.status = 2 " +
+            "WHERE b.id > #{fromId} AND b.id <= #{toId} AND b.status = 1 AND b.is_delete = 0 " +
+            "AND c.end_time < #{cutoff}")
+    int completeFinishedInRange(@Param("fromId") Long fromId,
+                                @Param("toId") Long toId,
+                                @Param("cutoff") LocalDateTime cutoff);
+
+    /**
+     * 按主键游标查询下一批可归档的预约ID
+     * 可归档条件：非有效预约（已取消、已完成或已删除），且课程在截止点前已结束或在截止点前已取消
+     *
+     * @param lastId 上一批最大预约ID
+     * @param cutoff 归档截止点
+     * @param limit  批次大小
+     * @return 预约ID列表（升序）
+     */
+    @Select("SELECT b.id FROM booking b " +
+            "INNER JOIN course c ON c.id = b.course_id " +
+            "WHERE b.id > #{lastId} AND (b.status <> 1 OR b.is_delete = 1) " +
+            "AND (c.end_time < #{cutoff} OR b.cancel_time < #{cutoff}) " +
+            "ORDER BY b.id ASC " +
+            "LIMIT #{limit}")
+    List<Long> selectArchivableIds(@Param("lastId") Long lastId,
+                                   @Param("cutoff") LocalDateTime cutoff,
+                                   @Param("limit") int limit);
+
+    /**
+     * 将一批预约复制到归档表
+     *
+     * @param ids          预约ID列表
+     * @param archivedTime 归档时间
+     * @return 影响行数
+     */
+    @Insert("<script>" +
+            "INSERT INTO booking_archive (" + BOOKING_COLUMNS + ", archived_time) " +
+            "SELECT " + BOOKING_COLUMNS + ", #{archivedTime} FROM booking " +
+            "WHERE id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int copyToArchive(@Param("ids") List<Long> ids, @Param("archivedTime") LocalDateTime archivedTime);
+
+    /**
+     * 物理删除已复制到归档表的预约
+     * 与归档表关联删除，只删除确实已归档的行
+     *
+     * @param ids 预约ID列表
+     * @return 影响行数
+     */
+    @Delete("<script>" +
+            "DELETE b FROM booking b INNER JOIN booking_archive a ON a.id = b.id " +
+            "WHERE b.id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int deleteArchived(@Param("ids") List<Long> ids);
+
+    /**
+     * 查询预约列表（包含归档表），按预约时间、ID倒序
+     * 查询条件和排序分别作用在预约表和归档表两个分支内，每个分支最多取 offset + size 条再合并，
+     * 合并结果只有两个分支截取后的行，不会把两张表整表复制到临时表
+     *
+     * @param wrapper 查询条件（需按 booking_time、id 倒序，不含LIMIT）
+     * @param offset  跳过条数
+     * @param size    返回条数
+     * @return 预约列表
+     */
+    @Select("<script>" +
+            "<bind name='branchLimit' value='offset + size'/>" +
+            "SELECT * FROM (" +
+            "(SELECT " + BOOKING_COLUMNS + " FROM booking ${ew.customSqlSegment} LIMIT #{branchLimit}) " +
+            "UNION ALL " +
+            "(SELECT " + BOOKING_COLUMNS + " FROM booking_archive ${ew.customSqlSegment} LIMIT #{branchLimit})" +
+            ") b ORDER BY booking_time DESC, id DESC LIMIT #{size} OFFSET #{offset}" +
+            "</script>")
+    List<Booking> selectListWithArchive(@Param(Constants.WRAPPER) Wrapper<Booking> wrapper,
+                                        @Param("offset") long offset,
+                                        @Param("size") long size);
+
+    /**
+     * 统计归档表中满足条件的预约数（包含归档表的分页查询与预约表计数相加得到总数）
+     *
+     * @param wrapper 查询条件
+     * @return 预约数
+     */
+    @Select("SELECT COUNT(*) FROM booking_archive ${ew.customSqlSegment}")
+    Long selectArchiveCount(@Param(Constants.WRAPPER) Wrapper<Booking> wrapper);
+
+    /**
+     * 根据ID查询已归档的预约
+     *
+     * @param id 预约ID
+     * @return 预约记录，不存在返回null
+     */
+    @Select("SELECT " + BOOKING_COLUMNS + " FROM booking_archive WHERE id = #{id}")
+    Booking selectArchivedById(@Param("id") Long id);
 }
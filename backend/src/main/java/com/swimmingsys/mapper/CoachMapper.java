@@ -3,10 +3,22 @@ package com.swimmingsys.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.swimmingsys.model.entity.Coach;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
 
 /**
  * 教练数据访问层
  */
 @Mapper
 public interface CoachMapper extends BaseMapper<Coach> {
+
+    /**
+     * 查询教练并锁定教练行（需在事务中调用）
+     * 新增或调整同一教练的课程时串行执行，防止多个节点同时通过时间冲突校验
+     *
+     * @param id 教练ID
+     * @return 教练信息
+     */
+    @Select("SELECT * FROM coach WHERE id = #{id} FOR UPDATE")
+    Coach selectByIdForUpdate(@Param("id") Long id);
 }
@@ -3,10 +3,125 @@ package com.swimmingsys.mapper;
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.swimmingsys.model.entity.Course;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 课程数据访问层
  */
 @Mapper
 public interface CourseMapper extends BaseMapper<Course> {
+
+    /**
+     * 查询系列已生成的课程开始时间（包含已删除的课程）
+     * uk_series_start 唯一索引同样约束已删除的课程，不能使用自动追加 is_delete = 0 的通用查询
+     *
+     * @param seriesKey 系列标识
+     * @return 课程列表（仅 start_time、is_delete）
+     */
+    @Select("SELECT start_time, is_delete FROM course WHERE series_key = #{seriesKey}")
+    List<Course> selectSeriesStartTimes(@Param("seriesKey") String seriesKey);
+
+    /**
+     * 查询教练在指定时间段内最早开始的冲突课程（走 idx_coach_start_time 索引）
+     * 使用 FOR UPDATE 当前读，需在锁定教练行的事务中调用，可读到上一个持锁事务已提交的课程
+     *
+     * @param coachId         教练ID
+     * @param startTime       开始时间
+     * @param endTime         结束时间
+     * @param excludeCourseId 排除的课程ID（修改课程时为自身），可为null
+     * @return 冲突课程，无冲突返回null
+     */
+    @Select("<script>" +
+            "SELECT id, course_name, coach_id, start_time, end_time FROM course " +
+            "WHERE coach_id = #{coachId} AND is_delete = 0 " +
+            "AND start_time &lt; #{endTime} AND end_time &gt; #{startTime} " +
+            "<if test='excludeCourseId != null'>AND id &lt;&gt; #{excludeCourseId} </if>" +
+            "ORDER BY start_time LIMIT 1 FOR UPDATE" +
+            "</script>")
+    Course selectCoachConflict(@Param("coachId") Long coachId, @Param("startTime") LocalDateTime startTime,
+                               @Param("endTime") LocalDateTime endTime, @Param("excludeCourseId") Long excludeCourseId);
+
+    /**
+     * 查询教练在指定时间范围内的全部课程（周期排课一次性校验整个系列，走 idx_coach_start_time 索引）
+     * 使用 FOR UPDATE 当前读，需在锁定教练行的事务中调用
+     *
+     * @param coachId   教练ID
+     * @param startTime 范围开始时间
+     * @param endTime   范围结束时间
+     * @return 课程列表，按开始时间排序
+     */
+    @Select("SELECT id, course_name, coach_id, start_time, end_time FROM course " +
+            "WHERE coach_id = #{coachId} AND is_delete = 0 " +
+            "AND start_time < #{endTime} AND end_time > #{startTime} " +
+            "ORDER BY start_time FOR UPDATE")
+    List<Course> selectCoachCourses(@Param("coachId") Long coachId, @Param("startTime") LocalDateTime startTime,
+                                    @Param("endTime") LocalDateTime endTime);
+
+    /**
+     * 已预约人数加一（Redis库存模式下同步数据库）
+     * 以容量作为兜底条件防止超卖，同时递增版本号使并发的乐观锁更新失效
+     *
+     * @param courseId 课程ID
+     * @return 影响行数
+     */
+    @Update("UPDATE course SET current_count = current_count + 1, version = version + 1 " +
+            "WHERE id = #{courseId} AND is_delete = 0 AND current_count < capacity")
+    int incrementCurrentCount(@Param("courseId") Long courseId);
+
+    /**
+     * 条件占用一个名额（条件更新模式）
+     * 单条语句同时校验课程上架、未开始和名额未满，无需先查询再按版本号更新
+     *
+     * @param courseId 课程ID
+     * @param now      当前时间
+     * @return 影响行数，0表示课程不可预约或名额已满
+     */
+    @Update("UPDATE course SET current_count = current_count + 1, version = version + 1 " +
+            "WHERE id = #{courseId} AND is_delete = 0 AND status = 1 " +
+            "AND current_count < capacity AND start_time > #{now}")
+    int occupySeat(@Param("courseId") Long courseId, @Param("now") LocalDateTime now);
+
+    /**
+     * 条件占用多个名额（团体预约）
+     * 剩余名额不足时不更新，保证多个名额要么全部占用要么都不占用
+     *
+     * @param courseId 课程ID
+     * @param count    占用名额数
+     * @param now      当前时间
+     * @return 影响行数，0表示课程不可预约或剩余名额不足
+     */
+    @Update("UPDATE course SET current_count = current_count + #{count}, version = version + 1 " +
+            "WHERE id = #{courseId} AND is_delete = 0 AND status = 1 " +
+            "AND current_count + #{count} <= capacity AND start_time > #{now}")
+    int occupySeats(@Param("courseId") Long courseId, @Param("count") int count, @Param("now") LocalDateTime now);
+
+    /**
+     * 已预约人数减一（Redis库存模式和条件更新模式下释放名额）
+     *
+     * @param courseId 课程ID
+     * @return 影响行数
+     */
+    @Update("UPDATE course SET current_count = current_count - 1, version = version + 1 " +
+            "WHERE id = #{courseId} AND is_delete = 0 AND current_count > 0")
+    int decrementCurrentCount(@Param("courseId") Long courseId);
+
+    /**
+     * 按有效预约数重新计算课程已预约人数（批量取消预约后使用）
+     *
+     * @param courseIds 课程ID列表
+     * @return 影响行数
+     */
+    @Update("<script>" +
+            "UPDATE course c SET c.current_count = (" +
+            "SELECT COUNT(*) FROM booking b WHERE b.course_id = c.id AND b.status = 1 AND b.is_delete = 0" +
+            "), c.version = c.version + 1 " +
+            "WHERE c.id IN <foreach collection='courseIds' item='id' open='(' separator=',' close=')'>#{id}</foreach>" +
+            "</script>")
+    int recountCurrentCount(@Param("courseIds") Collection<Long> courseIds);
 }
@@ -0,0 +1,36 @@
+package com.swimmingsys.mapper;
+
+import com.baomidou.mybatisplus.core.mapper.BaseMapper;
+import com.swimmingsys.model.entity.CourseWaitlist;
+import com.swimmingsys.model.vo.WaitlistVO;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 课程候补数据访问层
+ */
+@Mapper
+public interface CourseWaitlistMapper extends BaseMapper<CourseWaitlist> {
+
+    /**
+     * 批量查询候补记录的排队位置：同一课程中排在该记录之前（含自身）的候补中记录数
+     * 一条分组查询代替逐条计数，每条记录的计数走 idx_course_status_id 范围扫描
+     *
+     * @param ids    候补ID集合（应为候补中的记录）
+     * @param status 候补中状态值
+     * @return 候补ID和排队位置（只填充 id、position）
+     */
+    @Select("<script>" +
+            "SELECT w.id AS id, COUNT(*) AS position " +
+            "FROM course_waitlist w " +
+            "JOIN course_waitlist a ON a.course_id = w.course_id AND a.status = #{status} " +
+            "AND a.is_delete = 0 AND a.id &lt;= w.id " +
+            "WHERE w.id IN <foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "GROUP BY w.id" +
+            "</script>")
+    List<WaitlistVO> selectPositions(@Param("ids") Collection<Long> ids, @Param("status") int status);
+}
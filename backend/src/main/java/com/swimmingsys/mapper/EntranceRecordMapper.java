@@ -2,11 +2,35 @@ package com.swimmingsys.mapper;
 
 import com.baomidou.mybatisplus.core.mapper.BaseMapper;
 import com.swimmingsys.model.entity.EntranceRecord;
+import org.apache.ibatis.annotations.Insert;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 /**
  * 入场记录Mapper接口
  */
 @Mapper
 public interface EntranceRecordMapper extends BaseMapper<EntranceRecord> {
+
+    /**
+     * 批量插入入场记录（一条多值INSERT）
+     * 与 uk_qrcode_token 唯一索引冲突的记录不更新任何字段，重放本地日志时不会重复插入；
+     * 不使用 INSERT IGNORE：MySQL 会把超长、非空等数据错误降级为警告并写入截断值或默认值，
+     * 这类错误需要抛出，由写入服务移入死信目录
+     *
+     * @param records 入场记录列表
+     * @return 影响行数（已存在的记录计为0）
+     */
+    @Insert("<script>" +
+            "INSERT INTO entrance_record " +
+            "(user_id, user_name, qrcode_token, entrance_time, verifier_id, verifier_name, booking_id, course_name) VALUES " +
+            "<foreach collection='records' item='r' separator=','>" +
+            "(#{r.userId}, #{r.userName}, #{r.qrcodeToken}, #{r.entranceTime}, #{r.verifierId}, #{r.verifierName}, " +
+            "#{r.bookingId}, #{r.courseName})" +
+            "</foreach> " +
+            "ON DUPLICATE KEY UPDATE id = id" +
+            "</script>")
+    int insertBatchSkipExisting(@Param("records") List<EntranceRecord> records);
 }
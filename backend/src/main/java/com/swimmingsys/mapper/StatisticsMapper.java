@@ -84,7 +84,7 @@ public interface StatisticsMapper {
     List<TrendDataVO> getMemberTrendByMonth(@Param("months") Integer months);
 
     /**
-     * 获取预约统计（按状态）
+     * 获取预约统计（按状态，包含已归档的预约）
      * 
      * @return 包含各状态预约数的Map
      */
@@ -93,12 +93,12 @@ public interface StatisticsMapper {
             "SUM(CASE WHEN status = 1 THEN 1 ELSE 0 END) as activeBookings, " +
             "SUM(CASE WHEN status = 2 THEN 1 ELSE 0 END) as completedBookings, " +
             "SUM(CASE WHEN status = 0 THEN 1 ELSE 0 END) as cancelledBookings " +
-            "FROM booking " +
-            "WHERE is_delete = 0")
+            "FROM (SELECT status FROM booking WHERE is_delete = 0 " +
+            "UNION ALL SELECT status FROM booking_archive WHERE is_delete = 0) b")
     Map<String, Object> getBookingStats();
 
     /**
-     * 获取热门课程排行
+     * 获取热门课程排行（预约数包含已归档的预约）
      * 
      * @param limit 返回条数
      * @return 热门课程列表
@@ -107,13 +107,15 @@ public interface StatisticsMapper {
             "c.id as courseId, " +
             "c.course_name as courseName, " +
             "c.course_type as courseType, " +
-            "COUNT(b.id) as bookingCount, " +
+            "COALESCE(b.booking_count, 0) as bookingCount, " +
             "c.capacity, " +
             "c.current_count as currentCount " +
             "FROM course c " +
-            "LEFT JOIN booking b ON c.id = b.course_id AND b.is_delete = 0 " +
+            "LEFT JOIN (SELECT course_id, COUNT(*) as booking_count FROM (" +
+            "SELECT course_id FROM booking WHERE is_delete = 0 " +
+            "UNION ALL SELECT course_id FROM booking_archive WHERE is_delete = 0) u " +
+            "GROUP BY course_id) b ON b.course_id = c.id " +
             "WHERE c.is_delete = 0 " +
-            "GROUP BY c.id, c.course_name, c.course_type, c.capacity, c.current_count " +
             "ORDER BY bookingCount DESC " +
             "LIMIT #{limit}")
     List<HotCourseVO> getHotCourses(@Param("limit") Integer limit);
@@ -121,18 +123,28 @@ public interface StatisticsMapper {
     /**
      * 获取预约趋势（按天）
      * 
-     * @param days 天数
+     * @param days           天数
+     * @param includeArchive 统计范围是否早于归档保留期（是则合并已归档的预约）
      * @return 趋势数据列表
      */
-    @Select("SELECT " +
+    @Select("<script>" +
+            "SELECT " +
             "DATE(booking_time) as period, " +
             "COUNT(*) as count " +
-            "FROM booking " +
+            "FROM (SELECT booking_time FROM booking " +
+            "WHERE is_delete = 0 AND status IN (1, 2) " +
+            "AND booking_time &gt;= DATE_SUB(NOW(), INTERVAL #{days} DAY) " +
+            "<if test='includeArchive'>" +
+            "UNION ALL SELECT booking_time FROM booking_archive " +
             "WHERE is_delete = 0 AND status IN (1, 2) " +
-            "AND booking_time >= DATE_SUB(NOW(), INTERVAL #{days} DAY) " +
+            "AND booking_time &gt;= DATE_SUB(NOW(), INTERVAL #{days} DAY) " +
+            "</if>" +
+            ") b " +
             "GROUP BY DATE(booking_time) " +
-            "ORDER BY period ASC")
-    List<TrendDataVO> getBookingTrendByDay(@Param("days") Integer days);
+            "ORDER BY period ASC" +
+            "</script>")
+    List<TrendDataVO> getBookingTrendByDay(@Param("days") Integer days,
+                                           @Param("includeArchive") boolean includeArchive);
 
     /**
      * 获取入场统计
@@ -205,23 +217,42 @@ public interface StatisticsMapper {
     /**
      * 获取本月预约数
      * 
+     * @param includeArchive 本月是否早于归档保留期（是则合并已归档的预约）
      * @return 本月预约数
      */
-    @Select("SELECT COUNT(*) FROM booking " +
+    @Select("<script>" +
+            "SELECT " +
+            "(SELECT COUNT(*) FROM booking " +
+            "WHERE is_delete = 0 AND status IN (1, 2) " +
+            "AND booking_time &gt;= DATE_FORMAT(NOW(), '%Y-%m-01 00:00:00'))" +
+            "<if test='includeArchive'>" +
+            " + (SELECT COUNT(*) FROM booking_archive " +
             "WHERE is_delete = 0 AND status IN (1, 2) " +
-            "AND booking_time >= DATE_FORMAT(NOW(), '%Y-%m-01 00:00:00')")
-    Long getMonthBookingCount();
+            "AND booking_time &gt;= DATE_FORMAT(NOW(), '%Y-%m-01 00:00:00'))" +
+            "</if>" +
+            "</script>")
+    Long getMonthBookingCount(@Param("includeArchive") boolean includeArchive);
 
     /**
      * 获取上月预约数
      * 
+     * @param includeArchive 上月是否早于归档保留期（是则合并已归档的预约）
      * @return 上月预约数
      */
-    @Select("SELECT COUNT(*) FROM booking " +
+    @Select("<script>" +
+            "SELECT " +
+            "(SELECT COUNT(*) FROM booking " +
+            "WHERE is_delete = 0 AND status IN (1, 2) " +
+            "AND booking_time &gt;= DATE_FORMAT(DATE_SUB(NOW(), INTERVAL 1 MONTH), '%Y-%m-01 00:00:00') " +
+            "AND booking_time &lt; DATE_FORMAT(NOW(), '%Y-%m-01 00:00:00'))" +
+            "<if test='includeArchive'>" +
+            " + (SELECT COUNT(*) FROM booking_archive " +
             "WHERE is_delete = 0 AND status IN (1, 2) " +
-            "AND booking_time >= DATE_FORMAT(DATE_SUB(NOW(), INTERVAL 1 MONTH), '%Y-%m-01 00:00:00') " +
-            "AND booking_time < DATE_FORMAT(NOW(), '%Y-%m-01 00:00:00')")
-    Long getLastMonthBookingCount();
+            "AND booking_time &gt;= DATE_FORMAT(DATE_SUB(NOW(), INTERVAL 1 MONTH), '%Y-%m-01 00:00:00') " +
+            "AND booking_time &lt; DATE_FORMAT(NOW(), '%Y-%m-01 00:00:00'))" +
+            "</if>" +
+            "</script>")
+    Long getLastMonthBookingCount(@Param("includeArchive") boolean includeArchive);
 
     /**
      * 获取昨日入场数
@@ -0,0 +1,30 @@
+package com.swimmingsys.model.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.Size;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 按课程批量取消预约DTO
+ */
+@Data
+public class BookingBatchCancelDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 课程ID列表
+     */
+    @NotEmpty(message = "课程ID列表不能为空")
+    @Size(max = 100, message = "单次最多取消100门课程的预约")
+    private List<Long> courseIds;
+
+    /**
+     * 是否同时取消课程（教练请假等情况）：为true时课程下架，候补名单一并失效；
+     * 为false时只取消预约，课程保持原状态，释放的名额按加入顺序转给候补会员
+     */
+    private Boolean cancelCourse;
+}
@@ -0,0 +1,32 @@
+package com.swimmingsys.model.dto;
+
+import lombok.Data;
+
+import javax.validation.constraints.NotEmpty;
+import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Size;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 团体预约DTO
+ * 为多名会员一次性预约同一课程（如家长为多个孩子报名）
+ */
+@Data
+public class BookingGroupDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 课程ID
+     */
+    @NotNull(message = "课程ID不能为空")
+    private Long courseId;
+
+    /**
+     * 会员ID列表
+     */
+    @NotEmpty(message = "会员ID列表不能为空")
+    @Size(max = 20, message = "单次最多为20名会员预约")
+    private List<Long> userIds;
+}
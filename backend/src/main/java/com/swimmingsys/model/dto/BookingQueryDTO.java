@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 import org.springframework.format.annotation.DateTimeFormat;
 
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -24,11 +25,17 @@ public class BookingQueryDTO implements Serializable {
     private Integer pageNum = 1;
 
     /**
-     * 每页大小，默认10
+     * 每页大小，默认10，最大100
      */
     @Min(value = 1, message = "每页大小不能小于1")
+    @Max(value = 100, message = "每页大小不能超过100")
     private Integer pageSize = 10;
 
+    /**
+     * 游标（游标分页时使用，为空表示第一页）
+     */
+    private String cursor;
+
     /**
      * 用户ID
      */
@@ -57,4 +64,9 @@ public class BookingQueryDTO implements Serializable {
     @DateTimeFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
     private LocalDateTime bookingTimeEnd;
+
+    /**
+     * 是否包含已归档的历史预约（预约时间起点早于归档保留期时自动包含）
+     */
+    private Boolean includeArchived;
 }
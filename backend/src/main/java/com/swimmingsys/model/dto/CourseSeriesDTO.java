@@ -0,0 +1,102 @@
+package com.swimmingsys.model.dto;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import javax.validation.constraints.*;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * 周期排课DTO
+ * 按规则批量生成系列课程，如“每周二、周四 18:00-19:00，共12周”
+ */
+@Data
+public class CourseSeriesDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 系列标识（可选），为空时按排课规则生成；同一系列重复提交只补充缺少的课程
+     */
+    @Size(max = 64, message = "系列标识不能超过64个字符")
+    private String seriesKey;
+
+    /**
+     * 课程名称
+     */
+    @NotBlank(message = "课程名称不能为空")
+    @Size(max = 100, message = "课程名称不能超过100个字符")
+    private String courseName;
+
+    /**
+     * 课程类型
+     */
+    @NotBlank(message = "课程类型不能为空")
+    @Size(max = 50, message = "课程类型不能超过50个字符")
+    private String courseType;
+
+    /**
+     * 教练ID
+     */
+    @NotNull(message = "教练ID不能为空")
+    private Long coachId;
+
+    /**
+     * 首周开始日期
+     */
+    @NotNull(message = "开始日期不能为空")
+    @JsonFormat(pattern = "yyyy-MM-dd", timezone = "GMT+8")
+    private LocalDate startDate;
+
+    /**
+     * 持续周数
+     */
+    @NotNull(message = "持续周数不能为空")
+    @Min(value = 1, message = "持续周数至少为1周")
+    @Max(value = 52, message = "持续周数不能超过52周")
+    private Integer weeks;
+
+    /**
+     * 每周上课的星期（1-周一 ... 7-周日）
+     */
+    @NotEmpty(message = "上课星期不能为空")
+    private List<Integer> daysOfWeek;
+
+    /**
+     * 每节课开始时间
+     */
+    @NotNull(message = "上课时间不能为空")
+    @JsonFormat(pattern = "HH:mm", timezone = "GMT+8")
+    private LocalTime startTime;
+
+    /**
+     * 每节课结束时间
+     */
+    @NotNull(message = "下课时间不能为空")
+    @JsonFormat(pattern = "HH:mm", timezone = "GMT+8")
+    private LocalTime endTime;
+
+    /**
+     * 课程容量（最大人数）
+     */
+    @NotNull(message = "课程容量不能为空")
+    @Min(value = 1, message = "课程容量至少为1人")
+    private Integer capacity;
+
+    /**
+     * 课程描述
+     */
+    @Size(max = 500, message = "课程描述不能超过500个字符")
+    private String description;
+
+    /**
+     * 课程状态：0-已下架，1-已发布
+     */
+    @NotNull(message = "课程状态不能为空")
+    @Min(value = 0, message = "课程状态无效")
+    @Max(value = 1, message = "课程状态无效")
+    private Integer status;
+}
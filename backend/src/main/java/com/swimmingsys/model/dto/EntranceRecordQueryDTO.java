@@ -4,6 +4,7 @@ import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 import org.springframework.format.annotation.DateTimeFormat;
 
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import java.io.Serializable;
 import java.time.LocalDateTime;
@@ -23,11 +24,17 @@ public class EntranceRecordQueryDTO implements Serializable {
     private Integer pageNum = 1;
 
     /**
-     * 每页大小，默认10
+     * 每页大小，默认10，最大100
      */
     @Min(value = 1, message = "每页大小不能小于1")
+    @Max(value = 100, message = "每页大小不能超过100")
     private Integer pageSize = 10;
 
+    /**
+     * 游标（游标分页时使用，为空表示第一页）
+     */
+    private String cursor;
+
     /**
      * 用户ID（管理员查询时可指定）
      */
@@ -86,4 +86,10 @@ public class UserAddDTO implements Serializable {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
     private LocalDateTime expirationTime;
+
+    /**
+     * 家长账号ID，关联后家长可为该会员团体预约，不填或0表示不关联
+     */
+    @Min(value = 0, message = "家长账号ID无效")
+    private Long guardianId;
 }
@@ -2,6 +2,7 @@ package com.swimmingsys.model.dto;
 
 import lombok.Data;
 
+import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import java.io.Serializable;
 
@@ -21,11 +22,17 @@ public class UserQueryDTO implements Serializable {
     private Integer pageNum = 1;
 
     /**
-     * 每页大小，默认10
+     * 每页大小，默认10，最大100
      */
     @Min(value = 1, message = "每页大小不能小于1")
+    @Max(value = 100, message = "每页大小不能超过100")
     private Integer pageSize = 10;
 
+    /**
+     * 游标（游标分页时使用，为空表示第一页）
+     */
+    private String cursor;
+
     /**
      * 用户账号（模糊查询）
      */
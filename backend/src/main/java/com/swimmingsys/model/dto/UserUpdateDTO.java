@@ -77,4 +77,11 @@ public class UserUpdateDTO implements Serializable {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss")
     @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME)
     private LocalDateTime expirationTime;
+
+    /**
+     * 家长账号ID，关联后家长可为该会员团体预约，0表示取消关联
+     * 仅管理员可修改
+     */
+    @Min(value = 0, message = "家长账号ID无效")
+    private Long guardianId;
 }
@@ -66,6 +66,11 @@ public class Course implements Serializable {
      */
     private Integer status;
 
+    /**
+     * 系列课程标识（周期排课生成的课程共用，单独新增的课程为空）
+     */
+    private String seriesKey;
+
     /**
      * 版本号（乐观锁）
      */
@@ -0,0 +1,71 @@
+package com.swimmingsys.model.entity;
+
+import com.baomidou.mybatisplus.annotation.*;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 课程候补实体类
+ */
+@Data
+@TableName("course_waitlist")
+public class CourseWaitlist implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 候补ID，主键（按ID先后顺序转正）
+     */
+    @TableId(value = "id", type = IdType.AUTO)
+    private Long id;
+
+    /**
+     * 课程ID，外键关联course表
+     */
+    private Long courseId;
+
+    /**
+     * 用户ID，外键关联user表
+     */
+    private Long userId;
+
+    /**
+     * 加入候补时间
+     */
+    private LocalDateTime joinTime;
+
+    /**
+     * 候补状态：0-已取消，1-候补中，2-已转正，3-已失效
+     */
+    private Integer status;
+
+    /**
+     * 转正后生成的预约ID
+     */
+    private Long bookingId;
+
+    /**
+     * 转正时间
+     */
+    private LocalDateTime promotedTime;
+
+    /**
+     * 逻辑删除：0-未删除，1-已删除
+     */
+    @TableLogic
+    private Integer isDelete;
+
+    /**
+     * 创建时间
+     */
+    @TableField(fill = FieldFill.INSERT)
+    private LocalDateTime createdTime;
+
+    /**
+     * 更新时间
+     */
+    @TableField(fill = FieldFill.INSERT_UPDATE)
+    private LocalDateTime updatedTime;
+}
@@ -71,6 +71,11 @@ public class User implements Serializable {
      */
     private LocalDateTime expirationTime;
 
+    /**
+     * 家长账号ID，0表示未关联
+     */
+    private Long guardianId;
+
     /**
      * 逻辑删除：0-未删除，1-已删除
      */
@@ -0,0 +1,108 @@
+package com.swimmingsys.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 预约排队监控指标VO
+ */
+@Data
+public class AdmissionMetricsVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 是否启用排队
+     */
+    private Boolean enabled;
+
+    /**
+     * 每门课程的并发处理数
+     */
+    private Integer concurrency;
+
+    /**
+     * 每门课程的排队容量
+     */
+    private Integer queueCapacity;
+
+    /**
+     * 全局确认预约并发上限（各课程共用）
+     */
+    private Integer maxConcurrency;
+
+    /**
+     * 当前正在处理的确认预约数（全局）
+     */
+    private Integer inFlightCount;
+
+    /**
+     * 排队超时时间（秒）
+     */
+    private Long queueTimeoutSeconds;
+
+    /**
+     * 当前排队总人数
+     */
+    private Long totalQueueDepth;
+
+    /**
+     * 各课程排队指标
+     */
+    private List<CourseQueueMetrics> courses;
+
+    /**
+     * 课程排队指标内嵌类
+     */
+    @Data
+    public static class CourseQueueMetrics implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 课程ID
+         */
+        private Long courseId;
+
+        /**
+         * 当前排队人数
+         */
+        private Integer queueDepth;
+
+        /**
+         * 正在处理的请求数
+         */
+        private Integer activeCount;
+
+        /**
+         * 累计受理请求数
+         */
+        private Long submittedCount;
+
+        /**
+         * 累计完成请求数
+         */
+        private Long completedCount;
+
+        /**
+         * 累计因队列已满被拒绝的请求数
+         */
+        private Long rejectedCount;
+
+        /**
+         * 累计排队超时的请求数
+         */
+        private Long timedOutCount;
+
+        /**
+         * 平均排队等待时长（毫秒）
+         */
+        private Long avgWaitMillis;
+
+        /**
+         * 最大排队等待时长（毫秒）
+         */
+        private Long maxWaitMillis;
+    }
+}
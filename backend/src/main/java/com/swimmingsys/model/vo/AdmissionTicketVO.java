@@ -0,0 +1,50 @@
+package com.swimmingsys.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+
+/**
+ * 预约排队凭证VO
+ * 预约请求进入课程排队队列后返回，用于查询排队位置和最终结果
+ */
+@Data
+public class AdmissionTicketVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 排队凭证ID
+     */
+    private String ticketId;
+
+    /**
+     * 课程ID
+     */
+    private Long courseId;
+
+    /**
+     * 排队状态：QUEUED-排队中，PROCESSING-处理中，SUCCESS-预约成功，FAILED-预约失败，TIMEOUT-排队超时
+     */
+    private String status;
+
+    /**
+     * 当前排队位置（仅排队中有效，从1开始）
+     */
+    private Long position;
+
+    /**
+     * 结果说明（失败原因等）
+     */
+    private String message;
+
+    /**
+     * 排队等待时长（毫秒）
+     */
+    private Long waitMillis;
+
+    /**
+     * 预约信息（预约成功时返回）
+     */
+    private BookingVO booking;
+}
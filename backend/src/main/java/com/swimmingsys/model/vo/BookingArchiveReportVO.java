@@ -0,0 +1,79 @@
+package com.swimmingsys.model.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 预约归档任务运行报告VO
+ */
+@Data
+public class BookingArchiveReportVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 触发方式：SCHEDULED-定时触发，MANUAL-管理员手动触发
+     */
+    private String trigger;
+
+    /**
+     * 运行状态：SUCCESS-成功，FAILED-失败
+     */
+    private String status;
+
+    /**
+     * 执行节点
+     */
+    private String node;
+
+    /**
+     * 归档截止点（课程在此之前结束或预约在此之前取消的可归档）
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime cutoffTime;
+
+    /**
+     * 开始时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime startTime;
+
+    /**
+     * 结束时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime endTime;
+
+    /**
+     * 耗时（毫秒）
+     */
+    private Long elapsedMillis;
+
+    /**
+     * 执行批次数
+     */
+    private Integer chunkCount;
+
+    /**
+     * 批次大小
+     */
+    private Integer chunkSize;
+
+    /**
+     * 归档的预约数
+     */
+    private Long archivedCount;
+
+    /**
+     * 最后处理的预约ID
+     */
+    private Long lastBookingId;
+
+    /**
+     * 说明（失败原因或未处理完的提示）
+     */
+    private String message;
+}
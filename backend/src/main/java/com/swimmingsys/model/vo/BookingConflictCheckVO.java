@@ -1,8 +1,10 @@
 package com.swimmingsys.model.vo;
 
+import com.fasterxml.jackson.annotation.JsonFormat;
 import lombok.Data;
 
 import java.io.Serializable;
+import java.time.LocalDateTime;
 
 /**
  * 预约冲突检测结果VO
@@ -27,4 +29,10 @@ public class BookingConflictCheckVO implements Serializable {
      * 请求预约的课程信息
      */
     private CourseVO requestedCourse;
+
+    /**
+     * 名额保留截止时间（启用名额保留时返回，截止前确认预约不会被他人抢占）
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime seatHoldExpireTime;
 }
@@ -0,0 +1,71 @@
+package com.swimmingsys.model.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 教练排课重叠VO
+ * 同一教练时间重叠的一对课程
+ */
+@Data
+public class CoachOverlapVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 教练ID
+     */
+    private Long coachId;
+
+    /**
+     * 教练姓名
+     */
+    private String coachName;
+
+    /**
+     * 课程ID
+     */
+    private Long courseId;
+
+    /**
+     * 课程名称
+     */
+    private String courseName;
+
+    /**
+     * 课程开始时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime startTime;
+
+    /**
+     * 课程结束时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime endTime;
+
+    /**
+     * 重叠课程ID
+     */
+    private Long overlapCourseId;
+
+    /**
+     * 重叠课程名称
+     */
+    private String overlapCourseName;
+
+    /**
+     * 重叠课程开始时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime overlapStartTime;
+
+    /**
+     * 重叠课程结束时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime overlapEndTime;
+}
@@ -0,0 +1,59 @@
+package com.swimmingsys.model.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 周期排课结果VO
+ */
+@Data
+public class CourseSeriesVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 系列标识，重复提交时使用同一标识不会生成重复课程
+     */
+    private String seriesKey;
+
+    /**
+     * 按规则展开的课程总数
+     */
+    private Integer totalCount;
+
+    /**
+     * 本次新建的课程数
+     */
+    private Integer createdCount;
+
+    /**
+     * 已存在而跳过的课程数
+     */
+    private Integer skippedCount;
+
+    /**
+     * 此前已生成但已删除而跳过的课程数（已删除的课程不会重新生成）
+     */
+    private Integer deletedSkippedCount;
+
+    /**
+     * 第一节课开始时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime firstStartTime;
+
+    /**
+     * 最后一节课开始时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime lastStartTime;
+
+    /**
+     * 本次新建的课程ID
+     */
+    private List<Long> createdCourseIds;
+}
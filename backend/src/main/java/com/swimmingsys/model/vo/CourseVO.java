@@ -76,6 +76,11 @@ public class CourseVO implements Serializable {
      */
     private Integer status;
 
+    /**
+     * 系列课程标识
+     */
+    private String seriesKey;
+
     /**
      * 是否可预约（状态为发布、有剩余名额、未开始）
      */
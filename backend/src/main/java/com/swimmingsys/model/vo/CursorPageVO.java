@@ -0,0 +1,41 @@
+package com.swimmingsys.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 游标分页结果VO
+ * 不返回总数，客户端使用nextCursor获取下一页
+ *
+ * @param <T> 记录类型
+ */
+@Data
+public class CursorPageVO<T> implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 当前页记录
+     */
+    private List<T> records;
+
+    /**
+     * 下一页游标，没有下一页时为空
+     */
+    private String nextCursor;
+
+    /**
+     * 是否还有下一页
+     */
+    private Boolean hasMore;
+
+    public CursorPageVO() {}
+
+    public CursorPageVO(List<T> records, String nextCursor) {
+        this.records = records;
+        this.nextCursor = nextCursor;
+        this.hasMore = nextCursor != null;
+    }
+}
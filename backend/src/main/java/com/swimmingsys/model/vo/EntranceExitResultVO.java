@@ -0,0 +1,32 @@
+package com.swimmingsys.model.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 扫码离场结果VO
+ */
+@Data
+public class EntranceExitResultVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 会员姓名
+     */
+    private String userName;
+
+    /**
+     * 离场时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime exitTime;
+
+    /**
+     * 离场后的在馆人数
+     */
+    private Long occupancy;
+}
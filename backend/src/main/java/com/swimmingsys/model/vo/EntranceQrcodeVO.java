@@ -35,6 +35,12 @@ public class EntranceQrcodeVO implements Serializable {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
     private LocalDateTime generatedTime;
 
+    /**
+     * 过期时间（Redis或签名入场码返回，过期后需重新生成）
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime expireTime;
+
     /**
      * 课程预约信息（可选）
      */
@@ -25,6 +25,11 @@ public class EntranceVerifyResultVO implements Serializable {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
     private LocalDateTime entranceTime;
 
+    /**
+     * 入场后的在馆人数（启用在馆人数统计时返回）
+     */
+    private Long occupancy;
+
     /**
      * 课程信息（可选）
      */
@@ -0,0 +1,77 @@
+package com.swimmingsys.model.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 入场记录异步写入指标VO
+ */
+@Data
+public class EntranceWriteMetricsVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 是否启用异步写入
+     */
+    private Boolean enabled;
+
+    /**
+     * 本地日志目录
+     */
+    private String journalDir;
+
+    /**
+     * 待写入的记录数
+     */
+    private Integer pendingCount;
+
+    /**
+     * 待写入的日志文件数
+     */
+    private Integer pendingSegments;
+
+    /**
+     * 写入延迟（毫秒）：最早一条待写入记录的入场时间距今时长，无待写入记录时为0
+     */
+    private Long flushLagMillis;
+
+    /**
+     * 累计写入数据库的记录数
+     */
+    private Long flushedCount;
+
+    /**
+     * 累计写入失败次数
+     */
+    private Long failedFlushCount;
+
+    /**
+     * 启动时从日志重放的记录数
+     */
+    private Long recoveredCount;
+
+    /**
+     * 累计移入死信目录（日志目录下的 dead-letter）的记录数，需人工核对后补录
+     */
+    private Long deadLetterCount;
+
+    /**
+     * 最近一次写入时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime lastFlushTime;
+
+    /**
+     * 最近一次写入耗时（毫秒）
+     */
+    private Long lastFlushMillis;
+
+    /**
+     * 最近一次写入失败原因
+     */
+    private String lastError;
+}
@@ -0,0 +1,79 @@
+package com.swimmingsys.model.vo;
+
+import lombok.Data;
+
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 团体预约结果VO
+ * 全部会员预约成功才会占用名额，任一会员无法预约时整体不生效
+ */
+@Data
+public class GroupBookingVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 课程ID
+     */
+    private Long courseId;
+
+    /**
+     * 课程名称
+     */
+    private String courseName;
+
+    /**
+     * 是否全部预约成功
+     */
+    private Boolean success;
+
+    /**
+     * 结果说明
+     */
+    private String message;
+
+    /**
+     * 本次预约成功的人数
+     */
+    private Integer bookedCount;
+
+    /**
+     * 各会员预约结果
+     */
+    private List<MemberResult> results;
+
+    /**
+     * 会员预约结果内嵌类
+     */
+    @Data
+    public static class MemberResult implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 会员ID
+         */
+        private Long userId;
+
+        /**
+         * 会员姓名
+         */
+        private String userName;
+
+        /**
+         * 是否可预约/预约成功
+         */
+        private Boolean success;
+
+        /**
+         * 结果说明（失败原因）
+         */
+        private String message;
+
+        /**
+         * 预约ID（预约成功时返回）
+         */
+        private Long bookingId;
+    }
+}
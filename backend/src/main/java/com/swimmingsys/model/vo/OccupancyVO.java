@@ -0,0 +1,61 @@
+package com.swimmingsys.model.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 场馆在馆人数VO
+ */
+@Data
+public class OccupancyVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 是否启用在馆人数统计
+     */
+    private Boolean enabled;
+
+    /**
+     * 当前在馆人数
+     */
+    private Long currentCount;
+
+    /**
+     * 容纳上限（0表示不限制）
+     */
+    private Integer capacity;
+
+    /**
+     * 剩余可入场人数（不限制时为null）
+     */
+    private Long availableCount;
+
+    /**
+     * 最近一段时间的每分钟在馆人数，按时间升序
+     */
+    private List<Point> history;
+
+    /**
+     * 每分钟在馆人数内嵌类
+     */
+    @Data
+    public static class Point implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 时间（整分钟）
+         */
+        @JsonFormat(pattern = "yyyy-MM-dd HH:mm", timezone = "GMT+8")
+        private LocalDateTime time;
+
+        /**
+         * 在馆人数
+         */
+        private Long count;
+    }
+}
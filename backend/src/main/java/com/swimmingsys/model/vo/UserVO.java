@@ -65,6 +65,11 @@ public class UserVO implements Serializable {
     @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
     private LocalDateTime expirationTime;
 
+    /**
+     * 家长账号ID，0表示未关联
+     */
+    private Long guardianId;
+
     /**
      * 是否已过期
      */
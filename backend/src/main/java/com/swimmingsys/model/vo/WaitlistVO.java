@@ -0,0 +1,64 @@
+package com.swimmingsys.model.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * 课程候补信息视图对象VO
+ */
+@Data
+public class WaitlistVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 候补ID
+     */
+    private Long id;
+
+    /**
+     * 课程ID
+     */
+    private Long courseId;
+
+    /**
+     * 课程名称
+     */
+    private String courseName;
+
+    /**
+     * 课程开始时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime courseStartTime;
+
+    /**
+     * 候补状态：0-已取消，1-候补中，2-已转正，3-已失效
+     */
+    private Integer status;
+
+    /**
+     * 当前排队位置（仅候补中有效，从1开始）
+     */
+    private Long position;
+
+    /**
+     * 转正后生成的预约ID
+     */
+    private Long bookingId;
+
+    /**
+     * 加入候补时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime joinTime;
+
+    /**
+     * 转正时间
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd HH:mm:ss", timezone = "GMT+8")
+    private LocalDateTime promotedTime;
+}
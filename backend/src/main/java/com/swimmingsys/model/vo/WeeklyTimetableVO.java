@@ -0,0 +1,110 @@
+package com.swimmingsys.model.vo;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+import lombok.Data;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalTime;
+import java.util.List;
+
+/**
+ * 周课表VO
+ * 按天分组的精简课程信息，用于会员端周课表展示
+ */
+@Data
+public class WeeklyTimetableVO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 周一日期
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate weekStart;
+
+    /**
+     * 周日日期
+     */
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate weekEnd;
+
+    /**
+     * 课表版本（内容摘要，用作ETag）
+     */
+    private String version;
+
+    /**
+     * 每天的课程（周一至周日）
+     */
+    private List<Day> days;
+
+    /**
+     * 单日课程内嵌类
+     */
+    @Data
+    public static class Day implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 日期
+         */
+        @JsonFormat(pattern = "yyyy-MM-dd")
+        private LocalDate date;
+
+        /**
+         * 星期（1-7，周一为1）
+         */
+        private Integer dayOfWeek;
+
+        /**
+         * 当天课程，按开始时间排序
+         */
+        private List<Slot> courses;
+    }
+
+    /**
+     * 课程时段内嵌类
+     */
+    @Data
+    public static class Slot implements Serializable {
+        private static final long serialVersionUID = 1L;
+
+        /**
+         * 课程ID
+         */
+        private Long id;
+
+        /**
+         * 课程名称
+         */
+        private String courseName;
+
+        /**
+         * 课程类型
+         */
+        private String courseType;
+
+        /**
+         * 开始时间
+         */
+        @JsonFormat(pattern = "HH:mm")
+        private LocalTime startTime;
+
+        /**
+         * 结束时间
+         */
+        @JsonFormat(pattern = "HH:mm")
+        private LocalTime endTime;
+
+        /**
+         * 教练姓名
+         */
+        private String coachName;
+
+        /**
+         * 剩余名额
+         */
+        private Integer remainingCount;
+    }
+}
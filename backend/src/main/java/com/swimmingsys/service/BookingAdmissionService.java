@@ -0,0 +1,48 @@
+package com.swimmingsys.service;
+
+import com.swimmingsys.model.vo.AdmissionMetricsVO;
+import com.swimmingsys.model.vo.AdmissionTicketVO;
+import com.swimmingsys.model.vo.BookingVO;
+
+import java.util.function.Supplier;
+
+/**
+ * 预约排队准入服务接口
+ * 课程开放时的大量确认预约请求按课程排队，以固定并发数进入数据库，避免惊群式的乐观锁冲突
+ */
+public interface BookingAdmissionService {
+
+    /**
+     * 是否启用排队准入
+     *
+     * @return 是否启用
+     */
+    boolean isEnabled();
+
+    /**
+     * 提交确认预约请求
+     * 在快速响应时间内完成则直接返回结果，否则返回排队位置，客户端凭凭证查询结果
+     *
+     * @param courseId 课程ID
+     * @param userId   用户ID
+     * @param task     确认预约任务
+     * @return 排队凭证
+     */
+    AdmissionTicketVO submit(Long courseId, Long userId, Supplier<BookingVO> task);
+
+    /**
+     * 查询排队凭证
+     *
+     * @param ticketId 凭证ID
+     * @param userId   用户ID（只能查询自己的凭证）
+     * @return 排队凭证
+     */
+    AdmissionTicketVO getTicket(String ticketId, Long userId);
+
+    /**
+     * 获取排队监控指标
+     *
+     * @return 监控指标
+     */
+    AdmissionMetricsVO getMetrics();
+}
@@ -0,0 +1,37 @@
+package com.swimmingsys.service;
+
+import com.swimmingsys.model.vo.BookingArchiveReportVO;
+
+import java.time.LocalDateTime;
+
+/**
+ * 预约归档服务接口
+ * 将课程已结束或取消已久的预约从预约表移入归档表，保持预约表只包含近期数据
+ */
+public interface BookingArchiveService {
+
+    /**
+     * 批量归档预约
+     * 按主键分批执行，每批在一个事务中复制并删除；多节点部署时通过分布式锁保证只有一个节点执行
+     *
+     * @param trigger 触发方式：SCHEDULED-定时触发，MANUAL-管理员手动触发
+     * @return 运行报告
+     */
+    BookingArchiveReportVO archiveBookings(String trigger);
+
+    /**
+     * 获取最近一次运行报告
+     *
+     * @return 运行报告，从未运行时返回null
+     */
+    BookingArchiveReportVO getLastReport();
+
+    /**
+     * 判断预约时间起点是否可能涉及已归档的预约
+     * 已归档的预约预约时间都早于归档保留期
+     *
+     * @param bookingTimeBegin 预约时间起点
+     * @return 是否需要包含归档表
+     */
+    boolean coversArchive(LocalDateTime bookingTimeBegin);
+}
@@ -0,0 +1,26 @@
+package com.swimmingsys.service;
+
+import com.swimmingsys.model.vo.BookingCompletionReportVO;
+
+/**
+ * 预约自动完成服务接口
+ * 将课程已结束的预约批量标记为已完成
+ */
+public interface BookingCompletionService {
+
+    /**
+     * 批量完成课程已结束的预约
+     * 按主键分批执行，每批单独提交；多节点部署时通过分布式锁保证只有一个节点执行
+     *
+     * @param trigger 触发方式：SCHEDULED-定时触发，MANUAL-管理员手动触发
+     * @return 运行报告
+     */
+    BookingCompletionReportVO completeFinishedBookings(String trigger);
+
+    /**
+     * 获取最近一次运行报告
+     *
+     * @return 运行报告，从未运行时返回null
+     */
+    BookingCompletionReportVO getLastReport();
+}
@@ -2,11 +2,19 @@ package com.swimmingsys.service;
 
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.swimmingsys.model.dto.BookingAddDTO;
+import com.swimmingsys.model.dto.BookingBatchCancelDTO;
 import com.swimmingsys.model.dto.BookingConfirmDTO;
+import com.swimmingsys.model.dto.BookingGroupDTO;
 import com.swimmingsys.model.dto.BookingQueryDTO;
 import com.swimmingsys.model.entity.User;
 import com.swimmingsys.model.vo.BookingConflictCheckVO;
 import com.swimmingsys.model.vo.BookingVO;
+import com.swimmingsys.model.vo.CursorPageVO;
+import com.swimmingsys.model.vo.GroupBookingVO;
+import com.swimmingsys.model.vo.WaitlistVO;
+
+import java.util.List;
+import java.util.Map;
 
 /**
  * 预约服务接口
@@ -42,6 +50,26 @@ public interface BookingService {
      */
     boolean cancelBooking(Long id, User loginUser);
 
+    /**
+     * 按课程批量取消预约（管理员）
+     * 用于教练请假等场景，一个事务内取消指定课程的所有有效预约
+     *
+     * @param dto 课程ID列表
+     * @return 操作结果（课程数、取消的预约数、失效的候补数）
+     */
+    Map<String, Object> cancelCourseBookings(BookingBatchCancelDTO dto);
+
+    /**
+     * 团体预约
+     * 为多名会员一次性预约同一课程，全部会员可预约时才占用名额，否则不做任何修改
+     * 管理员可为任意会员预约；会员只能为本人和已关联到本人的家庭成员预约
+     *
+     * @param dto       课程ID和会员ID列表
+     * @param loginUser 当前登录用户
+     * @return 团体预约结果（含各会员的结果）
+     */
+    GroupBookingVO groupBooking(BookingGroupDTO dto, User loginUser);
+
     /**
      * 获取我的预约记录
      *
@@ -59,6 +87,25 @@ public interface BookingService {
      */
     IPage<BookingVO> getAllBookings(BookingQueryDTO queryDTO);
 
+    /**
+     * 游标分页获取我的预约列表
+     * 不统计总数，翻页深度不影响查询耗时
+     *
+     * @param queryDTO  查询条件（cursor为上一页返回的游标）
+     * @param loginUser 登录用户
+     * @return 预约游标分页列表
+     */
+    CursorPageVO<BookingVO> getMyBookingsByCursor(BookingQueryDTO queryDTO, User loginUser);
+
+    /**
+     * 游标分页获取所有预约记录（管理员）
+     * 不统计总数，翻页深度不影响查询耗时
+     *
+     * @param queryDTO 查询条件（cursor为上一页返回的游标）
+     * @return 预约游标分页列表
+     */
+    CursorPageVO<BookingVO> getAllBookingsByCursor(BookingQueryDTO queryDTO);
+
     /**
      * 获取指定课程的预约列表
      *
@@ -75,4 +122,47 @@ public interface BookingService {
      * @return 预约信息
      */
     BookingVO getBookingById(Long id);
+
+    /**
+     * 释放预约请求阶段保留的名额（会员放弃预约时调用）
+     *
+     * @param courseId  课程ID
+     * @param loginUser 登录用户
+     * @return 是否成功
+     */
+    boolean releaseSeatHold(Long courseId, User loginUser);
+
+    /**
+     * 获取占座并发冲突统计（进程启动以来的累计值，用于压测和监控）
+     *
+     * @return 统计项（optimisticRetries-乐观锁重试次数，optimisticExhausted-重试耗尽次数）
+     */
+    Map<String, Long> getSeatContentionStats();
+
+    /**
+     * 加入课程候补名单
+     * 课程名额已满时排队，有人取消时按加入顺序自动转为预约
+     *
+     * @param dto       候补课程信息
+     * @param loginUser 登录用户
+     * @return 候补信息
+     */
+    WaitlistVO joinWaitlist(BookingAddDTO dto, User loginUser);
+
+    /**
+     * 退出课程候补名单
+     *
+     * @param id        候补ID
+     * @param loginUser 登录用户
+     * @return 是否退出成功
+     */
+    boolean leaveWaitlist(Long id, User loginUser);
+
+    /**
+     * 获取我的候补记录
+     *
+     * @param loginUser 登录用户
+     * @return 候补列表
+     */
+    List<WaitlistVO> getMyWaitlist(User loginUser);
 }
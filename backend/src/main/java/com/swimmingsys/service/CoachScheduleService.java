@@ -0,0 +1,53 @@
+package com.swimmingsys.service;
+
+import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.model.vo.CoachOverlapVO;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * 教练排课索引服务接口
+ * 内存中按教练维护未结束课程的时间区间，用于新增、修改课程时以 O(log n) 检测教练时间冲突
+ */
+public interface CoachScheduleService {
+
+    /**
+     * 查找教练在指定时间段内冲突的课程
+     *
+     * @param coachId         教练ID
+     * @param startTime       开始时间
+     * @param endTime         结束时间
+     * @param excludeCourseId 排除的课程ID（修改课程时排除自身），可为null
+     * @return 冲突的课程（仅含ID、名称和时间），没有冲突返回null
+     */
+    Course findConflict(Long coachId, LocalDateTime startTime, LocalDateTime endTime, Long excludeCourseId);
+
+    /**
+     * 新增或更新课程在索引中的时间区间
+     * 在事务中调用时，事务提交后才更新索引
+     *
+     * @param course 课程信息
+     */
+    void put(Course course);
+
+    /**
+     * 从索引中移除课程
+     * 在事务中调用时，事务提交后才更新索引
+     *
+     * @param courseId 课程ID
+     */
+    void remove(Long courseId);
+
+    /**
+     * 列出所有教练时间重叠的课程
+     *
+     * @return 重叠课程列表
+     */
+    List<CoachOverlapVO> listOverlaps();
+
+    /**
+     * 从数据库重新加载索引（启动时和定时校准时调用）
+     */
+    void reload();
+}
@@ -6,7 +6,9 @@ import com.swimmingsys.model.dto.CoachQueryDTO;
 import com.swimmingsys.model.dto.CoachUpdateDTO;
 import com.swimmingsys.model.vo.CoachVO;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 /**
  * 教练服务接口
@@ -60,4 +62,13 @@ public interface CoachService {
      * @return 在职教练列表
      */
     List<CoachVO> getActiveCoachList();
+
+    /**
+     * 批量获取教练姓名（列表组装VO时使用）
+     * 优先读取进程内缓存，未缓存的教练一次批量查询
+     *
+     * @param coachIds 教练ID集合
+     * @return 教练ID -> 教练姓名，不存在的教练不包含在结果中
+     */
+    Map<Long, String> getCoachNameMap(Collection<Long> coachIds);
 }
@@ -0,0 +1,56 @@
+package com.swimmingsys.service;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.swimmingsys.model.dto.CourseQueryDTO;
+import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.model.vo.CourseVO;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * 可预约课程目录缓存服务接口
+ * 按查询条件缓存有序的课程ID列表，课程信息按课程单独缓存，名额计数单独维护；
+ * 每页只读取本页课程的信息和名额，课程变更只使查询条件能匹配该课程的目录失效，
+ * 预约变更只刷新对应课程的名额计数
+ */
+public interface CourseCatalogCacheService {
+
+    /**
+     * 获取可预约课程目录的一页，缓存未命中时通过加载器查询并写入缓存
+     *
+     * @param queryDTO      查询条件（分页参数不参与缓存键）
+     * @param catalogLoader 目录加载器，返回按开始时间升序的课程（含ID、开始时间、容量、已预约人数和版本号），
+     *                      目录过大不适合缓存时返回null
+     * @param courseLoader  课程信息加载器，按课程ID批量查询本页未缓存的课程信息
+     * @return 可预约课程分页列表（名额为最新计数），目录加载器返回null时返回null
+     */
+    IPage<CourseVO> getCatalogPage(CourseQueryDTO queryDTO, Supplier<List<Course>> catalogLoader,
+                                   Function<List<Long>, List<CourseVO>> courseLoader);
+
+    /**
+     * 刷新课程的名额计数（预约、取消后调用）
+     * 在事务中调用时，事务提交后才刷新
+     *
+     * @param courseIds 课程ID集合
+     */
+    void refreshSeats(Collection<Long> courseIds);
+
+    /**
+     * 使查询条件能匹配这些课程的目录失效，并清除这些课程的缓存信息（课程新增、修改、删除、上下架后调用）
+     * 修改课程名称、类型、教练或时间时需同时传入修改前和修改后的课程；在事务中调用时，事务提交后才失效
+     *
+     * @param courses 变更的课程
+     */
+    void invalidateCourses(Collection<Course> courses);
+
+    /**
+     * 清除教练所授课程的缓存信息（教练信息变更后调用，课程信息中包含教练姓名，目录的课程ID列表不受影响）
+     * 在事务中调用时，事务提交后才清除
+     *
+     * @param coachId 教练ID
+     */
+    void invalidateCoach(Long coachId);
+}
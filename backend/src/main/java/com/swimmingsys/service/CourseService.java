@@ -3,7 +3,9 @@ package com.swimmingsys.service;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.swimmingsys.model.dto.CourseAddDTO;
 import com.swimmingsys.model.dto.CourseQueryDTO;
+import com.swimmingsys.model.dto.CourseSeriesDTO;
 import com.swimmingsys.model.dto.CourseUpdateDTO;
+import com.swimmingsys.model.vo.CourseSeriesVO;
 import com.swimmingsys.model.vo.CourseVO;
 
 /**
@@ -35,6 +37,15 @@ public interface CourseService {
      */
     CourseVO addCourse(CourseAddDTO addDTO);
 
+    /**
+     * 周期排课（批量生成系列课程）
+     * 同一系列重复提交只补充缺少的课程，不会生成重复课程
+     *
+     * @param seriesDTO 排课规则
+     * @return 排课结果
+     */
+    CourseSeriesVO addCourseSeries(CourseSeriesDTO seriesDTO);
+
     /**
      * 更新课程信息
      *
@@ -0,0 +1,25 @@
+package com.swimmingsys.service;
+
+/**
+ * 分布式锁服务接口
+ * 基于Redis实现，用于多节点部署时保证定时任务等操作只在一个节点执行
+ */
+public interface DistributedLockService {
+
+    /**
+     * 尝试获取锁（不等待）
+     *
+     * @param lockKey    锁名称
+     * @param ttlSeconds 锁自动过期时间（秒），防止持有节点异常退出后锁无法释放
+     * @return 锁令牌，获取失败返回null
+     */
+    String tryLock(String lockKey, long ttlSeconds);
+
+    /**
+     * 释放锁，仅当令牌匹配时才释放，避免误删其他节点的锁
+     *
+     * @param lockKey 锁名称
+     * @param token   获取锁时返回的令牌
+     */
+    void unlock(String lockKey, String token);
+}
@@ -0,0 +1,38 @@
+package com.swimmingsys.service;
+
+import com.swimmingsys.model.entity.EntranceRecord;
+import com.swimmingsys.model.vo.EntranceWriteMetricsVO;
+
+/**
+ * 入场记录异步写入服务接口
+ * 验证通过的入场记录先追加到本地日志文件，再按数量或时间批量写入数据库；
+ * 进程重启时重放未写入的日志
+ */
+public interface EntranceRecordWriteService {
+
+    /**
+     * 是否启用异步写入
+     *
+     * @return 是否启用
+     */
+    boolean isEnabled();
+
+    /**
+     * 追加入场记录（写入本地日志后立即返回）
+     *
+     * @param record 入场记录
+     */
+    void append(EntranceRecord record);
+
+    /**
+     * 将待写入的入场记录批量写入数据库
+     */
+    void flush();
+
+    /**
+     * 获取写入指标
+     *
+     * @return 写入指标
+     */
+    EntranceWriteMetricsVO getMetrics();
+}
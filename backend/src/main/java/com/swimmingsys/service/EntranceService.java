@@ -4,9 +4,12 @@ import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.swimmingsys.model.dto.EntranceRecordQueryDTO;
 import com.swimmingsys.model.dto.EntranceVerifyDTO;
 import com.swimmingsys.model.entity.User;
+import com.swimmingsys.model.vo.CursorPageVO;
+import com.swimmingsys.model.vo.EntranceExitResultVO;
 import com.swimmingsys.model.vo.EntranceQrcodeVO;
 import com.swimmingsys.model.vo.EntranceRecordVO;
 import com.swimmingsys.model.vo.EntranceVerifyResultVO;
+import com.swimmingsys.model.vo.OccupancyVO;
 
 /**
  * 入场服务接口
@@ -30,6 +33,27 @@ public interface EntranceService {
      */
     EntranceVerifyResultVO verifyEntrance(EntranceVerifyDTO verifyDTO, User verifier);
 
+    /**
+     * 扫码离场
+     *
+     * @param verifyDTO 验证请求（会员离场时出示的入场码）
+     * @param verifier  验证人（管理员）
+     * @return 离场结果
+     */
+    EntranceExitResultVO exitEntrance(EntranceVerifyDTO verifyDTO, User verifier);
+
+    /**
+     * 获取当前在馆人数及每分钟人数
+     *
+     * @return 在馆人数信息
+     */
+    OccupancyVO getOccupancy();
+
+    /**
+     * 清空在馆会员（管理员人工核对后使用）
+     */
+    void resetOccupancy();
+
     /**
      * 获取我的入场记录（会员）
      *
@@ -47,6 +71,25 @@ public interface EntranceService {
      */
     IPage<EntranceRecordVO> getAllEntranceRecords(EntranceRecordQueryDTO queryDTO);
 
+    /**
+     * 游标分页获取我的入场记录（会员）
+     * 不统计总数，翻页深度不影响查询耗时
+     *
+     * @param queryDTO  查询条件（cursor为上一页返回的游标）
+     * @param loginUser 当前登录用户
+     * @return 入场记录游标分页列表
+     */
+    CursorPageVO<EntranceRecordVO> getMyEntranceRecordsByCursor(EntranceRecordQueryDTO queryDTO, User loginUser);
+
+    /**
+     * 游标分页获取所有入场记录（管理员）
+     * 不统计总数，翻页深度不影响查询耗时
+     *
+     * @param queryDTO 查询条件（cursor为上一页返回的游标）
+     * @return 入场记录游标分页列表
+     */
+    CursorPageVO<EntranceRecordVO> getAllEntranceRecordsByCursor(EntranceRecordQueryDTO queryDTO);
+
     /**
      * 根据ID获取入场记录详情
      *
@@ -0,0 +1,70 @@
+package com.swimmingsys.service;
+
+import com.swimmingsys.model.entity.EntranceQrcode;
+
+/**
+ * 入场码令牌存储服务接口
+ * 未使用的入场码保存在Redis中并设置过期时间，每个会员只保留最新生成的入场码；
+ * 签名入场码只保存每个会员最新入场码的随机数和显示信息，并记录已使用的标识用于防重放
+ */
+public interface EntranceTokenService {
+
+    /**
+     * 保存新生成的入场码，同时使该会员之前生成的入场码失效
+     *
+     * @param qrcode 入场码信息（qrcodeToken、userId必填）
+     */
+    void save(EntranceQrcode qrcode);
+
+    /**
+     * 读取并删除入场码（原子操作，同一入场码只能成功使用一次）
+     *
+     * @param qrcodeToken 入场码令牌
+     * @return 入场码信息，不存在、已使用或已过期返回null
+     */
+    EntranceQrcode consume(String qrcodeToken);
+
+    /**
+     * 归还已读取的入场码（入场记录保存失败时调用，使会员可以重新扫码）
+     * 该会员已生成新的入场码时不归还
+     *
+     * @param qrcode 入场码信息
+     */
+    void restore(EntranceQrcode qrcode);
+
+    /**
+     * 保存会员最新签名入场码的随机数和显示信息（会员姓名、预约课程）
+     * 使该会员之前生成的签名入场码失效，验证时无需查询数据库
+     *
+     * @param qrcode 入场码信息（userId必填）
+     * @param nonce  签名入场码中的随机数
+     */
+    void saveSignedCode(EntranceQrcode qrcode, String nonce);
+
+    /**
+     * 标记签名入场码已使用（防重放）并返回生成时保存的显示信息
+     * 先查本节点的内存缓存，再通过一次Redis脚本同时校验是否为会员最新入场码并标记使用，多个节点之间也只能使用一次
+     *
+     * @param userId       用户ID
+     * @param nonce        签名入场码中的随机数
+     * @param expireMillis 入场码过期时间戳（毫秒），过期后标记自动清除
+     * @return 生成时保存的入场码信息，保存的信息已丢失时返回null（仍已标记使用）
+     */
+    EntranceQrcode claimSignedCode(Long userId, String nonce, long expireMillis);
+
+    /**
+     * 撤销签名入场码的使用标记
+     * 入场被拒绝（在馆人数已满）或入场记录保存失败时调用，会员可以继续使用该入场码
+     *
+     * @param userId 用户ID
+     * @param nonce  签名入场码中的随机数
+     */
+    void unclaimSignedCode(Long userId, String nonce);
+
+    /**
+     * 获取入场码有效期（秒）
+     *
+     * @return 有效期
+     */
+    long getTtlSeconds();
+}
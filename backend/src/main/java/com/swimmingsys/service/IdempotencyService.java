@@ -0,0 +1,46 @@
+package com.swimmingsys.service;
+
+import com.swimmingsys.common.Result;
+
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 幂等请求服务接口
+ * 客户端通过 Idempotency-Key 请求头标识同一次操作，重试时直接返回首次成功的结果
+ */
+public interface IdempotencyService {
+
+    /**
+     * 幂等请求头名称
+     */
+    String HEADER_NAME = "Idempotency-Key";
+
+    /**
+     * 幂等执行操作
+     * 幂等键为空时直接执行；首次请求执行后将成功结果保存到Redis，重放请求直接返回保存的结果；
+     * 并发的重复请求等待正在执行的请求完成，不会重复执行；执行失败时不保存结果，允许客户端重试
+     *
+     * @param scope          业务范围（如 booking:confirm）
+     * @param userId         请求用户ID（幂等键按用户隔离）
+     * @param idempotencyKey 幂等键
+     * @param action         实际执行的操作
+     * @return 操作结果
+     */
+    <T> Result<T> execute(String scope, Long userId, String idempotencyKey, Supplier<Result<T>> action);
+
+    /**
+     * 幂等执行可能返回处理中结果的操作
+     * 操作返回处理中结果（如预约排队中，状态码202）时不作为最终结果：重放请求通过 pendingResolver 查询最新结果，
+     * 得到成功结果后保存，得到失败结果时释放幂等键；pendingResolver 返回null（如凭证已过期）时释放幂等键并重新执行操作
+     *
+     * @param scope           业务范围（如 booking:confirm）
+     * @param userId          请求用户ID（幂等键按用户隔离）
+     * @param idempotencyKey  幂等键
+     * @param action          实际执行的操作
+     * @param pendingResolver 根据保存的处理中结果查询最新结果，为null时处理中结果不保存
+     * @return 操作结果
+     */
+    <T> Result<T> execute(String scope, Long userId, String idempotencyKey, Supplier<Result<T>> action,
+                          UnaryOperator<Result<T>> pendingResolver);
+}
@@ -0,0 +1,60 @@
+package com.swimmingsys.service;
+
+import com.swimmingsys.model.vo.OccupancyVO;
+
+/**
+ * 场馆在馆人数服务接口
+ * 在馆会员保存在Redis有序集合中（成员为用户ID，分值为入场时间），入场和离场通过Lua脚本原子更新，
+ * 多个闸机、多个应用节点同时扫码时人数不会超过容纳上限
+ */
+public interface OccupancyService {
+
+    /**
+     * 是否启用在馆人数统计
+     *
+     * @return 是否启用
+     */
+    boolean isEnabled();
+
+    /**
+     * 会员入场，在馆人数达到容纳上限时拒绝
+     * 会员已在馆内（上次离场未扫码）时只更新入场时间，人数不变
+     *
+     * @param userId 用户ID
+     * @return 入场后的在馆人数
+     */
+    long enter(Long userId);
+
+    /**
+     * 会员离场
+     *
+     * @param userId 用户ID
+     * @return 离场后的在馆人数，会员不在馆内时人数不变
+     */
+    long exit(Long userId);
+
+    /**
+     * 获取当前在馆人数（只读取集合大小）
+     *
+     * @return 在馆人数
+     */
+    long getCurrentCount();
+
+    /**
+     * 获取在馆人数及最近一段时间的每分钟人数
+     *
+     * @return 在馆人数信息
+     */
+    OccupancyVO getOccupancy();
+
+    /**
+     * 记录当前分钟的在馆人数，同时清理超过最长停留时间的在馆记录
+     * 多个节点在同一分钟记录时只保留一条
+     */
+    void recordHistory();
+
+    /**
+     * 清空在馆会员（闭馆后或人工核对后使用）
+     */
+    void reset();
+}
@@ -0,0 +1,44 @@
+package com.swimmingsys.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.util.Collection;
+
+/**
+ * 课程名额变化推送服务接口
+ * 客户端通过SSE订阅关注课程的剩余名额，名额变化按固定间隔合并后经Redis发布订阅推送到所有节点
+ */
+public interface SeatEventService {
+
+    /**
+     * 名额变化发布频道，消息内容为 课程ID -> 剩余名额 的JSON
+     */
+    String CHANNEL = "course:seat:events";
+
+    /**
+     * 订阅课程剩余名额变化
+     * 订阅成功后立即推送一次当前剩余名额
+     *
+     * @param courseIds 课程ID集合
+     * @return SSE连接
+     */
+    SseEmitter subscribe(Collection<Long> courseIds);
+
+    /**
+     * 标记课程名额已变化（预约、取消后调用）
+     * 在事务中调用时，事务提交后才标记；同一间隔内的多次变化只推送一次
+     *
+     * @param courseIds 课程ID集合
+     */
+    void markChanged(Collection<Long> courseIds);
+
+    /**
+     * 推送本节点合并的名额变化：一次查询最新剩余名额后通过Redis发布到所有节点
+     */
+    void flush();
+
+    /**
+     * 向所有连接发送心跳，防止代理因空闲断开连接并清理已断开的连接
+     */
+    void heartbeat();
+}
@@ -0,0 +1,98 @@
+package com.swimmingsys.service;
+
+import com.swimmingsys.model.entity.Course;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+
+/**
+ * 课程名额库存服务接口
+ * 课程剩余名额保存在Redis中，通过Lua脚本原子扣减，并保证同一用户只能占用一个名额；
+ * 支持预约请求阶段短暂保留名额，确认预约时直接使用
+ */
+public interface SeatInventoryService {
+
+    /**
+     * 原子占用一个课程名额
+     * 库存不存在时先从数据库加载；在事务中调用时，事务回滚会自动归还名额
+     *
+     * @param course 课程信息
+     * @param userId 用户ID
+     * @return 占用后的剩余名额
+     */
+    long tryAcquire(Course course, Long userId);
+
+    /**
+     * 原子占用多个课程名额（团体预约）
+     * 剩余名额不足或任一用户已占用名额时整体失败，不扣减任何名额；事务回滚会自动归还全部名额
+     *
+     * @param course  课程信息
+     * @param userIds 用户ID列表
+     * @return 占用后的剩余名额
+     */
+    long tryAcquireAll(Course course, Collection<Long> userIds);
+
+    /**
+     * 为用户保留一个课程名额（预约请求阶段调用）
+     * 保留期间名额已从库存扣除，到期未确认时在下次占用或保留操作中自动归还库存；重复保留只延长截止时间
+     *
+     * @param course     课程信息
+     * @param userId     用户ID
+     * @param ttlSeconds 保留时长（秒）
+     * @return 保留截止时间
+     */
+    LocalDateTime hold(Course course, Long userId, long ttlSeconds);
+
+    /**
+     * 使用用户保留的课程名额（确认预约阶段调用）
+     * 保留有效时转为正式占用，无需再次扣减；在事务中调用时，事务回滚会自动归还名额
+     *
+     * @param courseId 课程ID
+     * @param userId   用户ID
+     * @return 保留有效并已转为正式占用返回true，没有保留或已过期返回false
+     */
+    boolean consumeHold(Long courseId, Long userId);
+
+    /**
+     * 释放用户保留的课程名额（用户放弃预约时调用），已确认的名额不受影响
+     *
+     * @param courseId 课程ID
+     * @param userId   用户ID
+     */
+    void releaseHold(Long courseId, Long userId);
+
+    /**
+     * 归还用户占用的课程名额
+     * 在事务中调用时，事务提交后才归还，避免名额提前暴露
+     *
+     * @param courseId 课程ID
+     * @param userId   用户ID
+     */
+    void release(Long courseId, Long userId);
+
+    /**
+     * 将名额从一个用户转给另一个用户（候补转正），剩余名额不变
+     * 在事务中调用时，事务提交后才转移
+     *
+     * @param courseId   课程ID
+     * @param fromUserId 原占用用户ID
+     * @param toUserId   新占用用户ID
+     */
+    void transfer(Long courseId, Long fromUserId, Long toUserId);
+
+    /**
+     * 清除课程库存，下次访问时从数据库重新加载
+     * 课程容量、状态变化或库存与数据库不一致时调用
+     *
+     * @param courseId 课程ID
+     */
+    void evict(Long courseId);
+
+    /**
+     * 批量清除课程库存
+     * 在事务中调用时，事务提交后才清除，避免提前从数据库加载到未提交的数据
+     *
+     * @param courseIds 课程ID集合
+     */
+    void evictAll(Collection<Long> courseIds);
+}
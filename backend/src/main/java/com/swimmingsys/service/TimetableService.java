@@ -0,0 +1,33 @@
+package com.swimmingsys.service;
+
+import com.swimmingsys.model.vo.WeeklyTimetableVO;
+
+import java.time.LocalDate;
+import java.util.Collection;
+
+/**
+ * 周课表服务接口
+ * 按周预先生成课表并缓存在内存中，课程变更时只重新加载变更的课程
+ */
+public interface TimetableService {
+
+    /**
+     * 获取指定日期所在周的课表
+     *
+     * @param date 日期（为空时取当前日期）
+     * @return 周课表
+     */
+    WeeklyTimetableVO getWeeklyTimetable(LocalDate date);
+
+    /**
+     * 标记课程已变更（新增、修改、删除、上下架），事务提交后通知所有节点
+     *
+     * @param courseIds 课程ID集合
+     */
+    void markCoursesChanged(Collection<Long> courseIds);
+
+    /**
+     * 使所有周课表失效（如教练姓名变更），下次访问时重新生成
+     */
+    void invalidate();
+}
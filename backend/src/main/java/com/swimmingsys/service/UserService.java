@@ -8,6 +8,7 @@ import com.swimmingsys.model.dto.UserQueryDTO;
 import com.swimmingsys.model.dto.UserRegisterDTO;
 import com.swimmingsys.model.dto.UserUpdateDTO;
 import com.swimmingsys.model.entity.User;
+import com.swimmingsys.model.vo.CursorPageVO;
 import com.swimmingsys.model.vo.UserVO;
 
 import javax.servlet.http.HttpServletRequest;
@@ -54,6 +55,15 @@ public interface UserService {
      */
     IPage<UserVO> getUserList(UserQueryDTO queryDTO);
 
+    /**
+     * 游标分页获取用户列表
+     * 不统计总数，翻页深度不影响查询耗时，仅管理员可调用
+     *
+     * @param queryDTO 查询条件（cursor为上一页返回的游标）
+     * @return 用户游标分页列表
+     */
+    CursorPageVO<UserVO> getUserListByCursor(UserQueryDTO queryDTO);
+
     /**
      * 根据ID获取用户信息
      *
@@ -0,0 +1,400 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.model.vo.AdmissionMetricsVO;
+import com.swimmingsys.model.vo.AdmissionTicketVO;
+import com.swimmingsys.model.vo.BookingVO;
+import com.swimmingsys.service.BookingAdmissionService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Supplier;
+
+/**
+ * 预约排队准入服务实现类
+ * 每门课程一个有界队列和固定大小的处理线程池，各课程共用一个全局许可，
+ * 数据库看到的确认预约并发最多为全局并发数，与同时开放的课程数无关；排队超时的凭证直接失败
+ */
+@Service
+public class BookingAdmissionServiceImpl implements BookingAdmissionService {
+
+    @Value("${booking.admission.enabled:false}")
+    private boolean enabled;
+
+    @Value("${booking.admission.concurrency:4}")
+    private int concurrency;
+
+    @Value("${booking.admission.queue-capacity:500}")
+    private int queueCapacity;
+
+    @Value("${booking.admission.max-concurrency:16}")
+    private int maxConcurrency;
+
+    @Value("${booking.admission.queue-timeout-seconds:30}")
+    private long queueTimeoutSeconds;
+
+    @Value("${booking.admission.fast-response-ms:300}")
+    private long fastResponseMillis;
+
+    @Value("${booking.admission.ticket-ttl-seconds:300}")
+    private long ticketTtlSeconds;
+
+    // 排队状态
+    private static final String STATUS_QUEUED = "QUEUED";
+    private static final String STATUS_PROCESSING = "PROCESSING";
+    private static final String STATUS_SUCCESS = "SUCCESS";
+    private static final String STATUS_FAILED = "FAILED";
+    private static final String STATUS_TIMEOUT = "TIMEOUT";
+
+    /**
+     * 全局确认预约许可（公平模式，各课程按等待先后获得），初始化时按全局并发数创建
+     */
+    private Semaphore globalPermits;
+
+    /**
+     * 各课程的排队队列
+     */
+    private final Map<Long, CourseQueue> queues = new ConcurrentHashMap<>();
+
+    /**
+     * 排队凭证，key为凭证ID
+     */
+    private final Map<String, Ticket> tickets = new ConcurrentHashMap<>();
+
+    /**
+     * 用户在同一课程上未完成的凭证，key为 课程ID:用户ID，防止重复提交占用队列
+     */
+    private final Map<String, Ticket> pendingTickets = new ConcurrentHashMap<>();
+
+    /**
+     * 初始化全局许可
+     */
+    @PostConstruct
+    public void init() {
+        globalPermits = new Semaphore(Math.max(maxConcurrency, 1), true);
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public AdmissionTicketVO submit(Long courseId, Long userId, Supplier<BookingVO> task) {
+        purgeExpired();
+
+        String pendingKey = courseId + ":" + userId;
+        Ticket existing = pendingTickets.get(pendingKey);
+        if (existing != null) {
+            // 同一用户重复提交，直接返回已有的排队凭证
+            return toTicketVO(existing);
+        }
+
+        Ticket ticket = new Ticket(UUID.randomUUID().toString().replace("-", ""), courseId, userId,
+                System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(queueTimeoutSeconds));
+        Ticket previous = pendingTickets.putIfAbsent(pendingKey, ticket);
+        if (previous != null) {
+            return toTicketVO(previous);
+        }
+
+        tickets.put(ticket.id, ticket);
+        try {
+            enqueue(ticket, task);
+        } catch (RejectedExecutionException e) {
+            // 队列已满，快速失败
+            tickets.remove(ticket.id);
+            pendingTickets.remove(pendingKey, ticket);
+            throw new RuntimeException("当前预约人数过多，请稍后重试");
+        }
+
+        // 快速响应窗口内完成则直接返回结果，否则返回排队位置
+        try {
+            ticket.future.get(fastResponseMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            // 仍在排队
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            // 失败原因已记录在凭证中
+        }
+        return toTicketVO(ticket);
+    }
+
+    @Override
+    public AdmissionTicketVO getTicket(String ticketId, Long userId) {
+        purgeExpired();
+        Ticket ticket = tickets.get(ticketId);
+        if (ticket == null || !ticket.userId.equals(userId)) {
+            throw new RuntimeException("排队凭证不存在或已过期");
+        }
+        return toTicketVO(ticket);
+    }
+
+    @Override
+    public AdmissionMetricsVO getMetrics() {
+        purgeExpired();
+        AdmissionMetricsVO metricsVO = new AdmissionMetricsVO();
+        metricsVO.setEnabled(enabled);
+        metricsVO.setConcurrency(concurrency);
+        metricsVO.setQueueCapacity(queueCapacity);
+        metricsVO.setMaxConcurrency(maxConcurrency);
+        metricsVO.setInFlightCount(Math.max(maxConcurrency, 1) - globalPermits.availablePermits());
+        metricsVO.setQueueTimeoutSeconds(queueTimeoutSeconds);
+
+        List<AdmissionMetricsVO.CourseQueueMetrics> courses = new ArrayList<>();
+        long totalQueueDepth = 0;
+        for (CourseQueue queue : queues.values()) {
+            AdmissionMetricsVO.CourseQueueMetrics metrics = new AdmissionMetricsVO.CourseQueueMetrics();
+            metrics.setCourseId(queue.courseId);
+            metrics.setQueueDepth(queue.executor.getQueue().size());
+            metrics.setActiveCount(queue.executor.getActiveCount());
+            metrics.setSubmittedCount(queue.submitted.get());
+            metrics.setCompletedCount(queue.completed.get());
+            metrics.setRejectedCount(queue.rejected.get());
+            metrics.setTimedOutCount(queue.timedOut.get());
+            long started = queue.started.get();
+            metrics.setAvgWaitMillis(started == 0 ? 0L : queue.totalWaitMillis.get() / started);
+            metrics.setMaxWaitMillis(queue.maxWaitMillis.get());
+            totalQueueDepth += metrics.getQueueDepth();
+            courses.add(metrics);
+        }
+        courses.sort(Comparator.comparing(AdmissionMetricsVO.CourseQueueMetrics::getQueueDepth).reversed());
+        metricsVO.setCourses(courses);
+        metricsVO.setTotalQueueDepth(totalQueueDepth);
+        return metricsVO;
+    }
+
+    /**
+     * 应用关闭时停止所有课程队列
+     */
+    @PreDestroy
+    public void shutdown() {
+        for (CourseQueue queue : queues.values()) {
+            queue.executor.shutdown();
+        }
+    }
+
+    /**
+     * 将凭证放入课程队列
+     * 通过compute保证与空闲队列回收互斥，避免任务提交到已关闭的线程池
+     *
+     * @param ticket 排队凭证
+     * @param task   确认预约任务
+     */
+    private void enqueue(Ticket ticket, Supplier<BookingVO> task) {
+        queues.compute(ticket.courseId, (courseId, queue) -> {
+            if (queue == null || queue.executor.isShutdown()) {
+                queue = new CourseQueue(courseId, concurrency, queueCapacity);
+            }
+            ticket.sequence = queue.sequence.incrementAndGet();
+            // 处理线程可能在compute返回前启动，直接传入队列而不是从队列表中查找
+            CourseQueue target = queue;
+            ticket.runnable = () -> process(ticket, target, task);
+            try {
+                queue.executor.execute(ticket.runnable);
+            } catch (RejectedExecutionException e) {
+                queue.rejected.incrementAndGet();
+                throw e;
+            }
+            queue.submitted.incrementAndGet();
+            queue.lastActiveTime = System.currentTimeMillis();
+            return queue;
+        });
+    }
+
+    /**
+     * 处理排队中的确认预约请求
+     * 先在截止时间前获取全局许可，获取不到或凭证已超时则不执行确认预约
+     *
+     * @param ticket 排队凭证
+     * @param queue  课程队列
+     * @param task   确认预约任务
+     */
+    private void process(Ticket ticket, CourseQueue queue, Supplier<BookingVO> task) {
+        boolean acquired = false;
+        try {
+            long remainingMillis = ticket.deadline - System.currentTimeMillis();
+            acquired = remainingMillis > 0 && globalPermits.tryAcquire(remainingMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!acquired || !ticket.status.compareAndSet(STATUS_QUEUED, STATUS_PROCESSING)) {
+            if (acquired) {
+                globalPermits.release();
+            }
+            expire(ticket, queue);
+            return;
+        }
+
+        long waitMillis = System.currentTimeMillis() - ticket.createTime;
+        ticket.waitMillis = waitMillis;
+        queue.started.incrementAndGet();
+        queue.startedSequence.accumulateAndGet(ticket.sequence, Math::max);
+        queue.totalWaitMillis.addAndGet(waitMillis);
+        queue.maxWaitMillis.accumulateAndGet(waitMillis, Math::max);
+        try {
+            ticket.booking = task.get();
+            ticket.message = "预约成功";
+            ticket.status.set(STATUS_SUCCESS);
+            ticket.future.complete(ticket.booking);
+        } catch (Exception e) {
+            ticket.message = e.getMessage();
+            ticket.status.set(STATUS_FAILED);
+            ticket.future.completeExceptionally(e);
+        } finally {
+            globalPermits.release();
+            ticket.finishTime = System.currentTimeMillis();
+            pendingTickets.remove(ticket.courseId + ":" + ticket.userId, ticket);
+            queue.completed.incrementAndGet();
+            queue.lastActiveTime = ticket.finishTime;
+        }
+    }
+
+    /**
+     * 将仍在排队的凭证标记为超时（客户端放弃或排队过久），从课程队列中移除，释放重复提交占位
+     * 凭证已开始处理或已结束时不做任何处理
+     *
+     * @param ticket 排队凭证
+     * @param queue  课程队列，可为null
+     */
+    private void expire(Ticket ticket, CourseQueue queue) {
+        if (!ticket.status.compareAndSet(STATUS_QUEUED, STATUS_TIMEOUT)) {
+            return;
+        }
+        long now = System.currentTimeMillis();
+        ticket.message = "排队超时，请重新预约";
+        ticket.waitMillis = now - ticket.createTime;
+        ticket.finishTime = now;
+        ticket.future.completeExceptionally(new RuntimeException(ticket.message));
+        pendingTickets.remove(ticket.courseId + ":" + ticket.userId, ticket);
+        if (queue != null) {
+            queue.executor.remove(ticket.runnable);
+            queue.timedOut.incrementAndGet();
+            queue.lastActiveTime = now;
+        }
+    }
+
+    /**
+     * 清理过期的凭证和空闲的课程队列，排队超过截止时间的凭证标记为超时
+     */
+    private void purgeExpired() {
+        long now = System.currentTimeMillis();
+        long ttlMillis = TimeUnit.SECONDS.toMillis(ticketTtlSeconds);
+        for (Ticket ticket : tickets.values()) {
+            if (STATUS_QUEUED.equals(ticket.status.get()) && now > ticket.deadline) {
+                expire(ticket, queues.get(ticket.courseId));
+            }
+        }
+        tickets.values().removeIf(ticket -> ticket.finishTime > 0 && now - ticket.finishTime > ttlMillis);
+
+        for (Long courseId : new ArrayList<>(queues.keySet())) {
+            queues.computeIfPresent(courseId, (id, queue) -> {
+                boolean idle = queue.executor.getQueue().isEmpty()
+                        && queue.executor.getActiveCount() == 0
+                        && now - queue.lastActiveTime > ttlMillis;
+                if (idle) {
+                    queue.executor.shutdown();
+                    return null;
+                }
+                return queue;
+            });
+        }
+    }
+
+    /**
+     * 转换为排队凭证VO
+     *
+     * @param ticket 排队凭证
+     * @return 排队凭证VO
+     */
+    private AdmissionTicketVO toTicketVO(Ticket ticket) {
+        AdmissionTicketVO ticketVO = new AdmissionTicketVO();
+        ticketVO.setTicketId(ticket.id);
+        ticketVO.setCourseId(ticket.courseId);
+        String status = ticket.status.get();
+        ticketVO.setStatus(status);
+        ticketVO.setMessage(ticket.message);
+        ticketVO.setBooking(ticket.booking);
+        if (STATUS_QUEUED.equals(status)) {
+            CourseQueue queue = queues.get(ticket.courseId);
+            long started = queue == null ? 0 : queue.startedSequence.get();
+            ticketVO.setPosition(Math.max(ticket.sequence - started, 1L));
+            ticketVO.setWaitMillis(System.currentTimeMillis() - ticket.createTime);
+        } else {
+            ticketVO.setWaitMillis(ticket.waitMillis);
+        }
+        return ticketVO;
+    }
+
+    /**
+     * 课程排队队列
+     */
+    private static class CourseQueue {
+        private final Long courseId;
+        private final ThreadPoolExecutor executor;
+        private final AtomicLong sequence = new AtomicLong();
+        private final AtomicLong startedSequence = new AtomicLong();
+        private final AtomicLong submitted = new AtomicLong();
+        private final AtomicLong started = new AtomicLong();
+        private final AtomicLong completed = new AtomicLong();
+        private final AtomicLong rejected = new AtomicLong();
+        private final AtomicLong timedOut = new AtomicLong();
+        private final AtomicLong totalWaitMillis = new AtomicLong();
+        private final AtomicLong maxWaitMillis = new AtomicLong();
+        private volatile long lastActiveTime = System.currentTimeMillis();
+
+        CourseQueue(Long courseId, int concurrency, int queueCapacity) {
+            this.courseId = courseId;
+            this.executor = new ThreadPoolExecutor(concurrency, concurrency, 60L, TimeUnit.SECONDS,
+                    new LinkedBlockingQueue<>(queueCapacity), runnable -> {
+                        Thread thread = new Thread(runnable, "booking-admission-" + courseId);
+                        thread.setDaemon(true);
+                        return thread;
+                    }, new ThreadPoolExecutor.AbortPolicy());
+            this.executor.allowCoreThreadTimeOut(true);
+        }
+    }
+
+    /**
+     * 排队凭证
+     */
+    private static class Ticket {
+        private final String id;
+        private final Long courseId;
+        private final Long userId;
+        private final long createTime = System.currentTimeMillis();
+        private final long deadline;
+        private final CompletableFuture<BookingVO> future = new CompletableFuture<>();
+        private final AtomicReference<String> status = new AtomicReference<>(STATUS_QUEUED);
+        private long sequence;
+        private Runnable runnable;
+        private volatile String message = "排队中";
+        private volatile BookingVO booking;
+        private volatile long waitMillis;
+        private volatile long finishTime;
+
+        Ticket(String id, Long courseId, Long userId, long deadline) {
+            this.id = id;
+            this.courseId = courseId;
+            this.userId = userId;
+            this.deadline = deadline;
+        }
+    }
+}
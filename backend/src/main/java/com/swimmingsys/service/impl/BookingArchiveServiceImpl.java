@@ -0,0 +1,153 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.mapper.BookingMapper;
+import com.swimmingsys.model.vo.BookingArchiveReportVO;
+import com.swimmingsys.service.BookingArchiveService;
+import com.swimmingsys.service.DistributedLockService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.Resource;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预约归档服务实现类
+ * 按主键游标取一批可归档的预约ID，在同一事务中 INSERT ... SELECT 到归档表并从预约表删除，
+ * 每批单独提交，批次之间短暂停顿，避免长时间持有booking表的行锁
+ */
+@Service
+public class BookingArchiveServiceImpl implements BookingArchiveService {
+
+    @Resource
+    private BookingMapper bookingMapper;
+
+    @Resource
+    private DistributedLockService distributedLockService;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${booking.archive.retention-days:180}")
+    private long retentionDays;
+
+    @Value("${booking.archive.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${booking.archive.max-chunks:200}")
+    private int maxChunks;
+
+    @Value("${booking.archive.pause-ms:50}")
+    private long pauseMillis;
+
+    @Value("${booking.archive.lock-ttl-seconds:1800}")
+    private long lockTtlSeconds;
+
+    // 分布式锁名称
+    private static final String LOCK_KEY = "booking:archive";
+
+    // 运行报告缓存Key，保留7天
+    private static final String REPORT_KEY = "booking:archive:last-report";
+    private static final long REPORT_EXPIRE_DAYS = 7;
+
+    private static final String STATUS_SUCCESS = "SUCCESS";
+    private static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * 当前节点标识（进程名，格式为 pid@hostname）
+     */
+    private static final String NODE = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Override
+    public BookingArchiveReportVO archiveBookings(String trigger) {
+        // 1. 获取分布式锁，其他节点正在执行时直接返回
+        String token = distributedLockService.tryLock(LOCK_KEY, lockTtlSeconds);
+        if (token == null) {
+            throw new RuntimeException("预约归档任务正在其他节点执行，请稍后再试");
+        }
+
+        BookingArchiveReportVO report = new BookingArchiveReportVO();
+        report.setTrigger(trigger);
+        report.setNode(NODE);
+        report.setChunkSize(chunkSize);
+        report.setStartTime(LocalDateTime.now());
+        // 截止点固定为开始时间减去保留天数，保证整次运行的判定条件一致
+        LocalDateTime cutoff = report.getStartTime().minusDays(retentionDays);
+        report.setCutoffTime(cutoff);
+
+        long lastId = 0L;
+        int chunkCount = 0;
+        long archivedCount = 0L;
+        try {
+            // 2. 按主键分批归档预约
+            while (true) {
+                if (chunkCount >= maxChunks) {
+                    report.setMessage("已达到单次最大批次数，剩余预约将在下次运行时归档");
+                    break;
+                }
+                List<Long> ids = bookingMapper.selectArchivableIds(lastId, cutoff, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                LocalDateTime archivedTime = LocalDateTime.now();
+                Integer moved = transactionTemplate.execute(status -> {
+                    bookingMapper.copyToArchive(ids, archivedTime);
+                    return bookingMapper.deleteArchived(ids);
+                });
+                archivedCount += moved == null ? 0 : moved;
+                lastId = ids.get(ids.size() - 1);
+                chunkCount++;
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                // 批次之间停顿，让出行锁给在线业务
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+            report.setStatus(STATUS_SUCCESS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.setStatus(STATUS_FAILED);
+            report.setMessage("任务被中断");
+        } catch (Exception e) {
+            report.setStatus(STATUS_FAILED);
+            report.setMessage(e.getMessage());
+        } finally {
+            distributedLockService.unlock(LOCK_KEY, token);
+        }
+
+        report.setEndTime(LocalDateTime.now());
+        report.setElapsedMillis(Duration.between(report.getStartTime(), report.getEndTime()).toMillis());
+        report.setChunkCount(chunkCount);
+        report.setArchivedCount(archivedCount);
+        report.setLastBookingId(lastId);
+
+        // 3. 保存运行报告
+        try {
+            redisTemplate.opsForValue().set(REPORT_KEY, report, REPORT_EXPIRE_DAYS, TimeUnit.DAYS);
+        } catch (Exception e) {
+            // 报告保存失败不影响主业务
+        }
+        return report;
+    }
+
+    @Override
+    public BookingArchiveReportVO getLastReport() {
+        Object report = redisTemplate.opsForValue().get(REPORT_KEY);
+        return report instanceof BookingArchiveReportVO ? (BookingArchiveReportVO) report : null;
+    }
+
+    @Override
+    public boolean coversArchive(LocalDateTime bookingTimeBegin) {
+        return bookingTimeBegin != null && bookingTimeBegin.isBefore(LocalDateTime.now().minusDays(retentionDays));
+    }
+}
@@ -0,0 +1,151 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.mapper.BookingMapper;
+import com.swimmingsys.model.vo.BookingCompletionReportVO;
+import com.swimmingsys.service.BookingCompletionService;
+import com.swimmingsys.service.DistributedLockService;
+import com.swimmingsys.service.StatisticsService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 预约自动完成服务实现类
+ * 先按主键游标取一批待完成的预约ID，再用 UPDATE ... JOIN course 按主键区间批量更新，
+ * 每批自动提交，批次之间短暂停顿，避免长时间持有booking表的行锁
+ */
+@Service
+public class BookingCompletionServiceImpl implements BookingCompletionService {
+
+    @Resource
+    private BookingMapper bookingMapper;
+
+    @Resource
+    private DistributedLockService distributedLockService;
+
+    @Resource
+    private StatisticsService statisticsService;
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${booking.completion.chunk-size:500}")
+    private int chunkSize;
+
+    @Value("${booking.completion.max-chunks:200}")
+    private int maxChunks;
+
+    @Value("${booking.completion.pause-ms:50}")
+    private long pauseMillis;
+
+    @Value("${booking.completion.lock-ttl-seconds:600}")
+    private long lockTtlSeconds;
+
+    // 分布式锁名称
+    private static final String LOCK_KEY = "booking:completion";
+
+    // 运行报告缓存Key，保留7天
+    private static final String REPORT_KEY = "booking:completion:last-report";
+    private static final long REPORT_EXPIRE_DAYS = 7;
+
+    private static final String STATUS_SUCCESS = "SUCCESS";
+    private static final String STATUS_FAILED = "FAILED";
+
+    /**
+     * 当前节点标识（进程名，格式为 pid@hostname）
+     */
+    private static final String NODE = ManagementFactory.getRuntimeMXBean().getName();
+
+    @Override
+    public BookingCompletionReportVO completeFinishedBookings(String trigger) {
+        // 1. 获取分布式锁，其他节点正在执行时直接返回
+        String token = distributedLockService.tryLock(LOCK_KEY, lockTtlSeconds);
+        if (token == null) {
+            throw new RuntimeException("预约完成任务正在其他节点执行，请稍后再试");
+        }
+
+        BookingCompletionReportVO report = new BookingCompletionReportVO();
+        report.setTrigger(trigger);
+        report.setNode(NODE);
+        report.setChunkSize(chunkSize);
+        report.setStartTime(LocalDateTime.now());
+        // 截止点固定为开始时间，保证整次运行的判定条件一致
+        LocalDateTime cutoff = report.getStartTime();
+        report.setCutoffTime(cutoff);
+
+        long lastId = 0L;
+        int chunkCount = 0;
+        long completedCount = 0L;
+        try {
+            // 2. 按主键分批完成预约
+            while (true) {
+                if (chunkCount >= maxChunks) {
+                    report.setMessage("已达到单次最大批次数，剩余预约将在下次运行时处理");
+                    break;
+                }
+                List<Long> ids = bookingMapper.selectCompletableIds(lastId, cutoff, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                Long toId = ids.get(ids.size() - 1);
+                completedCount += bookingMapper.completeFinishedInRange(lastId, toId, cutoff);
+                lastId = toId;
+                chunkCount++;
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                // 批次之间停顿，让出行锁给在线业务
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+            report.setStatus(STATUS_SUCCESS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            report.setStatus(STATUS_FAILED);
+            report.setMessage("任务被中断");
+        } catch (Exception e) {
+            report.setStatus(STATUS_FAILED);
+            report.setMessage(e.getMessage());
+        } finally {
+            distributedLockService.unlock(LOCK_KEY, token);
+        }
+
+        report.setEndTime(LocalDateTime.now());
+        report.setElapsedMillis(Duration.between(report.getStartTime(), report.getEndTime()).toMillis());
+        report.setChunkCount(chunkCount);
+        report.setCompletedCount(completedCount);
+        report.setLastBookingId(lastId);
+
+        // 3. 有预约状态变化时清除统计缓存
+        if (completedCount > 0) {
+            try {
+                statisticsService.clearBookingCache();
+                statisticsService.clearDashboardCache();
+            } catch (Exception e) {
+                // 缓存清除失败不影响主业务
+            }
+        }
+
+        // 4. 保存运行报告
+        try {
+            redisTemplate.opsForValue().set(REPORT_KEY, report, REPORT_EXPIRE_DAYS, TimeUnit.DAYS);
+        } catch (Exception e) {
+            // 报告保存失败不影响主业务
+        }
+        return report;
+    }
+
+    @Override
+    public BookingCompletionReportVO getLastReport() {
+        Object report = redisTemplate.opsForValue().get(REPORT_KEY);
+        return report instanceof BookingCompletionReportVO ? (BookingCompletionReportVO) report : null;
+    }
+}
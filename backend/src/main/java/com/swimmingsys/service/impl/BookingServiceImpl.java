@@ -1,33 +1,60 @@
 package com.swimmingsys.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.swimmingsys.common.RoleConstant;
 import com.swimmingsys.mapper.BookingMapper;
-import com.swimmingsys.mapper.CoachMapper;
 import com.swimmingsys.mapper.CourseMapper;
+import com.swimmingsys.mapper.CourseWaitlistMapper;
 import com.swimmingsys.mapper.UserMapper;
 import com.swimmingsys.model.dto.BookingAddDTO;
+import com.swimmingsys.model.dto.BookingBatchCancelDTO;
 import com.swimmingsys.model.dto.BookingConfirmDTO;
+import com.swimmingsys.model.dto.BookingGroupDTO;
 import com.swimmingsys.model.dto.BookingQueryDTO;
 import com.swimmingsys.model.entity.Booking;
-import com.swimmingsys.model.entity.Coach;
 import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.model.entity.CourseWaitlist;
 import com.swimmingsys.model.entity.User;
 import com.swimmingsys.model.vo.BookingConflictCheckVO;
 import com.swimmingsys.model.vo.BookingVO;
 import com.swimmingsys.model.vo.CourseVO;
+import com.swimmingsys.model.vo.CursorPageVO;
+import com.swimmingsys.model.vo.GroupBookingVO;
+import com.swimmingsys.model.vo.WaitlistVO;
+import com.swimmingsys.service.BookingArchiveService;
 import com.swimmingsys.service.BookingService;
+import com.swimmingsys.service.CoachService;
+import com.swimmingsys.service.CourseCatalogCacheService;
+import com.swimmingsys.service.SeatEventService;
+import com.swimmingsys.service.SeatInventoryService;
+import com.swimmingsys.service.TimetableService;
+import com.swimmingsys.utils.CursorUtil;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import javax.annotation.Resource;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 /**
  * 预约服务实现类
- * 使用乐观锁机制处理并发预约问题
+ * 默认使用乐观锁机制处理并发预约问题，可切换为Redis原子库存模式
  */
 @Service
 public class BookingServiceImpl implements BookingService {
@@ -39,7 +66,7 @@ public class BookingServiceImpl implements BookingService {
     private CourseMapper courseMapper;
 
     @Resource
-    private CoachMapper coachMapper;
+    private CoachService coachService;
 
     @Resource
     private UserMapper userMapper;
@@ -47,11 +74,85 @@ public class BookingServiceImpl implements BookingService {
     @Resource
     private com.swimmingsys.service.StatisticsService statisticsService;
 
+    @Resource
+    private SeatInventoryService seatInventoryService;
+
+    @Resource
+    private CourseWaitlistMapper courseWaitlistMapper;
+
+    @Resource
+    private CourseCatalogCacheService courseCatalogCacheService;
+
+    @Resource
+    private SeatEventService seatEventService;
+
+    @Resource
+    private BookingArchiveService bookingArchiveService;
+
+    @Resource
+    private TimetableService timetableService;
+
+    /**
+     * 名额扣减策略：optimistic-数据库乐观锁，atomic-数据库条件更新，redis-Redis原子库存
+     */
+    @Value("${booking.seat-strategy:optimistic}")
+    private String seatStrategy;
+
+    /**
+     * 是否在预约请求阶段保留名额（仅Redis原子库存策略生效）
+     */
+    @Value("${booking.seat-hold.enabled:false}")
+    private boolean seatHoldEnabled;
+
+    /**
+     * 名额保留时长（秒）
+     */
+    @Value("${booking.seat-hold.ttl-seconds:120}")
+    private long seatHoldTtlSeconds;
+
     /**
      * 乐观锁更新最大重试次数
      */
     private static final int MAX_RETRY_COUNT = 3;
 
+    /**
+     * 数据库条件更新策略
+     */
+    private static final String SEAT_STRATEGY_ATOMIC = "atomic";
+
+    /**
+     * Redis原子库存策略
+     */
+    private static final String SEAT_STRATEGY_REDIS = "redis";
+
+    /**
+     * 候补状态：0-已取消，1-候补中，2-已转正，3-已失效
+     */
+    private static final int WAITLIST_STATUS_CANCELLED = 0;
+    private static final int WAITLIST_STATUS_WAITING = 1;
+    private static final int WAITLIST_STATUS_PROMOTED = 2;
+    private static final int WAITLIST_STATUS_EXPIRED = 3;
+
+    /**
+     * 单次取消最多尝试转正的候补人数（跳过已失效的候补）
+     */
+    private static final int MAX_PROMOTE_ATTEMPTS = 10;
+
+    /**
+     * 占座乐观锁冲突重试累计次数
+     */
+    private final AtomicLong optimisticRetryCount = new AtomicLong();
+
+    /**
+     * 占座因重试次数耗尽而失败的累计次数
+     */
+    private final AtomicLong optimisticExhaustedCount = new AtomicLong();
+
+    /**
+     * 我的候补记录最大返回条数
+     */
+    private static final int MY_WAITLIST_LIMIT = 50;
+
     /**
      * 预约请求（含冲突检测）
      * 检测用户在同一时间段是否有其他预约
@@ -79,10 +180,16 @@ public class BookingServiceImpl implements BookingService {
         // 4. 校验用户是否已预约该课程
         checkDuplicateBooking(loginUser.getId(), course.getId());
 
-        // 5. 检测时间冲突
         BookingConflictCheckVO conflictVO = new BookingConflictCheckVO();
         conflictVO.setRequestedCourse(convertToCourseVO(course));
 
+        // 5. 保留名额，确认预约时直接使用，确认前不会被他人抢占
+        if (isSeatHoldEnabled()) {
+            conflictVO.setSeatHoldExpireTime(seatInventoryService.hold(course, loginUser.getId(), seatHoldTtlSeconds));
+        }
+
+        // 6. 检测时间冲突
+
         Booking conflictBooking = findConflictBooking(loginUser.getId(), course.getStartTime(), course.getEndTime());
         if (conflictBooking != null) {
             conflictVO.setHasConflict(true);
@@ -119,8 +226,11 @@ public class BookingServiceImpl implements BookingService {
         // 3. 校验课程是否可预约
         validateCourseBookable(course);
 
-        // 4. 校验用户是否已预约该课程
-        checkDuplicateBooking(loginUser.getId(), course.getId());
+        // 4. 使用请求阶段保留的名额；保留有效时重复预约已在保留时校验，无需再次查询
+        boolean seatHeld = isSeatHoldEnabled() && seatInventoryService.consumeHold(course.getId(), loginUser.getId());
+        if (!seatHeld) {
+            checkDuplicateBooking(loginUser.getId(), course.getId());
+        }
 
         // 5. 处理时间冲突
         Booking conflictBooking = findConflictBooking(loginUser.getId(), course.getStartTime(), course.getEndTime());
@@ -141,52 +251,40 @@ public class BookingServiceImpl implements BookingService {
             }
         }
 
-        // 6. 使用乐观锁更新课程人数
-        int retryCount = 0;
-        while (retryCount < MAX_RETRY_COUNT) {
-            // 重新获取最新的课程数据
-            course = courseMapper.selectById(dto.getCourseId());
-            if (course == null || course.getIsDelete() == 1) {
-                throw new RuntimeException("课程不存在");
-            }
-
-            // 再次校验课程是否可预约
-            validateCourseBookable(course);
-
-            // 更新课程人数（使用乐观锁）
-            course.setCurrentCount(course.getCurrentCount() + 1);
-            int updateResult = courseMapper.updateById(course);
-
-            if (updateResult > 0) {
-                // 乐观锁更新成功，创建预约记录
-                Booking booking = new Booking();
-                booking.setUserId(loginUser.getId());
-                booking.setCourseId(course.getId());
-                booking.setBookingTime(LocalDateTime.now());
-                booking.setStatus(1); // 已预约
-
-                int insertResult = bookingMapper.insert(booking);
-                if (insertResult <= 0) {
-                    throw new RuntimeException("创建预约记录失败");
-                }
+        // 6. 占用课程名额（已使用保留名额时只需同步数据库人数）
+        if (seatHeld) {
+            syncRedisSeatToDatabase(course);
+        } else if (SEAT_STRATEGY_REDIS.equals(seatStrategy)) {
+            occupySeatByRedis(course, loginUser.getId());
+        } else if (SEAT_STRATEGY_ATOMIC.equals(seatStrategy)) {
+            occupySeatByConditionalUpdate(course);
+        } else {
+            course = occupySeatByOptimisticLock(dto.getCourseId());
+        }
 
-                // 清除预约统计缓存和运营概览缓存
-                try {
-                    statisticsService.clearBookingCache();
-                    statisticsService.clearDashboardCache();
-                } catch (Exception e) {
-                    // 缓存清除失败不影响主业务
-                }
+        // 7. 创建预约记录
+        Booking booking = new Booking();
+        booking.setUserId(loginUser.getId());
+        booking.setCourseId(course.getId());
+        booking.setBookingTime(LocalDateTime.now());
+        booking.setStatus(1); // 已预约
 
-                return convertToBookingVO(booking);
-            }
+        int insertResult = bookingMapper.insert(booking);
+        if (insertResult <= 0) {
+            throw new RuntimeException("创建预约记录失败");
+        }
 
-            // 乐观锁更新失败，重试
-            retryCount++;
+        // 清除预约统计缓存和运营概览缓存，刷新课程目录名额
+        try {
+            statisticsService.clearBookingCache();
+            statisticsService.clearDashboardCache();
+            courseCatalogCacheService.refreshSeats(Collections.singletonList(course.getId()));
+            seatEventService.markChanged(Collections.singletonList(course.getId()));
+        } catch (Exception e) {
+            // 缓存清除失败不影响主业务
         }
 
-        // 超过最大重试次数
-        throw new RuntimeException("预约失败，系统繁忙请稍后重试");
+        return convertToBookingVO(booking);
     }
 
     /**
@@ -225,6 +323,220 @@ public class BookingServiceImpl implements BookingService {
         return cancelBookingInternal(booking);
     }
 
+    /**
+     * 按课程批量取消预约（管理员）
+     * 一个事务内用集合更新取消所有有效预约，每门课程的已预约人数只重新计算一次，缓存只清除一次；
+     * 同时取消课程时课程下架、候补名单失效，否则释放的名额按加入顺序转给候补会员
+     *
+     * @param dto 课程ID列表
+     * @return 操作结果（课程数、取消的预约数、失效的候补数、转正的候补数）
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public Map<String, Object> cancelCourseBookings(BookingBatchCancelDTO dto) {
+        // 1. 参数校验
+        if (dto == null || dto.getCourseIds() == null || dto.getCourseIds().isEmpty()) {
+            throw new RuntimeException("课程ID列表不能为空");
+        }
+        Set<Long> courseIds = dto.getCourseIds().stream()
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        if (courseIds.isEmpty()) {
+            throw new RuntimeException("课程ID列表不能为空");
+        }
+
+        boolean cancelCourse = Boolean.TRUE.equals(dto.getCancelCourse());
+
+        // 2. 批量取消有效预约
+        UpdateWrapper<Booking> bookingWrapper = new UpdateWrapper<>();
+        bookingWrapper.set("status", 0); // 已取消
+        bookingWrapper.set("cancel_time", LocalDateTime.now());
+        bookingWrapper.in("course_id", courseIds);
+        bookingWrapper.eq("status", 1); // 已预约状态
+        bookingWrapper.eq("is_delete", 0);
+        int cancelledCount = bookingMapper.update(null, bookingWrapper);
+
+        // 3. 重新计算课程已预约人数（一条语句）
+        courseMapper.recountCurrentCount(courseIds);
+
+        // 4. 同时取消课程时课程下架，候补名单失效；否则课程保持原状态，释放的名额按顺序转给候补会员
+        int expiredWaitlistCount = 0;
+        int promotedCount = 0;
+        if (!cancelCourse && cancelledCount > 0) {
+            for (Course course : courseMapper.selectBatchIds(courseIds)) {
+                promotedCount += promoteFreedSeats(course);
+            }
+        }
+        if (cancelCourse) {
+            UpdateWrapper<Course> courseWrapper = new UpdateWrapper<>();
+            courseWrapper.set("status", 0); // 已下架
+            courseWrapper.in("id", courseIds);
+            courseWrapper.eq("is_delete", 0);
+            courseMapper.update(null, courseWrapper);
+
+            UpdateWrapper<CourseWaitlist> waitlistWrapper = new UpdateWrapper<>();
+            waitlistWrapper.set("status", WAITLIST_STATUS_EXPIRED);
+            waitlistWrapper.in("course_id", courseIds);
+            waitlistWrapper.eq("status", WAITLIST_STATUS_WAITING);
+            waitlistWrapper.eq("is_delete", 0);
+            expiredWaitlistCount = courseWaitlistMapper.update(null, waitlistWrapper);
+        }
+
+        // 5. Redis库存在事务提交后统一清除，下次访问从数据库重新加载
+        seatInventoryService.evictAll(courseIds);
+
+        // 6. 清除预约统计缓存和运营概览缓存，刷新课程目录名额（整批只清除一次）
+        if (cancelCourse) {
+            try {
+                courseCatalogCacheService.invalidateCourses(courseMapper.selectBatchIds(courseIds));
+                timetableService.markCoursesChanged(courseIds);
+            } catch (Exception e) {
+                // 缓存清除失败不影响主业务
+            }
+        }
+        if (cancelledCount > 0) {
+            try {
+                statisticsService.clearBookingCache();
+                statisticsService.clearDashboardCache();
+                courseCatalogCacheService.refreshSeats(courseIds);
+                seatEventService.markChanged(courseIds);
+            } catch (Exception e) {
+                // 缓存清除失败不影响主业务
+            }
+        }
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("courseCount", courseIds.size());
+        result.put("cancelledCount", cancelledCount);
+        result.put("expiredWaitlistCount", expiredWaitlistCount);
+        result.put("promotedCount", promotedCount);
+        return result;
+    }
+
+    /**
+     * 团体预约（管理员为多名会员预约同一课程）
+     * 先用批量查询逐个校验会员，任一会员无法预约时直接返回各会员的结果且不占用名额；
+     * 全部可预约时一条条件更新占用全部名额，一条多值INSERT创建全部预约记录
+     *
+     * @param dto 课程ID和会员ID列表
+     * @return 团体预约结果
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public GroupBookingVO groupBooking(BookingGroupDTO dto, User loginUser) {
+        // 1. 参数校验
+        if (dto == null || dto.getCourseId() == null) {
+            throw new RuntimeException("课程ID不能为空");
+        }
+        if (dto.getUserIds() == null || dto.getUserIds().isEmpty()) {
+            throw new RuntimeException("会员ID列表不能为空");
+        }
+        List<Long> userIds = dto.getUserIds().stream()
+                .filter(Objects::nonNull)
+                .distinct()
+                .collect(Collectors.toList());
+        if (userIds.isEmpty()) {
+            throw new RuntimeException("会员ID列表不能为空");
+        }
+        Map<Long, User> userMap = userMapper.selectBatchIds(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        // 会员只能为本人和已关联到本人的家庭成员预约
+        if (loginUser.getRole() != RoleConstant.ADMIN) {
+            for (Long userId : userIds) {
+                User user = userMap.get(userId);
+                boolean own = userId.equals(loginUser.getId())
+                        || (user != null && loginUser.getId().equals(user.getGuardianId()));
+                if (!own) {
+                    throw new RuntimeException("只能为本人或已关联的家庭成员预约");
+                }
+            }
+        }
+
+        // 2. 查询课程信息
+        Course course = courseMapper.selectById(dto.getCourseId());
+        if (course == null || course.getIsDelete() == 1) {
+            throw new RuntimeException("课程不存在");
+        }
+
+        // 3. 校验课程是否可预约
+        validateCourseBookable(course);
+
+        GroupBookingVO groupVO = new GroupBookingVO();
+        groupVO.setCourseId(course.getId());
+        groupVO.setCourseName(course.getCourseName());
+        groupVO.setBookedCount(0);
+
+        // 4. 逐个会员校验（会员状态、重复预约、时间冲突各一次批量查询）
+        List<GroupBookingVO.MemberResult> results = checkGroupMembers(course, userIds, userMap);
+        groupVO.setResults(results);
+        long failedCount = results.stream().filter(r -> !r.getSuccess()).count();
+        if (failedCount > 0) {
+            groupVO.setSuccess(false);
+            groupVO.setMessage(failedCount + "名会员无法预约，本次未占用任何名额");
+            return groupVO;
+        }
+        int available = course.getCapacity() - course.getCurrentCount();
+        if (userIds.size() > available) {
+            groupVO.setSuccess(false);
+            groupVO.setMessage("课程剩余名额不足（剩余" + available + "个，需要" + userIds.size() + "个），本次未占用任何名额");
+            return groupVO;
+        }
+
+        // 5. 一次占用全部名额
+        if (SEAT_STRATEGY_REDIS.equals(seatStrategy)) {
+            seatInventoryService.tryAcquireAll(course, userIds);
+            if (courseMapper.occupySeats(course.getId(), userIds.size(), LocalDateTime.now()) <= 0) {
+                seatInventoryService.evict(course.getId());
+                throw new RuntimeException("课程剩余名额不足，本次未占用任何名额");
+            }
+        } else if (courseMapper.occupySeats(course.getId(), userIds.size(), LocalDateTime.now()) <= 0) {
+            Course latest = courseMapper.selectById(course.getId());
+            if (latest == null || latest.getIsDelete() == 1) {
+                throw new RuntimeException("课程不存在");
+            }
+            validateCourseBookable(latest);
+            throw new RuntimeException("课程剩余名额不足（剩余" + (latest.getCapacity() - latest.getCurrentCount())
+                    + "个，需要" + userIds.size() + "个），本次未占用任何名额");
+        }
+
+        // 6. 批量创建预约记录
+        LocalDateTime now = LocalDateTime.now();
+        List<Booking> bookings = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            Booking booking = new Booking();
+            booking.setUserId(userId);
+            booking.setCourseId(course.getId());
+            booking.setBookingTime(now);
+            booking.setStatus(1); // 已预约
+            bookings.add(booking);
+        }
+        if (bookingMapper.insertBatch(bookings) != bookings.size()) {
+            throw new RuntimeException("创建预约记录失败");
+        }
+        Map<Long, Long> bookingIdMap = bookings.stream()
+                .collect(Collectors.toMap(Booking::getUserId, Booking::getId));
+        for (GroupBookingVO.MemberResult result : results) {
+            result.setBookingId(bookingIdMap.get(result.getUserId()));
+            result.setMessage("预约成功");
+        }
+
+        // 7. 清除预约统计缓存和运营概览缓存，刷新课程目录名额
+        try {
+            statisticsService.clearBookingCache();
+            statisticsService.clearDashboardCache();
+            courseCatalogCacheService.refreshSeats(Collections.singletonList(course.getId()));
+            seatEventService.markChanged(Collections.singletonList(course.getId()));
+        } catch (Exception e) {
+            // 缓存清除失败不影响主业务
+        }
+
+        groupVO.setSuccess(true);
+        groupVO.setBookedCount(bookings.size());
+        groupVO.setMessage("团体预约成功，共预约" + bookings.size() + "人");
+        return groupVO;
+    }
+
     /**
      * 获取我的预约记录
      *
@@ -250,6 +562,31 @@ public class BookingServiceImpl implements BookingService {
         return getBookingsWithCondition(queryDTO);
     }
 
+    /**
+     * 游标分页获取我的预约列表
+     *
+     * @param queryDTO  查询条件（cursor为上一页返回的游标）
+     * @param loginUser 登录用户
+     * @return 预约游标分页列表
+     */
+    @Override
+    public CursorPageVO<BookingVO> getMyBookingsByCursor(BookingQueryDTO queryDTO, User loginUser) {
+        // 强制设置用户ID为当前登录用户
+        queryDTO.setUserId(loginUser.getId());
+        return getBookingsWithConditionByCursor(queryDTO);
+    }
+
+    /**
+     * 游标分页获取所有预约记录（管理员）
+     *
+     * @param queryDTO 查询条件（cursor为上一页返回的游标）
+     * @return 预约游标分页列表
+     */
+    @Override
+    public CursorPageVO<BookingVO> getAllBookingsByCursor(BookingQueryDTO queryDTO) {
+        return getBookingsWithConditionByCursor(queryDTO);
+    }
+
     /**
      * 获取指定课程的预约列表
      *
@@ -277,8 +614,11 @@ public class BookingServiceImpl implements BookingService {
             throw new RuntimeException("预约ID无效");
         }
 
-        // 2. 查询预约记录
+        // 2. 查询预约记录，预约表中不存在时查询归档表
         Booking booking = bookingMapper.selectById(id);
+        if (booking == null) {
+            booking = bookingMapper.selectArchivedById(id);
+        }
         if (booking == null || booking.getIsDelete() == 1) {
             throw new RuntimeException("预约记录不存在");
         }
@@ -287,6 +627,160 @@ public class BookingServiceImpl implements BookingService {
         return convertToBookingVO(booking);
     }
 
+    /**
+     * 释放预约请求阶段保留的名额
+     * 会员放弃预约时调用，名额立即归还；未启用名额保留时直接返回
+     *
+     * @param courseId  课程ID
+     * @param loginUser 登录用户
+     * @return 是否成功
+     */
+    @Override
+    public boolean releaseSeatHold(Long courseId, User loginUser) {
+        if (courseId == null || courseId <= 0) {
+            throw new RuntimeException("课程ID无效");
+        }
+        if (isSeatHoldEnabled()) {
+            seatInventoryService.releaseHold(courseId, loginUser.getId());
+        }
+        return true;
+    }
+
+    /**
+     * 获取占座并发冲突统计
+     *
+     * @return 统计项（optimisticRetries-乐观锁重试次数，optimisticExhausted-重试耗尽次数）
+     */
+    @Override
+    public Map<String, Long> getSeatContentionStats() {
+        Map<String, Long> stats = new LinkedHashMap<>();
+        stats.put("optimisticRetries", optimisticRetryCount.get());
+        stats.put("optimisticExhausted", optimisticExhaustedCount.get());
+        return stats;
+    }
+
+    /**
+     * 加入课程候补名单
+     * 仅名额已满的课程可以候补，有人取消时按加入顺序自动转为预约
+     *
+     * @param dto       候补课程信息
+     * @param loginUser 登录用户
+     * @return 候补信息
+     */
+    @Override
+    public WaitlistVO joinWaitlist(BookingAddDTO dto, User loginUser) {
+        // 1. 参数校验
+        if (dto == null || dto.getCourseId() == null) {
+            throw new RuntimeException("课程ID不能为空");
+        }
+
+        // 2. 查询课程信息
+        Course course = courseMapper.selectById(dto.getCourseId());
+        if (course == null || course.getIsDelete() == 1) {
+            throw new RuntimeException("课程不存在");
+        }
+        if (course.getStatus() != 1) {
+            throw new RuntimeException("该课程已下架，无法候补");
+        }
+        if (course.getStartTime().isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("该课程已开始，无法候补");
+        }
+        if (course.getCurrentCount() < course.getCapacity()) {
+            throw new RuntimeException("该课程尚有名额，请直接预约");
+        }
+
+        // 3. 校验用户是否已预约该课程
+        checkDuplicateBooking(loginUser.getId(), course.getId());
+
+        // 4. 校验是否已在候补名单中
+        QueryWrapper<CourseWaitlist> existWrapper = new QueryWrapper<>();
+        existWrapper.eq("course_id", course.getId());
+        existWrapper.eq("user_id", loginUser.getId());
+        existWrapper.eq("status", WAITLIST_STATUS_WAITING);
+        existWrapper.eq("is_delete", 0);
+        if (courseWaitlistMapper.selectCount(existWrapper) > 0) {
+            throw new RuntimeException("您已在该课程的候补名单中");
+        }
+
+        // 5. 加入候补
+        CourseWaitlist waitlist = new CourseWaitlist();
+        waitlist.setCourseId(course.getId());
+        waitlist.setUserId(loginUser.getId());
+        waitlist.setJoinTime(LocalDateTime.now());
+        waitlist.setStatus(WAITLIST_STATUS_WAITING);
+        int result = courseWaitlistMapper.insert(waitlist);
+        if (result <= 0) {
+            throw new RuntimeException("加入候补失败");
+        }
+
+        return convertToWaitlistVO(waitlist, course, selectWaitlistPositions(Collections.singletonList(waitlist)));
+    }
+
+    /**
+     * 退出课程候补名单
+     *
+     * @param id        候补ID
+     * @param loginUser 登录用户
+     * @return 是否退出成功
+     */
+    @Override
+    public boolean leaveWaitlist(Long id, User loginUser) {
+        // 1. 参数校验
+        if (id == null || id <= 0) {
+            throw new RuntimeException("候补ID无效");
+        }
+
+        // 2. 查询候补记录
+        CourseWaitlist waitlist = courseWaitlistMapper.selectById(id);
+        if (waitlist == null || waitlist.getIsDelete() == 1) {
+            throw new RuntimeException("候补记录不存在");
+        }
+        if (!waitlist.getUserId().equals(loginUser.getId())) {
+            throw new RuntimeException("无权操作他人的候补");
+        }
+
+        // 3. 仅候补中的记录可以退出（条件更新，避免与转正并发）
+        if (!updateWaitlistStatus(id, WAITLIST_STATUS_CANCELLED, null)) {
+            throw new RuntimeException("该候补已转正或已失效，无法退出");
+        }
+        return true;
+    }
+
+    /**
+     * 获取我的候补记录
+     *
+     * @param loginUser 登录用户
+     * @return 候补列表
+     */
+    @Override
+    public List<WaitlistVO> getMyWaitlist(User loginUser) {
+        // 查询候补中和已转正的记录
+        QueryWrapper<CourseWaitlist> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_id", loginUser.getId());
+        queryWrapper.in("status", WAITLIST_STATUS_WAITING, WAITLIST_STATUS_PROMOTED);
+        queryWrapper.eq("is_delete", 0);
+        queryWrapper.orderByDesc("id");
+        queryWrapper.last("LIMIT " + MY_WAITLIST_LIMIT);
+        List<CourseWaitlist> waitlists = courseWaitlistMapper.selectList(queryWrapper);
+        if (waitlists.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 批量查询课程
+        Set<Long> courseIds = waitlists.stream()
+                .map(CourseWaitlist::getCourseId)
+                .collect(Collectors.toSet());
+        Map<Long, Course> courseMap = courseMapper.selectBatchIds(courseIds).stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+
+        // 候补中记录的排队位置一次分组查询
+        Map<Long, Long> positionMap = selectWaitlistPositions(waitlists);
+
+        return waitlists.stream()
+                .map(waitlist -> convertToWaitlistVO(waitlist, courseMap.get(waitlist.getCourseId()), positionMap))
+                .collect(Collectors.toList());
+    }
+
     /**
      * 根据条件查询预约列表
      *
@@ -295,6 +789,77 @@ public class BookingServiceImpl implements BookingService {
      */
     private IPage<BookingVO> getBookingsWithCondition(BookingQueryDTO queryDTO) {
         // 1. 构建查询条件
+        QueryWrapper<Booking> queryWrapper = buildBookingQueryWrapper(queryDTO);
+
+        // 2. 执行分页查询
+        IPage<Booking> bookingPage;
+        if (includeArchived(queryDTO)) {
+            // 预约表和归档表分别计数，条件和排序在两张表上分别执行后再合并
+            long total = bookingMapper.selectCount(queryWrapper) + bookingMapper.selectArchiveCount(queryWrapper);
+            queryWrapper.orderByDesc("booking_time", "id");
+            long offset = (long) (queryDTO.getPageNum() - 1) * queryDTO.getPageSize();
+            bookingPage = new Page<>(queryDTO.getPageNum(), queryDTO.getPageSize(), total);
+            bookingPage.setRecords(total > offset
+                    ? bookingMapper.selectListWithArchive(queryWrapper, offset, queryDTO.getPageSize())
+                    : new ArrayList<>());
+        } else {
+            // 按预约时间倒序排序
+            queryWrapper.orderByDesc("booking_time");
+            bookingPage = bookingMapper.selectPage(new Page<>(queryDTO.getPageNum(), queryDTO.getPageSize()), queryWrapper);
+        }
+
+        // 3. 批量转换为VO分页
+        Page<BookingVO> voPage = new Page<>(bookingPage.getCurrent(), bookingPage.getSize(), bookingPage.getTotal());
+        voPage.setRecords(convertToBookingVOList(bookingPage.getRecords()));
+        return voPage;
+    }
+
+    /**
+     * 根据条件游标分页查询预约记录
+     * 按 (预约时间, id) 键集定位，不统计总数
+     *
+     * @param queryDTO 查询条件
+     * @return 预约游标分页列表
+     */
+    private CursorPageVO<BookingVO> getBookingsWithConditionByCursor(BookingQueryDTO queryDTO) {
+        // 1. 构建查询条件
+        QueryWrapper<Booking> queryWrapper = buildBookingQueryWrapper(queryDTO);
+
+        // 2. 执行查询并截取当前页（多查一条用于判断是否还有下一页）
+        List<Booking> bookings;
+        if (includeArchived(queryDTO)) {
+            CursorUtil.seekWithoutLimit(queryWrapper, "booking_time", queryDTO.getCursor());
+            bookings = bookingMapper.selectListWithArchive(queryWrapper, 0, queryDTO.getPageSize() + 1);
+        } else {
+            CursorUtil.seek(queryWrapper, "booking_time", queryDTO.getCursor(), queryDTO.getPageSize());
+            bookings = bookingMapper.selectList(queryWrapper);
+        }
+        String nextCursor = CursorUtil.nextCursor(bookings, queryDTO.getPageSize(),
+                Booking::getBookingTime, Booking::getId);
+
+        // 3. 批量转换为VO
+        return new CursorPageVO<>(convertToBookingVOList(bookings), nextCursor);
+    }
+
+    /**
+     * 判断查询是否需要包含已归档的预约
+     * 显式要求包含，或预约时间起点早于归档保留期时包含
+     *
+     * @param queryDTO 查询条件
+     * @return 是否包含归档表
+     */
+    private boolean includeArchived(BookingQueryDTO queryDTO) {
+        return Boolean.TRUE.equals(queryDTO.getIncludeArchived())
+                || bookingArchiveService.coversArchive(queryDTO.getBookingTimeBegin());
+    }
+
+    /**
+     * 构建预约记录查询条件（不含排序）
+     *
+     * @param queryDTO 查询条件
+     * @return 查询条件
+     */
+    private QueryWrapper<Booking> buildBookingQueryWrapper(BookingQueryDTO queryDTO) {
         QueryWrapper<Booking> queryWrapper = new QueryWrapper<>();
 
         // 用户ID精确查询
@@ -318,15 +883,7 @@ public class BookingServiceImpl implements BookingService {
         }
         // 排除已删除
         queryWrapper.eq("is_delete", 0);
-        // 按预约时间倒序排序
-        queryWrapper.orderByDesc("booking_time");
-
-        // 2. 执行分页查询
-        Page<Booking> page = new Page<>(queryDTO.getPageNum(), queryDTO.getPageSize());
-        IPage<Booking> bookingPage = bookingMapper.selectPage(page, queryWrapper);
-
-        // 3. 转换为VO分页
-        return bookingPage.convert(this::convertToBookingVO);
+        return queryWrapper;
     }
 
     /**
@@ -378,29 +935,98 @@ public class BookingServiceImpl implements BookingService {
      * @return 冲突的预约记录，如果没有冲突返回null
      */
     private Booking findConflictBooking(Long userId, LocalDateTime startTime, LocalDateTime endTime) {
-        // 查询用户所有已预约状态的预约记录
-        QueryWrapper<Booking> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("user_id", userId);
-        queryWrapper.eq("status", 1); // 已预约状态
-        queryWrapper.eq("is_delete", 0);
+        // 预约表联合课程表一次查询，查询次数与用户预约数量无关
+        return bookingMapper.selectConflictBooking(userId, startTime, endTime);
+    }
 
-        // 获取用户所有已预约的记录
-        java.util.List<Booking> bookings = bookingMapper.selectList(queryWrapper);
+    /**
+     * 使用乐观锁占用课程名额
+     *
+     * @param courseId 课程ID
+     * @return 更新后的课程信息
+     */
+    private Course occupySeatByOptimisticLock(Long courseId) {
+        int retryCount = 0;
+        while (retryCount < MAX_RETRY_COUNT) {
+            // 重新获取最新的课程数据
+            Course course = courseMapper.selectById(courseId);
+            if (course == null || course.getIsDelete() == 1) {
+                throw new RuntimeException("课程不存在");
+            }
 
-        // 检查每个预约对应的课程时间是否与目标时间段冲突
-        for (Booking booking : bookings) {
-            Course course = courseMapper.selectById(booking.getCourseId());
-            if (course != null && course.getIsDelete() == 0) {
-                // 时间冲突条件：两个时间段有重叠
-                // 冲突 = !(结束时间1 <= 开始时间2 || 开始时间1 >= 结束时间2)
-                // 等价于：开始时间1 < 结束时间2 && 结束时间1 > 开始时间2
-                if (startTime.isBefore(course.getEndTime()) && endTime.isAfter(course.getStartTime())) {
-                    return booking;
-                }
+            // 再次校验课程是否可预约
+            validateCourseBookable(course);
+
+            // 更新课程人数（使用乐观锁）
+            course.setCurrentCount(course.getCurrentCount() + 1);
+            int updateResult = courseMapper.updateById(course);
+            if (updateResult > 0) {
+                return course;
             }
+
+            // 乐观锁更新失败，重试
+            retryCount++;
+            optimisticRetryCount.incrementAndGet();
         }
 
-        return null;
+        // 超过最大重试次数
+        optimisticExhaustedCount.incrementAndGet();
+        throw new RuntimeException("预约失败，系统繁忙请稍后重试");
+    }
+
+    /**
+     * 是否启用名额保留（依赖Redis原子库存）
+     *
+     * @return 是否启用
+     */
+    private boolean isSeatHoldEnabled() {
+        return seatHoldEnabled && SEAT_STRATEGY_REDIS.equals(seatStrategy);
+    }
+
+    /**
+     * 使用数据库条件更新占用课程名额
+     * 一条UPDATE完成校验和扣减，不会因并发冲突重试；更新失败时重新查询课程以返回准确原因
+     *
+     * @param course 课程信息
+     */
+    private void occupySeatByConditionalUpdate(Course course) {
+        int updateResult = courseMapper.occupySeat(course.getId(), LocalDateTime.now());
+        if (updateResult > 0) {
+            return;
+        }
+
+        Course latest = courseMapper.selectById(course.getId());
+        if (latest == null || latest.getIsDelete() == 1) {
+            throw new RuntimeException("课程不存在");
+        }
+        validateCourseBookable(latest);
+        throw new RuntimeException("该课程名额已满，无法预约");
+    }
+
+    /**
+     * 使用Redis原子库存占用课程名额
+     * 名额在Redis中扣减，数据库人数随后同步，事务回滚时自动归还Redis名额
+     *
+     * @param course 课程信息
+     * @param userId 用户ID
+     */
+    private void occupySeatByRedis(Course course, Long userId) {
+        seatInventoryService.tryAcquire(course, userId);
+        syncRedisSeatToDatabase(course);
+    }
+
+    /**
+     * 将Redis中已占用的名额同步到数据库已预约人数
+     * 数据库不一致时清除库存重新加载
+     *
+     * @param course 课程信息
+     */
+    private void syncRedisSeatToDatabase(Course course) {
+        int updateResult = courseMapper.incrementCurrentCount(course.getId());
+        if (updateResult <= 0) {
+            seatInventoryService.evict(course.getId());
+            throw new RuntimeException("该课程名额已满，无法预约");
+        }
     }
 
     /**
@@ -417,7 +1043,29 @@ public class BookingServiceImpl implements BookingService {
             throw new RuntimeException("课程不存在");
         }
 
-        // 2. 使用乐观锁更新课程人数
+        // 2. 候补转正：名额在同一事务内直接转给队首候补会员，课程人数不变
+        Booking promotedBooking = promoteFromWaitlist(course);
+        if (promotedBooking != null) {
+            if (SEAT_STRATEGY_REDIS.equals(seatStrategy)) {
+                seatInventoryService.transfer(course.getId(), booking.getUserId(), promotedBooking.getUserId());
+            }
+            return markBookingCancelled(booking);
+        }
+
+        // 3. 条件更新模式：一条语句释放名额
+        if (SEAT_STRATEGY_ATOMIC.equals(seatStrategy)) {
+            courseMapper.decrementCurrentCount(course.getId());
+            return markBookingCancelled(booking);
+        }
+
+        // 4. Redis库存模式：直接同步数据库人数，事务提交后归还Redis名额
+        if (SEAT_STRATEGY_REDIS.equals(seatStrategy)) {
+            courseMapper.decrementCurrentCount(course.getId());
+            seatInventoryService.release(course.getId(), booking.getUserId());
+            return markBookingCancelled(booking);
+        }
+
+        // 5. 使用乐观锁更新课程人数
         int retryCount = 0;
         while (retryCount < MAX_RETRY_COUNT) {
             // 重新获取最新的课程数据
@@ -434,19 +1082,7 @@ public class BookingServiceImpl implements BookingService {
             int updateResult = courseMapper.updateById(course);
             if (updateResult > 0) {
                 // 乐观锁更新成功，更新预约状态
-                booking.setStatus(0); // 已取消
-                booking.setCancelTime(LocalDateTime.now());
-                int result = bookingMapper.updateById(booking);
-
-                // 清除预约统计缓存和运营概览缓存
-                try {
-                    statisticsService.clearBookingCache();
-                    statisticsService.clearDashboardCache();
-                } catch (Exception e) {
-                    // 缓存清除失败不影响主业务
-                }
-
-                return result > 0;
+                return markBookingCancelled(booking);
             }
 
             // 乐观锁更新失败，重试
@@ -456,6 +1092,220 @@ public class BookingServiceImpl implements BookingService {
         throw new RuntimeException("取消预约失败，系统繁忙请稍后重试");
     }
 
+    /**
+     * 候补转正
+     * 按加入顺序取候补中的会员，校验通过后直接生成预约；不满足条件的候补标记为已失效
+     *
+     * @param course 课程信息
+     * @return 转正生成的预约记录，没有可转正的候补返回null
+     */
+    private Booking promoteFromWaitlist(Course course) {
+        // 课程已下架或已开始时不再转正
+        if (course.getStatus() != 1 || !course.getStartTime().isAfter(LocalDateTime.now())) {
+            return null;
+        }
+
+        for (int i = 0; i < MAX_PROMOTE_ATTEMPTS; i++) {
+            // 1. 获取队首候补
+            QueryWrapper<CourseWaitlist> queryWrapper = new QueryWrapper<>();
+            queryWrapper.eq("course_id", course.getId());
+            queryWrapper.eq("status", WAITLIST_STATUS_WAITING);
+            queryWrapper.eq("is_delete", 0);
+            queryWrapper.orderByAsc("id");
+            queryWrapper.last("LIMIT 1");
+            CourseWaitlist waitlist = courseWaitlistMapper.selectOne(queryWrapper);
+            if (waitlist == null) {
+                return null;
+            }
+
+            // 2. 校验候补会员是否仍可预约，不可预约则标记失效后继续下一位
+            if (!isPromotable(waitlist.getUserId(), course)) {
+                updateWaitlistStatus(waitlist.getId(), WAITLIST_STATUS_EXPIRED, null);
+                continue;
+            }
+
+            // 3. 抢占候补记录（条件更新），防止并发取消重复转正同一位会员
+            LocalDateTime now = LocalDateTime.now();
+            if (!updateWaitlistStatus(waitlist.getId(), WAITLIST_STATUS_PROMOTED, now)) {
+                continue;
+            }
+
+            // 4. 生成预约记录并回写候补
+            Booking promotedBooking = new Booking();
+            promotedBooking.setUserId(waitlist.getUserId());
+            promotedBooking.setCourseId(course.getId());
+            promotedBooking.setBookingTime(now);
+            promotedBooking.setStatus(1); // 已预约
+            if (bookingMapper.insert(promotedBooking) <= 0) {
+                throw new RuntimeException("候补转正失败");
+            }
+            CourseWaitlist update = new CourseWaitlist();
+            update.setId(waitlist.getId());
+            update.setBookingId(promotedBooking.getId());
+            courseWaitlistMapper.updateById(update);
+            return promotedBooking;
+        }
+        return null;
+    }
+
+    /**
+     * 将课程的空余名额依次转给候补会员（批量取消预约后使用）
+     * 与单条取消相同使用 promoteFromWaitlist，每转正一位先条件占用一个名额，名额用完或候补为空时停止
+     *
+     * @param course 课程信息（已重新计算已预约人数）
+     * @return 转正的候补数
+     */
+    private int promoteFreedSeats(Course course) {
+        if (course == null || course.getIsDelete() == 1) {
+            return 0;
+        }
+        int freeSeats = course.getCapacity() - course.getCurrentCount();
+        int promotedCount = 0;
+        while (promotedCount < freeSeats) {
+            if (courseMapper.incrementCurrentCount(course.getId()) <= 0) {
+                break;
+            }
+            if (promoteFromWaitlist(course) == null) {
+                courseMapper.decrementCurrentCount(course.getId());
+                break;
+            }
+            promotedCount++;
+        }
+        return promotedCount;
+    }
+
+    /**
+     * 校验团体预约中的每名会员是否可以预约
+     * 已预约记录和时间冲突各用一次批量查询，查询次数与人数无关
+     *
+     * @param course  课程信息
+     * @param userIds 会员ID列表
+     * @param userMap 会员信息（按ID）
+     * @return 各会员校验结果（顺序与会员ID列表一致）
+     */
+    private List<GroupBookingVO.MemberResult> checkGroupMembers(Course course, List<Long> userIds, Map<Long, User> userMap) {
+        // 已预约该课程的会员
+        QueryWrapper<Booking> bookedWrapper = new QueryWrapper<>();
+        bookedWrapper.select("user_id");
+        bookedWrapper.eq("course_id", course.getId());
+        bookedWrapper.in("user_id", userIds);
+        bookedWrapper.eq("status", 1); // 已预约状态
+        bookedWrapper.eq("is_delete", 0);
+        Set<Long> bookedUserIds = new HashSet<>();
+        for (Object userId : bookingMapper.selectObjs(bookedWrapper)) {
+            bookedUserIds.add(((Number) userId).longValue());
+        }
+
+        // 时间冲突的预约（每名会员取最早的一条）
+        Map<Long, Booking> conflictMap = new HashMap<>();
+        for (Booking booking : bookingMapper.selectConflictBookings(userIds, course.getStartTime(), course.getEndTime())) {
+            conflictMap.putIfAbsent(booking.getUserId(), booking);
+        }
+        Map<Long, String> conflictCourseNameMap = Collections.emptyMap();
+        if (!conflictMap.isEmpty()) {
+            Set<Long> conflictCourseIds = conflictMap.values().stream()
+                    .map(Booking::getCourseId)
+                    .collect(Collectors.toSet());
+            conflictCourseNameMap = courseMapper.selectBatchIds(conflictCourseIds).stream()
+                    .collect(Collectors.toMap(Course::getId, Course::getCourseName));
+        }
+
+        List<GroupBookingVO.MemberResult> results = new ArrayList<>(userIds.size());
+        for (Long userId : userIds) {
+            GroupBookingVO.MemberResult result = new GroupBookingVO.MemberResult();
+            result.setUserId(userId);
+            User user = userMap.get(userId);
+            String reason = null;
+            if (user == null) {
+                reason = "会员不存在";
+            } else if (user.getRole() != RoleConstant.MEMBER) {
+                reason = "该用户不是会员，无法预约课程";
+            } else if (user.getStatus() != 1) {
+                reason = "该会员账号已被禁用";
+            } else if (bookedUserIds.contains(userId)) {
+                reason = "已预约该课程";
+            } else if (conflictMap.containsKey(userId)) {
+                Booking conflict = conflictMap.get(userId);
+                reason = "与已预约的课程「" + conflictCourseNameMap.getOrDefault(conflict.getCourseId(), "未知课程") + "」时间冲突";
+            }
+            if (user != null) {
+                result.setUserName(user.getUserName());
+            }
+            result.setSuccess(reason == null);
+            result.setMessage(reason == null ? "可预约" : reason);
+            results.add(result);
+        }
+        return results;
+    }
+
+    /**
+     * 校验候补会员是否可以转正
+     *
+     * @param userId 用户ID
+     * @param course 课程信息
+     * @return 是否可以转正
+     */
+    private boolean isPromotable(Long userId, Course course) {
+        // 会员状态校验
+        User user = userMapper.selectById(userId);
+        if (user == null || user.getRole() != RoleConstant.MEMBER || user.getStatus() != 1) {
+            return false;
+        }
+        // 重复预约校验
+        QueryWrapper<Booking> bookingWrapper = new QueryWrapper<>();
+        bookingWrapper.eq("user_id", userId);
+        bookingWrapper.eq("course_id", course.getId());
+        bookingWrapper.eq("status", 1); // 已预约状态
+        bookingWrapper.eq("is_delete", 0);
+        if (bookingMapper.selectCount(bookingWrapper) > 0) {
+            return false;
+        }
+        // 时间冲突校验
+        return findConflictBooking(userId, course.getStartTime(), course.getEndTime()) == null;
+    }
+
+    /**
+     * 条件更新候补状态（仅更新候补中的记录）
+     *
+     * @param waitlistId   候补ID
+     * @param status       目标状态
+     * @param promotedTime 转正时间
+     * @return 是否更新成功
+     */
+    private boolean updateWaitlistStatus(Long waitlistId, Integer status, LocalDateTime promotedTime) {
+        CourseWaitlist update = new CourseWaitlist();
+        update.setStatus(status);
+        update.setPromotedTime(promotedTime);
+        UpdateWrapper<CourseWaitlist> updateWrapper = new UpdateWrapper<>();
+        updateWrapper.eq("id", waitlistId);
+        updateWrapper.eq("status", WAITLIST_STATUS_WAITING);
+        return courseWaitlistMapper.update(update, updateWrapper) > 0;
+    }
+
+    /**
+     * 将预约标记为已取消并清除统计缓存
+     *
+     * @param booking 预约记录
+     * @return 是否更新成功
+     */
+    private boolean markBookingCancelled(Booking booking) {
+        booking.setStatus(0); // 已取消
+        booking.setCancelTime(LocalDateTime.now());
+        int result = bookingMapper.updateById(booking);
+
+        // 清除预约统计缓存和运营概览缓存，刷新课程目录名额
+        try {
+            statisticsService.clearBookingCache();
+            statisticsService.clearDashboardCache();
+            courseCatalogCacheService.refreshSeats(Collections.singletonList(booking.getCourseId()));
+            seatEventService.markChanged(Collections.singletonList(booking.getCourseId()));
+        } catch (Exception e) {
+            // 缓存清除失败不影响主业务
+        }
+
+        return result > 0;
+    }
+
     /**
      * 将Booking实体转换为BookingVO
      *
@@ -466,37 +1316,111 @@ public class BookingServiceImpl implements BookingService {
         if (booking == null) {
             return null;
         }
-        BookingVO bookingVO = new BookingVO();
-        BeanUtils.copyProperties(booking, bookingVO);
+        return convertToBookingVOList(Collections.singletonList(booking)).get(0);
+    }
 
-        // 获取用户名称
-        if (booking.getUserId() != null) {
-            User user = userMapper.selectById(booking.getUserId());
+    /**
+     * 批量将Booking实体转换为BookingVO
+     * 先收集整页的用户、课程、教练ID，每张表只查询一次，避免逐条查询
+     *
+     * @param bookings 预约实体列表
+     * @return 预约VO列表
+     */
+    private List<BookingVO> convertToBookingVOList(List<Booking> bookings) {
+        if (bookings == null || bookings.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        // 1. 批量查询用户
+        Set<Long> userIds = bookings.stream()
+                .map(Booking::getUserId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, User> userMap = userIds.isEmpty() ? Collections.emptyMap()
+                : userMapper.selectBatchIds(userIds).stream()
+                .collect(Collectors.toMap(User::getId, Function.identity()));
+
+        // 2. 批量查询课程
+        Set<Long> courseIds = bookings.stream()
+                .map(Booking::getCourseId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, Course> courseMap = courseIds.isEmpty() ? Collections.emptyMap()
+                : courseMapper.selectBatchIds(courseIds).stream()
+                .collect(Collectors.toMap(Course::getId, Function.identity()));
+
+        // 3. 批量获取教练姓名
+        Set<Long> coachIds = courseMap.values().stream()
+                .map(Course::getCoachId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, String> coachNameMap = coachService.getCoachNameMap(coachIds);
+
+        // 4. 组装VO
+        List<BookingVO> voList = new ArrayList<>(bookings.size());
+        for (Booking booking : bookings) {
+            BookingVO bookingVO = new BookingVO();
+            BeanUtils.copyProperties(booking, bookingVO);
+
+            // 用户名称
+            User user = userMap.get(booking.getUserId());
             if (user != null) {
                 bookingVO.setUserName(user.getUserName());
             }
-        }
 
-        // 获取课程信息
-        if (booking.getCourseId() != null) {
-            Course course = courseMapper.selectById(booking.getCourseId());
+            // 课程信息
+            Course course = courseMap.get(booking.getCourseId());
             if (course != null) {
                 bookingVO.setCourseName(course.getCourseName());
                 bookingVO.setCourseType(course.getCourseType());
                 bookingVO.setCourseStartTime(course.getStartTime());
                 bookingVO.setCourseEndTime(course.getEndTime());
 
-                // 获取教练姓名
-                if (course.getCoachId() != null) {
-                    Coach coach = coachMapper.selectById(course.getCoachId());
-                    if (coach != null) {
-                        bookingVO.setCoachName(coach.getName());
-                    }
-                }
+                // 教练姓名
+                bookingVO.setCoachName(coachNameMap.get(course.getCoachId()));
             }
+            voList.add(bookingVO);
         }
+        return voList;
+    }
 
-        return bookingVO;
+    /**
+     * 批量查询候补中记录的排队位置
+     *
+     * @param waitlists 候补记录
+     * @return 候补ID -> 排队位置（从1开始），非候补中的记录不包含
+     */
+    private Map<Long, Long> selectWaitlistPositions(List<CourseWaitlist> waitlists) {
+        List<Long> waitingIds = waitlists.stream()
+                .filter(waitlist -> WAITLIST_STATUS_WAITING == waitlist.getStatus())
+                .map(CourseWaitlist::getId)
+                .collect(Collectors.toList());
+        if (waitingIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        return courseWaitlistMapper.selectPositions(waitingIds, WAITLIST_STATUS_WAITING).stream()
+                .collect(Collectors.toMap(WaitlistVO::getId, WaitlistVO::getPosition));
+    }
+
+    /**
+     * 将CourseWaitlist实体转换为WaitlistVO
+     *
+     * @param waitlist    候补实体
+     * @param course      课程实体
+     * @param positionMap 候补ID -> 排队位置
+     * @return 候补VO
+     */
+    private WaitlistVO convertToWaitlistVO(CourseWaitlist waitlist, Course course, Map<Long, Long> positionMap) {
+        WaitlistVO waitlistVO = new WaitlistVO();
+        BeanUtils.copyProperties(waitlist, waitlistVO);
+        if (course != null) {
+            waitlistVO.setCourseName(course.getCourseName());
+            waitlistVO.setCourseStartTime(course.getStartTime());
+        }
+
+        // 排队位置：排在自己之前（含自己）的候补人数，仅候补中有效
+        waitlistVO.setPosition(positionMap.get(waitlist.getId()));
+        return waitlistVO;
     }
 
     /**
@@ -523,10 +1447,8 @@ public class BookingServiceImpl implements BookingService {
 
         // 获取教练姓名
         if (course.getCoachId() != null) {
-            Coach coach = coachMapper.selectById(course.getCoachId());
-            if (coach != null) {
-                courseVO.setCoachName(coach.getName());
-            }
+            courseVO.setCoachName(coachService.getCoachNameMap(Collections.singletonList(course.getCoachId()))
+                    .get(course.getCoachId()));
         }
 
         return courseVO;
@@ -0,0 +1,269 @@
+package com.swimmingsys.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.swimmingsys.mapper.CourseMapper;
+import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.model.vo.CoachOverlapVO;
+import com.swimmingsys.service.CoachScheduleService;
+import com.swimmingsys.service.CoachService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.TreeSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * 教练排课索引服务实现类
+ * 每个教练一个按开始时间排序的有序集合；教练名下课程互不重叠时，结束时间随开始时间单调递增，
+ * 因此只需检查开始时间早于目标结束时间的最后一节课程即可判断冲突
+ */
+@Slf4j
+@Service
+public class CoachScheduleServiceImpl implements CoachScheduleService {
+
+    @Resource
+    private CourseMapper courseMapper;
+
+    @Resource
+    private CoachService coachService;
+
+    /**
+     * 区间排序：开始时间升序，相同开始时间按课程ID
+     */
+    private static final Comparator<Slot> SLOT_ORDER = Comparator
+            .comparing((Slot slot) -> slot.startTime)
+            .thenComparing(slot -> slot.courseId);
+
+    /**
+     * 各教练的课程区间，key为教练ID
+     */
+    private Map<Long, NavigableSet<Slot>> coachSlots = new HashMap<>();
+
+    /**
+     * 课程当前所在的区间，key为课程ID
+     */
+    private Map<Long, Slot> courseSlots = new HashMap<>();
+
+    /**
+     * 启动时加载索引，加载失败不影响启动，等待定时校准
+     */
+    @PostConstruct
+    public void init() {
+        try {
+            reload();
+        } catch (Exception e) {
+            log.warn("教练排课索引加载失败，等待下次校准：{}", e.getMessage());
+        }
+    }
+
+    @Override
+    public synchronized Course findConflict(Long coachId, LocalDateTime startTime, LocalDateTime endTime, Long excludeCourseId) {
+        NavigableSet<Slot> slots = coachSlots.get(coachId);
+        if (slots == null || slots.isEmpty()) {
+            return null;
+        }
+        // 从开始时间早于目标结束时间的最后一节课程向前检查，遇到已结束于目标开始时间之前的课程即可停止
+        Iterator<Slot> iterator = slots.headSet(new Slot(Long.MIN_VALUE, coachId, null, endTime, endTime), false)
+                .descendingIterator();
+        while (iterator.hasNext()) {
+            Slot slot = iterator.next();
+            if (slot.courseId.equals(excludeCourseId)) {
+                continue;
+            }
+            if (slot.endTime.isAfter(startTime)) {
+                return slot.toCourse();
+            }
+            break;
+        }
+        return null;
+    }
+
+    @Override
+    public void put(Course course) {
+        Slot slot = new Slot(course.getId(), course.getCoachId(), course.getCourseName(),
+                course.getStartTime(), course.getEndTime());
+        afterCommit(() -> {
+            synchronized (this) {
+                removeSlot(slot.courseId);
+                if (slot.endTime.isAfter(LocalDateTime.now())) {
+                    addSlot(slot);
+                }
+            }
+        });
+    }
+
+    @Override
+    public void remove(Long courseId) {
+        afterCommit(() -> {
+            synchronized (this) {
+                removeSlot(courseId);
+            }
+        });
+    }
+
+    @Override
+    public List<CoachOverlapVO> listOverlaps() {
+        Map<Long, List<Slot>> snapshot = new HashMap<>();
+        synchronized (this) {
+            coachSlots.forEach((coachId, slots) -> snapshot.put(coachId, new ArrayList<>(slots)));
+        }
+
+        // 按开始时间扫描，与仍未结束的课程逐一比较
+        List<CoachOverlapVO> overlaps = new ArrayList<>();
+        for (List<Slot> slots : snapshot.values()) {
+            List<Slot> active = new ArrayList<>();
+            for (Slot slot : slots) {
+                active.removeIf(previous -> !previous.endTime.isAfter(slot.startTime));
+                for (Slot previous : active) {
+                    overlaps.add(toOverlapVO(previous, slot));
+                }
+                active.add(slot);
+            }
+        }
+        if (overlaps.isEmpty()) {
+            return overlaps;
+        }
+
+        // 填充教练姓名
+        List<Long> coachIds = overlaps.stream().map(CoachOverlapVO::getCoachId).distinct().collect(Collectors.toList());
+        Map<Long, String> coachNameMap = coachService.getCoachNameMap(coachIds);
+        overlaps.forEach(vo -> vo.setCoachName(coachNameMap.get(vo.getCoachId())));
+        overlaps.sort(Comparator.comparing(CoachOverlapVO::getStartTime));
+        return overlaps;
+    }
+
+    @Override
+    public void reload() {
+        // 只加载未结束的课程
+        QueryWrapper<Course> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "coach_id", "course_name", "start_time", "end_time");
+        queryWrapper.gt("end_time", LocalDateTime.now());
+        queryWrapper.eq("is_delete", 0);
+        List<Course> courses = courseMapper.selectList(queryWrapper);
+
+        Map<Long, NavigableSet<Slot>> newCoachSlots = new HashMap<>();
+        Map<Long, Slot> newCourseSlots = courses.stream()
+                .map(course -> new Slot(course.getId(), course.getCoachId(), course.getCourseName(),
+                        course.getStartTime(), course.getEndTime()))
+                .collect(Collectors.toMap(slot -> slot.courseId, Function.identity()));
+        for (Slot slot : newCourseSlots.values()) {
+            newCoachSlots.computeIfAbsent(slot.coachId, id -> new TreeSet<>(SLOT_ORDER)).add(slot);
+        }
+
+        synchronized (this) {
+            coachSlots = newCoachSlots;
+            courseSlots = newCourseSlots;
+        }
+        log.info("教练排课索引已加载：课程{}节，教练{}名", newCourseSlots.size(), newCoachSlots.size());
+    }
+
+    /**
+     * 添加区间（调用方持有锁）
+     *
+     * @param slot 课程区间
+     */
+    private void addSlot(Slot slot) {
+        coachSlots.computeIfAbsent(slot.coachId, id -> new TreeSet<>(SLOT_ORDER)).add(slot);
+        courseSlots.put(slot.courseId, slot);
+    }
+
+    /**
+     * 移除课程当前所在的区间（调用方持有锁）
+     *
+     * @param courseId 课程ID
+     */
+    private void removeSlot(Long courseId) {
+        Slot previous = courseSlots.remove(courseId);
+        if (previous == null) {
+            return;
+        }
+        NavigableSet<Slot> slots = coachSlots.get(previous.coachId);
+        if (slots != null) {
+            slots.remove(previous);
+            if (slots.isEmpty()) {
+                coachSlots.remove(previous.coachId);
+            }
+        }
+    }
+
+    /**
+     * 在事务中调用时，事务提交后再执行，否则立即执行
+     *
+     * @param action 索引更新操作
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 转换为重叠VO
+     *
+     * @param first  较早开始的课程
+     * @param second 较晚开始的课程
+     * @return 重叠VO
+     */
+    private CoachOverlapVO toOverlapVO(Slot first, Slot second) {
+        CoachOverlapVO overlapVO = new CoachOverlapVO();
+        overlapVO.setCoachId(first.coachId);
+        overlapVO.setCourseId(first.courseId);
+        overlapVO.setCourseName(first.courseName);
+        overlapVO.setStartTime(first.startTime);
+        overlapVO.setEndTime(first.endTime);
+        overlapVO.setOverlapCourseId(second.courseId);
+        overlapVO.setOverlapCourseName(second.courseName);
+        overlapVO.setOverlapStartTime(second.startTime);
+        overlapVO.setOverlapEndTime(second.endTime);
+        return overlapVO;
+    }
+
+    /**
+     * 课程时间区间
+     */
+    private static class Slot {
+        private final Long courseId;
+        private final Long coachId;
+        private final String courseName;
+        private final LocalDateTime startTime;
+        private final LocalDateTime endTime;
+
+        Slot(Long courseId, Long coachId, String courseName, LocalDateTime startTime, LocalDateTime endTime) {
+            this.courseId = courseId;
+            this.coachId = coachId;
+            this.courseName = courseName;
+            this.startTime = startTime;
+            this.endTime = endTime;
+        }
+
+        Course toCourse() {
+            Course course = new Course();
+            course.setId(courseId);
+            course.setCoachId(coachId);
+            course.setCourseName(courseName);
+            course.setStartTime(startTime);
+            course.setEndTime(endTime);
+            return course;
+        }
+    }
+}
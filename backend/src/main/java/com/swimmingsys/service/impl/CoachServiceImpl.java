@@ -10,12 +10,22 @@ import com.swimmingsys.model.dto.CoachUpdateDTO;
 import com.swimmingsys.model.entity.Coach;
 import com.swimmingsys.model.vo.CoachVO;
 import com.swimmingsys.service.CoachService;
+import com.swimmingsys.service.CourseCatalogCacheService;
+import com.swimmingsys.service.TimetableService;
 import org.springframework.beans.BeanUtils;
+import org.springframework.context.annotation.Lazy;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 
 /**
@@ -27,6 +37,32 @@ public class CoachServiceImpl implements CoachService {
     @Resource
     private CoachMapper coachMapper;
 
+    @Resource
+    private CourseCatalogCacheService courseCatalogCacheService;
+
+    /**
+     * 周课表依赖教练姓名查询，延迟注入避免循环依赖
+     */
+    @Lazy
+    @Resource
+    private TimetableService timetableService;
+
+    /**
+     * 教练姓名缓存有效期（毫秒），本节点修改教练时立即失效，
+     * 多节点部署时其他节点的修改最多延迟该时间生效
+     */
+    private static final long COACH_NAME_TTL_MILLIS = TimeUnit.MINUTES.toMillis(5);
+
+    /**
+     * 教练姓名缓存最大条数，超过时整体清空
+     */
+    private static final int COACH_NAME_CACHE_SIZE = 1000;
+
+    /**
+     * 教练姓名缓存，key为教练ID；不存在的教练缓存为空姓名，避免重复查询
+     */
+    private final Map<Long, CachedName> coachNameCache = new ConcurrentHashMap<>();
+
     /**
      * 获取教练列表（分页/条件查询）
      *
@@ -194,6 +230,10 @@ public class CoachServiceImpl implements CoachService {
         if (result <= 0) {
             throw new RuntimeException("更新教练信息失败");
         }
+        // 课程目录和列表中包含教练姓名
+        coachNameCache.remove(id);
+        courseCatalogCacheService.invalidateCoach(id);
+        timetableService.invalidate();
 
         // 5. 返回更新后的教练信息
         return convertToCoachVO(coach);
@@ -220,6 +260,9 @@ public class CoachServiceImpl implements CoachService {
 
         // 3. 逻辑删除（MyBatis-Plus会自动处理@TableLogic注解）
         int result = coachMapper.deleteById(id);
+        coachNameCache.remove(id);
+        courseCatalogCacheService.invalidateCoach(id);
+        timetableService.invalidate();
         return result > 0;
     }
 
@@ -244,6 +287,55 @@ public class CoachServiceImpl implements CoachService {
                 .collect(Collectors.toList());
     }
 
+    /**
+     * 批量获取教练姓名
+     *
+     * @param coachIds 教练ID集合
+     * @return 教练ID -> 教练姓名
+     */
+    @Override
+    public Map<Long, String> getCoachNameMap(Collection<Long> coachIds) {
+        Map<Long, String> nameMap = new HashMap<>();
+        if (coachIds == null || coachIds.isEmpty()) {
+            return nameMap;
+        }
+
+        // 1. 读取缓存
+        long now = System.currentTimeMillis();
+        List<Long> missingIds = new ArrayList<>();
+        for (Long coachId : coachIds) {
+            if (coachId == null) {
+                continue;
+            }
+            CachedName cached = coachNameCache.get(coachId);
+            if (cached == null || cached.expireTime < now) {
+                missingIds.add(coachId);
+            } else if (cached.name != null) {
+                nameMap.put(coachId, cached.name);
+            }
+        }
+        if (missingIds.isEmpty()) {
+            return nameMap;
+        }
+
+        // 2. 未缓存的教练一次批量查询
+        Map<Long, String> loaded = coachMapper.selectBatchIds(missingIds).stream()
+                .filter(coach -> Objects.nonNull(coach.getName()))
+                .collect(Collectors.toMap(Coach::getId, Coach::getName));
+        if (coachNameCache.size() + missingIds.size() > COACH_NAME_CACHE_SIZE) {
+            coachNameCache.clear();
+        }
+        long expireTime = now + COACH_NAME_TTL_MILLIS;
+        for (Long coachId : missingIds) {
+            String name = loaded.get(coachId);
+            coachNameCache.put(coachId, new CachedName(name, expireTime));
+            if (name != null) {
+                nameMap.put(coachId, name);
+            }
+        }
+        return nameMap;
+    }
+
     /**
      * 将Coach实体类转换为CoachVO
      *
@@ -258,4 +350,17 @@ public class CoachServiceImpl implements CoachService {
         BeanUtils.copyProperties(coach, coachVO);
         return coachVO;
     }
+
+    /**
+     * 缓存的教练姓名
+     */
+    private static class CachedName {
+        private final String name;
+        private final long expireTime;
+
+        CachedName(String name, long expireTime) {
+            this.name = name;
+            this.expireTime = expireTime;
+        }
+    }
 }
@@ -0,0 +1,606 @@
+package com.swimmingsys.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swimmingsys.mapper.CourseMapper;
+import com.swimmingsys.model.dto.CourseQueryDTO;
+import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.model.vo.CourseVO;
+import com.swimmingsys.service.CourseCatalogCacheService;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.StringUtils;
+
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+
+/**
+ * 可预约课程目录缓存服务实现类
+ * 每个查询条件缓存一个按开始时间排序的 课程ID:开始时间 列表，并在登记表中记录查询条件，
+ * 课程变更时只删除查询条件能匹配该课程的目录；课程信息按课程单独缓存，每页只批量读取本页课程。
+ * 名额计数保存在一个Hash中（值为 版本号:已预约人数），已满课程的ID另存一个集合，分页时据此跳过已满课程，
+ * 两者按课程表乐观锁版本号在同一脚本中更新，因此并发的预约刷新和读取回填不会互相覆盖为旧值。
+ * 失效时递增失效序号，失效前开始加载的目录和课程信息不再写入缓存
+ */
+@Service
+public class CourseCatalogCacheServiceImpl implements CourseCatalogCacheService {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private CourseMapper courseMapper;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    // 缓存Key
+    private static final String CACHE_PREFIX = "course:catalog:";
+    private static final String IDS_KEY_PREFIX = CACHE_PREFIX + "ids:";
+    private static final String COURSE_KEY_PREFIX = CACHE_PREFIX + "course:";
+    private static final String QUERIES_KEY = CACHE_PREFIX + "queries";
+    private static final String EPOCH_KEY = CACHE_PREFIX + "epoch";
+    private static final String SEATS_KEY = CACHE_PREFIX + "seats";
+    private static final String FULL_KEY = CACHE_PREFIX + "full";
+
+    /**
+     * 目录和课程信息过期时间（小时），内容的新鲜度由课程变更时的失效保证
+     */
+    private static final long CATALOG_TTL_HOURS = 24;
+
+    /**
+     * 名额计数过期时间（天），过期后读取时从数据库回填
+     */
+    private static final long SEATS_TTL_DAYS = 7;
+
+    /**
+     * 登记表中最多保存的查询条件数，清理过期条件后仍超过时新的查询条件不再缓存
+     */
+    private static final int MAX_CACHED_QUERIES = 1000;
+
+    /**
+     * 写入名额计数脚本：仅当新版本号大于已保存的版本号时写入，同时维护已满课程集合
+     * KEYS[1]-名额计数，KEYS[2]-已满课程；ARGV[1]-过期秒数，其后按 课程ID、版本号、已预约人数、是否已满 四个一组
+     */
+    private static final DefaultRedisScript<Long> SET_SEATS_SCRIPT = new DefaultRedisScript<>(
+            "for i = 2, #ARGV, 4 do " +
+            "local current = redis.call('HGET', KEYS[1], ARGV[i]) " +
+            "if not current or tonumber(string.match(current, '^(%d+):')) < tonumber(ARGV[i + 1]) then " +
+            "redis.call('HSET', KEYS[1], ARGV[i], ARGV[i + 1] .. ':' .. ARGV[i + 2]) " +
+            "if ARGV[i + 3] == '1' then redis.call('SADD', KEYS[2], ARGV[i]) " +
+            "else redis.call('SREM', KEYS[2], ARGV[i]) end end end " +
+            "redis.call('EXPIRE', KEYS[1], ARGV[1]) " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[1]) " +
+            "return 1", Long.class);
+
+    /**
+     * 写入目录脚本：加载期间没有发生失效时才写入目录并登记查询条件
+     * KEYS[1]-失效序号，KEYS[2]-目录，KEYS[3]-登记表；ARGV[1]-加载前的失效序号，ARGV[2]-过期秒数，
+     * ARGV[3]-目录内容，ARGV[4]-查询条件摘要，ARGV[5]-登记内容
+     */
+    private static final DefaultRedisScript<Long> SAVE_CATALOG_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[1] then return 0 end " +
+            "redis.call('SET', KEYS[2], ARGV[3], 'EX', ARGV[2]) " +
+            "redis.call('HSET', KEYS[3], ARGV[4], ARGV[5]) " +
+            "redis.call('EXPIRE', KEYS[3], ARGV[2]) " +
+            "return 1", Long.class);
+
+    /**
+     * 写入课程信息脚本：加载期间没有发生失效时才写入
+     * KEYS[1]-失效序号，KEYS[2..]-课程信息；ARGV[1]-加载前的失效序号，ARGV[2]-过期秒数，ARGV[3..]-课程信息JSON
+     */
+    private static final DefaultRedisScript<Long> SAVE_COURSES_SCRIPT = new DefaultRedisScript<>(
+            "if (redis.call('GET', KEYS[1]) or '0') ~= ARGV[1] then return 0 end " +
+            "for i = 2, #KEYS do redis.call('SET', KEYS[i], ARGV[i + 1], 'EX', ARGV[2]) end " +
+            "return 1", Long.class);
+
+    @Override
+    public IPage<CourseVO> getCatalogPage(CourseQueryDTO queryDTO, Supplier<List<Course>> catalogLoader,
+                                          Function<List<Long>, List<CourseVO>> courseLoader) {
+        // 1. 读取有序的课程ID列表，未命中时查询数据库，同时回填名额计数
+        String digest = buildQueryDigest(queryDTO);
+        List<CatalogEntry> entries = parseEntries(stringRedisTemplate.opsForValue().get(IDS_KEY_PREFIX + digest));
+        if (entries == null) {
+            String epoch = currentEpoch();
+            List<Course> courses = catalogLoader.get();
+            if (courses == null) {
+                return null;
+            }
+            writeSeats(courses);
+            entries = new ArrayList<>(courses.size());
+            for (Course course : courses) {
+                entries.add(new CatalogEntry(course.getId(), toEpochSecond(course.getStartTime())));
+            }
+            saveCatalog(digest, queryDTO, entries, epoch);
+        }
+
+        // 2. 跳过已开始和已满的课程（已满课程通常很少，一次读取整个集合），计算总数并取出本页课程ID
+        Set<String> fullIds = stringRedisTemplate.opsForSet().members(FULL_KEY);
+        long nowSecond = toEpochSecond(LocalDateTime.now());
+        List<Long> bookableIds = new ArrayList<>();
+        for (CatalogEntry entry : entries) {
+            if (entry.startSecond > nowSecond && (fullIds == null || !fullIds.contains(String.valueOf(entry.courseId)))) {
+                bookableIds.add(entry.courseId);
+            }
+        }
+        Page<CourseVO> voPage = new Page<>(queryDTO.getPageNum(), queryDTO.getPageSize(), bookableIds.size());
+        long from = (long) (queryDTO.getPageNum() - 1) * queryDTO.getPageSize();
+        if (from >= bookableIds.size()) {
+            voPage.setRecords(new ArrayList<>());
+            return voPage;
+        }
+        int to = (int) Math.min(from + queryDTO.getPageSize(), bookableIds.size());
+        List<Long> pageIds = new ArrayList<>(bookableIds.subList((int) from, to));
+
+        // 3. 只读取本页课程的信息和名额计数
+        List<CourseVO> records = loadCourses(pageIds, courseLoader);
+        overlaySeats(records);
+        voPage.setRecords(records);
+        return voPage;
+    }
+
+    @Override
+    public void refreshSeats(Collection<Long> courseIds) {
+        if (courseIds == null || courseIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(courseIds);
+        afterCommit(() -> {
+            try {
+                loadSeats(ids);
+            } catch (Exception e) {
+                // 刷新失败时删除计数和已满标记，下次读取从数据库回填
+                try {
+                    Object[] fields = ids.stream().map(String::valueOf).toArray();
+                    stringRedisTemplate.opsForHash().delete(SEATS_KEY, fields);
+                    stringRedisTemplate.opsForSet().remove(FULL_KEY, fields);
+                } catch (Exception ignored) {
+                    // 缓存清除失败不影响主业务
+                }
+            }
+        });
+    }
+
+    @Override
+    public void invalidateCourses(Collection<Course> courses) {
+        if (courses == null || courses.isEmpty()) {
+            return;
+        }
+        List<Course> changed = new ArrayList<>(courses);
+        afterCommit(() -> {
+            try {
+                stringRedisTemplate.opsForValue().increment(EPOCH_KEY);
+                Set<Long> courseIds = changed.stream()
+                        .map(Course::getId)
+                        .filter(Objects::nonNull)
+                        .collect(Collectors.toCollection(LinkedHashSet::new));
+                stringRedisTemplate.delete(courseIds.stream()
+                        .map(id -> COURSE_KEY_PREFIX + id)
+                        .collect(Collectors.toList()));
+                dropCatalogs(changed);
+                // 容量或状态变化后重新计算是否已满
+                loadSeats(new ArrayList<>(courseIds));
+            } catch (Exception e) {
+                // 缓存清除失败不影响主业务
+            }
+        });
+    }
+
+    @Override
+    public void invalidateCoach(Long coachId) {
+        if (coachId == null) {
+            return;
+        }
+        afterCommit(() -> {
+            try {
+                stringRedisTemplate.opsForValue().increment(EPOCH_KEY);
+                QueryWrapper<Course> queryWrapper = new QueryWrapper<>();
+                queryWrapper.select("id");
+                queryWrapper.eq("coach_id", coachId);
+                queryWrapper.gt("start_time", LocalDateTime.now());
+                queryWrapper.eq("is_delete", 0);
+                List<String> keys = courseMapper.selectObjs(queryWrapper).stream()
+                        .map(id -> COURSE_KEY_PREFIX + id)
+                        .collect(Collectors.toList());
+                if (!keys.isEmpty()) {
+                    stringRedisTemplate.delete(keys);
+                }
+            } catch (Exception e) {
+                // 缓存清除失败不影响主业务
+            }
+        });
+    }
+
+    /**
+     * 批量读取课程信息，未缓存的课程一次批量查询后写入缓存
+     *
+     * @param courseIds    课程ID列表（本页）
+     * @param courseLoader 课程信息加载器
+     * @return 课程信息（顺序与课程ID列表一致，已删除的课程不返回）
+     */
+    private List<CourseVO> loadCourses(List<Long> courseIds, Function<List<Long>, List<CourseVO>> courseLoader) {
+        List<String> keys = courseIds.stream().map(id -> COURSE_KEY_PREFIX + id).collect(Collectors.toList());
+        List<String> values = stringRedisTemplate.opsForValue().multiGet(keys);
+
+        Map<Long, CourseVO> courseMap = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (int i = 0; i < courseIds.size(); i++) {
+            String value = values == null ? null : values.get(i);
+            CourseVO courseVO = null;
+            if (value != null) {
+                try {
+                    courseVO = objectMapper.readValue(value, CourseVO.class);
+                } catch (Exception e) {
+                    // 缓存数据异常时重新加载
+                }
+            }
+            if (courseVO == null) {
+                missingIds.add(courseIds.get(i));
+            } else {
+                courseMap.put(courseVO.getId(), courseVO);
+            }
+        }
+
+        if (!missingIds.isEmpty()) {
+            String epoch = currentEpoch();
+            List<CourseVO> loaded = courseLoader.apply(missingIds);
+            List<String> loadedKeys = new ArrayList<>(loaded.size() + 1);
+            List<String> args = new ArrayList<>(loaded.size() + 2);
+            loadedKeys.add(EPOCH_KEY);
+            args.add(epoch);
+            args.add(String.valueOf(TimeUnit.HOURS.toSeconds(CATALOG_TTL_HOURS)));
+            for (CourseVO courseVO : loaded) {
+                courseMap.put(courseVO.getId(), courseVO);
+                loadedKeys.add(COURSE_KEY_PREFIX + courseVO.getId());
+                args.add(toJson(courseVO));
+            }
+            if (!loaded.isEmpty()) {
+                stringRedisTemplate.execute(SAVE_COURSES_SCRIPT, loadedKeys, args.toArray());
+            }
+        }
+
+        List<CourseVO> courses = new ArrayList<>(courseIds.size());
+        for (Long courseId : courseIds) {
+            CourseVO courseVO = courseMap.get(courseId);
+            if (courseVO != null) {
+                courses.add(courseVO);
+            }
+        }
+        return courses;
+    }
+
+    /**
+     * 叠加最新名额计数，并重新计算剩余名额和是否可预约
+     * 缺少计数的课程一次批量查询数据库后回填
+     *
+     * @param courses 课程信息（本页）
+     */
+    private void overlaySeats(List<CourseVO> courses) {
+        if (courses.isEmpty()) {
+            return;
+        }
+        List<Object> fields = new ArrayList<>(courses.size());
+        for (CourseVO courseVO : courses) {
+            fields.add(String.valueOf(courseVO.getId()));
+        }
+        List<Object> values = stringRedisTemplate.opsForHash().multiGet(SEATS_KEY, fields);
+
+        Map<Long, Integer> seatMap = new HashMap<>();
+        List<Long> missingIds = new ArrayList<>();
+        for (int i = 0; i < courses.size(); i++) {
+            Object value = values.get(i);
+            if (value == null) {
+                missingIds.add(courses.get(i).getId());
+            } else {
+                String text = value.toString();
+                seatMap.put(courses.get(i).getId(), Integer.valueOf(text.substring(text.indexOf(':') + 1)));
+            }
+        }
+        if (!missingIds.isEmpty()) {
+            seatMap.putAll(loadSeats(missingIds));
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        for (CourseVO courseVO : courses) {
+            Integer currentCount = seatMap.get(courseVO.getId());
+            if (currentCount != null) {
+                courseVO.setCurrentCount(currentCount);
+            }
+            courseVO.setRemainingCount(courseVO.getCapacity() - courseVO.getCurrentCount());
+            courseVO.setBookable(courseVO.getStatus() == 1
+                    && courseVO.getCurrentCount() < courseVO.getCapacity()
+                    && courseVO.getStartTime().isAfter(now));
+        }
+    }
+
+    /**
+     * 从数据库查询课程已预约人数并写入名额计数
+     *
+     * @param courseIds 课程ID列表
+     * @return 课程ID -> 已预约人数
+     */
+    private Map<Long, Integer> loadSeats(List<Long> courseIds) {
+        if (courseIds.isEmpty()) {
+            return Collections.emptyMap();
+        }
+        QueryWrapper<Course> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "capacity", "current_count", "version");
+        queryWrapper.in("id", courseIds);
+        List<Course> courses = courseMapper.selectList(queryWrapper);
+        writeSeats(courses);
+
+        Map<Long, Integer> seatMap = new HashMap<>();
+        for (Course course : courses) {
+            seatMap.put(course.getId(), course.getCurrentCount());
+        }
+        return seatMap;
+    }
+
+    /**
+     * 写入名额计数和已满课程集合
+     *
+     * @param courses 课程（含ID、容量、已预约人数和版本号）
+     */
+    private void writeSeats(List<Course> courses) {
+        if (courses.isEmpty()) {
+            return;
+        }
+        List<String> args = new ArrayList<>(courses.size() * 4 + 1);
+        args.add(String.valueOf(TimeUnit.DAYS.toSeconds(SEATS_TTL_DAYS)));
+        for (Course course : courses) {
+            args.add(String.valueOf(course.getId()));
+            args.add(String.valueOf(course.getVersion()));
+            args.add(String.valueOf(course.getCurrentCount()));
+            args.add(course.getCurrentCount() >= course.getCapacity() ? "1" : "0");
+        }
+        stringRedisTemplate.execute(SET_SEATS_SCRIPT, Arrays.asList(SEATS_KEY, FULL_KEY), args.toArray());
+    }
+
+    /**
+     * 写入目录并登记查询条件，登记表已满时不缓存
+     *
+     * @param digest   查询条件摘要
+     * @param queryDTO 查询条件
+     * @param entries  目录
+     * @param epoch    加载前的失效序号
+     */
+    private void saveCatalog(String digest, CourseQueryDTO queryDTO, List<CatalogEntry> entries, String epoch) {
+        Long queryCount = stringRedisTemplate.opsForHash().size(QUERIES_KEY);
+        if (queryCount != null && queryCount >= MAX_CACHED_QUERIES && dropCatalogs(null) >= MAX_CACHED_QUERIES) {
+            return;
+        }
+        StringBuilder text = new StringBuilder(entries.size() * 24);
+        for (CatalogEntry entry : entries) {
+            if (text.length() > 0) {
+                text.append(',');
+            }
+            text.append(entry.courseId).append(':').append(entry.startSecond);
+        }
+        long ttlSeconds = TimeUnit.HOURS.toSeconds(CATALOG_TTL_HOURS);
+        String registration = (System.currentTimeMillis() + ttlSeconds * 1000L) + "|" + toJson(buildFilter(queryDTO));
+        stringRedisTemplate.execute(SAVE_CATALOG_SCRIPT,
+                Arrays.asList(EPOCH_KEY, IDS_KEY_PREFIX + digest, QUERIES_KEY),
+                epoch, String.valueOf(ttlSeconds), text.toString(), digest, registration);
+    }
+
+    /**
+     * 删除查询条件能匹配变更课程的目录，同时清理登记表中已过期的查询条件
+     *
+     * @param changed 变更的课程，为null时只清理过期的查询条件
+     * @return 登记表中剩余的查询条件数
+     */
+    private int dropCatalogs(List<Course> changed) {
+        Map<Object, Object> queries = stringRedisTemplate.opsForHash().entries(QUERIES_KEY);
+        long now = System.currentTimeMillis();
+        List<Object> droppedDigests = new ArrayList<>();
+        List<String> droppedKeys = new ArrayList<>();
+        for (Map.Entry<Object, Object> entry : queries.entrySet()) {
+            String registration = entry.getValue().toString();
+            int separator = registration.indexOf('|');
+            boolean drop;
+            if (separator < 0 || Long.parseLong(registration.substring(0, separator)) <= now) {
+                drop = true;
+            } else if (changed == null) {
+                drop = false;
+            } else {
+                CourseQueryDTO filter = null;
+                try {
+                    filter = objectMapper.readValue(registration.substring(separator + 1), CourseQueryDTO.class);
+                } catch (Exception e) {
+                    // 登记内容异常时按匹配处理
+                }
+                CourseQueryDTO queryFilter = filter;
+                drop = queryFilter == null || changed.stream().anyMatch(course -> matches(queryFilter, course));
+            }
+            if (drop) {
+                droppedDigests.add(entry.getKey());
+                droppedKeys.add(IDS_KEY_PREFIX + entry.getKey());
+            }
+        }
+        if (!droppedKeys.isEmpty()) {
+            stringRedisTemplate.delete(droppedKeys);
+            stringRedisTemplate.opsForHash().delete(QUERIES_KEY, droppedDigests.toArray());
+        }
+        return queries.size() - droppedDigests.size();
+    }
+
+    /**
+     * 判断课程是否可能出现在该查询条件的目录中
+     * 只比较课程本身的字段，状态不参与比较（可预约目录只含已发布课程，上下架必须失效）；
+     * 课程名称含通配符或字段缺失时按匹配处理
+     *
+     * @param filter 查询条件
+     * @param course 课程
+     * @return 是否匹配
+     */
+    private boolean matches(CourseQueryDTO filter, Course course) {
+        String courseName = filter.getCourseName();
+        if (StringUtils.hasText(courseName) && course.getCourseName() != null
+                && courseName.indexOf('%') < 0 && courseName.indexOf('_') < 0
+                && !course.getCourseName().toLowerCase().contains(courseName.toLowerCase())) {
+            return false;
+        }
+        if (StringUtils.hasText(filter.getCourseType()) && course.getCourseType() != null
+                && !filter.getCourseType().equalsIgnoreCase(course.getCourseType())) {
+            return false;
+        }
+        if (filter.getCoachId() != null && course.getCoachId() != null
+                && !filter.getCoachId().equals(course.getCoachId())) {
+            return false;
+        }
+        if (course.getStartTime() != null) {
+            if (filter.getStartTimeBegin() != null && course.getStartTime().isBefore(filter.getStartTimeBegin())) {
+                return false;
+            }
+            if (filter.getStartTimeEnd() != null && course.getStartTime().isAfter(filter.getStartTimeEnd())) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * 提取参与缓存键的查询条件（不含分页参数）
+     *
+     * @param queryDTO 查询条件
+     * @return 查询条件
+     */
+    private CourseQueryDTO buildFilter(CourseQueryDTO queryDTO) {
+        CourseQueryDTO filter = new CourseQueryDTO();
+        filter.setCourseName(queryDTO.getCourseName());
+        filter.setCourseType(queryDTO.getCourseType());
+        filter.setCoachId(queryDTO.getCoachId());
+        filter.setStatus(queryDTO.getStatus());
+        filter.setStartTimeBegin(queryDTO.getStartTimeBegin());
+        filter.setStartTimeEnd(queryDTO.getStartTimeEnd());
+        filter.setBookableOnly(queryDTO.getBookableOnly());
+        return filter;
+    }
+
+    /**
+     * 解析目录内容
+     *
+     * @param text 目录内容（课程ID:开始时间秒数，逗号分隔）
+     * @return 目录，未缓存时返回null
+     */
+    private List<CatalogEntry> parseEntries(String text) {
+        if (text == null) {
+            return null;
+        }
+        List<CatalogEntry> entries = new ArrayList<>();
+        if (text.isEmpty()) {
+            return entries;
+        }
+        for (String item : text.split(",")) {
+            int separator = item.indexOf(':');
+            entries.add(new CatalogEntry(Long.parseLong(item.substring(0, separator)),
+                    Long.parseLong(item.substring(separator + 1))));
+        }
+        return entries;
+    }
+
+    /**
+     * 获取当前失效序号
+     *
+     * @return 失效序号，未发生过失效时为0
+     */
+    private String currentEpoch() {
+        String epoch = stringRedisTemplate.opsForValue().get(EPOCH_KEY);
+        return epoch == null ? "0" : epoch;
+    }
+
+    /**
+     * 转换为秒级时间戳
+     *
+     * @param time 时间
+     * @return 秒级时间戳
+     */
+    private long toEpochSecond(LocalDateTime time) {
+        return time.atZone(ZoneId.systemDefault()).toEpochSecond();
+    }
+
+    /**
+     * 序列化为JSON
+     *
+     * @param value 对象
+     * @return JSON字符串
+     */
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (Exception e) {
+            throw new RuntimeException("课程目录缓存序列化失败");
+        }
+    }
+
+    /**
+     * 将查询条件规范化后生成摘要，分页参数不参与
+     *
+     * @param queryDTO 查询条件
+     * @return 查询条件摘要
+     */
+    private String buildQueryDigest(CourseQueryDTO queryDTO) {
+        String normalized = "name=" + (StringUtils.hasText(queryDTO.getCourseName()) ? queryDTO.getCourseName() : "")
+                + "|type=" + (StringUtils.hasText(queryDTO.getCourseType()) ? queryDTO.getCourseType() : "")
+                + "|coach=" + (queryDTO.getCoachId() == null ? "" : queryDTO.getCoachId())
+                + "|status=" + (queryDTO.getStatus() == null ? "" : queryDTO.getStatus())
+                + "|begin=" + (queryDTO.getStartTimeBegin() == null ? "" : queryDTO.getStartTimeBegin())
+                + "|end=" + (queryDTO.getStartTimeEnd() == null ? "" : queryDTO.getStartTimeEnd());
+        return DigestUtils.md5DigestAsHex(normalized.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 在事务中调用时，事务提交后再执行，否则立即执行
+     *
+     * @param action 缓存操作
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 目录中的一门课程
+     */
+    private static class CatalogEntry {
+
+        private final long courseId;
+
+        private final long startSecond;
+
+        CatalogEntry(long courseId, long startSecond) {
+            this.courseId = courseId;
+            this.startSecond = startSecond;
+        }
+    }
+}
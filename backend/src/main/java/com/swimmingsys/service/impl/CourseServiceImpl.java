@@ -1,25 +1,52 @@
 package com.swimmingsys.service.impl;
 
 import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.baomidou.mybatisplus.core.enums.SqlMethod;
 import com.baomidou.mybatisplus.core.metadata.IPage;
 import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.baomidou.mybatisplus.extension.toolkit.SqlHelper;
 import com.swimmingsys.mapper.BookingMapper;
 import com.swimmingsys.mapper.CoachMapper;
 import com.swimmingsys.mapper.CourseMapper;
 import com.swimmingsys.model.dto.CourseAddDTO;
 import com.swimmingsys.model.dto.CourseQueryDTO;
+import com.swimmingsys.model.dto.CourseSeriesDTO;
 import com.swimmingsys.model.dto.CourseUpdateDTO;
 import com.swimmingsys.model.entity.Booking;
 import com.swimmingsys.model.entity.Coach;
 import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.model.vo.CourseSeriesVO;
 import com.swimmingsys.model.vo.CourseVO;
+import com.swimmingsys.service.CoachScheduleService;
+import com.swimmingsys.service.CoachService;
+import com.swimmingsys.service.CourseCatalogCacheService;
 import com.swimmingsys.service.CourseService;
+import com.swimmingsys.service.SeatInventoryService;
+import com.swimmingsys.service.TimetableService;
+import org.apache.ibatis.logging.Log;
+import org.apache.ibatis.logging.LogFactory;
 import org.springframework.beans.BeanUtils;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.StringUtils;
 
 import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.stream.Collectors;
 
 /**
  * 课程服务实现类
@@ -36,6 +63,43 @@ public class CourseServiceImpl implements CourseService {
     @Resource
     private BookingMapper bookingMapper;
 
+    @Resource
+    private SeatInventoryService seatInventoryService;
+
+    @Resource
+    private CoachScheduleService coachScheduleService;
+
+    @Resource
+    private CoachService coachService;
+
+    @Resource
+    private CourseCatalogCacheService courseCatalogCacheService;
+
+    @Resource
+    private TimetableService timetableService;
+
+    private static final Log log = LogFactory.getLog(CourseServiceImpl.class);
+
+    /**
+     * 单次周期排课最多生成的课程数
+     */
+    private static final int MAX_SERIES_SIZE = 500;
+
+    /**
+     * 周期排课JDBC批量插入的批次大小
+     */
+    private static final int SERIES_BATCH_SIZE = 200;
+
+    /**
+     * 可预约课程目录缓存的最大课程数，超过时直接分页查询数据库
+     */
+    private static final int MAX_CATALOG_SIZE = 2000;
+
+    /**
+     * 提示信息中的时间格式
+     */
+    private static final DateTimeFormatter TIME_FORMATTER = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
     /**
      * 获取课程列表（分页/条件查询）
      *
@@ -44,49 +108,33 @@ public class CourseServiceImpl implements CourseService {
      */
     @Override
     public IPage<CourseVO> getCourseList(CourseQueryDTO queryDTO) {
-        // 1. 构建查询条件
-        QueryWrapper<Course> queryWrapper = new QueryWrapper<>();
-
-        // 课程名称模糊查询
-        if (StringUtils.hasText(queryDTO.getCourseName())) {
-            queryWrapper.like("course_name", queryDTO.getCourseName());
-        }
-        // 课程类型精确查询
-        if (StringUtils.hasText(queryDTO.getCourseType())) {
-            queryWrapper.eq("course_type", queryDTO.getCourseType());
-        }
-        // 教练ID精确查询
-        if (queryDTO.getCoachId() != null) {
-            queryWrapper.eq("coach_id", queryDTO.getCoachId());
-        }
-        // 状态精确查询
-        if (queryDTO.getStatus() != null) {
-            queryWrapper.eq("status", queryDTO.getStatus());
-        }
-        // 开始时间范围查询
-        if (queryDTO.getStartTimeBegin() != null) {
-            queryWrapper.ge("start_time", queryDTO.getStartTimeBegin());
-        }
-        if (queryDTO.getStartTimeEnd() != null) {
-            queryWrapper.le("start_time", queryDTO.getStartTimeEnd());
+        // 1. 可预约课程目录优先读取缓存，只读取本页课程的信息和名额，不访问数据库
+        if (Boolean.TRUE.equals(queryDTO.getBookableOnly())) {
+            try {
+                IPage<CourseVO> catalogPage = courseCatalogCacheService.getCatalogPage(queryDTO,
+                        () -> loadBookableCatalog(queryDTO), this::loadCatalogCourses);
+                if (catalogPage != null) {
+                    return catalogPage;
+                }
+            } catch (Exception e) {
+                // 缓存不可用时直接查询数据库
+            }
         }
-        // 只查询可预约的课程
+
+        // 2. 构建查询条件
+        QueryWrapper<Course> queryWrapper = buildCourseQueryWrapper(queryDTO);
         if (Boolean.TRUE.equals(queryDTO.getBookableOnly())) {
-            queryWrapper.eq("status", 1);
-            queryWrapper.gt("start_time", LocalDateTime.now());
             queryWrapper.apply("current_count < capacity");
         }
-        // 排除已删除
-        queryWrapper.eq("is_delete", 0);
-        // 按开始时间排序
-        queryWrapper.orderByAsc("start_time");
 
-        // 2. 执行分页查询
+        // 3. 执行分页查询
         Page<Course> page = new Page<>(queryDTO.getPageNum(), queryDTO.getPageSize());
         IPage<Course> coursePage = courseMapper.selectPage(page, queryWrapper);
 
-        // 3. 转换为VO分页
-        return coursePage.convert(this::convertToCourseVO);
+        // 4. 转换为VO分页（教练姓名一次批量查询）
+        Page<CourseVO> voPage = new Page<>(coursePage.getCurrent(), coursePage.getSize(), coursePage.getTotal());
+        voPage.setRecords(convertToCourseVOList(coursePage.getRecords()));
+        return voPage;
     }
 
     /**
@@ -119,14 +167,15 @@ public class CourseServiceImpl implements CourseService {
      * @return 新增的课程信息
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public CourseVO addCourse(CourseAddDTO addDTO) {
         // 1. 参数校验
         if (addDTO == null) {
             throw new RuntimeException("课程信息不能为空");
         }
 
-        // 2. 校验教练是否存在且在职
-        Coach coach = coachMapper.selectById(addDTO.getCoachId());
+        // 2. 校验教练是否存在且在职（锁定教练行，同一教练的排课串行执行）
+        Coach coach = coachMapper.selectByIdForUpdate(addDTO.getCoachId());
         if (coach == null || coach.getIsDelete() == 1) {
             throw new RuntimeException("教练不存在");
         }
@@ -142,7 +191,10 @@ public class CourseServiceImpl implements CourseService {
             throw new RuntimeException("课程开始时间不能早于当前时间");
         }
 
-        // 4. 创建课程对象
+        // 4. 校验教练时间冲突
+        checkCoachAvailable(addDTO.getCoachId(), addDTO.getStartTime(), addDTO.getEndTime(), null);
+
+        // 5. 创建课程对象
         Course course = new Course();
         course.setCourseName(addDTO.getCourseName().trim());
         course.setCourseType(addDTO.getCourseType().trim());
@@ -154,16 +206,154 @@ public class CourseServiceImpl implements CourseService {
         course.setDescription(addDTO.getDescription());
         course.setStatus(addDTO.getStatus());
 
-        // 5. 插入数据库
+        // 6. 插入数据库
         int result = courseMapper.insert(course);
         if (result <= 0) {
             throw new RuntimeException("新增课程失败");
         }
+        coachScheduleService.put(course);
+        courseCatalogCacheService.invalidateCourses(Collections.singletonList(course));
+        timetableService.markCoursesChanged(Collections.singletonList(course.getId()));
 
-        // 6. 返回课程信息
+        // 7. 返回课程信息
         return convertToCourseVO(course);
     }
 
+    /**
+     * 周期排课（批量生成系列课程）
+     * 展开排课规则后，锁定教练行，用教练排课索引逐节预检时间冲突并查询数据库复核，再用JDBC批量插入；
+     * 同一系列重复提交时跳过已生成的课程，只补充缺少的课程
+     *
+     * @param seriesDTO 排课规则
+     * @return 排课结果
+     */
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public CourseSeriesVO addCourseSeries(CourseSeriesDTO seriesDTO) {
+        // 1. 参数校验
+        if (seriesDTO == null) {
+            throw new RuntimeException("排课规则不能为空");
+        }
+        if (!seriesDTO.getStartTime().isBefore(seriesDTO.getEndTime())) {
+            throw new RuntimeException("上课时间必须早于下课时间");
+        }
+        Set<Integer> days = new TreeSet<>();
+        for (Integer day : seriesDTO.getDaysOfWeek()) {
+            if (day == null || day < 1 || day > 7) {
+                throw new RuntimeException("上课星期无效，应为1-7");
+            }
+            days.add(day);
+        }
+
+        // 2. 校验教练是否存在且在职（整个系列只查询一次，锁定教练行，同一教练的排课串行执行）
+        Coach coach = coachMapper.selectByIdForUpdate(seriesDTO.getCoachId());
+        if (coach == null || coach.getIsDelete() == 1) {
+            throw new RuntimeException("教练不存在");
+        }
+        if (coach.getStatus() != 1) {
+            throw new RuntimeException("教练已停用");
+        }
+
+        // 3. 展开排课规则
+        List<LocalDateTime> startTimes = new ArrayList<>();
+        LocalDate endDate = seriesDTO.getStartDate().plusWeeks(seriesDTO.getWeeks());
+        for (LocalDate date = seriesDTO.getStartDate(); date.isBefore(endDate); date = date.plusDays(1)) {
+            if (days.contains(date.getDayOfWeek().getValue())) {
+                startTimes.add(date.atTime(seriesDTO.getStartTime()));
+            }
+        }
+        if (startTimes.isEmpty()) {
+            throw new RuntimeException("排课规则未生成任何课程");
+        }
+        if (startTimes.size() > MAX_SERIES_SIZE) {
+            throw new RuntimeException("单次最多生成" + MAX_SERIES_SIZE + "节课程");
+        }
+        long durationMinutes = Duration.between(seriesDTO.getStartTime(), seriesDTO.getEndTime()).toMinutes();
+
+        // 4. 跳过该系列已生成的课程（重复提交幂等）
+        // 已删除的课程同样占用 uk_series_start，视为管理员有意删除，不重新生成
+        String seriesKey = StringUtils.hasText(seriesDTO.getSeriesKey())
+                ? seriesDTO.getSeriesKey().trim()
+                : buildSeriesKey(seriesDTO, days);
+        Set<LocalDateTime> existingStartTimes = new HashSet<>();
+        Set<LocalDateTime> deletedStartTimes = new HashSet<>();
+        for (Course existing : courseMapper.selectSeriesStartTimes(seriesKey)) {
+            if (existing.getIsDelete() != null && existing.getIsDelete() == 1) {
+                deletedStartTimes.add(existing.getStartTime());
+            } else {
+                existingStartTimes.add(existing.getStartTime());
+            }
+        }
+        List<LocalDateTime> newStartTimes = startTimes.stream()
+                .filter(startTime -> !existingStartTimes.contains(startTime) && !deletedStartTimes.contains(startTime))
+                .collect(Collectors.toList());
+        int deletedSkippedCount = (int) startTimes.stream().filter(deletedStartTimes::contains).count();
+
+        CourseSeriesVO seriesVO = new CourseSeriesVO();
+        seriesVO.setSeriesKey(seriesKey);
+        seriesVO.setTotalCount(startTimes.size());
+        seriesVO.setSkippedCount(startTimes.size() - newStartTimes.size() - deletedSkippedCount);
+        seriesVO.setDeletedSkippedCount(deletedSkippedCount);
+        seriesVO.setFirstStartTime(startTimes.get(0));
+        seriesVO.setLastStartTime(startTimes.get(startTimes.size() - 1));
+        if (newStartTimes.isEmpty()) {
+            seriesVO.setCreatedCount(0);
+            seriesVO.setCreatedCourseIds(new ArrayList<>());
+            return seriesVO;
+        }
+        if (newStartTimes.get(0).isBefore(LocalDateTime.now())) {
+            throw new RuntimeException("课程开始时间不能早于当前时间：" + newStartTimes.get(0).format(TIME_FORMATTER));
+        }
+
+        // 5. 逐节校验教练时间冲突：先用内存索引预检（每节 O(log n)），再一次查询系列时间范围内的课程复核
+        for (LocalDateTime startTime : newStartTimes) {
+            Course conflict = coachScheduleService.findConflict(seriesDTO.getCoachId(), startTime,
+                    startTime.plusMinutes(durationMinutes), null);
+            if (conflict != null) {
+                throw coachConflictException(startTime, conflict);
+            }
+        }
+        LocalDateTime lastStartTime = newStartTimes.get(newStartTimes.size() - 1);
+        List<Course> coachCourses = courseMapper.selectCoachCourses(seriesDTO.getCoachId(),
+                newStartTimes.get(0), lastStartTime.plusMinutes(durationMinutes));
+        for (LocalDateTime startTime : newStartTimes) {
+            LocalDateTime endTime = startTime.plusMinutes(durationMinutes);
+            for (Course coachCourse : coachCourses) {
+                if (coachCourse.getStartTime().isBefore(endTime) && coachCourse.getEndTime().isAfter(startTime)) {
+                    throw coachConflictException(startTime, coachCourse);
+                }
+            }
+        }
+
+        // 6. 构建课程并批量插入
+        List<Course> courses = new ArrayList<>(newStartTimes.size());
+        for (LocalDateTime startTime : newStartTimes) {
+            Course course = new Course();
+            course.setCourseName(seriesDTO.getCourseName().trim());
+            course.setCourseType(seriesDTO.getCourseType().trim());
+            course.setCoachId(seriesDTO.getCoachId());
+            course.setStartTime(startTime);
+            course.setEndTime(startTime.plusMinutes(durationMinutes));
+            course.setCapacity(seriesDTO.getCapacity());
+            course.setCurrentCount(0);
+            course.setDescription(seriesDTO.getDescription());
+            course.setStatus(seriesDTO.getStatus());
+            course.setSeriesKey(seriesKey);
+            courses.add(course);
+        }
+        String insertStatement = SqlHelper.getSqlStatement(CourseMapper.class, SqlMethod.INSERT_ONE);
+        SqlHelper.executeBatch(Course.class, log, courses, SERIES_BATCH_SIZE,
+                (sqlSession, course) -> sqlSession.insert(insertStatement, course));
+        courses.forEach(coachScheduleService::put);
+        courseCatalogCacheService.invalidateCourses(courses);
+        timetableService.markCoursesChanged(courses.stream().map(Course::getId).collect(Collectors.toList()));
+
+        // 7. 返回排课结果
+        seriesVO.setCreatedCount(courses.size());
+        seriesVO.setCreatedCourseIds(courses.stream().map(Course::getId).collect(Collectors.toList()));
+        return seriesVO;
+    }
+
     /**
      * 更新课程信息
      *
@@ -172,6 +362,7 @@ public class CourseServiceImpl implements CourseService {
      * @return 更新后的课程信息
      */
     @Override
+    @Transactional(rollbackFor = Exception.class)
     public CourseVO updateCourse(Long id, CourseUpdateDTO updateDTO) {
         // 1. 参数校验
         if (id == null || id <= 0) {
@@ -186,6 +377,9 @@ public class CourseServiceImpl implements CourseService {
         if (course == null || course.getIsDelete() == 1) {
             throw new RuntimeException("课程不存在");
         }
+        // 修改前的课程，用于使原查询条件下的课程目录失效
+        Course before = new Course();
+        BeanUtils.copyProperties(course, before);
 
         // 3. 更新字段
         if (StringUtils.hasText(updateDTO.getCourseName())) {
@@ -195,8 +389,8 @@ public class CourseServiceImpl implements CourseService {
             course.setCourseType(updateDTO.getCourseType().trim());
         }
         if (updateDTO.getCoachId() != null) {
-            // 校验教练是否存在且在职
-            Coach coach = coachMapper.selectById(updateDTO.getCoachId());
+            // 校验教练是否存在且在职（锁定教练行，同一教练的排课串行执行）
+            Coach coach = coachMapper.selectByIdForUpdate(updateDTO.getCoachId());
             if (coach == null || coach.getIsDelete() == 1) {
                 throw new RuntimeException("教练不存在");
             }
@@ -217,6 +411,14 @@ public class CourseServiceImpl implements CourseService {
         if (startTime.isAfter(endTime)) {
             throw new RuntimeException("课程开始时间不能晚于结束时间");
         }
+        // 更换教练或调整时间时校验教练时间冲突（排除课程自身）
+        if (updateDTO.getCoachId() != null || updateDTO.getStartTime() != null || updateDTO.getEndTime() != null) {
+            if (updateDTO.getCoachId() == null) {
+                // 未更换教练时锁定原教练行（更换教练时已在上面锁定）
+                coachMapper.selectByIdForUpdate(course.getCoachId());
+            }
+            checkCoachAvailable(course.getCoachId(), startTime, endTime, id);
+        }
         if (updateDTO.getCapacity() != null) {
             // 校验容量不能小于已预约人数
             if (updateDTO.getCapacity() < course.getCurrentCount()) {
@@ -236,6 +438,10 @@ public class CourseServiceImpl implements CourseService {
         if (result <= 0) {
             throw new RuntimeException("更新课程信息失败");
         }
+        evictSeatInventory(id);
+        coachScheduleService.put(course);
+        courseCatalogCacheService.invalidateCourses(Arrays.asList(before, course));
+        timetableService.markCoursesChanged(Collections.singletonList(id));
 
         // 5. 返回更新后的课程信息
         return convertToCourseVO(course);
@@ -272,6 +478,10 @@ public class CourseServiceImpl implements CourseService {
 
         // 4. 逻辑删除
         int result = courseMapper.deleteById(id);
+        evictSeatInventory(id);
+        coachScheduleService.remove(id);
+        courseCatalogCacheService.invalidateCourses(Collections.singletonList(course));
+        timetableService.markCoursesChanged(Collections.singletonList(id));
         return result > 0;
     }
 
@@ -304,11 +514,178 @@ public class CourseServiceImpl implements CourseService {
         if (result <= 0) {
             throw new RuntimeException("更新课程状态失败");
         }
+        evictSeatInventory(id);
+        courseCatalogCacheService.invalidateCourses(Collections.singletonList(course));
+        timetableService.markCoursesChanged(Collections.singletonList(id));
 
         // 4. 返回更新后的课程信息
         return convertToCourseVO(course);
     }
 
+    /**
+     * 构建课程查询条件（可预约条件不含名额，名额条件由调用方决定）
+     *
+     * @param queryDTO 查询条件
+     * @return 查询条件
+     */
+    private QueryWrapper<Course> buildCourseQueryWrapper(CourseQueryDTO queryDTO) {
+        QueryWrapper<Course> queryWrapper = new QueryWrapper<>();
+
+        // 课程名称模糊查询
+        if (StringUtils.hasText(queryDTO.getCourseName())) {
+            queryWrapper.like("course_name", queryDTO.getCourseName());
+        }
+        // 课程类型精确查询
+        if (StringUtils.hasText(queryDTO.getCourseType())) {
+            queryWrapper.eq("course_type", queryDTO.getCourseType());
+        }
+        // 教练ID精确查询
+        if (queryDTO.getCoachId() != null) {
+            queryWrapper.eq("coach_id", queryDTO.getCoachId());
+        }
+        // 状态精确查询
+        if (queryDTO.getStatus() != null) {
+            queryWrapper.eq("status", queryDTO.getStatus());
+        }
+        // 开始时间范围查询
+        if (queryDTO.getStartTimeBegin() != null) {
+            queryWrapper.ge("start_time", queryDTO.getStartTimeBegin());
+        }
+        if (queryDTO.getStartTimeEnd() != null) {
+            queryWrapper.le("start_time", queryDTO.getStartTimeEnd());
+        }
+        // 只查询可预约的课程
+        if (Boolean.TRUE.equals(queryDTO.getBookableOnly())) {
+            queryWrapper.eq("status", 1);
+            queryWrapper.gt("start_time", LocalDateTime.now());
+        }
+        // 排除已删除
+        queryWrapper.eq("is_delete", 0);
+        // 按开始时间排序
+        queryWrapper.orderByAsc("start_time");
+        return queryWrapper;
+    }
+
+    /**
+     * 加载可预约课程目录（已发布且未开始，不按名额过滤，名额由缓存计数叠加）
+     * 只查询排序和名额需要的字段，课程信息由缓存按页加载
+     *
+     * @param queryDTO 查询条件
+     * @return 课程目录（按开始时间升序），超过缓存上限时返回null
+     */
+    private List<Course> loadBookableCatalog(CourseQueryDTO queryDTO) {
+        QueryWrapper<Course> queryWrapper = buildCourseQueryWrapper(queryDTO);
+        queryWrapper.select("id", "start_time", "capacity", "current_count", "version");
+        queryWrapper.last("LIMIT " + (MAX_CATALOG_SIZE + 1));
+        List<Course> courses = courseMapper.selectList(queryWrapper);
+        if (courses.size() > MAX_CATALOG_SIZE) {
+            return null;
+        }
+        return courses;
+    }
+
+    /**
+     * 按课程ID批量加载课程目录中的课程信息（教练姓名一次批量查询）
+     *
+     * @param courseIds 课程ID列表
+     * @return 课程信息
+     */
+    private List<CourseVO> loadCatalogCourses(List<Long> courseIds) {
+        return convertToCourseVOList(courseMapper.selectBatchIds(courseIds));
+    }
+
+    /**
+     * 校验教练在指定时间段内是否空闲
+     * 内存索引只包含本节点已加载的课程，仅作预检；未发现冲突时再查询数据库复核，
+     * 调用前需在同一事务中锁定教练行
+     *
+     * @param coachId         教练ID
+     * @param startTime       开始时间
+     * @param endTime         结束时间
+     * @param excludeCourseId 排除的课程ID（修改课程时为自身），可为null
+     */
+    private void checkCoachAvailable(Long coachId, LocalDateTime startTime, LocalDateTime endTime, Long excludeCourseId) {
+        Course conflict = coachScheduleService.findConflict(coachId, startTime, endTime, excludeCourseId);
+        if (conflict == null) {
+            conflict = courseMapper.selectCoachConflict(coachId, startTime, endTime, excludeCourseId);
+        }
+        if (conflict != null) {
+            throw coachConflictException(startTime, conflict);
+        }
+    }
+
+    /**
+     * 构建教练时间冲突异常
+     *
+     * @param startTime 目标课程开始时间
+     * @param conflict  冲突课程
+     * @return 异常
+     */
+    private RuntimeException coachConflictException(LocalDateTime startTime, Course conflict) {
+        return new RuntimeException("教练在" + startTime.format(TIME_FORMATTER) + "已有课程「"
+                + conflict.getCourseName() + "」（" + conflict.getStartTime().format(TIME_FORMATTER)
+                + " 至 " + conflict.getEndTime().format(TIME_FORMATTER) + "），时间冲突");
+    }
+
+    /**
+     * 根据排课规则生成系列标识，同一规则重复提交得到相同标识
+     *
+     * @param seriesDTO 排课规则
+     * @param days      上课星期（已排序去重）
+     * @return 系列标识
+     */
+    private String buildSeriesKey(CourseSeriesDTO seriesDTO, Set<Integer> days) {
+        String rule = seriesDTO.getCourseName().trim() + "|" + seriesDTO.getCourseType().trim() + "|"
+                + seriesDTO.getCoachId() + "|" + seriesDTO.getStartDate() + "|" + seriesDTO.getWeeks() + "|"
+                + days + "|" + seriesDTO.getStartTime() + "|" + seriesDTO.getEndTime();
+        return DigestUtils.md5DigestAsHex(rule.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 清除课程名额库存，容量或状态变化后由数据库重新加载
+     * 与教练排课索引一样在事务提交后才生效，事务回滚时不清除，也不会提前加载到未提交的数据
+     *
+     * @param courseId 课程ID
+     */
+    private void evictSeatInventory(Long courseId) {
+        try {
+            seatInventoryService.evictAll(Collections.singletonList(courseId));
+        } catch (Exception e) {
+            // 库存清除失败不影响主业务
+        }
+    }
+
+    /**
+     * 批量将Course实体类转换为CourseVO，教练姓名整页一次获取（优先读取教练姓名缓存）
+     *
+     * @param courses 课程实体列表
+     * @return 课程VO列表
+     */
+    private List<CourseVO> convertToCourseVOList(List<Course> courses) {
+        if (courses.isEmpty()) {
+            return new ArrayList<>();
+        }
+        Set<Long> coachIds = courses.stream()
+                .map(Course::getCoachId)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, String> coachNameMap = coachService.getCoachNameMap(coachIds);
+
+        LocalDateTime now = LocalDateTime.now();
+        List<CourseVO> courseVOList = new ArrayList<>(courses.size());
+        for (Course course : courses) {
+            CourseVO courseVO = new CourseVO();
+            BeanUtils.copyProperties(course, courseVO);
+            courseVO.setRemainingCount(course.getCapacity() - course.getCurrentCount());
+            courseVO.setBookable(course.getStatus() == 1
+                    && course.getCurrentCount() < course.getCapacity()
+                    && course.getStartTime().isAfter(now));
+            courseVO.setCoachName(coachNameMap.get(course.getCoachId()));
+            courseVOList.add(courseVO);
+        }
+        return courseVOList;
+    }
+
     /**
      * 将Course实体类转换为CourseVO
      *
@@ -333,10 +710,8 @@ public class CourseServiceImpl implements CourseService {
 
         // 获取教练姓名
         if (course.getCoachId() != null) {
-            Coach coach = coachMapper.selectById(course.getCoachId());
-            if (coach != null) {
-                courseVO.setCoachName(coach.getName());
-            }
+            courseVO.setCoachName(coachService.getCoachNameMap(Collections.singletonList(course.getCoachId()))
+                    .get(course.getCoachId()));
         }
 
         return courseVO;
@@ -0,0 +1,48 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.service.DistributedLockService;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.Collections;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分布式锁服务实现类
+ * 加锁使用 SET NX EX，解锁使用Lua脚本比较令牌后删除
+ */
+@Service
+public class DistributedLockServiceImpl implements DistributedLockService {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    // Redis锁Key前缀
+    private static final String LOCK_KEY_PREFIX = "lock:";
+
+    /**
+     * 解锁脚本：令牌匹配时才删除
+     */
+    private static final DefaultRedisScript<Long> UNLOCK_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) == ARGV[1] then return redis.call('DEL', KEYS[1]) end " +
+            "return 0", Long.class);
+
+    @Override
+    public String tryLock(String lockKey, long ttlSeconds) {
+        String token = UUID.randomUUID().toString();
+        Boolean acquired = stringRedisTemplate.opsForValue()
+                .setIfAbsent(LOCK_KEY_PREFIX + lockKey, token, ttlSeconds, TimeUnit.SECONDS);
+        return Boolean.TRUE.equals(acquired) ? token : null;
+    }
+
+    @Override
+    public void unlock(String lockKey, String token) {
+        if (token == null) {
+            return;
+        }
+        stringRedisTemplate.execute(UNLOCK_SCRIPT, Collections.singletonList(LOCK_KEY_PREFIX + lockKey), token);
+    }
+}
@@ -0,0 +1,453 @@
+package com.swimmingsys.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swimmingsys.mapper.EntranceRecordMapper;
+import com.swimmingsys.model.entity.EntranceRecord;
+import com.swimmingsys.model.vo.EntranceWriteMetricsVO;
+import com.swimmingsys.service.EntranceRecordWriteService;
+import com.swimmingsys.service.StatisticsService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.NonTransientDataAccessException;
+import org.springframework.dao.NonTransientDataAccessResourceException;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import javax.annotation.Resource;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * 入场记录异步写入服务实现类
+ * 入场记录按行（JSON）追加到当前日志文件，文件达到批次大小或到达写入间隔时封存，
+ * 后台线程将封存的文件用多值INSERT写入数据库，成功后删除文件；
+ * 启动时读取目录中残留的日志文件重新写入，依赖 uk_qrcode_token 唯一索引去重；
+ * 同一日志文件连续写入失败达到上限时逐条写入，无法写入的记录移入死信目录，不阻塞后续日志文件
+ */
+@Slf4j
+@Service
+public class EntranceRecordWriteServiceImpl implements EntranceRecordWriteService {
+
+    @Resource
+    private EntranceRecordMapper entranceRecordMapper;
+
+    @Resource
+    private StatisticsService statisticsService;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Value("${entrance.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${entrance.write-behind.journal-dir:./data/entrance-journal}")
+    private String journalDir;
+
+    @Value("${entrance.write-behind.batch-size:200}")
+    private int batchSize;
+
+    @Value("${entrance.write-behind.fsync:true}")
+    private boolean fsync;
+
+    @Value("${entrance.write-behind.max-attempts:5}")
+    private int maxAttempts;
+
+    // 日志文件命名
+    private static final String SEGMENT_PREFIX = "entrance-";
+    private static final String SEGMENT_SUFFIX = ".log";
+
+    /**
+     * 死信目录（位于日志目录下），保存无法写入数据库的记录，需人工处理
+     */
+    private static final String DEAD_LETTER_DIR = "dead-letter";
+
+    /**
+     * 追加锁，保护当前日志文件
+     */
+    private final Object appendLock = new Object();
+
+    /**
+     * 写入锁，同一时间只有一个线程写入数据库
+     */
+    private final ReentrantLock flushLock = new ReentrantLock();
+
+    /**
+     * 当前追加的日志文件
+     */
+    private Segment current;
+
+    /**
+     * 已封存待写入的日志文件，按封存顺序排列
+     */
+    private final Deque<Segment> sealed = new ConcurrentLinkedDeque<>();
+
+    private final AtomicLong segmentSequence = new AtomicLong();
+
+    /**
+     * 达到批次大小时触发写入的后台线程
+     */
+    private final ExecutorService flushExecutor = Executors.newSingleThreadExecutor(runnable -> {
+        Thread thread = new Thread(runnable, "entrance-record-flush");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private final AtomicBoolean flushScheduled = new AtomicBoolean();
+
+    // 写入指标
+    private final AtomicLong flushedCount = new AtomicLong();
+    private final AtomicLong failedFlushCount = new AtomicLong();
+    private final AtomicLong recoveredCount = new AtomicLong();
+    private final AtomicLong deadLetterCount = new AtomicLong();
+    private volatile LocalDateTime lastFlushTime;
+    private volatile long lastFlushMillis;
+    private volatile String lastError;
+
+    /**
+     * 创建日志目录，重放上次未写入的日志
+     */
+    @PostConstruct
+    public void init() throws IOException {
+        if (!enabled) {
+            return;
+        }
+        Path dir = Paths.get(journalDir);
+        Files.createDirectories(dir);
+        recover(dir);
+        synchronized (appendLock) {
+            current = openSegment();
+        }
+        if (!sealed.isEmpty()) {
+            scheduleFlush();
+        }
+    }
+
+    /**
+     * 应用关闭时写入剩余记录
+     */
+    @PreDestroy
+    public void shutdown() {
+        if (!enabled) {
+            return;
+        }
+        flushExecutor.shutdown();
+        flush();
+        synchronized (appendLock) {
+            if (current != null) {
+                current.close();
+                if (current.records.isEmpty()) {
+                    current.delete();
+                }
+            }
+        }
+    }
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public void append(EntranceRecord record) {
+        boolean rotated;
+        try {
+            byte[] line = (objectMapper.writeValueAsString(record) + "\n").getBytes(StandardCharsets.UTF_8);
+            synchronized (appendLock) {
+                current.write(line, fsync);
+                current.records.add(record);
+                rotated = current.records.size() >= batchSize && rotate();
+            }
+        } catch (IOException e) {
+            log.error("入场记录写入本地日志失败", e);
+            throw new RuntimeException("保存入场记录失败，请重试");
+        }
+        // 达到批次大小时立即写入，不等待定时任务
+        if (rotated) {
+            scheduleFlush();
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        flushLock.lock();
+        try {
+            synchronized (appendLock) {
+                rotate();
+            }
+            long start = System.currentTimeMillis();
+            long written = 0;
+            Segment segment;
+            while ((segment = sealed.peekFirst()) != null) {
+                try {
+                    written += insertSegment(segment);
+                } catch (Exception e) {
+                    // 未达到失败上限时保持顺序，下次写入时重试（通常为数据库暂时不可用）
+                    if (++segment.attempts < maxAttempts) {
+                        throw e;
+                    }
+                    written += quarantine(segment);
+                }
+                sealed.pollFirst();
+                segment.delete();
+            }
+            if (written > 0) {
+                flushedCount.addAndGet(written);
+                lastFlushTime = LocalDateTime.now();
+                lastFlushMillis = System.currentTimeMillis() - start;
+                lastError = null;
+                clearEntranceCache();
+            }
+        } catch (Exception e) {
+            // 日志文件保留，下次写入时重试
+            failedFlushCount.incrementAndGet();
+            lastError = e.getMessage();
+            log.warn("入场记录批量写入失败，将在下次写入时重试：{}", e.getMessage());
+        } finally {
+            flushLock.unlock();
+        }
+    }
+
+    @Override
+    public EntranceWriteMetricsVO getMetrics() {
+        EntranceWriteMetricsVO metricsVO = new EntranceWriteMetricsVO();
+        metricsVO.setEnabled(enabled);
+        metricsVO.setJournalDir(Paths.get(journalDir).toAbsolutePath().toString());
+
+        int pendingCount = 0;
+        LocalDateTime oldest = null;
+        List<Segment> segments = new ArrayList<>(sealed);
+        for (Segment segment : segments) {
+            pendingCount += segment.records.size();
+            if (oldest == null && !segment.records.isEmpty()) {
+                oldest = segment.records.get(0).getEntranceTime();
+            }
+        }
+        synchronized (appendLock) {
+            if (current != null && !current.records.isEmpty()) {
+                pendingCount += current.records.size();
+                if (oldest == null) {
+                    oldest = current.records.get(0).getEntranceTime();
+                }
+            }
+        }
+        metricsVO.setPendingCount(pendingCount);
+        metricsVO.setPendingSegments(segments.size());
+        metricsVO.setFlushLagMillis(oldest == null ? 0L : Math.max(Duration.between(oldest, LocalDateTime.now()).toMillis(), 0L));
+        metricsVO.setFlushedCount(flushedCount.get());
+        metricsVO.setFailedFlushCount(failedFlushCount.get());
+        metricsVO.setRecoveredCount(recoveredCount.get());
+        metricsVO.setDeadLetterCount(deadLetterCount.get());
+        metricsVO.setLastFlushTime(lastFlushTime);
+        metricsVO.setLastFlushMillis(lastFlushMillis);
+        metricsVO.setLastError(lastError);
+        return metricsVO;
+    }
+
+    /**
+     * 按批次大小将日志文件中的记录写入数据库
+     *
+     * @param segment 日志文件
+     * @return 写入的记录数
+     */
+    private int insertSegment(Segment segment) {
+        for (int from = 0; from < segment.records.size(); from += batchSize) {
+            List<EntranceRecord> batch = segment.records.subList(from,
+                    Math.min(from + batchSize, segment.records.size()));
+            entranceRecordMapper.insertBatchSkipExisting(batch);
+        }
+        return segment.records.size();
+    }
+
+    /**
+     * 逐条写入连续失败的日志文件，因数据本身无法写入的记录移入死信目录
+     * 数据库连接等资源类错误直接抛出，日志文件保留，下次写入时重试
+     *
+     * @param segment 日志文件
+     * @return 写入的记录数
+     */
+    private int quarantine(Segment segment) throws IOException {
+        List<EntranceRecord> rejected = new ArrayList<>();
+        for (EntranceRecord record : segment.records) {
+            try {
+                entranceRecordMapper.insertBatchSkipExisting(Collections.singletonList(record));
+            } catch (NonTransientDataAccessException e) {
+                if (e instanceof NonTransientDataAccessResourceException) {
+                    throw e;
+                }
+                rejected.add(record);
+            }
+        }
+        if (!rejected.isEmpty()) {
+            Path dir = Paths.get(journalDir, DEAD_LETTER_DIR);
+            Files.createDirectories(dir);
+            List<String> lines = new ArrayList<>(rejected.size());
+            for (EntranceRecord record : rejected) {
+                lines.add(objectMapper.writeValueAsString(record));
+            }
+            Path file = dir.resolve(segment.path.getFileName());
+            Files.write(file, lines, StandardCharsets.UTF_8, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            deadLetterCount.addAndGet(rejected.size());
+            log.error("入场记录日志{}连续{}次写入失败，{}条无法写入的记录已移入死信目录：{}",
+                    segment.path.getFileName(), segment.attempts, rejected.size(), file.toAbsolutePath());
+        }
+        return segment.records.size() - rejected.size();
+    }
+
+    /**
+     * 读取目录中残留的日志文件，加入待写入队列
+     * 进程异常退出时最后一行可能不完整，解析失败的行跳过
+     *
+     * @param dir 日志目录
+     */
+    private void recover(Path dir) throws IOException {
+        List<Path> files;
+        try (Stream<Path> stream = Files.list(dir)) {
+            files = stream.filter(path -> {
+                String name = path.getFileName().toString();
+                return name.startsWith(SEGMENT_PREFIX) && name.endsWith(SEGMENT_SUFFIX);
+            }).sorted().collect(Collectors.toList());
+        }
+        for (Path file : files) {
+            Segment segment = new Segment(file);
+            for (String line : Files.readAllLines(file, StandardCharsets.UTF_8)) {
+                if (line.trim().isEmpty()) {
+                    continue;
+                }
+                try {
+                    segment.records.add(objectMapper.readValue(line, EntranceRecord.class));
+                } catch (Exception e) {
+                    log.warn("跳过无法解析的入场记录日志：{}", file.getFileName());
+                }
+            }
+            if (segment.records.isEmpty()) {
+                segment.delete();
+                continue;
+            }
+            sealed.add(segment);
+            recoveredCount.addAndGet(segment.records.size());
+        }
+        if (recoveredCount.get() > 0) {
+            log.info("从本地日志恢复{}条未写入的入场记录", recoveredCount.get());
+        }
+    }
+
+    /**
+     * 封存当前日志文件并新建日志文件（需持有追加锁）
+     *
+     * @return 是否有记录被封存
+     */
+    private boolean rotate() throws IOException {
+        if (current == null || current.records.isEmpty()) {
+            return false;
+        }
+        current.close();
+        sealed.add(current);
+        current = openSegment();
+        return true;
+    }
+
+    /**
+     * 新建日志文件，文件名按创建时间和序号排序
+     *
+     * @return 日志文件
+     */
+    private Segment openSegment() throws IOException {
+        String name = String.format("%s%013d-%06d%s", SEGMENT_PREFIX, System.currentTimeMillis(),
+                segmentSequence.incrementAndGet() % 1000000, SEGMENT_SUFFIX);
+        Segment segment = new Segment(Paths.get(journalDir, name));
+        segment.out = new FileOutputStream(segment.path.toFile(), true);
+        return segment;
+    }
+
+    /**
+     * 提交一次后台写入，已有待执行的写入时不重复提交
+     */
+    private void scheduleFlush() {
+        if (flushScheduled.compareAndSet(false, true)) {
+            try {
+                flushExecutor.execute(() -> {
+                    flushScheduled.set(false);
+                    flush();
+                });
+            } catch (Exception e) {
+                // 应用关闭中，由关闭流程写入
+                flushScheduled.set(false);
+            }
+        }
+    }
+
+    /**
+     * 清除入场统计缓存和运营概览缓存
+     */
+    private void clearEntranceCache() {
+        try {
+            statisticsService.clearEntranceCache();
+            statisticsService.clearDashboardCache();
+        } catch (Exception e) {
+            // 缓存清除失败不影响主业务
+        }
+    }
+
+    /**
+     * 日志文件
+     */
+    private static class Segment {
+        private final Path path;
+        private final List<EntranceRecord> records = new ArrayList<>();
+        private FileOutputStream out;
+        private int attempts;
+
+        Segment(Path path) {
+            this.path = path;
+        }
+
+        void write(byte[] line, boolean fsync) throws IOException {
+            out.write(line);
+            if (fsync) {
+                out.getFD().sync();
+            }
+        }
+
+        void close() {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // 关闭失败不影响已写入的内容
+                }
+                out = null;
+            }
+        }
+
+        void delete() {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("删除入场记录日志失败：{}", path.getFileName());
+            }
+        }
+    }
+}
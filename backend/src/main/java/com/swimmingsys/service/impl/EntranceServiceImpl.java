@@ -7,23 +7,37 @@ import com.swimmingsys.common.RoleConstant;
 import com.swimmingsys.mapper.BookingMapper;
 import com.swimmingsys.mapper.EntranceQrcodeMapper;
 import com.swimmingsys.mapper.EntranceRecordMapper;
+import com.swimmingsys.mapper.UserMapper;
 import com.swimmingsys.model.dto.EntranceRecordQueryDTO;
 import com.swimmingsys.model.dto.EntranceVerifyDTO;
-import com.swimmingsys.model.entity.Booking;
 import com.swimmingsys.model.entity.EntranceQrcode;
 import com.swimmingsys.model.entity.EntranceRecord;
 import com.swimmingsys.model.entity.User;
+import com.swimmingsys.model.vo.CursorPageVO;
+import com.swimmingsys.model.vo.EntranceExitResultVO;
 import com.swimmingsys.model.vo.EntranceQrcodeVO;
 import com.swimmingsys.model.vo.EntranceRecordVO;
 import com.swimmingsys.model.vo.EntranceVerifyResultVO;
+import com.swimmingsys.model.vo.OccupancyVO;
+import com.swimmingsys.service.EntranceRecordWriteService;
 import com.swimmingsys.service.EntranceService;
+import com.swimmingsys.service.EntranceTokenService;
+import com.swimmingsys.service.OccupancyService;
+import com.swimmingsys.service.StatisticsService;
+import com.swimmingsys.utils.CursorUtil;
+import com.swimmingsys.utils.EntranceCodeUtil;
 import org.springframework.beans.BeanUtils;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import javax.annotation.Resource;
+import java.time.Instant;
 import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.List;
 import java.util.UUID;
+import java.util.stream.Collectors;
 
 /**
  * 入场服务实现类
@@ -41,13 +55,40 @@ public class EntranceServiceImpl implements EntranceService {
     private BookingMapper bookingMapper;
 
     @Resource
-    private com.swimmingsys.mapper.CourseMapper courseMapper;
+    private StatisticsService statisticsService;
 
     @Resource
-    private com.swimmingsys.mapper.CoachMapper coachMapper;
+    private EntranceTokenService entranceTokenService;
 
     @Resource
-    private com.swimmingsys.service.StatisticsService statisticsService;
+    private EntranceCodeUtil entranceCodeUtil;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private EntranceRecordWriteService entranceRecordWriteService;
+
+    @Resource
+    private TransactionTemplate transactionTemplate;
+
+    @Resource
+    private OccupancyService occupancyService;
+
+    /**
+     * 入场码存储方式：database-每次生成写入entrance_qrcode表（默认），redis-保存在Redis中并自动过期，
+     * signed-签名入场码，不保存，验证时只校验签名和有效期
+     */
+    @Value("${entrance.token.store:database}")
+    private String tokenStore;
+
+    private static final String TOKEN_STORE_REDIS = "redis";
+    private static final String TOKEN_STORE_SIGNED = "signed";
+
+    /**
+     * 签名入场码允许的签发时间超前量（毫秒），容忍节点之间的时钟偏差
+     */
+    private static final long CLOCK_SKEW_MILLIS = 60000L;
 
     /**
      * 生成入场二维码
@@ -67,36 +108,13 @@ public class EntranceServiceImpl implements EntranceService {
             throw new RuntimeException("会员已停用，无法生成入场码");
         }
 
-        // 3. 生成唯一令牌
-        String qrcodeToken = generateUniqueToken(loginUser.getId());
+        // 3. 生成唯一令牌（签名模式下在保存时签名生成）
+        String qrcodeToken = isSignedTokenStore() ? null : generateUniqueToken(loginUser.getId());
 
-        // 4. 查询是否有即将开始的课程预约（2小时内的预约）
-        // 由于booking表没有课程时间冗余字段，需要联合查询course表
-        QueryWrapper<Booking> bookingWrapper = new QueryWrapper<>();
-        bookingWrapper.eq("user_id", loginUser.getId());
-        bookingWrapper.eq("status", 1); // 已预约状态
-        bookingWrapper.eq("is_delete", 0);
-        java.util.List<Booking> userBookings = bookingMapper.selectList(bookingWrapper);
-        
-        Booking upcomingBooking = null;
-        com.swimmingsys.model.entity.Course upcomingCourse = null;
+        // 4. 查询2小时内即将开始的课程预约（一条关联查询，与预约历史数量无关）
         LocalDateTime now = LocalDateTime.now();
-        LocalDateTime twoHoursLater = now.plusHours(2);
-        
-        // 遍历预约，找到最近即将开始的课程
-        for (Booking booking : userBookings) {
-            com.swimmingsys.model.entity.Course course = courseMapper.selectById(booking.getCourseId());
-            if (course != null && course.getIsDelete() == 0) {
-                LocalDateTime courseStartTime = course.getStartTime();
-                // 课程在2小时内开始
-                if (courseStartTime.isAfter(now) && courseStartTime.isBefore(twoHoursLater)) {
-                    if (upcomingBooking == null || courseStartTime.isBefore(upcomingCourse.getStartTime())) {
-                        upcomingBooking = booking;
-                        upcomingCourse = course;
-                    }
-                }
-            }
-        }
+        EntranceQrcodeVO.CourseBookingInfo upcomingBooking =
+                bookingMapper.selectUpcomingBookingInfo(loginUser.getId(), now, now.plusHours(2));
 
         // 5. 创建二维码记录
         EntranceQrcode qrcode = new EntranceQrcode();
@@ -107,42 +125,40 @@ public class EntranceServiceImpl implements EntranceService {
         qrcode.setIsUsed(0);
 
         // 6. 如果有课程预约，附加预约信息
-        if (upcomingBooking != null && upcomingCourse != null) {
-            qrcode.setBookingId(upcomingBooking.getId());
-            qrcode.setCourseName(upcomingCourse.getCourseName());
-            qrcode.setCourseStartTime(upcomingCourse.getStartTime());
-            
-            // 查询教练信息
-            if (upcomingCourse.getCoachId() != null) {
-                com.swimmingsys.model.entity.Coach coach = coachMapper.selectById(upcomingCourse.getCoachId());
-                if (coach != null) {
-                    qrcode.setCoachName(coach.getName());
-                }
-            }
+        if (upcomingBooking != null) {
+            qrcode.setBookingId(upcomingBooking.getBookingId());
+            qrcode.setCourseName(upcomingBooking.getCourseName());
+            qrcode.setCourseStartTime(upcomingBooking.getStartTime());
+            qrcode.setCoachName(upcomingBooking.getCoachName());
         }
 
-        // 7. 保存到数据库
-        int result = entranceQrcodeMapper.insert(qrcode);
-        if (result <= 0) {
-            throw new RuntimeException("生成入场码失败");
+        // 7. 保存入场码：签名模式下不保存；Redis模式下只保存在Redis中，同时使该会员之前的入场码失效
+        if (isSignedTokenStore()) {
+            long issuedSecond = qrcode.getGeneratedTime().atZone(ZoneId.systemDefault()).toEpochSecond();
+            qrcode.setQrcodeToken(entranceCodeUtil.sign(loginUser.getId(), qrcode.getBookingId(), issuedSecond));
+            // 保存最新入场码的随机数和显示信息，使之前的签名入场码失效，验证时无需查询数据库
+            entranceTokenService.saveSignedCode(qrcode, entranceCodeUtil.parse(qrcode.getQrcodeToken()).getNonce());
+        } else if (isRedisTokenStore()) {
+            entranceTokenService.save(qrcode);
+        } else {
+            int result = entranceQrcodeMapper.insert(qrcode);
+            if (result <= 0) {
+                throw new RuntimeException("生成入场码失败");
+            }
         }
 
         // 8. 构建返回结果
         EntranceQrcodeVO qrcodeVO = new EntranceQrcodeVO();
-        qrcodeVO.setQrcodeToken(qrcodeToken);
+        qrcodeVO.setQrcodeToken(qrcode.getQrcodeToken());
         qrcodeVO.setUserId(loginUser.getId());
         qrcodeVO.setUserName(loginUser.getUserName());
         qrcodeVO.setGeneratedTime(qrcode.getGeneratedTime());
+        if (isRedisTokenStore() || isSignedTokenStore()) {
+            qrcodeVO.setExpireTime(qrcode.getGeneratedTime().plusSeconds(entranceTokenService.getTtlSeconds()));
+        }
 
         // 9. 附加课程预约信息
-        if (upcomingBooking != null && qrcode.getCourseName() != null) {
-            EntranceQrcodeVO.CourseBookingInfo bookingInfo = new EntranceQrcodeVO.CourseBookingInfo();
-            bookingInfo.setBookingId(upcomingBooking.getId());
-            bookingInfo.setCourseName(qrcode.getCourseName());
-            bookingInfo.setStartTime(qrcode.getCourseStartTime());
-            bookingInfo.setCoachName(qrcode.getCoachName());
-            qrcodeVO.setCourseBooking(bookingInfo);
-        }
+        qrcodeVO.setCourseBooking(upcomingBooking);
 
         return qrcodeVO;
     }
@@ -155,24 +171,15 @@ public class EntranceServiceImpl implements EntranceService {
      * @return 验证结果
      */
     @Override
-    @Transactional
     public EntranceVerifyResultVO verifyEntrance(EntranceVerifyDTO verifyDTO, User verifier) {
-        // 1. 查询二维码记录
-        QueryWrapper<EntranceQrcode> qrcodeWrapper = new QueryWrapper<>();
-        qrcodeWrapper.eq("qrcode_token", verifyDTO.getQrcodeToken());
-        qrcodeWrapper.eq("is_delete", 0);
-        EntranceQrcode qrcode = entranceQrcodeMapper.selectOne(qrcodeWrapper);
-
-        if (qrcode == null) {
-            throw new RuntimeException("无效的入场码");
-        }
-
-        // 2. 检查是否已使用
-        if (qrcode.getIsUsed() == 1) {
-            throw new RuntimeException("该入场码已使用，请重新生成");
-        }
-
-        // 3. 生成入场记录
+        // 1. 校验并使用入场码（签名入场码记录防重放，Redis入场码读取时删除，数据库入场码只查询）
+        String qrcodeToken = verifyDTO.getQrcodeToken();
+        EntranceQrcode qrcode = resolveQrcode(qrcodeToken);
+        boolean signed = qrcodeToken.startsWith(EntranceCodeUtil.PREFIX);
+        boolean persisted = qrcode.getId() != null;
+        boolean fromRedis = !signed && !persisted;
+
+        // 2. 生成入场记录
         EntranceRecord record = new EntranceRecord();
         record.setUserId(qrcode.getUserId());
         record.setUserName(qrcode.getUserName());
@@ -186,31 +193,44 @@ public class EntranceServiceImpl implements EntranceService {
             record.setCourseName(qrcode.getCourseName());
         }
 
-        int recordResult = entranceRecordMapper.insert(record);
-        if (recordResult <= 0) {
-            throw new RuntimeException("生成入场记录失败");
-        }
-
-        // 4. 标记二维码为已使用
-        qrcode.setIsUsed(1);
-        qrcode.setUsedTime(LocalDateTime.now());
-        int updateResult = entranceQrcodeMapper.updateById(qrcode);
-        if (updateResult <= 0) {
-            throw new RuntimeException("更新二维码状态失败");
+        // 3. 在馆人数加一，达到容纳上限时拒绝入场并归还入场码（Redis入场码写回，签名入场码撤销使用标记）
+        long occupancy = 0L;
+        if (occupancyService.isEnabled()) {
+            try {
+                occupancy = occupancyService.enter(qrcode.getUserId());
+            } catch (RuntimeException e) {
+                restoreToken(qrcode, fromRedis);
+                throw e;
+            }
         }
 
-        // 清除入场统计缓存和运营概览缓存
+        // 4. 数据库模式下标记二维码为已使用并保存入场记录（同一事务）；
+        //    Redis模式下入场码已在读取时删除，签名入场码已记录防重放，只需保存入场记录
         try {
-            statisticsService.clearEntranceCache();
-            statisticsService.clearDashboardCache();
-        } catch (Exception e) {
-            // 缓存清除失败不影响主业务
+            if (persisted) {
+                EntranceQrcode usedQrcode = qrcode;
+                transactionTemplate.executeWithoutResult(status -> {
+                    markQrcodeUsed(usedQrcode);
+                    saveEntranceRecord(record);
+                });
+            } else {
+                saveEntranceRecord(record);
+            }
+        } catch (RuntimeException e) {
+            if (occupancyService.isEnabled()) {
+                releaseOccupancy(qrcode.getUserId());
+            }
+            restoreToken(qrcode, fromRedis);
+            throw e;
         }
 
         // 5. 构建返回结果
         EntranceVerifyResultVO resultVO = new EntranceVerifyResultVO();
         resultVO.setUserName(qrcode.getUserName());
         resultVO.setEntranceTime(record.getEntranceTime());
+        if (occupancyService.isEnabled()) {
+            resultVO.setOccupancy(occupancy);
+        }
 
         // 6. 如果有课程预约信息，附加提示
         if (qrcode.getBookingId() != null) {
@@ -225,6 +245,50 @@ public class EntranceServiceImpl implements EntranceService {
         return resultVO;
     }
 
+    /**
+     * 扫码离场
+     * 会员离场时出示新生成的入场码，入场码按入场时的规则校验并使用，在馆人数减一
+     *
+     * @param verifyDTO 验证请求
+     * @param verifier  验证人（管理员）
+     * @return 离场结果
+     */
+    @Override
+    public EntranceExitResultVO exitEntrance(EntranceVerifyDTO verifyDTO, User verifier) {
+        if (!occupancyService.isEnabled()) {
+            throw new RuntimeException("未启用在馆人数统计，无需扫码离场");
+        }
+
+        // 1. 校验并使用入场码，数据库入场码标记为已使用
+        EntranceQrcode qrcode = resolveQrcode(verifyDTO.getQrcodeToken());
+        if (qrcode.getId() != null) {
+            markQrcodeUsed(qrcode);
+        }
+
+        // 2. 在馆人数减一（会员不在馆内时人数不变）
+        long occupancy = occupancyService.exit(qrcode.getUserId());
+
+        // 3. 构建返回结果
+        EntranceExitResultVO resultVO = new EntranceExitResultVO();
+        resultVO.setUserName(qrcode.getUserName());
+        resultVO.setExitTime(LocalDateTime.now());
+        resultVO.setOccupancy(occupancy);
+        return resultVO;
+    }
+
+    @Override
+    public OccupancyVO getOccupancy() {
+        return occupancyService.getOccupancy();
+    }
+
+    @Override
+    public void resetOccupancy() {
+        if (!occupancyService.isEnabled()) {
+            throw new RuntimeException("未启用在馆人数统计");
+        }
+        occupancyService.reset();
+    }
+
     /**
      * 获取我的入场记录（会员）
      *
@@ -234,20 +298,9 @@ public class EntranceServiceImpl implements EntranceService {
      */
     @Override
     public IPage<EntranceRecordVO> getMyEntranceRecords(EntranceRecordQueryDTO queryDTO, User loginUser) {
-        // 1. 构建查询条件
-        QueryWrapper<EntranceRecord> queryWrapper = new QueryWrapper<>();
-        queryWrapper.eq("user_id", loginUser.getId());
-
-        // 时间范围查询
-        if (queryDTO.getStartTime() != null) {
-            queryWrapper.ge("entrance_time", queryDTO.getStartTime());
-        }
-        if (queryDTO.getEndTime() != null) {
-            queryWrapper.le("entrance_time", queryDTO.getEndTime());
-        }
-
-        // 排除已删除
-        queryWrapper.eq("is_delete", 0);
+        // 1. 构建查询条件（强制设置用户ID为当前登录用户）
+        queryDTO.setUserId(loginUser.getId());
+        QueryWrapper<EntranceRecord> queryWrapper = buildEntranceRecordQueryWrapper(queryDTO);
         // 按入场时间倒序
         queryWrapper.orderByDesc("entrance_time");
 
@@ -268,23 +321,7 @@ public class EntranceServiceImpl implements EntranceService {
     @Override
     public IPage<EntranceRecordVO> getAllEntranceRecords(EntranceRecordQueryDTO queryDTO) {
         // 1. 构建查询条件
-        QueryWrapper<EntranceRecord> queryWrapper = new QueryWrapper<>();
-
-        // 用户ID筛选
-        if (queryDTO.getUserId() != null) {
-            queryWrapper.eq("user_id", queryDTO.getUserId());
-        }
-
-        // 时间范围查询
-        if (queryDTO.getStartTime() != null) {
-            queryWrapper.ge("entrance_time", queryDTO.getStartTime());
-        }
-        if (queryDTO.getEndTime() != null) {
-            queryWrapper.le("entrance_time", queryDTO.getEndTime());
-        }
-
-        // 排除已删除
-        queryWrapper.eq("is_delete", 0);
+        QueryWrapper<EntranceRecord> queryWrapper = buildEntranceRecordQueryWrapper(queryDTO);
         // 按入场时间倒序
         queryWrapper.orderByDesc("entrance_time");
 
@@ -296,6 +333,31 @@ public class EntranceServiceImpl implements EntranceService {
         return recordPage.convert(this::convertToEntranceRecordVO);
     }
 
+    /**
+     * 游标分页获取我的入场记录（会员）
+     *
+     * @param queryDTO  查询条件（cursor为上一页返回的游标）
+     * @param loginUser 当前登录用户
+     * @return 入场记录游标分页列表
+     */
+    @Override
+    public CursorPageVO<EntranceRecordVO> getMyEntranceRecordsByCursor(EntranceRecordQueryDTO queryDTO, User loginUser) {
+        // 强制设置用户ID为当前登录用户
+        queryDTO.setUserId(loginUser.getId());
+        return getEntranceRecordsByCursor(queryDTO);
+    }
+
+    /**
+     * 游标分页获取所有入场记录（管理员）
+     *
+     * @param queryDTO 查询条件（cursor为上一页返回的游标）
+     * @return 入场记录游标分页列表
+     */
+    @Override
+    public CursorPageVO<EntranceRecordVO> getAllEntranceRecordsByCursor(EntranceRecordQueryDTO queryDTO) {
+        return getEntranceRecordsByCursor(queryDTO);
+    }
+
     /**
      * 根据ID获取入场记录详情
      *
@@ -345,6 +407,186 @@ public class EntranceServiceImpl implements EntranceService {
         return result > 0;
     }
 
+    /**
+     * 是否使用Redis保存入场码
+     *
+     * @return 是否Redis模式
+     */
+    private boolean isRedisTokenStore() {
+        return TOKEN_STORE_REDIS.equalsIgnoreCase(tokenStore);
+    }
+
+    /**
+     * 保存入场记录
+     * 启用异步写入时追加到本地日志后立即返回，由后台批量写入数据库并清除统计缓存；否则直接插入
+     *
+     * @param record 入场记录
+     */
+    private void saveEntranceRecord(EntranceRecord record) {
+        if (entranceRecordWriteService.isEnabled()) {
+            entranceRecordWriteService.append(record);
+            return;
+        }
+        int result = entranceRecordMapper.insert(record);
+        if (result <= 0) {
+            throw new RuntimeException("生成入场记录失败");
+        }
+        // 清除入场统计缓存和运营概览缓存
+        try {
+            statisticsService.clearEntranceCache();
+            statisticsService.clearDashboardCache();
+        } catch (Exception e) {
+            // 缓存清除失败不影响主业务
+        }
+    }
+
+    /**
+     * 是否使用签名入场码
+     *
+     * @return 是否签名模式
+     */
+    private boolean isSignedTokenStore() {
+        return TOKEN_STORE_SIGNED.equalsIgnoreCase(tokenStore);
+    }
+
+    /**
+     * 校验签名入场码并还原入场码信息
+     * 签名和有效期在内存中校验；防重放和“只有最新入场码有效”通过一次Redis脚本校验，
+     * 同时取回生成时保存的会员姓名和预约课程，无需查询数据库；保存的信息已丢失时才按主键查询
+     *
+     * @param qrcodeToken 签名入场码
+     * @return 入场码信息
+     */
+    private EntranceQrcode resolveSignedCode(String qrcodeToken) {
+        EntranceCodeUtil.SignedCode signedCode = entranceCodeUtil.parse(qrcodeToken);
+        if (signedCode == null) {
+            throw new RuntimeException("无效的入场码");
+        }
+        long now = System.currentTimeMillis();
+        long issuedMillis = signedCode.getIssuedSecond() * 1000L;
+        long expireMillis = issuedMillis + entranceTokenService.getTtlSeconds() * 1000L;
+        if (issuedMillis > now + CLOCK_SKEW_MILLIS) {
+            throw new RuntimeException("无效的入场码");
+        }
+        if (expireMillis <= now) {
+            throw new RuntimeException("入场码已过期，请重新生成");
+        }
+        EntranceQrcode saved = entranceTokenService.claimSignedCode(signedCode.getUserId(), signedCode.getNonce(), expireMillis);
+
+        EntranceQrcode qrcode = new EntranceQrcode();
+        qrcode.setUserId(signedCode.getUserId());
+        qrcode.setQrcodeToken(qrcodeToken);
+        qrcode.setGeneratedTime(LocalDateTime.ofInstant(Instant.ofEpochMilli(issuedMillis), ZoneId.systemDefault()));
+        if (saved != null && signedCode.getUserId().equals(saved.getUserId())) {
+            qrcode.setUserName(saved.getUserName());
+            qrcode.setBookingId(saved.getBookingId());
+            qrcode.setCourseName(saved.getCourseName());
+            qrcode.setCourseStartTime(saved.getCourseStartTime());
+            qrcode.setCoachName(saved.getCoachName());
+            return qrcode;
+        }
+
+        // 保存的信息已丢失（如Redis数据被清除），按主键查询会员，预约课程用一条关联查询
+        User user = userMapper.selectById(signedCode.getUserId());
+        if (user == null || user.getIsDelete() == 1) {
+            throw new RuntimeException("无效的入场码");
+        }
+        qrcode.setUserName(user.getUserName());
+        if (signedCode.getBookingId() != null) {
+            EntranceQrcodeVO.CourseBookingInfo bookingInfo =
+                    bookingMapper.selectBookingInfoById(signedCode.getBookingId(), user.getId());
+            if (bookingInfo != null) {
+                qrcode.setBookingId(bookingInfo.getBookingId());
+                qrcode.setCourseName(bookingInfo.getCourseName());
+                qrcode.setCourseStartTime(bookingInfo.getStartTime());
+                qrcode.setCoachName(bookingInfo.getCoachName());
+            }
+        }
+        return qrcode;
+    }
+
+    /**
+     * 校验并使用入场码
+     * 签名入场码在内存中校验；Redis模式下原子读取并删除入场码；
+     * 其他情况查询数据库（兼容切换前生成的入场码），数据库入场码由调用方标记为已使用
+     *
+     * @param qrcodeToken 入场码令牌
+     * @return 入场码信息，数据库入场码带ID
+     */
+    private EntranceQrcode resolveQrcode(String qrcodeToken) {
+        if (qrcodeToken.startsWith(EntranceCodeUtil.PREFIX)) {
+            return resolveSignedCode(qrcodeToken);
+        }
+        if (isRedisTokenStore()) {
+            EntranceQrcode qrcode = entranceTokenService.consume(qrcodeToken);
+            if (qrcode != null) {
+                return qrcode;
+            }
+        }
+
+        QueryWrapper<EntranceQrcode> qrcodeWrapper = new QueryWrapper<>();
+        qrcodeWrapper.eq("qrcode_token", qrcodeToken);
+        qrcodeWrapper.eq("is_delete", 0);
+        EntranceQrcode qrcode = entranceQrcodeMapper.selectOne(qrcodeWrapper);
+        if (qrcode == null) {
+            throw new RuntimeException(isRedisTokenStore() ? "无效的入场码或入场码已过期，请重新生成" : "无效的入场码");
+        }
+        // 检查是否已使用
+        if (qrcode.getIsUsed() == 1) {
+            throw new RuntimeException("该入场码已使用，请重新生成");
+        }
+        return qrcode;
+    }
+
+    /**
+     * 标记数据库入场码为已使用
+     *
+     * @param qrcode 入场码
+     */
+    private void markQrcodeUsed(EntranceQrcode qrcode) {
+        qrcode.setIsUsed(1);
+        qrcode.setUsedTime(LocalDateTime.now());
+        int updateResult = entranceQrcodeMapper.updateById(qrcode);
+        if (updateResult <= 0) {
+            throw new RuntimeException("更新二维码状态失败");
+        }
+    }
+
+    /**
+     * 入场记录保存失败时撤销在馆人数
+     *
+     * @param userId 用户ID
+     */
+    private void releaseOccupancy(Long userId) {
+        try {
+            occupancyService.exit(userId);
+        } catch (Exception e) {
+            // 撤销失败时由超时清理或人工重置处理
+        }
+    }
+
+    /**
+     * 入场被拒绝或入场记录保存失败时归还入场码
+     * 从Redis读取的入场码写回Redis；签名入场码撤销使用标记；数据库入场码随事务回滚，无需处理
+     *
+     * @param qrcode    入场码信息
+     * @param fromRedis 是否从Redis读取
+     */
+    private void restoreToken(EntranceQrcode qrcode, boolean fromRedis) {
+        try {
+            if (qrcode.getQrcodeToken().startsWith(EntranceCodeUtil.PREFIX)) {
+                EntranceCodeUtil.SignedCode signedCode = entranceCodeUtil.parse(qrcode.getQrcodeToken());
+                if (signedCode != null) {
+                    entranceTokenService.unclaimSignedCode(signedCode.getUserId(), signedCode.getNonce());
+                }
+            } else if (fromRedis) {
+                entranceTokenService.restore(qrcode);
+            }
+        } catch (Exception e) {
+            // 归还失败时会员重新生成入场码即可
+        }
+    }
+
     /**
      * 生成唯一令牌
      *
@@ -357,6 +599,57 @@ public class EntranceServiceImpl implements EntranceService {
                 + "_" + userId;
     }
 
+    /**
+     * 游标分页查询入场记录
+     * 按 (入场时间, id) 键集定位，指定用户时走 idx_user_time_delete 索引，否则走 idx_time_delete 索引
+     *
+     * @param queryDTO 查询条件
+     * @return 入场记录游标分页列表
+     */
+    private CursorPageVO<EntranceRecordVO> getEntranceRecordsByCursor(EntranceRecordQueryDTO queryDTO) {
+        // 1. 构建查询条件
+        QueryWrapper<EntranceRecord> queryWrapper = buildEntranceRecordQueryWrapper(queryDTO);
+        CursorUtil.seek(queryWrapper, "entrance_time", queryDTO.getCursor(), queryDTO.getPageSize());
+
+        // 2. 执行查询并截取当前页
+        List<EntranceRecord> records = entranceRecordMapper.selectList(queryWrapper);
+        String nextCursor = CursorUtil.nextCursor(records, queryDTO.getPageSize(),
+                EntranceRecord::getEntranceTime, EntranceRecord::getId);
+
+        // 3. 转换为VO
+        List<EntranceRecordVO> recordVOList = records.stream()
+                .map(this::convertToEntranceRecordVO)
+                .collect(Collectors.toList());
+        return new CursorPageVO<>(recordVOList, nextCursor);
+    }
+
+    /**
+     * 构建入场记录查询条件（不含排序）
+     *
+     * @param queryDTO 查询条件
+     * @return 查询条件
+     */
+    private QueryWrapper<EntranceRecord> buildEntranceRecordQueryWrapper(EntranceRecordQueryDTO queryDTO) {
+        QueryWrapper<EntranceRecord> queryWrapper = new QueryWrapper<>();
+
+        // 用户ID筛选
+        if (queryDTO.getUserId() != null) {
+            queryWrapper.eq("user_id", queryDTO.getUserId());
+        }
+
+        // 时间范围查询
+        if (queryDTO.getStartTime() != null) {
+            queryWrapper.ge("entrance_time", queryDTO.getStartTime());
+        }
+        if (queryDTO.getEndTime() != null) {
+            queryWrapper.le("entrance_time", queryDTO.getEndTime());
+        }
+
+        // 排除已删除
+        queryWrapper.eq("is_delete", 0);
+        return queryWrapper;
+    }
+
     /**
      * 将EntranceRecord实体转换为VO
      *
@@ -0,0 +1,188 @@
+package com.swimmingsys.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swimmingsys.model.entity.EntranceQrcode;
+import com.swimmingsys.service.EntranceTokenService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 入场码令牌存储服务实现类
+ * 每个入场码一个Redis键（值为入场码信息JSON），每个会员一个最新入场码槽位；
+ * 生成新入场码时删除槽位中的旧入场码，使旧码立即失效；
+ * 签名入场码在每个会员一个槽位中保存最新入场码的随机数和显示信息，验证时校验随机数使旧码失效；
+ * 签名入场码的使用标记同时保存在本节点内存和Redis中，过期后自动清除
+ */
+@Service
+public class EntranceTokenServiceImpl implements EntranceTokenService {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Value("${entrance.token.ttl-seconds:300}")
+    private long ttlSeconds;
+
+    // Redis Key前缀
+    private static final String TOKEN_KEY_PREFIX = "entrance:token:";
+    private static final String LATEST_KEY_PREFIX = "entrance:token:latest:";
+    private static final String USED_KEY_PREFIX = "entrance:token:used:";
+    private static final String SIGNED_KEY_PREFIX = "entrance:token:signed:";
+
+    // 签名入场码使用脚本的返回值
+    private static final String CLAIM_STALE = "STALE";
+    private static final String CLAIM_USED = "USED";
+    private static final String CLAIM_MISSING = "MISSING";
+
+    /**
+     * 本节点已使用的签名入场码，value为过期时间戳（毫秒）
+     */
+    private final Map<String, Long> usedSignedCodes = new ConcurrentHashMap<>();
+
+    /**
+     * 本节点缓存条数达到该值时清理已过期的标记
+     */
+    private static final int USED_PURGE_THRESHOLD = 10000;
+
+    /**
+     * 保存脚本：删除会员的旧入场码，写入新入场码并更新槽位
+     * KEYS[1]-会员槽位，KEYS[2]-新入场码；ARGV[1]-入场码信息，ARGV[2]-过期秒数，ARGV[3]-入场码Key前缀，ARGV[4]-新令牌
+     */
+    private static final DefaultRedisScript<Long> SAVE_SCRIPT = new DefaultRedisScript<>(
+            "local old = redis.call('GET', KEYS[1]) " +
+            "if old then redis.call('DEL', ARGV[3] .. old) end " +
+            "redis.call('SET', KEYS[2], ARGV[1], 'EX', ARGV[2]) " +
+            "redis.call('SET', KEYS[1], ARGV[4], 'EX', ARGV[2]) " +
+            "return 1", Long.class);
+
+    /**
+     * 使用脚本：读取并删除入场码
+     */
+    private static final DefaultRedisScript<String> CONSUME_SCRIPT = new DefaultRedisScript<>(
+            "local value = redis.call('GET', KEYS[1]) " +
+            "if value then redis.call('DEL', KEYS[1]) end " +
+            "return value", String.class);
+
+    /**
+     * 归还脚本：会员槽位仍指向该入场码时才写回
+     * KEYS[1]-会员槽位，KEYS[2]-入场码；ARGV[1]-入场码信息，ARGV[2]-过期秒数，ARGV[3]-令牌
+     */
+    private static final DefaultRedisScript<Long> RESTORE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('GET', KEYS[1]) ~= ARGV[3] then return 0 end " +
+            "redis.call('SET', KEYS[2], ARGV[1], 'EX', ARGV[2], 'NX') " +
+            "return 1", Long.class);
+
+    /**
+     * 签名入场码使用脚本：槽位中的随机数不一致说明会员已生成新入场码；否则标记使用并返回槽位内容
+     * KEYS[1]-使用标记，KEYS[2]-会员签名入场码槽位；ARGV[1]-随机数，ARGV[2]-使用标记过期毫秒数
+     */
+    private static final DefaultRedisScript<String> CLAIM_SIGNED_SCRIPT = new DefaultRedisScript<>(
+            "local slot = redis.call('GET', KEYS[2]) " +
+            "if slot and string.sub(slot, 1, string.len(ARGV[1]) + 1) ~= ARGV[1] .. ':' then return '" + CLAIM_STALE + "' end " +
+            "if not redis.call('SET', KEYS[1], '1', 'PX', ARGV[2], 'NX') then return '" + CLAIM_USED + "' end " +
+            "return slot or '" + CLAIM_MISSING + "'", String.class);
+
+    @Override
+    public void save(EntranceQrcode qrcode) {
+        stringRedisTemplate.execute(SAVE_SCRIPT,
+                Arrays.asList(LATEST_KEY_PREFIX + qrcode.getUserId(), TOKEN_KEY_PREFIX + qrcode.getQrcodeToken()),
+                toJson(qrcode), String.valueOf(ttlSeconds), TOKEN_KEY_PREFIX, qrcode.getQrcodeToken());
+    }
+
+    @Override
+    public EntranceQrcode consume(String qrcodeToken) {
+        if (qrcodeToken == null || qrcodeToken.isEmpty()) {
+            return null;
+        }
+        String value = stringRedisTemplate.execute(CONSUME_SCRIPT,
+                Collections.singletonList(TOKEN_KEY_PREFIX + qrcodeToken));
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(value, EntranceQrcode.class);
+        } catch (Exception e) {
+            throw new RuntimeException("入场码数据异常，请重新生成");
+        }
+    }
+
+    @Override
+    public void restore(EntranceQrcode qrcode) {
+        stringRedisTemplate.execute(RESTORE_SCRIPT,
+                Arrays.asList(LATEST_KEY_PREFIX + qrcode.getUserId(), TOKEN_KEY_PREFIX + qrcode.getQrcodeToken()),
+                toJson(qrcode), String.valueOf(ttlSeconds), qrcode.getQrcodeToken());
+    }
+
+    @Override
+    public void saveSignedCode(EntranceQrcode qrcode, String nonce) {
+        // 槽位内容：随机数:入场码信息JSON（随机数为Base64URL，不含冒号）
+        stringRedisTemplate.opsForValue().set(SIGNED_KEY_PREFIX + qrcode.getUserId(),
+                nonce + ":" + toJson(qrcode), ttlSeconds, TimeUnit.SECONDS);
+    }
+
+    @Override
+    public EntranceQrcode claimSignedCode(Long userId, String nonce, long expireMillis) {
+        long now = System.currentTimeMillis();
+        if (usedSignedCodes.size() >= USED_PURGE_THRESHOLD) {
+            usedSignedCodes.values().removeIf(expire -> expire <= now);
+        }
+        // 本节点已使用过，无需访问Redis
+        if (usedSignedCodes.putIfAbsent(userId + ":" + nonce, expireMillis) != null) {
+            throw new RuntimeException("该入场码已使用，请重新生成");
+        }
+        long ttlMillis = Math.max(expireMillis - now, 1L);
+        String result = stringRedisTemplate.execute(CLAIM_SIGNED_SCRIPT,
+                Arrays.asList(USED_KEY_PREFIX + userId + ":" + nonce, SIGNED_KEY_PREFIX + userId),
+                nonce, String.valueOf(ttlMillis));
+        if (CLAIM_STALE.equals(result)) {
+            throw new RuntimeException("会员已生成新的入场码，请使用最新的入场码");
+        }
+        if (result == null || CLAIM_USED.equals(result)) {
+            throw new RuntimeException("该入场码已使用，请重新生成");
+        }
+        if (CLAIM_MISSING.equals(result)) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(result.substring(nonce.length() + 1), EntranceQrcode.class);
+        } catch (Exception e) {
+            return null;
+        }
+    }
+
+    @Override
+    public void unclaimSignedCode(Long userId, String nonce) {
+        stringRedisTemplate.delete(USED_KEY_PREFIX + userId + ":" + nonce);
+        usedSignedCodes.remove(userId + ":" + nonce);
+    }
+
+    @Override
+    public long getTtlSeconds() {
+        return ttlSeconds;
+    }
+
+    /**
+     * 序列化入场码信息
+     *
+     * @param qrcode 入场码信息
+     * @return JSON字符串
+     */
+    private String toJson(EntranceQrcode qrcode) {
+        try {
+            return objectMapper.writeValueAsString(qrcode);
+        } catch (Exception e) {
+            throw new RuntimeException("生成入场码失败");
+        }
+    }
+}
@@ -0,0 +1,174 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.common.Result;
+import com.swimmingsys.common.ResultCode;
+import com.swimmingsys.service.IdempotencyService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.UnaryOperator;
+
+/**
+ * 幂等请求服务实现类
+ * 首次请求以 SET NX 写入处理中标记抢占执行权，执行成功后用结果覆盖标记；
+ * 排队中等非最终结果保存后，重放时先查询最新结果再返回
+ */
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    @Resource
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Value("${idempotency.ttl-seconds:86400}")
+    private long ttlSeconds;
+
+    @Value("${idempotency.processing-timeout-seconds:30}")
+    private long processingTimeoutSeconds;
+
+    @Value("${idempotency.wait-timeout-ms:10000}")
+    private long waitTimeoutMillis;
+
+    // Redis幂等Key前缀
+    private static final String KEY_PREFIX = "idempotency:";
+
+    /**
+     * 处理中标记
+     */
+    private static final String PROCESSING = "PROCESSING";
+
+    /**
+     * 幂等键最大长度
+     */
+    private static final int MAX_KEY_LENGTH = 64;
+
+    /**
+     * 等待在途请求时的轮询间隔（毫秒）
+     */
+    private static final long POLL_INTERVAL_MILLIS = 50L;
+
+    @Override
+    public <T> Result<T> execute(String scope, Long userId, String idempotencyKey, Supplier<Result<T>> action) {
+        return execute(scope, userId, idempotencyKey, action, null);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public <T> Result<T> execute(String scope, Long userId, String idempotencyKey, Supplier<Result<T>> action,
+                                 UnaryOperator<Result<T>> pendingResolver) {
+        if (idempotencyKey == null || idempotencyKey.trim().isEmpty()) {
+            return action.get();
+        }
+        if (idempotencyKey.length() > MAX_KEY_LENGTH) {
+            throw new RuntimeException("幂等键长度不能超过" + MAX_KEY_LENGTH);
+        }
+
+        String key = KEY_PREFIX + scope + ":" + userId + ":" + idempotencyKey.trim();
+        long deadline = System.currentTimeMillis() + waitTimeoutMillis;
+        while (true) {
+            // 1. 抢占执行权，处理中标记设置超时，防止进程崩溃后标记一直残留
+            Boolean acquired = redisTemplate.opsForValue()
+                    .setIfAbsent(key, PROCESSING, processingTimeoutSeconds, TimeUnit.SECONDS);
+            if (Boolean.TRUE.equals(acquired)) {
+                return executeAndStore(key, action, pendingResolver != null);
+            }
+
+            // 2. 已有成功结果则直接返回；处理中结果先查询最新结果，无法查询时释放幂等键后重新执行
+            Object stored = redisTemplate.opsForValue().get(key);
+            if (stored instanceof Result) {
+                Result<T> storedResult = (Result<T>) stored;
+                if (!isPending(storedResult)) {
+                    return storedResult;
+                }
+                Result<T> latest = resolvePending(key, storedResult, pendingResolver);
+                if (latest != null) {
+                    return latest;
+                }
+                continue;
+            }
+
+            // 3. 在途请求未完成，等待后重试；在途请求失败时标记被删除，下一轮可重新抢占
+            if (System.currentTimeMillis() >= deadline) {
+                throw new RuntimeException("相同请求正在处理中，请稍后查询结果");
+            }
+            try {
+                Thread.sleep(POLL_INTERVAL_MILLIS);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new RuntimeException("请求被中断，请稍后重试");
+            }
+        }
+    }
+
+    /**
+     * 执行操作并保存成功结果
+     *
+     * @param key         幂等Key
+     * @param action      实际执行的操作
+     * @param keepPending 是否保存处理中结果（重放时可查询最新结果）
+     * @return 操作结果
+     */
+    private <T> Result<T> executeAndStore(String key, Supplier<Result<T>> action, boolean keepPending) {
+        Result<T> result;
+        try {
+            result = action.get();
+        } catch (RuntimeException e) {
+            redisTemplate.delete(key);
+            throw e;
+        }
+
+        if (Boolean.TRUE.equals(result.getSuccess()) && (keepPending || !isPending(result))) {
+            redisTemplate.opsForValue().set(key, result, ttlSeconds, TimeUnit.SECONDS);
+        } else {
+            // 失败结果和无法查询最新结果的处理中结果不保存，允许客户端使用相同幂等键重试
+            redisTemplate.delete(key);
+        }
+        return result;
+    }
+
+    /**
+     * 查询处理中结果的最新结果
+     * 仍在处理中时保留原结果；成功时保存为最终结果；失败时释放幂等键
+     *
+     * @param key             幂等Key
+     * @param stored          保存的处理中结果
+     * @param pendingResolver 查询最新结果的操作
+     * @return 最新结果，无法查询时释放幂等键并返回null
+     */
+    private <T> Result<T> resolvePending(String key, Result<T> stored, UnaryOperator<Result<T>> pendingResolver) {
+        Result<T> latest = null;
+        if (pendingResolver != null) {
+            try {
+                latest = pendingResolver.apply(stored);
+            } catch (RuntimeException e) {
+                // 凭证已过期或不在本节点，按无法查询处理
+            }
+        }
+        if (latest == null) {
+            redisTemplate.delete(key);
+            return null;
+        }
+        if (isPending(latest)) {
+            return latest;
+        }
+        if (Boolean.TRUE.equals(latest.getSuccess())) {
+            redisTemplate.opsForValue().set(key, latest, ttlSeconds, TimeUnit.SECONDS);
+        } else {
+            redisTemplate.delete(key);
+        }
+        return latest;
+    }
+
+    /**
+     * 是否为处理中结果（如预约排队中）
+     *
+     * @param result 操作结果
+     * @return 是否处理中
+     */
+    private boolean isPending(Result<?> result) {
+        return ResultCode.BOOKING_QUEUED.getCode().equals(result.getCode());
+    }
+}
@@ -0,0 +1,182 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.model.vo.OccupancyVO;
+import com.swimmingsys.service.OccupancyService;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+
+import javax.annotation.Resource;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * 场馆在馆人数服务实现类
+ * 在馆会员：有序集合，成员为用户ID，分值为入场时间戳，人数即集合大小（ZCARD，O(1)）；
+ * 超过最长停留时间仍未离场的会员视为离场未扫码，在入场和记录人数时清理；
+ * 每分钟人数：有序集合，分值为整分钟时间戳，成员为“时间戳:人数”，只保留最近一段时间
+ */
+@Service
+public class OccupancyServiceImpl implements OccupancyService {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Value("${entrance.occupancy.enabled:false}")
+    private boolean enabled;
+
+    @Value("${entrance.occupancy.capacity:0}")
+    private int capacity;
+
+    @Value("${entrance.occupancy.max-stay-minutes:240}")
+    private long maxStayMinutes;
+
+    @Value("${entrance.occupancy.history-minutes:180}")
+    private long historyMinutes;
+
+    // Redis Key
+    private static final String MEMBERS_KEY = "entrance:occupancy:members";
+    private static final String HISTORY_KEY = "entrance:occupancy:history";
+
+    /**
+     * 入场脚本：清理超时记录，已在馆内只更新入场时间，否则检查容纳上限后加入
+     * KEYS[1]-在馆会员；ARGV[1]-用户ID，ARGV[2]-当前时间戳，ARGV[3]-超时截止时间戳，ARGV[4]-容纳上限（0不限制）
+     * 返回入场后的人数，达到上限返回-1
+     */
+    private static final DefaultRedisScript<Long> ENTER_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[3]) " +
+            "if redis.call('ZSCORE', KEYS[1], ARGV[1]) then " +
+            "  redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) " +
+            "  return redis.call('ZCARD', KEYS[1]) " +
+            "end " +
+            "local count = redis.call('ZCARD', KEYS[1]) " +
+            "local limit = tonumber(ARGV[4]) " +
+            "if limit > 0 and count >= limit then return -1 end " +
+            "redis.call('ZADD', KEYS[1], ARGV[2], ARGV[1]) " +
+            "return count + 1", Long.class);
+
+    /**
+     * 离场脚本：移除会员并返回离场后的人数
+     */
+    private static final DefaultRedisScript<Long> EXIT_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZREM', KEYS[1], ARGV[1]) " +
+            "return redis.call('ZCARD', KEYS[1])", Long.class);
+
+    /**
+     * 记录脚本：清理超时记录，覆盖当前分钟的人数，删除超出保留时间的记录
+     * KEYS[1]-在馆会员，KEYS[2]-每分钟人数；ARGV[1]-整分钟时间戳，ARGV[2]-超时截止时间戳，ARGV[3]-保留起点时间戳
+     */
+    private static final DefaultRedisScript<Long> RECORD_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZREMRANGEBYSCORE', KEYS[1], '-inf', ARGV[2]) " +
+            "local count = redis.call('ZCARD', KEYS[1]) " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[2], ARGV[1], ARGV[1]) " +
+            "redis.call('ZADD', KEYS[2], ARGV[1], ARGV[1] .. ':' .. count) " +
+            "redis.call('ZREMRANGEBYSCORE', KEYS[2], '-inf', '(' .. ARGV[3]) " +
+            "return count", Long.class);
+
+    @Override
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @Override
+    public long enter(Long userId) {
+        long now = System.currentTimeMillis();
+        Long count = stringRedisTemplate.execute(ENTER_SCRIPT, Collections.singletonList(MEMBERS_KEY),
+                String.valueOf(userId), String.valueOf(now), String.valueOf(staleBefore(now)),
+                String.valueOf(Math.max(capacity, 0)));
+        if (count == null) {
+            throw new RuntimeException("在馆人数更新失败，请重试");
+        }
+        if (count < 0) {
+            throw new RuntimeException("场馆在馆人数已达上限（" + capacity + "人），请稍后入场");
+        }
+        return count;
+    }
+
+    @Override
+    public long exit(Long userId) {
+        Long count = stringRedisTemplate.execute(EXIT_SCRIPT, Collections.singletonList(MEMBERS_KEY),
+                String.valueOf(userId));
+        if (count == null) {
+            throw new RuntimeException("在馆人数更新失败，请重试");
+        }
+        return count;
+    }
+
+    @Override
+    public long getCurrentCount() {
+        Long count = stringRedisTemplate.opsForZSet().zCard(MEMBERS_KEY);
+        return count == null ? 0L : count;
+    }
+
+    @Override
+    public OccupancyVO getOccupancy() {
+        OccupancyVO occupancyVO = new OccupancyVO();
+        occupancyVO.setEnabled(enabled);
+        occupancyVO.setCapacity(capacity);
+        long currentCount = getCurrentCount();
+        occupancyVO.setCurrentCount(currentCount);
+        occupancyVO.setAvailableCount(capacity > 0 ? Math.max(capacity - currentCount, 0L) : null);
+
+        long from = currentMinute(System.currentTimeMillis()) - historyMinutes * 60000L;
+        Set<String> values = stringRedisTemplate.opsForZSet().rangeByScore(HISTORY_KEY, from, Double.POSITIVE_INFINITY);
+        List<OccupancyVO.Point> history = new ArrayList<>();
+        if (values != null) {
+            for (String value : values) {
+                int index = value.indexOf(':');
+                if (index <= 0) {
+                    continue;
+                }
+                OccupancyVO.Point point = new OccupancyVO.Point();
+                point.setTime(LocalDateTime.ofInstant(
+                        Instant.ofEpochMilli(Long.parseLong(value.substring(0, index))), ZoneId.systemDefault()));
+                point.setCount(Long.parseLong(value.substring(index + 1)));
+                history.add(point);
+            }
+        }
+        occupancyVO.setHistory(history);
+        return occupancyVO;
+    }
+
+    @Override
+    public void recordHistory() {
+        long now = System.currentTimeMillis();
+        long minute = currentMinute(now);
+        stringRedisTemplate.execute(RECORD_SCRIPT, Arrays.asList(MEMBERS_KEY, HISTORY_KEY),
+                String.valueOf(minute), String.valueOf(staleBefore(now)),
+                String.valueOf(minute - historyMinutes * 60000L));
+    }
+
+    @Override
+    public void reset() {
+        stringRedisTemplate.delete(MEMBERS_KEY);
+    }
+
+    /**
+     * 超时截止时间戳，入场时间早于该时间的会员视为已离场
+     *
+     * @param now 当前时间戳（毫秒）
+     * @return 截止时间戳
+     */
+    private long staleBefore(long now) {
+        return now - maxStayMinutes * 60000L;
+    }
+
+    /**
+     * 整分钟时间戳
+     *
+     * @param now 当前时间戳（毫秒）
+     * @return 整分钟时间戳
+     */
+    private long currentMinute(long now) {
+        return now - now % 60000L;
+    }
+}
@@ -0,0 +1,258 @@
+package com.swimmingsys.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swimmingsys.mapper.CourseMapper;
+import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.service.SeatEventService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * 课程名额变化推送服务实现类
+ * 预约变更只在本节点记录变化的课程，定时合并后一次查询剩余名额并发布到Redis频道；
+ * 每个节点监听频道，只向订阅了对应课程的本节点连接推送
+ */
+@Slf4j
+@Service
+public class SeatEventServiceImpl implements SeatEventService, MessageListener {
+
+    @Resource
+    private CourseMapper courseMapper;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Value("${course.seat-events.emitter-timeout-ms:1800000}")
+    private long emitterTimeoutMillis;
+
+    @Value("${course.seat-events.max-courses:50}")
+    private int maxCourses;
+
+    /**
+     * SSE事件名称
+     */
+    private static final String EVENT_NAME = "seat";
+
+    /**
+     * 本节点待推送的课程ID
+     */
+    private final Set<Long> pendingCourseIds = ConcurrentHashMap.newKeySet();
+
+    /**
+     * 各课程的订阅连接，key为课程ID
+     */
+    private final Map<Long, Set<Subscription>> subscribers = new ConcurrentHashMap<>();
+
+    /**
+     * 注册Redis频道监听
+     */
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this, new ChannelTopic(CHANNEL));
+    }
+
+    @Override
+    public SseEmitter subscribe(Collection<Long> courseIds) {
+        Set<Long> ids = new LinkedHashSet<>();
+        if (courseIds != null) {
+            courseIds.stream().filter(Objects::nonNull).forEach(ids::add);
+        }
+        if (ids.isEmpty()) {
+            throw new RuntimeException("课程ID不能为空");
+        }
+        if (ids.size() > maxCourses) {
+            throw new RuntimeException("单次最多订阅" + maxCourses + "门课程");
+        }
+
+        SseEmitter emitter = new SseEmitter(emitterTimeoutMillis);
+        Subscription subscription = new Subscription(emitter, ids);
+        for (Long courseId : ids) {
+            subscribers.computeIfAbsent(courseId, id -> ConcurrentHashMap.newKeySet()).add(subscription);
+        }
+        emitter.onCompletion(() -> unsubscribe(subscription));
+        emitter.onTimeout(() -> unsubscribe(subscription));
+        emitter.onError(e -> unsubscribe(subscription));
+
+        // 推送当前剩余名额
+        send(subscription, loadRemainingCounts(ids));
+        return emitter;
+    }
+
+    @Override
+    public void markChanged(Collection<Long> courseIds) {
+        if (courseIds == null || courseIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(courseIds);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    pendingCourseIds.addAll(ids);
+                }
+            });
+        } else {
+            pendingCourseIds.addAll(ids);
+        }
+    }
+
+    @Override
+    public void flush() {
+        if (pendingCourseIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(pendingCourseIds);
+        pendingCourseIds.removeAll(ids);
+
+        Map<Long, Integer> remainingCounts = loadRemainingCounts(ids);
+        if (remainingCounts.isEmpty()) {
+            return;
+        }
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(remainingCounts));
+        } catch (Exception e) {
+            // 发布失败时放回，下个间隔重试
+            pendingCourseIds.addAll(ids);
+            log.warn("课程名额变化发布失败：{}", e.getMessage());
+        }
+    }
+
+    @Override
+    public void heartbeat() {
+        Set<Subscription> all = new HashSet<>();
+        subscribers.values().forEach(all::addAll);
+        for (Subscription subscription : all) {
+            try {
+                subscription.emitter.send(SseEmitter.event().comment("ping"));
+            } catch (Exception e) {
+                // 连接已断开
+                unsubscribe(subscription);
+            }
+        }
+    }
+
+    /**
+     * 收到名额变化消息，推送给订阅了对应课程的本节点连接
+     *
+     * @param message 消息（课程ID -> 剩余名额）
+     * @param pattern 订阅模式
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        Map<Long, Integer> remainingCounts;
+        try {
+            remainingCounts = objectMapper.readValue(message.getBody(), new TypeReference<Map<Long, Integer>>() {
+            });
+        } catch (Exception e) {
+            log.warn("课程名额变化消息解析失败：{}", e.getMessage());
+            return;
+        }
+
+        // 每个连接只推送一次，内容为其订阅课程中发生变化的部分
+        Map<Subscription, Map<Long, Integer>> updates = new HashMap<>();
+        remainingCounts.forEach((courseId, remaining) -> {
+            Set<Subscription> subscriptions = subscribers.get(courseId);
+            if (subscriptions != null) {
+                for (Subscription subscription : subscriptions) {
+                    updates.computeIfAbsent(subscription, s -> new LinkedHashMap<>()).put(courseId, remaining);
+                }
+            }
+        });
+        updates.forEach(this::send);
+    }
+
+    /**
+     * 向连接推送剩余名额
+     *
+     * @param subscription    订阅连接
+     * @param remainingCounts 课程ID -> 剩余名额
+     */
+    private void send(Subscription subscription, Map<Long, Integer> remainingCounts) {
+        if (remainingCounts.isEmpty()) {
+            return;
+        }
+        try {
+            subscription.emitter.send(SseEmitter.event().name(EVENT_NAME).data(remainingCounts, MediaType.APPLICATION_JSON));
+        } catch (Exception e) {
+            // 连接已断开
+            unsubscribe(subscription);
+        }
+    }
+
+    /**
+     * 取消订阅
+     *
+     * @param subscription 订阅连接
+     */
+    private void unsubscribe(Subscription subscription) {
+        for (Long courseId : subscription.courseIds) {
+            subscribers.computeIfPresent(courseId, (id, subscriptions) -> {
+                subscriptions.remove(subscription);
+                return subscriptions.isEmpty() ? null : subscriptions;
+            });
+        }
+    }
+
+    /**
+     * 一次查询课程的剩余名额
+     *
+     * @param courseIds 课程ID集合
+     * @return 课程ID -> 剩余名额
+     */
+    private Map<Long, Integer> loadRemainingCounts(Collection<Long> courseIds) {
+        QueryWrapper<Course> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "capacity", "current_count");
+        queryWrapper.in("id", courseIds);
+        queryWrapper.eq("is_delete", 0);
+        Map<Long, Integer> remainingCounts = new LinkedHashMap<>();
+        for (Course course : courseMapper.selectList(queryWrapper)) {
+            remainingCounts.put(course.getId(), Math.max(course.getCapacity() - course.getCurrentCount(), 0));
+        }
+        return remainingCounts;
+    }
+
+    /**
+     * 订阅连接
+     */
+    private static class Subscription {
+        private final SseEmitter emitter;
+        private final Set<Long> courseIds;
+
+        Subscription(SseEmitter emitter, Set<Long> courseIds) {
+            this.emitter = emitter;
+            this.courseIds = courseIds;
+        }
+    }
+}
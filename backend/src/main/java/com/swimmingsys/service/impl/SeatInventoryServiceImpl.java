@@ -0,0 +1,450 @@
+package com.swimmingsys.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.swimmingsys.mapper.BookingMapper;
+import com.swimmingsys.model.entity.Booking;
+import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.service.SeatInventoryService;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.annotation.Resource;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 课程名额库存服务实现类
+ * 每个课程对应三个Redis键：剩余名额计数、已占用名额的用户集合、名额保留有序集合（分数为保留截止时间戳），
+ * 保留到期的名额在每次占用、保留时由脚本惰性归还库存
+ */
+@Service
+public class SeatInventoryServiceImpl implements SeatInventoryService {
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private BookingMapper bookingMapper;
+
+    // Redis库存Key前缀
+    private static final String STOCK_KEY_PREFIX = "booking:seat:stock:";
+    private static final String USERS_KEY_PREFIX = "booking:seat:users:";
+    private static final String HOLDS_KEY_PREFIX = "booking:seat:holds:";
+
+    /**
+     * 归还到期保留名额的脚本片段
+     * 依赖 KEYS[1]-库存，KEYS[2]-用户集合，KEYS[3]-保留集合，ARGV[2]-当前时间戳
+     */
+    private static final String PURGE_EXPIRED_HOLDS =
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[3], '-inf', ARGV[2]) " +
+            "for _, u in ipairs(expired) do " +
+            "if redis.call('SREM', KEYS[2], u) == 1 then redis.call('INCR', KEYS[1]) end end " +
+            "if #expired > 0 then redis.call('ZREMRANGEBYSCORE', KEYS[3], '-inf', ARGV[2]) end ";
+
+    /**
+     * 脚本返回值：名额已满
+     */
+    private static final long RESULT_SOLD_OUT = -1L;
+
+    /**
+     * 脚本返回值：用户已占用名额
+     */
+    private static final long RESULT_DUPLICATE = -2L;
+
+    /**
+     * 脚本返回值：库存未加载
+     */
+    private static final long RESULT_NOT_LOADED = -3L;
+
+    /**
+     * 加载库存脚本：库存已存在时不覆盖
+     * ARGV[1]-剩余名额，ARGV[2]-过期秒数，ARGV[3..]-已预约用户ID
+     */
+    private static final DefaultRedisScript<Long> LOAD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 1 then return 0 end " +
+            "redis.call('DEL', KEYS[2], KEYS[3]) " +
+            "redis.call('SET', KEYS[1], ARGV[1], 'EX', ARGV[2]) " +
+            "for i = 3, #ARGV do redis.call('SADD', KEYS[2], ARGV[i]) end " +
+            "redis.call('EXPIRE', KEYS[2], ARGV[2]) " +
+            "return 1", Long.class);
+
+    /**
+     * 占用名额脚本：归还到期保留名额后，校验重复占用和剩余名额并扣减
+     * ARGV[1]-用户ID，ARGV[2]-当前时间戳
+     */
+    private static final DefaultRedisScript<Long> ACQUIRE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -3 end " +
+            PURGE_EXPIRED_HOLDS +
+            "if redis.call('SISMEMBER', KEYS[2], ARGV[1]) == 1 then return -2 end " +
+            "if tonumber(redis.call('GET', KEYS[1])) <= 0 then return -1 end " +
+            "redis.call('SADD', KEYS[2], ARGV[1]) " +
+            "local ttl = redis.call('TTL', KEYS[1]) " +
+            "if ttl > 0 then redis.call('EXPIRE', KEYS[2], ttl) end " +
+            "return redis.call('DECR', KEYS[1])", Long.class);
+
+    /**
+     * 批量占用名额脚本：任一用户已占用或剩余名额不足时整体失败，否则一次扣减全部名额
+     * ARGV[1]-占用名额数，ARGV[2]-当前时间戳，ARGV[3..]-用户ID
+     */
+    private static final DefaultRedisScript<Long> ACQUIRE_ALL_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -3 end " +
+            PURGE_EXPIRED_HOLDS +
+            "for i = 3, #ARGV do " +
+            "if redis.call('SISMEMBER', KEYS[2], ARGV[i]) == 1 then return -2 end end " +
+            "if tonumber(redis.call('GET', KEYS[1])) < tonumber(ARGV[1]) then return -1 end " +
+            "for i = 3, #ARGV do redis.call('SADD', KEYS[2], ARGV[i]) end " +
+            "local ttl = redis.call('TTL', KEYS[1]) " +
+            "if ttl > 0 then redis.call('EXPIRE', KEYS[2], ttl) end " +
+            "return redis.call('DECRBY', KEYS[1], ARGV[1])", Long.class);
+
+    /**
+     * 保留名额脚本：已保留时只延长截止时间，否则占用名额并记录保留截止时间
+     * ARGV[1]-用户ID，ARGV[2]-当前时间戳，ARGV[3]-保留截止时间戳
+     */
+    private static final DefaultRedisScript<Long> HOLD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -3 end " +
+            PURGE_EXPIRED_HOLDS +
+            "if redis.call('ZSCORE', KEYS[3], ARGV[1]) then " +
+            "redis.call('ZADD', KEYS[3], ARGV[3], ARGV[1]) return 1 end " +
+            "if redis.call('SISMEMBER', KEYS[2], ARGV[1]) == 1 then return -2 end " +
+            "if tonumber(redis.call('GET', KEYS[1])) <= 0 then return -1 end " +
+            "redis.call('SADD', KEYS[2], ARGV[1]) " +
+            "redis.call('DECR', KEYS[1]) " +
+            "redis.call('ZADD', KEYS[3], ARGV[3], ARGV[1]) " +
+            "local ttl = redis.call('TTL', KEYS[1]) " +
+            "if ttl > 0 then redis.call('EXPIRE', KEYS[2], ttl) redis.call('EXPIRE', KEYS[3], ttl) end " +
+            "return 1", Long.class);
+
+    /**
+     * 使用保留名额脚本：先归还到期保留，保留仍有效时转为正式占用（名额已扣减，无需再次扣减）
+     * ARGV[1]-用户ID，ARGV[2]-当前时间戳
+     */
+    private static final DefaultRedisScript<Long> CONSUME_HOLD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return 0 end " +
+            PURGE_EXPIRED_HOLDS +
+            "return redis.call('ZREM', KEYS[3], ARGV[1])", Long.class);
+
+    /**
+     * 释放保留名额脚本：仅当用户仍持有保留时归还名额，已转为正式占用的名额不受影响
+     * ARGV[1]-用户ID
+     */
+    private static final DefaultRedisScript<Long> RELEASE_HOLD_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('ZREM', KEYS[3], ARGV[1]) == 0 then return 0 end " +
+            "if redis.call('SREM', KEYS[2], ARGV[1]) == 1 and redis.call('EXISTS', KEYS[1]) == 1 then " +
+            "redis.call('INCR', KEYS[1]) end " +
+            "return 1", Long.class);
+
+    /**
+     * 归还名额脚本：仅归还确实被该用户占用的名额，同时清除其保留记录
+     * ARGV[1]-用户ID
+     */
+    private static final DefaultRedisScript<Long> RELEASE_SCRIPT = new DefaultRedisScript<>(
+            "redis.call('ZREM', KEYS[3], ARGV[1]) " +
+            "if redis.call('SREM', KEYS[2], ARGV[1]) == 1 and redis.call('EXISTS', KEYS[1]) == 1 then " +
+            "return redis.call('INCR', KEYS[1]) end " +
+            "return -1", Long.class);
+
+    /**
+     * 转移名额脚本：库存未加载时无需处理，下次访问从数据库加载
+     * ARGV[1]-原占用用户ID，ARGV[2]-新占用用户ID
+     */
+    private static final DefaultRedisScript<Long> TRANSFER_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('EXISTS', KEYS[1]) == 0 then return -3 end " +
+            "redis.call('SREM', KEYS[2], ARGV[1]) " +
+            "redis.call('SADD', KEYS[2], ARGV[2]) " +
+            "local ttl = redis.call('TTL', KEYS[1]) " +
+            "if ttl > 0 then redis.call('EXPIRE', KEYS[2], ttl) end " +
+            "return 1", Long.class);
+
+    /**
+     * 原子占用一个课程名额
+     *
+     * @param course 课程信息
+     * @param userId 用户ID
+     * @return 占用后的剩余名额
+     */
+    @Override
+    public long tryAcquire(Course course, Long userId) {
+        long result = executeWithLoad(ACQUIRE_SCRIPT, course, String.valueOf(userId),
+                String.valueOf(System.currentTimeMillis()));
+
+        // 事务回滚时归还名额，保证Redis库存与数据库一致
+        releaseOnRollback(course.getId(), userId);
+        return result;
+    }
+
+    /**
+     * 原子占用多个课程名额
+     *
+     * @param course  课程信息
+     * @param userIds 用户ID列表
+     * @return 占用后的剩余名额
+     */
+    @Override
+    public long tryAcquireAll(Course course, Collection<Long> userIds) {
+        List<String> args = new ArrayList<>(userIds.size() + 2);
+        args.add(String.valueOf(userIds.size()));
+        args.add(String.valueOf(System.currentTimeMillis()));
+        for (Long userId : userIds) {
+            args.add(String.valueOf(userId));
+        }
+        long result = executeWithLoad(ACQUIRE_ALL_SCRIPT, course, args.toArray(new String[0]));
+
+        // 事务回滚时归还全部名额
+        for (Long userId : userIds) {
+            releaseOnRollback(course.getId(), userId);
+        }
+        return result;
+    }
+
+    /**
+     * 为用户保留一个课程名额
+     *
+     * @param course     课程信息
+     * @param userId     用户ID
+     * @param ttlSeconds 保留时长（秒）
+     * @return 保留截止时间
+     */
+    @Override
+    public LocalDateTime hold(Course course, Long userId, long ttlSeconds) {
+        long expireAt = System.currentTimeMillis() + ttlSeconds * 1000L;
+        executeWithLoad(HOLD_SCRIPT, course, String.valueOf(userId),
+                String.valueOf(System.currentTimeMillis()), String.valueOf(expireAt));
+        return LocalDateTime.ofInstant(Instant.ofEpochMilli(expireAt), ZoneId.systemDefault());
+    }
+
+    /**
+     * 使用用户保留的课程名额
+     *
+     * @param courseId 课程ID
+     * @param userId   用户ID
+     * @return 保留有效并已转为正式占用返回true
+     */
+    @Override
+    public boolean consumeHold(Long courseId, Long userId) {
+        Long result = stringRedisTemplate.execute(CONSUME_HOLD_SCRIPT, buildKeys(courseId),
+                String.valueOf(userId), String.valueOf(System.currentTimeMillis()));
+        if (result == null || result <= 0) {
+            return false;
+        }
+        releaseOnRollback(courseId, userId);
+        return true;
+    }
+
+    /**
+     * 释放用户保留的课程名额
+     *
+     * @param courseId 课程ID
+     * @param userId   用户ID
+     */
+    @Override
+    public void releaseHold(Long courseId, Long userId) {
+        try {
+            stringRedisTemplate.execute(RELEASE_HOLD_SCRIPT, buildKeys(courseId), String.valueOf(userId));
+        } catch (Exception e) {
+            // 释放失败时清除库存，下次访问从数据库重新加载
+            evict(courseId);
+        }
+    }
+
+    /**
+     * 归还用户占用的课程名额
+     *
+     * @param courseId 课程ID
+     * @param userId   用户ID
+     */
+    @Override
+    public void release(Long courseId, Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    releaseNow(courseId, userId);
+                }
+            });
+        } else {
+            releaseNow(courseId, userId);
+        }
+    }
+
+    /**
+     * 将名额从一个用户转给另一个用户
+     *
+     * @param courseId   课程ID
+     * @param fromUserId 原占用用户ID
+     * @param toUserId   新占用用户ID
+     */
+    @Override
+    public void transfer(Long courseId, Long fromUserId, Long toUserId) {
+        Runnable action = () -> {
+            try {
+                stringRedisTemplate.execute(TRANSFER_SCRIPT, buildKeys(courseId),
+                        String.valueOf(fromUserId), String.valueOf(toUserId));
+            } catch (Exception e) {
+                // 转移失败时清除库存，下次访问从数据库重新加载
+                evict(courseId);
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 清除课程库存
+     *
+     * @param courseId 课程ID
+     */
+    @Override
+    public void evict(Long courseId) {
+        stringRedisTemplate.delete(buildKeys(courseId));
+    }
+
+    /**
+     * 批量清除课程库存（一次DEL删除全部键）
+     *
+     * @param courseIds 课程ID集合
+     */
+    @Override
+    public void evictAll(Collection<Long> courseIds) {
+        if (courseIds == null || courseIds.isEmpty()) {
+            return;
+        }
+        List<String> keys = new ArrayList<>(courseIds.size() * 2);
+        for (Long courseId : courseIds) {
+            keys.addAll(buildKeys(courseId));
+        }
+        Runnable action = () -> {
+            try {
+                stringRedisTemplate.delete(keys);
+            } catch (Exception e) {
+                // 库存清除失败不影响主业务，提交后回调中抛出异常会使已提交的操作返回失败
+            }
+        };
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 执行占用类脚本，库存未加载时从数据库加载后重试一次
+     *
+     * @param script 脚本
+     * @param course 课程信息
+     * @param args   脚本参数
+     * @return 脚本返回值（非负数）
+     */
+    private long executeWithLoad(DefaultRedisScript<Long> script, Course course, String... args) {
+        List<String> keys = buildKeys(course.getId());
+        Long result = stringRedisTemplate.execute(script, keys, (Object[]) args);
+        if (result != null && result == RESULT_NOT_LOADED) {
+            // 库存未加载，从数据库加载后重试一次
+            loadInventory(course);
+            result = stringRedisTemplate.execute(script, keys, (Object[]) args);
+        }
+        if (result == null || result == RESULT_NOT_LOADED) {
+            throw new RuntimeException("预约失败，系统繁忙请稍后重试");
+        }
+        if (result == RESULT_DUPLICATE) {
+            throw new RuntimeException("您已预约该课程，请勿重复预约");
+        }
+        if (result == RESULT_SOLD_OUT) {
+            throw new RuntimeException("该课程名额已满，无法预约");
+        }
+        return result;
+    }
+
+    /**
+     * 在事务中调用时，事务回滚后归还名额
+     *
+     * @param courseId 课程ID
+     * @param userId   用户ID
+     */
+    private void releaseOnRollback(Long courseId, Long userId) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        releaseNow(courseId, userId);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * 立即归还名额
+     *
+     * @param courseId 课程ID
+     * @param userId   用户ID
+     */
+    private void releaseNow(Long courseId, Long userId) {
+        try {
+            stringRedisTemplate.execute(RELEASE_SCRIPT, buildKeys(courseId), String.valueOf(userId));
+        } catch (Exception e) {
+            // 归还失败时清除库存，下次访问从数据库重新加载
+            evict(courseId);
+        }
+    }
+
+    /**
+     * 从数据库加载课程库存
+     * 剩余名额 = 课程容量 - 当前已预约人数，用户集合为已预约的用户
+     *
+     * @param course 课程信息
+     */
+    private void loadInventory(Course course) {
+        QueryWrapper<Booking> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("user_id");
+        queryWrapper.eq("course_id", course.getId());
+        queryWrapper.eq("status", 1); // 已预约状态
+        queryWrapper.eq("is_delete", 0);
+        List<Object> userIds = bookingMapper.selectObjs(queryWrapper);
+
+        int available = Math.max(course.getCapacity() - course.getCurrentCount(), 0);
+        // 库存保留到课程结束后一天
+        long ttlSeconds = Math.max(Duration.between(LocalDateTime.now(), course.getEndTime()).plusDays(1).getSeconds(), 60L);
+
+        List<String> args = new ArrayList<>(userIds.size() + 2);
+        args.add(String.valueOf(available));
+        args.add(String.valueOf(ttlSeconds));
+        for (Object userId : userIds) {
+            args.add(String.valueOf(userId));
+        }
+        stringRedisTemplate.execute(LOAD_SCRIPT, buildKeys(course.getId()), args.toArray());
+    }
+
+    /**
+     * 构建课程库存的Redis键
+     *
+     * @param courseId 课程ID
+     * @return 库存键、用户集合键和保留集合键
+     */
+    private List<String> buildKeys(Long courseId) {
+        return Arrays.asList(STOCK_KEY_PREFIX + courseId, USERS_KEY_PREFIX + courseId, HOLDS_KEY_PREFIX + courseId);
+    }
+}
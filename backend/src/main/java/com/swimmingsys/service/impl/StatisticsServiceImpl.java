@@ -2,6 +2,7 @@ package com.swimmingsys.service.impl;
 
 import com.swimmingsys.mapper.StatisticsMapper;
 import com.swimmingsys.model.vo.*;
+import com.swimmingsys.service.BookingArchiveService;
 import com.swimmingsys.service.StatisticsService;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
@@ -28,6 +29,9 @@ public class StatisticsServiceImpl implements StatisticsService {
     @Resource
     private RedisTemplate<String, Object> redisTemplate;
 
+    @Resource
+    private BookingArchiveService bookingArchiveService;
+
     // Redis缓存Key前缀
     private static final String CACHE_PREFIX = "statistics:";
     private static final String MEMBER_OVERVIEW_KEY = CACHE_PREFIX + "member:overview";
@@ -241,8 +245,9 @@ public class StatisticsServiceImpl implements StatisticsService {
             return cached;
         }
 
-        // 缓存未命中，查询数据库
-        List<TrendDataVO> list = statisticsMapper.getBookingTrendByDay(days);
+        // 缓存未命中，查询数据库（统计范围早于归档保留期时合并已归档的预约）
+        boolean includeArchive = bookingArchiveService.coversArchive(LocalDateTime.now().minusDays(days));
+        List<TrendDataVO> list = statisticsMapper.getBookingTrendByDay(days, includeArchive);
 
         // 存入缓存，过期时间1小时
         redisTemplate.opsForValue().set(cacheKey, list, 1, TimeUnit.HOURS);
@@ -354,12 +359,14 @@ public class StatisticsServiceImpl implements StatisticsService {
         Long yesterdayNewMembers = statisticsMapper.getYesterdayNewMemberCount();
         vo.setTodayNewMembersGrowth(calculateGrowthRate(todayNewMembers, yesterdayNewMembers));
 
-        // 本月预约数
-        Long monthBookings = statisticsMapper.getMonthBookingCount();
+        // 本月预约数（统计范围早于归档保留期时合并已归档的预约）
+        LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        Long monthBookings = statisticsMapper.getMonthBookingCount(bookingArchiveService.coversArchive(monthStart));
         vo.setMonthBookings(monthBookings);
 
         // 计算本月预约数增长率（对比上月）
-        Long lastMonthBookings = statisticsMapper.getLastMonthBookingCount();
+        Long lastMonthBookings = statisticsMapper.getLastMonthBookingCount(
+                bookingArchiveService.coversArchive(monthStart.minusMonths(1)));
         vo.setMonthBookingsGrowth(calculateGrowthRate(monthBookings, lastMonthBookings));
 
         // 今日入场人次
@@ -0,0 +1,354 @@
+package com.swimmingsys.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.swimmingsys.mapper.CourseMapper;
+import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.model.vo.WeeklyTimetableVO;
+import com.swimmingsys.service.CoachService;
+import com.swimmingsys.service.SeatEventService;
+import com.swimmingsys.service.TimetableService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.util.DigestUtils;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.Resource;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+
+/**
+ * 周课表服务实现类
+ * 每周的课表在首次访问时整周生成，之后课程变更和名额变化只记录到各周的待更新集合，
+ * 下次访问时按课程ID增量重新加载并重新生成；所有节点通过Redis频道接收变更通知
+ */
+@Slf4j
+@Service
+public class TimetableServiceImpl implements TimetableService, MessageListener {
+
+    @Resource
+    private CourseMapper courseMapper;
+
+    @Resource
+    private CoachService coachService;
+
+    @Resource
+    private StringRedisTemplate stringRedisTemplate;
+
+    @Resource
+    private RedisMessageListenerContainer redisMessageListenerContainer;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Value("${course.timetable.max-weeks:16}")
+    private int maxWeeks;
+
+    @Value("${course.timetable.rebuild-interval-ms:600000}")
+    private long rebuildIntervalMillis;
+
+    /**
+     * 课程变更通知频道，消息内容为课程ID列表的JSON，空列表表示所有周课表失效
+     */
+    private static final String CHANNEL = "course:timetable:events";
+
+    /**
+     * 已生成的周课表，key为周一日期
+     */
+    private final Map<LocalDate, WeekEntry> weeks = new ConcurrentHashMap<>();
+
+    /**
+     * 注册Redis频道监听
+     */
+    @PostConstruct
+    public void init() {
+        redisMessageListenerContainer.addMessageListener(this,
+                Arrays.asList(new ChannelTopic(CHANNEL), new ChannelTopic(SeatEventService.CHANNEL)));
+    }
+
+    @Override
+    public WeeklyTimetableVO getWeeklyTimetable(LocalDate date) {
+        LocalDate weekStart = (date == null ? LocalDate.now() : date).with(DayOfWeek.MONDAY);
+        WeekEntry entry = weeks.computeIfAbsent(weekStart, WeekEntry::new);
+        entry.lastAccessTime = System.currentTimeMillis();
+        evictIdleWeeks();
+
+        synchronized (entry) {
+            if (entry.timetable == null || System.currentTimeMillis() - entry.buildTime > rebuildIntervalMillis) {
+                rebuildWeek(entry);
+            } else if (!entry.changedCourseIds.isEmpty() || !entry.seatUpdates.isEmpty()) {
+                refreshWeek(entry);
+            }
+            return entry.timetable;
+        }
+    }
+
+    @Override
+    public void markCoursesChanged(Collection<Long> courseIds) {
+        if (courseIds == null || courseIds.isEmpty()) {
+            return;
+        }
+        List<Long> ids = new ArrayList<>(courseIds);
+        afterCommit(() -> {
+            // 本节点立即生效，其他节点通过频道通知
+            markChangedLocally(ids);
+            publish(ids);
+        });
+    }
+
+    @Override
+    public void invalidate() {
+        afterCommit(() -> {
+            weeks.clear();
+            publish(new ArrayList<>());
+        });
+    }
+
+    /**
+     * 接收课程变更和名额变化通知
+     *
+     * @param message 消息
+     * @param pattern 订阅模式
+     */
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        String channel = new String(message.getChannel(), StandardCharsets.UTF_8);
+        try {
+            if (SeatEventService.CHANNEL.equals(channel)) {
+                Map<Long, Integer> remainingCounts = objectMapper.readValue(message.getBody(),
+                        new TypeReference<Map<Long, Integer>>() {
+                        });
+                // 名额变化只更新已在课表中的课程
+                for (WeekEntry entry : weeks.values()) {
+                    remainingCounts.forEach((courseId, remaining) -> {
+                        if (entry.courseIds.contains(courseId)) {
+                            entry.seatUpdates.put(courseId, remaining);
+                        }
+                    });
+                }
+            } else {
+                List<Long> courseIds = objectMapper.readValue(message.getBody(), new TypeReference<List<Long>>() {
+                });
+                if (courseIds.isEmpty()) {
+                    weeks.clear();
+                } else {
+                    markChangedLocally(courseIds);
+                }
+            }
+        } catch (Exception e) {
+            log.warn("周课表变更消息处理失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 在本节点所有已生成的周课表中标记变更的课程
+     * 课程可能新增到某周或从某周移出，因此每周都需要记录
+     *
+     * @param courseIds 课程ID集合
+     */
+    private void markChangedLocally(Collection<Long> courseIds) {
+        for (WeekEntry entry : weeks.values()) {
+            entry.changedCourseIds.addAll(courseIds);
+        }
+    }
+
+    /**
+     * 发布课程变更通知
+     *
+     * @param courseIds 课程ID列表（空列表表示全部失效）
+     */
+    private void publish(List<Long> courseIds) {
+        try {
+            stringRedisTemplate.convertAndSend(CHANNEL, objectMapper.writeValueAsString(courseIds));
+        } catch (Exception e) {
+            // 通知失败时其他节点在重新生成间隔后同步
+            log.warn("周课表变更通知发布失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 整周重新生成课表
+     *
+     * @param entry 周课表
+     */
+    private void rebuildWeek(WeekEntry entry) {
+        // 先清空待更新集合，生成期间到达的变更保留到下次访问
+        entry.changedCourseIds.clear();
+        entry.seatUpdates.clear();
+
+        QueryWrapper<Course> queryWrapper = buildTimetableQueryWrapper();
+        queryWrapper.ge("start_time", entry.weekStart.atStartOfDay());
+        queryWrapper.lt("start_time", entry.weekStart.plusWeeks(1).atStartOfDay());
+        entry.courses.clear();
+        for (Course course : courseMapper.selectList(queryWrapper)) {
+            entry.courses.put(course.getId(), course);
+        }
+        entry.buildTime = System.currentTimeMillis();
+        publishTimetable(entry);
+    }
+
+    /**
+     * 增量更新课表：只重新加载变更的课程，名额变化直接覆盖
+     *
+     * @param entry 周课表
+     */
+    private void refreshWeek(WeekEntry entry) {
+        List<Long> changedIds = new ArrayList<>(entry.changedCourseIds);
+        entry.changedCourseIds.removeAll(changedIds);
+        if (!changedIds.isEmpty()) {
+            changedIds.forEach(entry.courses::remove);
+            QueryWrapper<Course> queryWrapper = buildTimetableQueryWrapper();
+            queryWrapper.in("id", changedIds);
+            LocalDateTime weekStartTime = entry.weekStart.atStartOfDay();
+            LocalDateTime weekEndTime = entry.weekStart.plusWeeks(1).atStartOfDay();
+            for (Course course : courseMapper.selectList(queryWrapper)) {
+                if (!course.getStartTime().isBefore(weekStartTime) && course.getStartTime().isBefore(weekEndTime)) {
+                    entry.courses.put(course.getId(), course);
+                }
+            }
+        }
+
+        for (Long courseId : new ArrayList<>(entry.seatUpdates.keySet())) {
+            Integer remaining = entry.seatUpdates.remove(courseId);
+            Course course = entry.courses.get(courseId);
+            // 重新加载过的课程已是最新名额
+            if (remaining != null && course != null && !changedIds.contains(courseId)) {
+                course.setCurrentCount(course.getCapacity() - remaining);
+            }
+        }
+        publishTimetable(entry);
+    }
+
+    /**
+     * 课表查询条件：已发布的课程，只查询课表需要的字段
+     *
+     * @return 查询条件
+     */
+    private QueryWrapper<Course> buildTimetableQueryWrapper() {
+        QueryWrapper<Course> queryWrapper = new QueryWrapper<>();
+        queryWrapper.select("id", "course_name", "course_type", "coach_id", "start_time", "end_time",
+                "capacity", "current_count");
+        queryWrapper.eq("status", 1);
+        queryWrapper.eq("is_delete", 0);
+        return queryWrapper;
+    }
+
+    /**
+     * 由课程数据生成新的课表对象和版本
+     * 每次生成新对象，正在返回的旧课表不受影响
+     *
+     * @param entry 周课表
+     */
+    private void publishTimetable(WeekEntry entry) {
+        Map<Long, String> coachNameMap = coachService.getCoachNameMap(entry.courses.values().stream()
+                .map(Course::getCoachId)
+                .collect(Collectors.toSet()));
+
+        Map<LocalDate, List<WeeklyTimetableVO.Slot>> slotsByDate = new HashMap<>();
+        entry.courses.values().stream()
+                .sorted(Comparator.comparing(Course::getStartTime).thenComparing(Course::getId))
+                .forEach(course -> {
+                    WeeklyTimetableVO.Slot slot = new WeeklyTimetableVO.Slot();
+                    slot.setId(course.getId());
+                    slot.setCourseName(course.getCourseName());
+                    slot.setCourseType(course.getCourseType());
+                    slot.setStartTime(course.getStartTime().toLocalTime());
+                    slot.setEndTime(course.getEndTime().toLocalTime());
+                    slot.setCoachName(coachNameMap.get(course.getCoachId()));
+                    slot.setRemainingCount(Math.max(course.getCapacity() - course.getCurrentCount(), 0));
+                    slotsByDate.computeIfAbsent(course.getStartTime().toLocalDate(), d -> new ArrayList<>()).add(slot);
+                });
+
+        List<WeeklyTimetableVO.Day> days = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            LocalDate date = entry.weekStart.plusDays(i);
+            WeeklyTimetableVO.Day day = new WeeklyTimetableVO.Day();
+            day.setDate(date);
+            day.setDayOfWeek(date.getDayOfWeek().getValue());
+            day.setCourses(slotsByDate.getOrDefault(date, new ArrayList<>()));
+            days.add(day);
+        }
+
+        WeeklyTimetableVO timetable = new WeeklyTimetableVO();
+        timetable.setWeekStart(entry.weekStart);
+        timetable.setWeekEnd(entry.weekStart.plusDays(6));
+        timetable.setDays(days);
+        try {
+            timetable.setVersion(DigestUtils.md5DigestAsHex(objectMapper.writeValueAsBytes(days)));
+        } catch (Exception e) {
+            timetable.setVersion(String.valueOf(System.nanoTime()));
+        }
+
+        entry.courseIds = ConcurrentHashMap.newKeySet();
+        entry.courseIds.addAll(entry.courses.keySet());
+        entry.timetable = timetable;
+    }
+
+    /**
+     * 超出缓存周数时移除最久未访问的周课表
+     */
+    private void evictIdleWeeks() {
+        while (weeks.size() > maxWeeks) {
+            weeks.values().stream()
+                    .min(Comparator.comparingLong(entry -> entry.lastAccessTime))
+                    .ifPresent(entry -> weeks.remove(entry.weekStart, entry));
+        }
+    }
+
+    /**
+     * 在事务提交后执行，无事务时立即执行
+     *
+     * @param action 操作
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    /**
+     * 单周课表
+     */
+    private static class WeekEntry {
+        private final LocalDate weekStart;
+        private final Map<Long, Course> courses = new HashMap<>();
+        private final Set<Long> changedCourseIds = ConcurrentHashMap.newKeySet();
+        private final Map<Long, Integer> seatUpdates = new ConcurrentHashMap<>();
+        private volatile Set<Long> courseIds = ConcurrentHashMap.newKeySet();
+        private volatile WeeklyTimetableVO timetable;
+        private volatile long buildTime;
+        private volatile long lastAccessTime = System.currentTimeMillis();
+
+        WeekEntry(LocalDate weekStart) {
+            this.weekStart = weekStart;
+        }
+    }
+}
@@ -16,8 +16,10 @@ import com.swimmingsys.model.dto.UserQueryDTO;
 import com.swimmingsys.model.dto.UserRegisterDTO;
 import com.swimmingsys.model.dto.UserUpdateDTO;
 import com.swimmingsys.model.entity.User;
+import com.swimmingsys.model.vo.CursorPageVO;
 import com.swimmingsys.model.vo.UserVO;
 import com.swimmingsys.service.UserService;
+import com.swimmingsys.utils.CursorUtil;
 import com.swimmingsys.utils.JwtUtil;
 import com.swimmingsys.utils.Md5Util;
 import org.springframework.beans.BeanUtils;
@@ -334,6 +336,52 @@ public class UserServiceImpl implements UserService {
     @Override
     public IPage<UserVO> getUserList(UserQueryDTO queryDTO) {
         // 1. 构建查询条件
+        QueryWrapper<User> queryWrapper = buildUserQueryWrapper(queryDTO);
+        // 按创建时间倒序
+        queryWrapper.orderByDesc("created_time");
+
+        // 2. 执行分页查询
+        Page<User> page = new Page<>(queryDTO.getPageNum(), queryDTO.getPageSize());
+        IPage<User> userPage = userMapper.selectPage(page, queryWrapper);
+
+        // 3. 转换为VO分页（包含过期状态计算）
+        int warningDays = queryDTO.getWarningDays() != null ? queryDTO.getWarningDays() : 7;
+        IPage<UserVO> userVOPage = userPage.convert(user -> convertToUserVO(user, warningDays));
+        return userVOPage;
+    }
+
+    /**
+     * 游标分页获取用户列表
+     * 按 (创建时间, id) 键集定位，不统计总数
+     *
+     * @param queryDTO 查询条件（cursor为上一页返回的游标）
+     * @return 用户游标分页列表
+     */
+    @Override
+    public CursorPageVO<UserVO> getUserListByCursor(UserQueryDTO queryDTO) {
+        // 1. 构建查询条件
+        QueryWrapper<User> queryWrapper = buildUserQueryWrapper(queryDTO);
+        CursorUtil.seek(queryWrapper, "created_time", queryDTO.getCursor(), queryDTO.getPageSize());
+
+        // 2. 执行查询并截取当前页
+        List<User> users = userMapper.selectList(queryWrapper);
+        String nextCursor = CursorUtil.nextCursor(users, queryDTO.getPageSize(), User::getCreatedTime, User::getId);
+
+        // 3. 转换为VO（包含过期状态计算）
+        int warningDays = queryDTO.getWarningDays() != null ? queryDTO.getWarningDays() : 7;
+        List<UserVO> userVOList = users.stream()
+                .map(user -> convertToUserVO(user, warningDays))
+                .collect(Collectors.toList());
+        return new CursorPageVO<>(userVOList, nextCursor);
+    }
+
+    /**
+     * 构建用户列表查询条件（不含排序）
+     *
+     * @param queryDTO 查询条件
+     * @return 查询条件
+     */
+    private QueryWrapper<User> buildUserQueryWrapper(UserQueryDTO queryDTO) {
         QueryWrapper<User> queryWrapper = new QueryWrapper<>();
         
         // 用户账号模糊查询
@@ -397,17 +445,7 @@ public class UserServiceImpl implements UserService {
 
         // 排除已删除用户
         queryWrapper.eq("is_delete", 0);
-        // 按创建时间倒序
-        queryWrapper.orderByDesc("created_time");
-
-        // 2. 执行分页查询
-        Page<User> page = new Page<>(queryDTO.getPageNum(), queryDTO.getPageSize());
-        IPage<User> userPage = userMapper.selectPage(page, queryWrapper);
-
-        // 3. 转换为VO分页（包含过期状态计算）
-        int warningDays = queryDTO.getWarningDays() != null ? queryDTO.getWarningDays() : 7;
-        IPage<UserVO> userVOPage = userPage.convert(user -> convertToUserVO(user, warningDays));
-        return userVOPage;
+        return queryWrapper;
     }
 
     /**
@@ -487,6 +525,7 @@ public class UserServiceImpl implements UserService {
         user.setRole(addDTO.getRole());
         user.setStatus(addDTO.getStatus());
         user.setExpirationTime(addDTO.getExpirationTime());
+        user.setGuardianId(checkGuardian(addDTO.getGuardianId(), null));
 
         // 6. 插入数据库
         int result = userMapper.insert(user);
@@ -576,6 +615,9 @@ public class UserServiceImpl implements UserService {
             }
             // 管理员可以设置过期时间（包括设置为NULL清空）
             user.setExpirationTime(updateDTO.getExpirationTime());
+            if (updateDTO.getGuardianId() != null) {
+                user.setGuardianId(checkGuardian(updateDTO.getGuardianId(), id));
+            }
         }
 
         // 5. 更新数据库
@@ -588,6 +630,37 @@ public class UserServiceImpl implements UserService {
         return convertToUserVO(user);
     }
 
+    /**
+     * 校验家长账号：家长账号必须存在且不能是本人，也不能是其他账号的家庭成员（关联只有一层）
+     *
+     * @param guardianId 家长账号ID，null或0表示不关联
+     * @param userId     被关联的用户ID（新增用户时为null）
+     * @return 家长账号ID，不关联时返回0
+     */
+    private Long checkGuardian(Long guardianId, Long userId) {
+        if (guardianId == null || guardianId == 0L) {
+            return 0L;
+        }
+        if (guardianId.equals(userId)) {
+            throw new RuntimeException("不能将本人设为家长账号");
+        }
+        User guardian = userMapper.selectById(guardianId);
+        if (guardian == null || guardian.getIsDelete() == 1) {
+            throw new RuntimeException("家长账号不存在");
+        }
+        if (guardian.getGuardianId() != null && guardian.getGuardianId() != 0L) {
+            throw new RuntimeException("家长账号本身已关联其他家长，不能再作为家长账号");
+        }
+        if (userId != null) {
+            QueryWrapper<User> dependentWrapper = new QueryWrapper<>();
+            dependentWrapper.eq("guardian_id", userId);
+            if (userMapper.selectCount(dependentWrapper) > 0) {
+                throw new RuntimeException("该用户已是其他会员的家长账号，不能再关联家长");
+            }
+        }
+        return guardianId;
+    }
+
     /**
      * 删除用户（逻辑删除）
      *
@@ -0,0 +1,38 @@
+package com.swimmingsys.task;
+
+import com.swimmingsys.model.vo.BookingArchiveReportVO;
+import com.swimmingsys.service.BookingArchiveService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 预约归档定时任务
+ * 定时将课程已结束或取消已久的预约移入归档表
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "booking.archive", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BookingArchiveTask {
+
+    @Resource
+    private BookingArchiveService bookingArchiveService;
+
+    /**
+     * 默认每天凌晨3:30执行
+     */
+    @Scheduled(cron = "${booking.archive.cron:0 30 3 * * ?}")
+    public void archiveBookings() {
+        try {
+            BookingArchiveReportVO report = bookingArchiveService.archiveBookings("SCHEDULED");
+            log.info("预约归档任务执行结束：状态={}，归档{}条，批次{}，耗时{}ms",
+                    report.getStatus(), report.getArchivedCount(), report.getChunkCount(), report.getElapsedMillis());
+        } catch (Exception e) {
+            // 其他节点正在执行或Redis不可用时跳过本次运行
+            log.info("预约归档任务跳过：{}", e.getMessage());
+        }
+    }
+}
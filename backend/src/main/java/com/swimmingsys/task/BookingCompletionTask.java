@@ -0,0 +1,38 @@
+package com.swimmingsys.task;
+
+import com.swimmingsys.model.vo.BookingCompletionReportVO;
+import com.swimmingsys.service.BookingCompletionService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 预约自动完成定时任务
+ * 定时将课程已结束的预约标记为已完成，为预约统计和完成率提供数据
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "booking.completion", name = "enabled", havingValue = "true", matchIfMissing = true)
+public class BookingCompletionTask {
+
+    @Resource
+    private BookingCompletionService bookingCompletionService;
+
+    /**
+     * 默认每10分钟执行一次
+     */
+    @Scheduled(cron = "${booking.completion.cron:0 */10 * * * ?}")
+    public void completeFinishedBookings() {
+        try {
+            BookingCompletionReportVO report = bookingCompletionService.completeFinishedBookings("SCHEDULED");
+            log.info("预约自动完成任务执行结束：状态={}，完成{}条，批次{}，耗时{}ms",
+                    report.getStatus(), report.getCompletedCount(), report.getChunkCount(), report.getElapsedMillis());
+        } catch (Exception e) {
+            // 其他节点正在执行或Redis不可用时跳过本次运行
+            log.info("预约自动完成任务跳过：{}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.swimmingsys.task;
+
+import com.swimmingsys.service.CoachScheduleService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 教练排课索引校准定时任务
+ * 定时从数据库重新加载索引，清理已结束的课程，并同步其他节点对课程的修改
+ */
+@Slf4j
+@Component
+public class CoachScheduleIndexTask {
+
+    @Resource
+    private CoachScheduleService coachScheduleService;
+
+    /**
+     * 默认每10分钟校准一次
+     */
+    @Scheduled(fixedDelayString = "${course.coach-index.reload-interval-ms:600000}",
+            initialDelayString = "${course.coach-index.reload-interval-ms:600000}")
+    public void reloadIndex() {
+        try {
+            coachScheduleService.reload();
+        } catch (Exception e) {
+            log.warn("教练排课索引校准失败：{}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,26 @@
+package com.swimmingsys.task;
+
+import com.swimmingsys.service.EntranceRecordWriteService;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 入场记录批量写入定时任务
+ * 未达到批次大小的入场记录按固定间隔写入数据库
+ */
+@Component
+public class EntranceRecordFlushTask {
+
+    @Resource
+    private EntranceRecordWriteService entranceRecordWriteService;
+
+    /**
+     * 默认每秒写入一次
+     */
+    @Scheduled(fixedDelayString = "${entrance.write-behind.flush-interval-ms:1000}")
+    public void flush() {
+        entranceRecordWriteService.flush();
+    }
+}
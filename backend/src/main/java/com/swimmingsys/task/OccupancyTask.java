@@ -0,0 +1,48 @@
+package com.swimmingsys.task;
+
+import com.swimmingsys.service.OccupancyService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 在馆人数定时任务
+ * 每分钟记录一次在馆人数供运营概览展示；闭馆后清空在馆会员，避免离场未扫码的会员累积
+ */
+@Slf4j
+@Component
+@ConditionalOnProperty(prefix = "entrance.occupancy", name = "enabled", havingValue = "true")
+public class OccupancyTask {
+
+    @Resource
+    private OccupancyService occupancyService;
+
+    /**
+     * 每分钟记录一次
+     */
+    @Scheduled(cron = "0 * * * * ?")
+    public void recordHistory() {
+        try {
+            occupancyService.recordHistory();
+        } catch (Exception e) {
+            // Redis不可用时跳过本次记录
+            log.warn("记录在馆人数失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 默认每天凌晨2点清空
+     */
+    @Scheduled(cron = "${entrance.occupancy.reset-cron:0 0 2 * * ?}")
+    public void reset() {
+        try {
+            occupancyService.reset();
+            log.info("已清空在馆会员");
+        } catch (Exception e) {
+            log.warn("清空在馆会员失败：{}", e.getMessage());
+        }
+    }
+}
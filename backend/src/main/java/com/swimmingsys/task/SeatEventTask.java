@@ -0,0 +1,40 @@
+package com.swimmingsys.task;
+
+import com.swimmingsys.service.SeatEventService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+
+/**
+ * 课程名额变化推送定时任务
+ * 按固定间隔合并推送名额变化，并定时向SSE连接发送心跳
+ */
+@Slf4j
+@Component
+public class SeatEventTask {
+
+    @Resource
+    private SeatEventService seatEventService;
+
+    /**
+     * 默认每秒推送一次，同一秒内的多次预约变更合并为一次推送
+     */
+    @Scheduled(fixedDelayString = "${course.seat-events.flush-interval-ms:1000}")
+    public void flush() {
+        try {
+            seatEventService.flush();
+        } catch (Exception e) {
+            log.warn("课程名额变化推送失败：{}", e.getMessage());
+        }
+    }
+
+    /**
+     * 默认每25秒发送一次心跳
+     */
+    @Scheduled(fixedDelayString = "${course.seat-events.heartbeat-interval-ms:25000}")
+    public void heartbeat() {
+        seatEventService.heartbeat();
+    }
+}
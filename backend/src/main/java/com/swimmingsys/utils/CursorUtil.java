@@ -0,0 +1,92 @@
+package com.swimmingsys.utils;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDateTime;
+import java.util.Base64;
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * 游标分页工具类
+ * 游标由 排序列值|主键ID 编码而成，查询时以 (排序列, id) 作为键集条件定位下一页，
+ * 无需OFFSET扫描和COUNT统计，翻页深度不影响查询耗时
+ */
+public class CursorUtil {
+
+    private static final String SEPARATOR = "|";
+
+    /**
+     * 生成游标
+     *
+     * @param sortValue 排序列值
+     * @param id        主键ID
+     * @return 游标字符串（Base64URL编码）
+     */
+    public static String encode(LocalDateTime sortValue, Long id) {
+        String raw = sortValue + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 为查询条件追加键集定位、排序和条数限制
+     * 按 (排序列, id) 倒序，多查一条用于判断是否还有下一页
+     *
+     * @param queryWrapper 查询条件
+     * @param column       排序列（时间类型）
+     * @param cursor       上一页返回的游标，为空表示第一页
+     * @param pageSize     每页大小
+     */
+    public static <T> void seek(QueryWrapper<T> queryWrapper, String column, String cursor, int pageSize) {
+        seekWithoutLimit(queryWrapper, column, cursor);
+        queryWrapper.last("LIMIT " + (pageSize + 1));
+    }
+
+    /**
+     * 为查询条件追加键集定位和排序，条数限制由调用方在SQL中指定（合并多张表查询时使用）
+     *
+     * @param queryWrapper 查询条件
+     * @param column       排序列（时间类型）
+     * @param cursor       上一页返回的游标，为空表示第一页
+     */
+    public static <T> void seekWithoutLimit(QueryWrapper<T> queryWrapper, String column, String cursor) {
+        if (cursor != null && !cursor.isEmpty()) {
+            String raw;
+            LocalDateTime sortValue;
+            Long id;
+            try {
+                raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+                int index = raw.lastIndexOf(SEPARATOR);
+                sortValue = LocalDateTime.parse(raw.substring(0, index));
+                id = Long.parseLong(raw.substring(index + 1));
+            } catch (Exception e) {
+                throw new RuntimeException("分页游标无效");
+            }
+            queryWrapper.and(wrapper -> wrapper
+                    .lt(column, sortValue)
+                    .or(w -> w.eq(column, sortValue).lt("id", id))
+            );
+        }
+        queryWrapper.orderByDesc(column, "id");
+    }
+
+    /**
+     * 截取当前页并生成下一页游标
+     *
+     * @param records   查询结果（最多比每页大小多一条）
+     * @param pageSize  每页大小
+     * @param sortValue 排序列取值函数
+     * @param idValue   主键取值函数
+     * @return 下一页游标，没有下一页时返回null
+     */
+    public static <T> String nextCursor(List<T> records, int pageSize,
+                                        Function<T, LocalDateTime> sortValue, Function<T, Long> idValue) {
+        if (records.size() <= pageSize) {
+            return null;
+        }
+        records.subList(pageSize, records.size()).clear();
+        T last = records.get(pageSize - 1);
+        return encode(sortValue.apply(last), idValue.apply(last));
+    }
+}
@@ -0,0 +1,145 @@
+package com.swimmingsys.utils;
+
+import lombok.Data;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.Resource;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Arrays;
+import java.util.Base64;
+
+/**
+ * 签名入场码工具类
+ * 入场码格式：S. + Base64URL(版本 | 用户ID | 签发时间（秒） | 随机数 | 预约ID | HMAC截断签名)，
+ * 签名和有效期在内存中校验；防重放和“每个会员只有最新入场码有效”由 EntranceTokenService 按随机数校验，
+ * 会员姓名等显示信息在生成时保存，验证时无需查询数据库；签名复用JWT密钥
+ */
+@Component
+public class EntranceCodeUtil {
+
+    @Resource
+    private JwtUtil jwtUtil;
+
+    /**
+     * 签名入场码前缀
+     */
+    public static final String PREFIX = "S.";
+
+    private static final byte VERSION = 1;
+
+    /**
+     * 签名用途标识，避免与其他使用同一密钥的签名混用
+     */
+    private static final byte[] DOMAIN = "entrance".getBytes(StandardCharsets.UTF_8);
+
+    private static final int NONCE_LENGTH = 6;
+    private static final int MAC_LENGTH = 16;
+
+    /**
+     * 负载长度：版本(1) + 用户ID(8) + 签发时间(4) + 随机数(6) + 预约ID(8)
+     */
+    private static final int PAYLOAD_LENGTH = 1 + 8 + 4 + NONCE_LENGTH + 8;
+
+    private static final SecureRandom RANDOM = new SecureRandom();
+
+    /**
+     * 生成签名入场码
+     *
+     * @param userId       用户ID
+     * @param bookingId    预约ID（可选）
+     * @param issuedSecond 签发时间（秒级时间戳）
+     * @return 入场码（60个字符）
+     */
+    public String sign(Long userId, Long bookingId, long issuedSecond) {
+        byte[] nonce = new byte[NONCE_LENGTH];
+        RANDOM.nextBytes(nonce);
+        ByteBuffer buffer = ByteBuffer.allocate(PAYLOAD_LENGTH + MAC_LENGTH);
+        buffer.put(VERSION);
+        buffer.putLong(userId);
+        buffer.putInt((int) issuedSecond);
+        buffer.put(nonce);
+        buffer.putLong(bookingId == null ? 0L : bookingId);
+        buffer.put(mac(buffer.array(), PAYLOAD_LENGTH));
+        return PREFIX + Base64.getUrlEncoder().withoutPadding().encodeToString(buffer.array());
+    }
+
+    /**
+     * 解析并校验签名入场码（不校验有效期）
+     *
+     * @param code 入场码
+     * @return 入场码内容，格式错误或签名不匹配返回null
+     */
+    public SignedCode parse(String code) {
+        if (code == null || !code.startsWith(PREFIX)) {
+            return null;
+        }
+        byte[] bytes;
+        try {
+            bytes = Base64.getUrlDecoder().decode(code.substring(PREFIX.length()));
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+        if (bytes.length != PAYLOAD_LENGTH + MAC_LENGTH || bytes[0] != VERSION) {
+            return null;
+        }
+        byte[] signature = Arrays.copyOfRange(bytes, PAYLOAD_LENGTH, bytes.length);
+        if (!MessageDigest.isEqual(signature, mac(bytes, PAYLOAD_LENGTH))) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(bytes, 1, PAYLOAD_LENGTH - 1);
+        SignedCode signedCode = new SignedCode();
+        signedCode.setUserId(buffer.getLong());
+        signedCode.setIssuedSecond(Integer.toUnsignedLong(buffer.getInt()));
+        byte[] nonce = new byte[NONCE_LENGTH];
+        buffer.get(nonce);
+        signedCode.setNonce(Base64.getUrlEncoder().withoutPadding().encodeToString(nonce));
+        long bookingId = buffer.getLong();
+        signedCode.setBookingId(bookingId == 0L ? null : bookingId);
+        return signedCode;
+    }
+
+    /**
+     * 计算负载的截断签名
+     *
+     * @param bytes  数据
+     * @param length 负载长度
+     * @return 签名（前16字节）
+     */
+    private byte[] mac(byte[] bytes, int length) {
+        byte[] data = new byte[DOMAIN.length + length];
+        System.arraycopy(DOMAIN, 0, data, 0, DOMAIN.length);
+        System.arraycopy(bytes, 0, data, DOMAIN.length, length);
+        return Arrays.copyOf(jwtUtil.hmacSha256(data), MAC_LENGTH);
+    }
+
+    /**
+     * 签名入场码内容
+     */
+    @Data
+    public static class SignedCode {
+
+        /**
+         * 用户ID
+         */
+        private Long userId;
+
+        /**
+         * 签发时间（秒级时间戳）
+         */
+        private Long issuedSecond;
+
+        /**
+         * 随机数，用于防重放
+         */
+        private String nonce;
+
+        /**
+         * 预约ID（可选）
+         */
+        private Long bookingId;
+    }
+}
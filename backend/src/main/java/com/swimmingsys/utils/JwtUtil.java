@@ -6,6 +6,7 @@ import io.jsonwebtoken.security.Keys;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Component;
 
+import javax.crypto.Mac;
 import javax.crypto.SecretKey;
 import java.nio.charset.StandardCharsets;
 import java.util.Date;
@@ -30,6 +31,19 @@ public class JwtUtil {
     @Value("${jwt.expiration:86400000}")
     private Long expiration;
 
+    /**
+     * HMAC-SHA256实例（Mac非线程安全，每个线程复用一个）
+     */
+    private final ThreadLocal<Mac> hmac = ThreadLocal.withInitial(() -> {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(getSigningKey());
+            return mac;
+        } catch (Exception e) {
+            throw new IllegalStateException("初始化HMAC失败", e);
+        }
+    });
+
     /**
      * 获取签名密钥
      */
@@ -164,4 +178,14 @@ public class JwtUtil {
         Date expiration = claims.getExpiration();
         return expiration.before(new Date());
     }
+
+    /**
+     * 使用JWT密钥计算HMAC-SHA256签名（用于入场码等其他需要签名的短令牌）
+     *
+     * @param data 待签名数据
+     * @return 签名（32字节）
+     */
+    public byte[] hmacSha256(byte[] data) {
+        return hmac.get().doFinal(data);
+    }
 }
@@ -0,0 +1,378 @@
+package com.swimmingsys.benchmark;
+
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.swimmingsys.common.RoleConstant;
+import com.swimmingsys.mapper.BookingMapper;
+import com.swimmingsys.mapper.CoachMapper;
+import com.swimmingsys.mapper.CourseMapper;
+import com.swimmingsys.mapper.UserMapper;
+import com.swimmingsys.model.dto.BookingConfirmDTO;
+import com.swimmingsys.model.entity.Booking;
+import com.swimmingsys.model.entity.Coach;
+import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.model.entity.User;
+import com.swimmingsys.service.BookingService;
+import com.swimmingsys.utils.Md5Util;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import redis.embedded.RedisServer;
+
+import javax.annotation.Resource;
+import java.io.File;
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 课程预约并发压测
+ * N 名会员同时抢 M 个名额，输出吞吐量、延迟分位、重试次数、失败原因和超卖/少卖情况，
+ * 结果以JSON文件保存，便于不同名额扣减策略、不同版本之间对比
+ * <p>
+ * 压测启动完整的Spring上下文，数据库使用嵌入式H2（MySQL兼容模式，表结构见 benchmark/schema.sql），
+ * Redis使用测试启动的本地Redis，不连接应用配置的数据源，也不打包进应用。
+ * 默认跳过，指定 -Dbenchmark=true 时运行：
+ * <p>
+ * mvn test -Dtest=BookingBenchmarkTest -Dbenchmark=true -Dbenchmark.members=500 -Dbenchmark.seats=50
+ * -Dbooking.seat-strategy=atomic
+ * <p>
+ * 对比两种策略：先以 optimistic 运行一次，再以 atomic 运行并通过 -Dbenchmark.baseline-report 指定第一次的报告文件
+ */
+@Slf4j
+@SpringBootTest
+@ActiveProfiles("benchmark")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+class BookingBenchmarkTest {
+
+    private static RedisServer redisServer;
+
+    private static int redisPort;
+
+    @Resource
+    private BookingService bookingService;
+
+    @Resource
+    private CourseMapper courseMapper;
+
+    @Resource
+    private BookingMapper bookingMapper;
+
+    @Resource
+    private CoachMapper coachMapper;
+
+    @Resource
+    private UserMapper userMapper;
+
+    @Resource
+    private ObjectMapper objectMapper;
+
+    @Value("${benchmark.members:200}")
+    private int members;
+
+    @Value("${benchmark.seats:20}")
+    private int seats;
+
+    @Value("${benchmark.threads:64}")
+    private int threads;
+
+    @Value("${benchmark.output-dir:target/benchmark}")
+    private String outputDir;
+
+    @Value("${benchmark.baseline-report:}")
+    private String baselineReport;
+
+    @Value("${booking.seat-strategy:optimistic}")
+    private String seatStrategy;
+
+    @Value("${booking.admission.enabled:false}")
+    private boolean admissionEnabled;
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        try (ServerSocket socket = new ServerSocket(0)) {
+            redisPort = socket.getLocalPort();
+        }
+        redisServer = RedisServer.builder().port(redisPort).setting("bind 127.0.0.1").build();
+        redisServer.start();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @DynamicPropertySource
+    static void redisProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.redis.port", () -> redisPort);
+    }
+
+    @Test
+    void confirmBookingUnderContention() throws Exception {
+        String runId = LocalDateTime.now().format(DateTimeFormatter.ofPattern("yyyyMMddHHmmss"));
+        log.info("预约压测开始：策略={}，会员数={}，名额={}，并发线程={}", seatStrategy, members, seats, threads);
+
+        // 1. 准备压测数据
+        Course course = createCourse(runId);
+        List<User> users = createMembers(runId);
+
+        // 2. 并发确认预约
+        Map<String, Object> report = execute(course, users);
+
+        // 3. 输出报告（指定基准报告时附加对比结果）
+        report.put("runId", runId);
+        if (baselineReport != null && !baselineReport.isEmpty()) {
+            report.put("comparison", compare(report, baselineReport));
+        }
+        File dir = new File(outputDir);
+        if (!dir.exists() && !dir.mkdirs()) {
+            throw new RuntimeException("创建压测报告目录失败：" + dir.getAbsolutePath());
+        }
+        File file = new File(dir, "booking-" + seatStrategy + "-" + runId + ".json");
+        objectMapper.copy().enable(SerializationFeature.INDENT_OUTPUT).writeValue(file, report);
+        log.info("预约压测完成：{}", objectMapper.writeValueAsString(report));
+        log.info("压测报告已保存：{}", file.getAbsolutePath());
+
+        // 4. 报告保存后再校验不超卖
+        @SuppressWarnings("unchecked")
+        Map<String, Object> consistency = (Map<String, Object>) report.get("consistency");
+        assertEquals(0L, consistency.get("oversell"));
+    }
+
+    /**
+     * 并发执行确认预约并汇总结果
+     *
+     * @param course 压测课程
+     * @param users  压测会员
+     * @return 压测报告
+     */
+    private Map<String, Object> execute(Course course, List<User> users) throws InterruptedException {
+        Map<String, Long> contentionBefore = bookingService.getSeatContentionStats();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>(users.size()));
+        Map<String, AtomicLong> failureReasons = new ConcurrentHashMap<>();
+        AtomicLong successCount = new AtomicLong();
+
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch startGate = new CountDownLatch(1);
+        CountDownLatch finished = new CountDownLatch(users.size());
+        for (User user : users) {
+            executor.execute(() -> {
+                try {
+                    startGate.await();
+                    BookingConfirmDTO dto = new BookingConfirmDTO();
+                    dto.setCourseId(course.getId());
+                    long begin = System.nanoTime();
+                    try {
+                        bookingService.confirmBooking(dto, user);
+                        successCount.incrementAndGet();
+                    } catch (Exception e) {
+                        String reason = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+                        failureReasons.computeIfAbsent(reason, k -> new AtomicLong()).incrementAndGet();
+                    } finally {
+                        latencies.add(System.nanoTime() - begin);
+                    }
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    finished.countDown();
+                }
+            });
+        }
+
+        long begin = System.nanoTime();
+        startGate.countDown();
+        finished.await();
+        long elapsedNanos = System.nanoTime() - begin;
+        executor.shutdown();
+        executor.awaitTermination(1, TimeUnit.MINUTES);
+        Map<String, Long> contentionAfter = bookingService.getSeatContentionStats();
+
+        // 校验数据库最终状态
+        Course latest = courseMapper.selectById(course.getId());
+        QueryWrapper<Booking> activeWrapper = new QueryWrapper<>();
+        activeWrapper.eq("course_id", course.getId());
+        activeWrapper.eq("status", 1); // 已预约状态
+        activeWrapper.eq("is_delete", 0);
+        long activeBookings = bookingMapper.selectCount(activeWrapper);
+        long expectedBookings = Math.min(users.size(), seats);
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("seatStrategy", seatStrategy);
+        report.put("admissionEnabled", admissionEnabled);
+        report.put("members", users.size());
+        report.put("seats", seats);
+        report.put("threads", threads);
+        report.put("elapsedMillis", TimeUnit.NANOSECONDS.toMillis(elapsedNanos));
+        report.put("throughputPerSecond", round(users.size() * 1_000_000_000.0 / elapsedNanos));
+        report.put("successCount", successCount.get());
+        report.put("failureCount", users.size() - successCount.get());
+        report.put("latencyMillis", latencySummary(latencies));
+
+        Map<String, Long> retries = new LinkedHashMap<>();
+        for (Map.Entry<String, Long> entry : contentionAfter.entrySet()) {
+            retries.put(entry.getKey(), entry.getValue() - contentionBefore.getOrDefault(entry.getKey(), 0L));
+        }
+        report.put("retries", retries);
+
+        Map<String, Long> reasons = new TreeMap<>();
+        failureReasons.forEach((reason, count) -> reasons.put(reason, count.get()));
+        report.put("failureReasons", reasons);
+
+        Map<String, Object> consistency = new LinkedHashMap<>();
+        consistency.put("activeBookings", activeBookings);
+        consistency.put("courseCurrentCount", latest.getCurrentCount());
+        consistency.put("oversell", Math.max(activeBookings - seats, 0L));
+        consistency.put("undersell", Math.max(expectedBookings - activeBookings, 0L));
+        consistency.put("countMismatch", latest.getCurrentCount() != activeBookings);
+        report.put("consistency", consistency);
+        return report;
+    }
+
+    /**
+     * 与基准报告对比（通常为另一种名额扣减策略或上一个版本的报告）
+     *
+     * @param report       本次报告
+     * @param baselinePath 基准报告路径
+     * @return 对比结果，差值为 本次 - 基准
+     */
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> compare(Map<String, Object> report, String baselinePath) throws IOException {
+        Map<String, Object> baseline = objectMapper.readValue(new File(baselinePath), Map.class);
+        Map<String, Object> currentLatency = (Map<String, Object>) report.get("latencyMillis");
+        Map<String, Object> baselineLatency = (Map<String, Object>) baseline.get("latencyMillis");
+        Map<String, Object> currentRetries = (Map<String, Object>) report.get("retries");
+        Map<String, Object> baselineRetries = (Map<String, Object>) baseline.get("retries");
+
+        Map<String, Object> comparison = new LinkedHashMap<>();
+        comparison.put("baselineReport", baselinePath);
+        comparison.put("baselineSeatStrategy", baseline.get("seatStrategy"));
+        comparison.put("throughputPerSecondDelta", delta(report.get("throughputPerSecond"), baseline.get("throughputPerSecond")));
+        comparison.put("p50Delta", delta(currentLatency.get("p50"), baselineLatency.get("p50")));
+        comparison.put("p99Delta", delta(currentLatency.get("p99"), baselineLatency.get("p99")));
+        comparison.put("optimisticRetriesDelta",
+                delta(currentRetries.get("optimisticRetries"), baselineRetries.get("optimisticRetries")));
+        comparison.put("successCountDelta", delta(report.get("successCount"), baseline.get("successCount")));
+        return comparison;
+    }
+
+    private double delta(Object current, Object baseline) {
+        double currentValue = current instanceof Number ? ((Number) current).doubleValue() : 0;
+        double baselineValue = baseline instanceof Number ? ((Number) baseline).doubleValue() : 0;
+        return round(currentValue - baselineValue);
+    }
+
+    /**
+     * 计算延迟分位（毫秒）
+     *
+     * @param latencies 每次请求耗时（纳秒）
+     * @return 延迟统计
+     */
+    private Map<String, Object> latencySummary(List<Long> latencies) {
+        List<Long> sorted = new ArrayList<>(latencies);
+        Collections.sort(sorted);
+        Map<String, Object> summary = new LinkedHashMap<>();
+        if (sorted.isEmpty()) {
+            return summary;
+        }
+        long total = 0;
+        for (Long latency : sorted) {
+            total += latency;
+        }
+        summary.put("avg", round(total / 1_000_000.0 / sorted.size()));
+        summary.put("p50", percentile(sorted, 50));
+        summary.put("p90", percentile(sorted, 90));
+        summary.put("p99", percentile(sorted, 99));
+        summary.put("max", round(sorted.get(sorted.size() - 1) / 1_000_000.0));
+        return summary;
+    }
+
+    /**
+     * 取有序延迟列表的分位值（毫秒）
+     */
+    private double percentile(List<Long> sorted, int percentile) {
+        int index = (int) Math.ceil(percentile / 100.0 * sorted.size()) - 1;
+        return round(sorted.get(Math.max(index, 0)) / 1_000_000.0);
+    }
+
+    private double round(double value) {
+        return Math.round(value * 100) / 100.0;
+    }
+
+    /**
+     * 创建压测课程（明天开课，名额为配置的M）
+     *
+     * @param runId 本次压测标识
+     * @return 课程
+     */
+    private Course createCourse(String runId) {
+        QueryWrapper<Coach> coachWrapper = new QueryWrapper<>();
+        coachWrapper.eq("is_delete", 0);
+        coachWrapper.last("LIMIT 1");
+        Coach coach = coachMapper.selectOne(coachWrapper);
+        if (coach == null) {
+            throw new RuntimeException("压测需要至少一名教练，请检查 benchmark/schema.sql");
+        }
+
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1).withNano(0);
+        Course course = new Course();
+        course.setCourseName("压测课程-" + runId);
+        course.setCourseType("压测");
+        course.setCoachId(coach.getId());
+        course.setStartTime(startTime);
+        course.setEndTime(startTime.plusHours(1));
+        course.setCapacity(seats);
+        course.setCurrentCount(0);
+        course.setDescription("预约并发压测自动创建");
+        course.setStatus(1);
+        courseMapper.insert(course);
+        return course;
+    }
+
+    /**
+     * 创建压测会员
+     *
+     * @param runId 本次压测标识
+     * @return 会员列表
+     */
+    private List<User> createMembers(String runId) {
+        String password = Md5Util.encrypt("benchmark");
+        List<User> users = new ArrayList<>(members);
+        for (int i = 0; i < members; i++) {
+            User user = new User();
+            user.setUserAccount("bench_" + runId + "_" + i);
+            user.setPassword(password);
+            user.setUserName("压测会员" + i);
+            user.setRole(RoleConstant.MEMBER);
+            user.setStatus(1);
+            user.setExpirationTime(LocalDateTime.now().plusDays(30));
+            userMapper.insert(user);
+            users.add(user);
+        }
+        return users;
+    }
+}
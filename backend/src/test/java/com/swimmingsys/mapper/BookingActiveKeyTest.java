@@ -0,0 +1,101 @@
+package com.swimmingsys.mapper;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.conditions.update.UpdateWrapper;
+import com.swimmingsys.model.entity.Booking;
+import org.apache.ibatis.exceptions.PersistenceException;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * 预约唯一约束测试
+ * uk_user_active_course 只约束有效预约：同一会员同一课程可以多次取消后重新预约，但不能同时有两条有效预约，
+ * 数据库使用嵌入式H2（MySQL兼容模式）
+ */
+class BookingActiveKeyTest {
+
+    private SqlSession sqlSession;
+
+    private BookingMapper bookingMapper;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:active_key;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER");
+        dataSource.setUser("sa");
+
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setEnvironment(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addMapper(BookingMapper.class);
+        SqlSessionFactory sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+
+        sqlSession = sqlSessionFactory.openSession(true);
+        new ResourceDatabasePopulator(new ClassPathResource("benchmark/schema.sql"))
+                .populate(sqlSession.getConnection());
+        bookingMapper = sqlSession.getMapper(BookingMapper.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 内存库在最后一个连接关闭时销毁，每个测试使用新的数据
+        sqlSession.close();
+    }
+
+    /**
+     * 取消、重新预约、再按课程批量取消，同一会员同一课程留下两条已取消预约
+     */
+    @Test
+    void memberCanCancelRebookedCourseAgain() {
+        book(7L, 5L);
+        cancelCourse(5L);
+        book(7L, 5L);
+
+        assertEquals(1, cancelCourse(5L));
+        assertEquals(2L, bookingMapper.selectCount(null));
+    }
+
+    @Test
+    void secondActiveBookingForSameCourseIsRejected() {
+        book(7L, 5L);
+
+        assertThrows(PersistenceException.class, () -> book(7L, 5L));
+    }
+
+    private void book(Long userId, Long courseId) {
+        Booking booking = new Booking();
+        booking.setUserId(userId);
+        booking.setCourseId(courseId);
+        booking.setBookingTime(LocalDateTime.now());
+        booking.setStatus(1); // 已预约
+        bookingMapper.insertBatch(Collections.singletonList(booking));
+    }
+
+    /**
+     * 与 BookingServiceImpl.cancelCourseBookings 相同的集合更新
+     */
+    private int cancelCourse(Long courseId) {
+        UpdateWrapper<Booking> wrapper = new UpdateWrapper<>();
+        wrapper.set("status", 0); // 已取消
+        wrapper.set("cancel_time", LocalDateTime.now());
+        wrapper.eq("course_id", courseId);
+        wrapper.eq("status", 1); // 已预约状态
+        wrapper.eq("is_delete", 0);
+        return bookingMapper.update(null, wrapper);
+    }
+}
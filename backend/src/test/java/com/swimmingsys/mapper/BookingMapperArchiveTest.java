@@ -0,0 +1,133 @@
+package com.swimmingsys.mapper;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.swimmingsys.model.entity.Booking;
+import com.swimmingsys.utils.CursorUtil;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.sql.Statement;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 包含归档表的预约查询测试
+ * 条件和排序在预约表、归档表两个分支内分别执行后合并，结果需与两张表整体排序后截取一致，
+ * 数据库使用嵌入式H2（MySQL兼容模式）
+ */
+class BookingMapperArchiveTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2026, 3, 2, 8, 0);
+
+    private SqlSession sqlSession;
+
+    private BookingMapper bookingMapper;
+
+    /**
+     * 会员7的全部预约（包含已归档的），按预约时间、ID倒序
+     */
+    private List<Long> expectedIds;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        // 关闭H2查询缓存：H2会复用派生表中参数化LIMIT的首次结果
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:archive;QUERY_CACHE_SIZE=0;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER");
+        dataSource.setUser("sa");
+
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setEnvironment(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addMapper(BookingMapper.class);
+        SqlSessionFactory sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+
+        sqlSession = sqlSessionFactory.openSession(true);
+        new ResourceDatabasePopulator(new ClassPathResource("benchmark/schema.sql"))
+                .populate(sqlSession.getConnection());
+        bookingMapper = sqlSession.getMapper(BookingMapper.class);
+
+        // 会员7、8交替预约，预约时间每两条相同（验证ID作为次序）；较早的一半移入归档表
+        List<Booking> bookings = new ArrayList<>();
+        for (int i = 0; i < 24; i++) {
+            Booking booking = new Booking();
+            booking.setUserId(i % 3 == 0 ? 8L : 7L);
+            booking.setCourseId(100L + i);
+            booking.setBookingTime(BASE_TIME.plusHours(i / 2));
+            booking.setStatus(i < 12 ? 2 : 1);
+            bookingMapper.insert(booking);
+            bookings.add(booking);
+        }
+        List<Long> archivedIds = bookings.subList(0, 12).stream().map(Booking::getId).collect(Collectors.toList());
+        bookingMapper.copyToArchive(archivedIds, BASE_TIME.plusDays(1));
+        // H2不支持多表DELETE，直接按ID删除已复制的预约
+        try (Statement statement = sqlSession.getConnection().createStatement()) {
+            statement.executeUpdate("DELETE FROM booking WHERE id <= " + archivedIds.get(archivedIds.size() - 1));
+        }
+
+        expectedIds = bookings.stream()
+                .filter(booking -> booking.getUserId() == 7L)
+                .sorted(Comparator.comparing(Booking::getBookingTime).thenComparing(Booking::getId).reversed())
+                .map(Booking::getId)
+                .collect(Collectors.toList());
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 内存库在最后一个连接关闭时销毁，每个测试使用新的数据
+        sqlSession.close();
+    }
+
+    @Test
+    void pagesAcrossBookingAndArchiveMatchCombinedOrder() {
+        assertEquals(expectedIds.size(), bookingMapper.selectCount(memberWrapper())
+                + bookingMapper.selectArchiveCount(memberWrapper()));
+
+        List<Long> actualIds = new ArrayList<>();
+        for (int offset = 0; offset < expectedIds.size(); offset += 5) {
+            QueryWrapper<Booking> wrapper = memberWrapper();
+            wrapper.orderByDesc("booking_time", "id");
+            actualIds.addAll(ids(bookingMapper.selectListWithArchive(wrapper, offset, 5)));
+        }
+        assertEquals(expectedIds, actualIds);
+    }
+
+    @Test
+    void cursorPagesAcrossBookingAndArchiveMatchCombinedOrder() {
+        List<Long> actualIds = new ArrayList<>();
+        String cursor = null;
+        do {
+            QueryWrapper<Booking> wrapper = memberWrapper();
+            CursorUtil.seekWithoutLimit(wrapper, "booking_time", cursor);
+            List<Booking> bookings = bookingMapper.selectListWithArchive(wrapper, 0, 4 + 1);
+            cursor = CursorUtil.nextCursor(bookings, 4, Booking::getBookingTime, Booking::getId);
+            actualIds.addAll(ids(bookings));
+        } while (cursor != null);
+        assertEquals(expectedIds, actualIds);
+    }
+
+    private QueryWrapper<Booking> memberWrapper() {
+        QueryWrapper<Booking> wrapper = new QueryWrapper<>();
+        wrapper.eq("user_id", 7L);
+        wrapper.eq("is_delete", 0);
+        return wrapper;
+    }
+
+    private List<Long> ids(List<Booking> bookings) {
+        return bookings.stream().map(Booking::getId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,185 @@
+package com.swimmingsys.mapper;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.baomidou.mybatisplus.core.conditions.query.QueryWrapper;
+import com.swimmingsys.model.entity.Booking;
+import com.swimmingsys.model.entity.Course;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 预约时间冲突查询测试
+ * 在随机生成的课程表上，将联合查询 selectConflictBooking/selectConflictBookings 的结果
+ * 与原先逐条查询课程再比较时间段的实现对比，数据库使用嵌入式H2（MySQL兼容模式）
+ */
+class BookingMapperConflictTest {
+
+    private static final LocalDateTime BASE_TIME = LocalDateTime.of(2026, 3, 2, 8, 0);
+
+    private SqlSession sqlSession;
+
+    private BookingMapper bookingMapper;
+
+    private CourseMapper courseMapper;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:conflict;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER");
+        dataSource.setUser("sa");
+
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setEnvironment(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addMapper(BookingMapper.class);
+        configuration.addMapper(CourseMapper.class);
+        SqlSessionFactory sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+
+        sqlSession = sqlSessionFactory.openSession(true);
+        new ResourceDatabasePopulator(new ClassPathResource("benchmark/schema.sql"))
+                .populate(sqlSession.getConnection());
+        bookingMapper = sqlSession.getMapper(BookingMapper.class);
+        courseMapper = sqlSession.getMapper(CourseMapper.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 内存库在最后一个连接关闭时销毁，每个测试使用新的数据
+        sqlSession.close();
+    }
+
+    /**
+     * 随机课程表（含相邻时间段、已删除课程、已取消和已删除预约）上与原逐条比较的结果一致
+     */
+    @Test
+    void conflictQueryMatchesPerBookingLoopOnRandomSchedules() {
+        Random random = new Random(20260302L);
+        List<Long> userIds = new ArrayList<>();
+        for (long userId = 1; userId <= 8; userId++) {
+            userIds.add(userId);
+        }
+        List<Course> courses = createCourses(random, 120);
+        createBookings(random, userIds, courses);
+
+        int conflictWindows = 0;
+        for (int i = 0; i < 200; i++) {
+            // 以15分钟为粒度生成目标时间段，覆盖首尾相接（不冲突）和完全包含等边界情况
+            LocalDateTime startTime = BASE_TIME.plusMinutes(15L * random.nextInt(14 * 4 * 14));
+            LocalDateTime endTime = startTime.plusMinutes(15L * (1 + random.nextInt(12)));
+
+            Set<Long> expectedAll = new HashSet<>();
+            for (Long userId : userIds) {
+                List<Booking> expected = findConflictsByLoop(userId, startTime, endTime);
+                List<Booking> actual = bookingMapper.selectConflictBookings(
+                        Collections.singletonList(userId), startTime, endTime);
+                assertEquals(ids(expected), ids(actual), "用户" + userId + "，时间段 " + startTime + " ~ " + endTime);
+                expectedAll.addAll(ids(expected));
+
+                Booking first = bookingMapper.selectConflictBooking(userId, startTime, endTime);
+                if (actual.isEmpty()) {
+                    assertNull(first);
+                } else {
+                    // 单条查询返回最早开始的冲突预约
+                    assertEquals(actual.get(0).getId(), first.getId());
+                }
+            }
+            assertEquals(expectedAll, ids(bookingMapper.selectConflictBookings(userIds, startTime, endTime)));
+            if (!expectedAll.isEmpty()) {
+                conflictWindows++;
+            }
+        }
+        // 随机数据中需同时有冲突和不冲突的时间段，对比才有意义
+        assertTrue(conflictWindows > 0 && conflictWindows < 200);
+    }
+
+    /**
+     * 原实现：查询用户全部有效预约，逐条查询课程并比较时间段
+     */
+    private List<Booking> findConflictsByLoop(Long userId, LocalDateTime startTime, LocalDateTime endTime) {
+        QueryWrapper<Booking> queryWrapper = new QueryWrapper<>();
+        queryWrapper.eq("user_id", userId);
+        queryWrapper.eq("status", 1); // 已预约状态
+        queryWrapper.eq("is_delete", 0);
+
+        List<Booking> conflicts = new ArrayList<>();
+        for (Booking booking : bookingMapper.selectList(queryWrapper)) {
+            Course course = courseMapper.selectById(booking.getCourseId());
+            if (course != null && course.getIsDelete() == 0) {
+                if (startTime.isBefore(course.getEndTime()) && endTime.isAfter(course.getStartTime())) {
+                    conflicts.add(booking);
+                }
+            }
+        }
+        return conflicts;
+    }
+
+    private List<Course> createCourses(Random random, int count) {
+        List<Course> courses = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            LocalDateTime startTime = BASE_TIME.plusMinutes(15L * random.nextInt(14 * 4 * 14));
+            Course course = new Course();
+            course.setCourseName("课程" + i);
+            course.setCourseType("基础班");
+            course.setCoachId(1L);
+            course.setStartTime(startTime);
+            course.setEndTime(startTime.plusMinutes(15L * (2 + random.nextInt(7))));
+            course.setCapacity(20);
+            course.setCurrentCount(0);
+            course.setStatus(1);
+            course.setVersion(0);
+            course.setIsDelete(random.nextInt(10) == 0 ? 1 : 0);
+            courseMapper.insert(course);
+            courses.add(course);
+        }
+        return courses;
+    }
+
+    /**
+     * 每个用户随机预约若干课程，状态在已取消、已预约、已完成中随机，少量预约逻辑删除
+     */
+    private void createBookings(Random random, List<Long> userIds, List<Course> courses) {
+        for (Long userId : userIds) {
+            List<Course> shuffled = new ArrayList<>(courses);
+            Collections.shuffle(shuffled, random);
+            int bookingCount = 1 + random.nextInt(40);
+            for (Course course : shuffled.subList(0, bookingCount)) {
+                Booking booking = new Booking();
+                booking.setUserId(userId);
+                booking.setCourseId(course.getId());
+                booking.setBookingTime(BASE_TIME.minusDays(1));
+                booking.setStatus(random.nextInt(4) == 0 ? random.nextInt(3) : 1);
+                booking.setIsDelete(random.nextInt(15) == 0 ? 1 : 0);
+                bookingMapper.insert(booking);
+            }
+        }
+    }
+
+    private Set<Long> ids(List<Booking> bookings) {
+        Set<Long> ids = new HashSet<>();
+        for (Booking booking : bookings) {
+            ids.add(booking.getId());
+        }
+        return ids;
+    }
+}
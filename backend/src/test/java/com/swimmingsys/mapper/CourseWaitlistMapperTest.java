@@ -0,0 +1,89 @@
+package com.swimmingsys.mapper;
+
+import com.baomidou.mybatisplus.core.MybatisConfiguration;
+import com.baomidou.mybatisplus.core.MybatisSqlSessionFactoryBuilder;
+import com.swimmingsys.model.entity.CourseWaitlist;
+import com.swimmingsys.model.vo.WaitlistVO;
+import org.apache.ibatis.mapping.Environment;
+import org.apache.ibatis.session.SqlSession;
+import org.apache.ibatis.session.SqlSessionFactory;
+import org.apache.ibatis.transaction.jdbc.JdbcTransactionFactory;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.jdbc.datasource.init.ResourceDatabasePopulator;
+
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * 候补排队位置查询测试
+ * 数据库使用嵌入式H2（MySQL兼容模式）
+ */
+class CourseWaitlistMapperTest {
+
+    private SqlSession sqlSession;
+
+    private CourseWaitlistMapper courseWaitlistMapper;
+
+    @BeforeEach
+    void setUp() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:waitlist_position;MODE=MySQL;DATABASE_TO_LOWER=TRUE;NON_KEYWORDS=USER");
+        dataSource.setUser("sa");
+
+        MybatisConfiguration configuration = new MybatisConfiguration();
+        configuration.setMapUnderscoreToCamelCase(true);
+        configuration.setEnvironment(new Environment("test", new JdbcTransactionFactory(), dataSource));
+        configuration.addMapper(CourseWaitlistMapper.class);
+        SqlSessionFactory sqlSessionFactory = new MybatisSqlSessionFactoryBuilder().build(configuration);
+
+        sqlSession = sqlSessionFactory.openSession(true);
+        new ResourceDatabasePopulator(new ClassPathResource("benchmark/schema.sql"))
+                .populate(sqlSession.getConnection());
+        courseWaitlistMapper = sqlSession.getMapper(CourseWaitlistMapper.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        // 内存库在最后一个连接关闭时销毁，每个测试使用新的数据
+        sqlSession.close();
+    }
+
+    /**
+     * 排队位置只计算同一课程中排在前面的候补中记录，已取消的候补和其他课程的候补不计入
+     */
+    @Test
+    void positionsCountOnlyWaitingEntriesAheadInSameCourse() {
+        Long first = join(5L, 1);
+        join(5L, 0); // 已取消
+        Long second = join(5L, 1);
+        Long third = join(5L, 1);
+        Long otherCourse = join(6L, 1);
+
+        Map<Long, Long> positions = courseWaitlistMapper
+                .selectPositions(Arrays.asList(first, second, third, otherCourse), 1).stream()
+                .collect(Collectors.toMap(WaitlistVO::getId, WaitlistVO::getPosition));
+
+        assertEquals(1L, positions.get(first));
+        assertEquals(2L, positions.get(second));
+        assertEquals(3L, positions.get(third));
+        assertEquals(1L, positions.get(otherCourse));
+    }
+
+    private Long join(Long courseId, int status) {
+        CourseWaitlist waitlist = new CourseWaitlist();
+        waitlist.setCourseId(courseId);
+        waitlist.setUserId(7L);
+        waitlist.setJoinTime(LocalDateTime.now());
+        waitlist.setStatus(status);
+        courseWaitlistMapper.insert(waitlist);
+        return waitlist.getId();
+    }
+}
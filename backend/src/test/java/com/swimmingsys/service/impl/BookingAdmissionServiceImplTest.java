@@ -0,0 +1,126 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.model.vo.AdmissionMetricsVO;
+import com.swimmingsys.model.vo.AdmissionTicketVO;
+import com.swimmingsys.model.vo.BookingVO;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * 预约排队准入服务测试
+ * 确认预约任务用计数器和闩锁模拟，验证全局并发上限和排队超时
+ */
+class BookingAdmissionServiceImplTest {
+
+    private BookingAdmissionServiceImpl admissionService;
+
+    /**
+     * 放行阻塞中的确认预约任务
+     */
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+
+    private final AtomicInteger maxInFlight = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        admissionService = new BookingAdmissionServiceImpl();
+        ReflectionTestUtils.setField(admissionService, "enabled", true);
+        ReflectionTestUtils.setField(admissionService, "concurrency", 2);
+        ReflectionTestUtils.setField(admissionService, "maxConcurrency", 2);
+        ReflectionTestUtils.setField(admissionService, "queueCapacity", 100);
+        ReflectionTestUtils.setField(admissionService, "queueTimeoutSeconds", 1L);
+        ReflectionTestUtils.setField(admissionService, "fastResponseMillis", 0L);
+        ReflectionTestUtils.setField(admissionService, "ticketTtlSeconds", 300L);
+        admissionService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        admissionService.shutdown();
+    }
+
+    /**
+     * 多门课程同时开放时，同时处理的确认预约数不超过全局并发上限
+     */
+    @Test
+    void confirmationsAcrossCoursesShareGlobalLimit() throws Exception {
+        CountDownLatch started = new CountDownLatch(2);
+        for (long courseId = 1; courseId <= 3; courseId++) {
+            for (long userId = 1; userId <= 2; userId++) {
+                admissionService.submit(courseId, userId, () -> {
+                    maxInFlight.accumulateAndGet(inFlight.incrementAndGet(), Math::max);
+                    started.countDown();
+                    await(release);
+                    inFlight.decrementAndGet();
+                    return new BookingVO();
+                });
+            }
+        }
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        // 留出时间让其他课程的处理线程尝试获取许可
+        Thread.sleep(200);
+
+        AdmissionMetricsVO metrics = admissionService.getMetrics();
+        assertEquals(2, metrics.getInFlightCount());
+        assertEquals(2, maxInFlight.get());
+    }
+
+    /**
+     * 排队超过截止时间仍未开始处理的凭证失败，同一会员可以重新提交
+     */
+    @Test
+    void queuedTicketTimesOutAndReleasesDuplicateGuard() throws Exception {
+        ReflectionTestUtils.setField(admissionService, "maxConcurrency", 1);
+        admissionService.init();
+        CountDownLatch started = new CountDownLatch(1);
+        admissionService.submit(1L, 1L, () -> {
+            started.countDown();
+            await(release);
+            return new BookingVO();
+        });
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+
+        AtomicInteger executed = new AtomicInteger();
+        AdmissionTicketVO queued = admissionService.submit(2L, 7L, () -> {
+            executed.incrementAndGet();
+            return new BookingVO();
+        });
+        assertEquals("QUEUED", queued.getStatus());
+
+        Thread.sleep(1500);
+        AdmissionTicketVO timedOut = admissionService.getTicket(queued.getTicketId(), 7L);
+        assertEquals("TIMEOUT", timedOut.getStatus());
+        assertEquals(1L, admissionService.getMetrics().getCourses().stream()
+                .filter(course -> course.getCourseId() == 2L)
+                .findFirst().get().getTimedOutCount());
+
+        // 超时后不再执行确认预约
+        release.countDown();
+        Thread.sleep(200);
+        assertEquals(0, executed.get());
+
+        AdmissionTicketVO resubmitted = admissionService.submit(2L, 7L, BookingVO::new);
+        assertNotEquals(queued.getTicketId(), resubmitted.getTicketId());
+    }
+
+    private void await(CountDownLatch latch) {
+        try {
+            latch.await(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
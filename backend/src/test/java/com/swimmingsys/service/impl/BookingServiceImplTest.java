@@ -0,0 +1,352 @@
+package com.swimmingsys.service.impl;
+
+import com.baomidou.mybatisplus.core.conditions.Wrapper;
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.baomidou.mybatisplus.extension.plugins.pagination.Page;
+import com.swimmingsys.common.RoleConstant;
+import com.swimmingsys.mapper.BookingMapper;
+import com.swimmingsys.mapper.CourseMapper;
+import com.swimmingsys.mapper.CourseWaitlistMapper;
+import com.swimmingsys.mapper.UserMapper;
+import com.swimmingsys.model.dto.BookingBatchCancelDTO;
+import com.swimmingsys.model.dto.BookingGroupDTO;
+import com.swimmingsys.model.dto.BookingQueryDTO;
+import com.swimmingsys.model.entity.Booking;
+import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.model.entity.CourseWaitlist;
+import com.swimmingsys.model.entity.User;
+import com.swimmingsys.model.vo.BookingVO;
+import com.swimmingsys.model.vo.GroupBookingVO;
+import com.swimmingsys.model.vo.WaitlistVO;
+import com.swimmingsys.service.BookingArchiveService;
+import com.swimmingsys.service.CoachService;
+import com.swimmingsys.service.CourseCatalogCacheService;
+import com.swimmingsys.service.SeatEventService;
+import com.swimmingsys.service.SeatInventoryService;
+import com.swimmingsys.service.StatisticsService;
+import com.swimmingsys.service.TimetableService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 预约服务测试
+ * 数据访问层和其他服务均为Mock，只验证业务流程和对数据访问层的调用
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class BookingServiceImplTest {
+
+    @Mock
+    private BookingMapper bookingMapper;
+
+    @Mock
+    private CourseMapper courseMapper;
+
+    @Mock
+    private CoachService coachService;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private StatisticsService statisticsService;
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    private CourseWaitlistMapper courseWaitlistMapper;
+
+    @Mock
+    private CourseCatalogCacheService courseCatalogCacheService;
+
+    @Mock
+    private SeatEventService seatEventService;
+
+    @Mock
+    private BookingArchiveService bookingArchiveService;
+
+    @Mock
+    private TimetableService timetableService;
+
+    @InjectMocks
+    private BookingServiceImpl bookingService;
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(bookingService, "seatStrategy", "optimistic");
+    }
+
+    /**
+     * 只取消预约时课程保持发布，候补名单不失效
+     */
+    @Test
+    void cancelCourseBookingsKeepsWaitlistWhenCourseStaysPublished() {
+        BookingBatchCancelDTO dto = new BookingBatchCancelDTO();
+        dto.setCourseIds(Collections.singletonList(5L));
+        Map<String, Object> result = bookingService.cancelCourseBookings(dto);
+
+        verify(courseWaitlistMapper, never()).update(any(), any(Wrapper.class));
+        verify(courseMapper, never()).update(any(), any(Wrapper.class));
+        assertEquals(0, result.get("expiredWaitlistCount"));
+    }
+
+    /**
+     * 只取消预约时释放的名额按加入顺序转给候补会员，候补为空后归还多占用的名额
+     */
+    @Test
+    void cancelCourseBookingsPromotesWaitlistIntoFreedSeats() {
+        when(bookingMapper.update(isNull(), any(Wrapper.class))).thenReturn(2);
+        Course course = new Course();
+        course.setId(5L);
+        course.setStatus(1);
+        course.setIsDelete(0);
+        course.setCapacity(10);
+        course.setCurrentCount(8);
+        course.setStartTime(LocalDateTime.now().plusDays(1));
+        course.setEndTime(LocalDateTime.now().plusDays(1).plusHours(1));
+        when(courseMapper.selectBatchIds(anyCollection())).thenReturn(Collections.singletonList(course));
+        when(courseMapper.incrementCurrentCount(5L)).thenReturn(1);
+
+        // 候补名单中只有会员7
+        CourseWaitlist waitlist = new CourseWaitlist();
+        waitlist.setId(30L);
+        waitlist.setCourseId(5L);
+        waitlist.setUserId(7L);
+        when(courseWaitlistMapper.selectOne(any(Wrapper.class))).thenReturn(waitlist, (CourseWaitlist) null);
+        when(courseWaitlistMapper.update(any(CourseWaitlist.class), any(Wrapper.class))).thenReturn(1);
+        User member = new User();
+        member.setId(7L);
+        member.setRole(RoleConstant.MEMBER);
+        member.setStatus(1);
+        when(userMapper.selectById(7L)).thenReturn(member);
+        when(bookingMapper.selectCount(any(Wrapper.class))).thenReturn(0L);
+        when(bookingMapper.insert(any(Booking.class))).thenReturn(1);
+
+        BookingBatchCancelDTO dto = new BookingBatchCancelDTO();
+        dto.setCourseIds(Collections.singletonList(5L));
+        Map<String, Object> result = bookingService.cancelCourseBookings(dto);
+
+        assertEquals(1, result.get("promotedCount"));
+        ArgumentCaptor<Booking> promoted = ArgumentCaptor.forClass(Booking.class);
+        verify(bookingMapper).insert(promoted.capture());
+        assertEquals(7L, promoted.getValue().getUserId());
+        assertEquals(1, promoted.getValue().getStatus());
+        verify(courseMapper, times(2)).incrementCurrentCount(5L);
+        verify(courseMapper).decrementCurrentCount(5L);
+    }
+
+    /**
+     * 同时取消课程时课程下架，候补名单失效
+     */
+    @Test
+    void cancelCourseBookingsExpiresWaitlistWhenCourseIsCancelled() {
+        when(courseWaitlistMapper.update(isNull(), any(Wrapper.class))).thenReturn(3);
+
+        BookingBatchCancelDTO dto = new BookingBatchCancelDTO();
+        dto.setCourseIds(Collections.singletonList(5L));
+        dto.setCancelCourse(true);
+        Map<String, Object> result = bookingService.cancelCourseBookings(dto);
+
+        verify(courseMapper).update(isNull(), any(Wrapper.class));
+        verify(courseWaitlistMapper).update(isNull(), any(Wrapper.class));
+        verify(timetableService).markCoursesChanged(Collections.singleton(5L));
+        assertEquals(3, result.get("expiredWaitlistCount"));
+    }
+
+    /**
+     * 一页N条预约只批量查询一次用户、一次课程、一次教练姓名，查询次数与N无关
+     */
+    @Test
+    void getAllBookingsLoadsRelatedDataInOneBatchPerPage() {
+        int pageSize = 20;
+        List<Booking> bookings = new ArrayList<>(pageSize);
+        for (long i = 1; i <= pageSize; i++) {
+            Booking booking = new Booking();
+            booking.setId(i);
+            booking.setUserId(100 + i % 5);
+            booking.setCourseId(200 + i % 4);
+            booking.setStatus(1);
+            bookings.add(booking);
+        }
+        Page<Booking> bookingPage = new Page<>(1, pageSize, 50);
+        bookingPage.setRecords(bookings);
+        when(bookingMapper.selectPage(any(Page.class), any(Wrapper.class))).thenReturn(bookingPage);
+
+        List<User> users = new ArrayList<>();
+        for (long userId = 100; userId < 105; userId++) {
+            User user = new User();
+            user.setId(userId);
+            user.setUserName("会员" + userId);
+            users.add(user);
+        }
+        when(userMapper.selectBatchIds(anyCollection())).thenReturn(users);
+
+        List<Course> courses = new ArrayList<>();
+        for (long courseId = 200; courseId < 204; courseId++) {
+            Course course = new Course();
+            course.setId(courseId);
+            course.setCourseName("课程" + courseId);
+            course.setCoachId(300 + courseId % 2);
+            courses.add(course);
+        }
+        when(courseMapper.selectBatchIds(anyCollection())).thenReturn(courses);
+        Map<Long, String> coachNames = new HashMap<>();
+        coachNames.put(300L, "张教练");
+        coachNames.put(301L, "李教练");
+        when(coachService.getCoachNameMap(anyCollection())).thenReturn(coachNames);
+
+        BookingQueryDTO queryDTO = new BookingQueryDTO();
+        queryDTO.setPageSize(pageSize);
+        IPage<BookingVO> page = bookingService.getAllBookings(queryDTO);
+
+        assertEquals(pageSize, page.getRecords().size());
+        BookingVO first = page.getRecords().get(0);
+        assertEquals("会员101", first.getUserName());
+        assertEquals("课程201", first.getCourseName());
+        assertEquals("李教练", first.getCoachName());
+
+        verify(userMapper, times(1)).selectBatchIds(anyCollection());
+        verify(courseMapper, times(1)).selectBatchIds(anyCollection());
+        verify(coachService, times(1)).getCoachNameMap(anyCollection());
+        verify(userMapper, never()).selectById(any());
+        verify(courseMapper, never()).selectById(any());
+        verify(coachService, never()).getCoachById(any());
+    }
+
+    /**
+     * 会员团体预约时名单中有未关联到本人的会员，整体拒绝且不查询课程、不占用名额
+     */
+    @Test
+    void groupBookingRejectsMembersNotLinkedToCaller() {
+        User parent = member(2L, 0L);
+        when(userMapper.selectBatchIds(anyCollection()))
+                .thenReturn(Arrays.asList(member(3L, 2L), member(4L, 9L)));
+        BookingGroupDTO dto = new BookingGroupDTO();
+        dto.setCourseId(5L);
+        dto.setUserIds(Arrays.asList(3L, 4L));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> bookingService.groupBooking(dto, parent));
+        assertEquals("只能为本人或已关联的家庭成员预约", e.getMessage());
+        verify(courseMapper, never()).selectById(any());
+        verify(courseMapper, never()).occupySeats(anyLong(), anyInt(), any());
+    }
+
+    /**
+     * 会员可以为本人和已关联的家庭成员一次预约同一课程
+     */
+    @Test
+    void groupBookingAllowsCallerAndLinkedFamilyMembers() {
+        User parent = member(2L, 0L);
+        when(userMapper.selectBatchIds(anyCollection()))
+                .thenReturn(Arrays.asList(parent, member(3L, 2L)));
+        Course course = new Course();
+        course.setId(5L);
+        course.setCourseName("儿童游泳启蒙班");
+        course.setStatus(1);
+        course.setIsDelete(0);
+        course.setCapacity(10);
+        course.setCurrentCount(0);
+        course.setStartTime(LocalDateTime.now().plusDays(1));
+        course.setEndTime(LocalDateTime.now().plusDays(1).plusHours(1));
+        when(courseMapper.selectById(5L)).thenReturn(course);
+        when(courseMapper.occupySeats(eq(5L), eq(2), any())).thenReturn(1);
+        when(bookingMapper.insertBatch(anyList())).thenAnswer(invocation -> {
+            List<Booking> bookings = invocation.getArgument(0);
+            for (Booking booking : bookings) {
+                booking.setId(100L + booking.getUserId());
+            }
+            return bookings.size();
+        });
+        BookingGroupDTO dto = new BookingGroupDTO();
+        dto.setCourseId(5L);
+        dto.setUserIds(Arrays.asList(2L, 3L));
+
+        GroupBookingVO result = bookingService.groupBooking(dto, parent);
+
+        assertTrue(result.getSuccess());
+        assertEquals(2, result.getBookedCount());
+        verify(userMapper, times(1)).selectBatchIds(anyCollection());
+    }
+
+    /**
+     * 我的候补列表中候补中记录的排队位置一次分组查询，不逐条计数
+     */
+    @Test
+    void getMyWaitlistLoadsPositionsInOneQuery() {
+        User member = member(7L, 0L);
+        CourseWaitlist waiting = waitlist(31L, 5L, 1);
+        CourseWaitlist anotherWaiting = waitlist(32L, 6L, 1);
+        CourseWaitlist promoted = waitlist(30L, 5L, 2);
+        when(courseWaitlistMapper.selectList(any(Wrapper.class)))
+                .thenReturn(Arrays.asList(anotherWaiting, waiting, promoted));
+        when(courseMapper.selectBatchIds(anyCollection())).thenReturn(Collections.emptyList());
+        WaitlistVO position31 = new WaitlistVO();
+        position31.setId(31L);
+        position31.setPosition(2L);
+        WaitlistVO position32 = new WaitlistVO();
+        position32.setId(32L);
+        position32.setPosition(1L);
+        when(courseWaitlistMapper.selectPositions(Arrays.asList(32L, 31L), 1))
+                .thenReturn(Arrays.asList(position31, position32));
+
+        List<WaitlistVO> result = bookingService.getMyWaitlist(member);
+
+        assertEquals(1L, result.get(0).getPosition());
+        assertEquals(2L, result.get(1).getPosition());
+        assertNull(result.get(2).getPosition());
+        verify(courseWaitlistMapper, times(1)).selectPositions(anyCollection(), eq(1));
+        verify(courseWaitlistMapper, never()).selectCount(any(Wrapper.class));
+    }
+
+    private CourseWaitlist waitlist(Long id, Long courseId, int status) {
+        CourseWaitlist waitlist = new CourseWaitlist();
+        waitlist.setId(id);
+        waitlist.setCourseId(courseId);
+        waitlist.setUserId(7L);
+        waitlist.setStatus(status);
+        return waitlist;
+    }
+
+    private User member(Long id, Long guardianId) {
+        User user = new User();
+        user.setId(id);
+        user.setUserName("会员" + id);
+        user.setRole(RoleConstant.MEMBER);
+        user.setStatus(1);
+        user.setGuardianId(guardianId);
+        return user;
+    }
+}
@@ -0,0 +1,88 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.model.entity.Course;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * 教练排课索引服务测试
+ * 手动开启事务同步模拟事务提交和回滚，验证索引只在事务提交后更新
+ */
+class CoachScheduleServiceImplTest {
+
+    private static final LocalDateTime START_TIME = LocalDateTime.now().plusDays(1).withNano(0);
+
+    private final CoachScheduleServiceImpl coachScheduleService = new CoachScheduleServiceImpl();
+
+    @AfterEach
+    void tearDown() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void putIsDiscardedWhenTransactionRollsBack() {
+        TransactionSynchronizationManager.initSynchronization();
+        coachScheduleService.put(course(10L));
+        rollback();
+
+        assertNull(coachScheduleService.findConflict(1L, START_TIME, START_TIME.plusHours(1), null));
+    }
+
+    @Test
+    void putTakesEffectAfterCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        coachScheduleService.put(course(10L));
+        assertNull(coachScheduleService.findConflict(1L, START_TIME, START_TIME.plusHours(1), null));
+        commit();
+
+        Course conflict = coachScheduleService.findConflict(1L, START_TIME, START_TIME.plusHours(1), null);
+        assertNotNull(conflict);
+        assertEquals(10L, conflict.getId());
+    }
+
+    @Test
+    void removeIsDiscardedWhenTransactionRollsBack() {
+        coachScheduleService.put(course(10L));
+
+        TransactionSynchronizationManager.initSynchronization();
+        coachScheduleService.remove(10L);
+        rollback();
+
+        assertNotNull(coachScheduleService.findConflict(1L, START_TIME, START_TIME.plusHours(1), null));
+    }
+
+    private void commit() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCommit();
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_COMMITTED);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private void rollback() {
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            synchronization.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK);
+        }
+        TransactionSynchronizationManager.clearSynchronization();
+    }
+
+    private Course course(Long id) {
+        Course course = new Course();
+        course.setId(id);
+        course.setCoachId(1L);
+        course.setCourseName("自由泳提高班");
+        course.setStartTime(START_TIME);
+        course.setEndTime(START_TIME.plusHours(1));
+        return course;
+    }
+}
@@ -0,0 +1,177 @@
+package com.swimmingsys.service.impl;
+
+import com.baomidou.mybatisplus.core.metadata.IPage;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.swimmingsys.mapper.CourseMapper;
+import com.swimmingsys.model.dto.CourseQueryDTO;
+import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.model.vo.CourseVO;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.BeanUtils;
+import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import redis.embedded.RedisServer;
+
+import java.io.IOException;
+import java.net.ServerSocket;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+
+/**
+ * 可预约课程目录缓存测试
+ * 使用嵌入式Redis执行真实的缓存脚本，数据库由内存中的课程列表代替
+ */
+class CourseCatalogCacheServiceImplTest {
+
+    private static RedisServer redisServer;
+
+    private static LettuceConnectionFactory connectionFactory;
+
+    private StringRedisTemplate stringRedisTemplate;
+
+    private CourseCatalogCacheServiceImpl cacheService;
+
+    private final List<Course> courses = new ArrayList<>();
+
+    private final AtomicInteger catalogLoads = new AtomicInteger();
+
+    private final List<List<Long>> courseLoads = new ArrayList<>();
+
+    @BeforeAll
+    static void startRedis() throws IOException {
+        int port;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            port = socket.getLocalPort();
+        }
+        redisServer = RedisServer.builder().port(port).setting("bind 127.0.0.1").build();
+        redisServer.start();
+        connectionFactory = new LettuceConnectionFactory("127.0.0.1", port);
+        connectionFactory.afterPropertiesSet();
+    }
+
+    @AfterAll
+    static void stopRedis() {
+        if (connectionFactory != null) {
+            connectionFactory.destroy();
+        }
+        if (redisServer != null) {
+            redisServer.stop();
+        }
+    }
+
+    @BeforeEach
+    void setUp() {
+        stringRedisTemplate = new StringRedisTemplate(connectionFactory);
+        stringRedisTemplate.getConnectionFactory().getConnection().flushAll();
+        cacheService = new CourseCatalogCacheServiceImpl();
+        ReflectionTestUtils.setField(cacheService, "stringRedisTemplate", stringRedisTemplate);
+        ReflectionTestUtils.setField(cacheService, "courseMapper", mock(CourseMapper.class));
+        ReflectionTestUtils.setField(cacheService, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+    }
+
+    /**
+     * 每页只加载本页课程的信息，已满课程不计入总数；第二页复用缓存的课程ID列表
+     */
+    @Test
+    void pageLoadsOnlyItsOwnCoursesAndSkipsFullCourses() {
+        for (long id = 1; id <= 5; id++) {
+            courses.add(course(id, "儿童班", id == 2 ? 10 : 3));
+        }
+
+        IPage<CourseVO> first = getPage(query("儿童班", 1));
+        assertEquals(4, first.getTotal());
+        assertEquals(Arrays.asList(1L, 3L), ids(first));
+        assertEquals(Collections.singletonList(Arrays.asList(1L, 3L)), courseLoads);
+
+        IPage<CourseVO> second = getPage(query("儿童班", 2));
+        assertEquals(Arrays.asList(4L, 5L), ids(second));
+        assertEquals(Arrays.asList(4L, 5L), courseLoads.get(1));
+        assertEquals(1, catalogLoads.get());
+    }
+
+    /**
+     * 课程变更只使查询条件能匹配该课程（修改前或修改后）的目录失效
+     */
+    @Test
+    void invalidateCoursesDropsOnlyMatchingCatalogs() {
+        courses.add(course(1L, "儿童班", 0));
+        courses.add(course(2L, "成人班", 0));
+        getPage(query("儿童班", 1));
+        getPage(query("成人班", 1));
+        assertEquals(2, catalogLoads.get());
+
+        // 儿童班课程改名不影响成人班目录
+        Course before = courses.get(0);
+        Course after = new Course();
+        BeanUtils.copyProperties(before, after);
+        after.setCourseName("儿童启蒙班");
+        cacheService.invalidateCourses(Arrays.asList(before, after));
+
+        getPage(query("成人班", 1));
+        assertEquals(2, catalogLoads.get());
+        getPage(query("儿童班", 1));
+        assertEquals(3, catalogLoads.get());
+    }
+
+    private IPage<CourseVO> getPage(CourseQueryDTO queryDTO) {
+        Function<List<Long>, List<CourseVO>> courseLoader = ids -> {
+            courseLoads.add(new ArrayList<>(ids));
+            return courses.stream()
+                    .filter(course -> ids.contains(course.getId()))
+                    .map(course -> {
+                        CourseVO courseVO = new CourseVO();
+                        BeanUtils.copyProperties(course, courseVO);
+                        return courseVO;
+                    })
+                    .collect(Collectors.toList());
+        };
+        return cacheService.getCatalogPage(queryDTO, () -> {
+            catalogLoads.incrementAndGet();
+            return courses.stream()
+                    .filter(course -> course.getCourseType().equals(queryDTO.getCourseType()))
+                    .collect(Collectors.toList());
+        }, courseLoader);
+    }
+
+    private CourseQueryDTO query(String courseType, int pageNum) {
+        CourseQueryDTO queryDTO = new CourseQueryDTO();
+        queryDTO.setCourseType(courseType);
+        queryDTO.setBookableOnly(true);
+        queryDTO.setPageNum(pageNum);
+        queryDTO.setPageSize(2);
+        return queryDTO;
+    }
+
+    private Course course(Long id, String courseType, int currentCount) {
+        Course course = new Course();
+        course.setId(id);
+        course.setCourseName(courseType + id);
+        course.setCourseType(courseType);
+        course.setCoachId(1L);
+        course.setStartTime(LocalDateTime.now().plusDays(id).withNano(0));
+        course.setEndTime(course.getStartTime().plusHours(1));
+        course.setCapacity(10);
+        course.setCurrentCount(currentCount);
+        course.setStatus(1);
+        course.setVersion(1);
+        return course;
+    }
+
+    private List<Long> ids(IPage<CourseVO> page) {
+        return page.getRecords().stream().map(CourseVO::getId).collect(Collectors.toList());
+    }
+}
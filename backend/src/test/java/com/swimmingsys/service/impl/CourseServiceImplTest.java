@@ -0,0 +1,212 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.mapper.BookingMapper;
+import com.swimmingsys.mapper.CoachMapper;
+import com.swimmingsys.mapper.CourseMapper;
+import com.swimmingsys.model.dto.CourseAddDTO;
+import com.swimmingsys.model.dto.CourseSeriesDTO;
+import com.swimmingsys.model.dto.CourseUpdateDTO;
+import com.swimmingsys.model.entity.Coach;
+import com.swimmingsys.model.entity.Course;
+import com.swimmingsys.model.vo.CourseSeriesVO;
+import com.swimmingsys.service.CoachScheduleService;
+import com.swimmingsys.service.CoachService;
+import com.swimmingsys.service.CourseCatalogCacheService;
+import com.swimmingsys.service.SeatInventoryService;
+import com.swimmingsys.service.TimetableService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.temporal.TemporalAdjusters;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.ArgumentMatchers.isNull;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 课程服务测试
+ * 数据访问层和其他服务均为Mock，只验证业务流程和对数据访问层的调用
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class CourseServiceImplTest {
+
+    @Mock
+    private CourseMapper courseMapper;
+
+    @Mock
+    private CoachMapper coachMapper;
+
+    @Mock
+    private BookingMapper bookingMapper;
+
+    @Mock
+    private SeatInventoryService seatInventoryService;
+
+    @Mock
+    private CoachScheduleService coachScheduleService;
+
+    @Mock
+    private CoachService coachService;
+
+    @Mock
+    private CourseCatalogCacheService courseCatalogCacheService;
+
+    @Mock
+    private TimetableService timetableService;
+
+    @InjectMocks
+    private CourseServiceImpl courseService;
+
+    @BeforeEach
+    void setUp() {
+        Coach coach = new Coach();
+        coach.setId(1L);
+        coach.setStatus(1);
+        coach.setIsDelete(0);
+        when(coachMapper.selectById(1L)).thenReturn(coach);
+        when(coachMapper.selectByIdForUpdate(1L)).thenReturn(coach);
+    }
+
+    /**
+     * 系列中已删除的课程同样占用 uk_series_start，重复提交时跳过且不重新生成，结果中单独计数
+     */
+    @Test
+    void addCourseSeriesSkipsDeletedSessions() {
+        LocalDate monday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        CourseSeriesDTO seriesDTO = new CourseSeriesDTO();
+        seriesDTO.setSeriesKey("freestyle-monday-wednesday");
+        seriesDTO.setCourseName("自由泳提高班");
+        seriesDTO.setCourseType("提高班");
+        seriesDTO.setCoachId(1L);
+        seriesDTO.setStartDate(monday);
+        seriesDTO.setWeeks(1);
+        seriesDTO.setDaysOfWeek(Arrays.asList(1, 3));
+        seriesDTO.setStartTime(LocalTime.of(9, 0));
+        seriesDTO.setEndTime(LocalTime.of(10, 0));
+        seriesDTO.setCapacity(10);
+        seriesDTO.setStatus(1);
+
+        // 周一的课程仍有效，周三的课程已被管理员删除
+        Course existing = new Course();
+        existing.setStartTime(monday.atTime(9, 0));
+        existing.setIsDelete(0);
+        Course deleted = new Course();
+        deleted.setStartTime(monday.plusDays(2).atTime(9, 0));
+        deleted.setIsDelete(1);
+        when(courseMapper.selectSeriesStartTimes("freestyle-monday-wednesday"))
+                .thenReturn(Arrays.asList(existing, deleted));
+
+        CourseSeriesVO seriesVO = courseService.addCourseSeries(seriesDTO);
+
+        assertEquals(2, seriesVO.getTotalCount());
+        assertEquals(0, seriesVO.getCreatedCount());
+        assertEquals(1, seriesVO.getSkippedCount());
+        assertEquals(1, seriesVO.getDeletedSkippedCount());
+        verify(coachScheduleService, never()).findConflict(any(), any(), any(), any());
+        verify(courseMapper, never()).insert(any(Course.class));
+    }
+
+    /**
+     * 内存索引未包含其他节点新增的课程时，锁定教练行后查询数据库发现冲突，不插入课程
+     */
+    @Test
+    void addCourseRechecksConflictInDatabaseUnderCoachLock() {
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        CourseAddDTO addDTO = new CourseAddDTO();
+        addDTO.setCourseName("蛙泳基础班");
+        addDTO.setCourseType("基础班");
+        addDTO.setCoachId(1L);
+        addDTO.setStartTime(startTime);
+        addDTO.setEndTime(startTime.plusHours(1));
+        addDTO.setCapacity(10);
+        addDTO.setStatus(1);
+        when(courseMapper.selectCoachConflict(eq(1L), eq(startTime), eq(startTime.plusHours(1)), isNull()))
+                .thenReturn(course(99L, startTime.minusMinutes(30), startTime.plusMinutes(30)));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> courseService.addCourse(addDTO));
+
+        assertTrue(e.getMessage().contains("时间冲突"));
+        verify(coachMapper).selectByIdForUpdate(1L);
+        verify(courseMapper, never()).insert(any(Course.class));
+    }
+
+    /**
+     * 调整时间未更换教练时同样锁定原教练行并查询数据库复核（排除课程自身）
+     */
+    @Test
+    void updateCourseRechecksConflictInDatabaseUnderCoachLock() {
+        LocalDateTime startTime = LocalDateTime.now().plusDays(1).withHour(9).withMinute(0).withSecond(0).withNano(0);
+        when(courseMapper.selectById(5L)).thenReturn(course(5L, startTime, startTime.plusHours(1)));
+        LocalDateTime newStartTime = startTime.plusHours(2);
+        when(courseMapper.selectCoachConflict(1L, newStartTime, newStartTime.plusHours(1), 5L))
+                .thenReturn(course(99L, newStartTime, newStartTime.plusHours(1)));
+        CourseUpdateDTO updateDTO = new CourseUpdateDTO();
+        updateDTO.setStartTime(newStartTime);
+        updateDTO.setEndTime(newStartTime.plusHours(1));
+
+        assertThrows(RuntimeException.class, () -> courseService.updateCourse(5L, updateDTO));
+
+        verify(coachMapper).selectByIdForUpdate(1L);
+        verify(courseMapper, never()).updateById(any(Course.class));
+    }
+
+    /**
+     * 周期排课一次查询系列时间范围内的课程复核冲突，有冲突时整个系列不插入
+     */
+    @Test
+    void addCourseSeriesRechecksConflictsInDatabaseUnderCoachLock() {
+        LocalDate monday = LocalDate.now().plusWeeks(1).with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+        CourseSeriesDTO seriesDTO = new CourseSeriesDTO();
+        seriesDTO.setSeriesKey("backstroke-monday");
+        seriesDTO.setCourseName("仰泳基础班");
+        seriesDTO.setCourseType("基础班");
+        seriesDTO.setCoachId(1L);
+        seriesDTO.setStartDate(monday);
+        seriesDTO.setWeeks(3);
+        seriesDTO.setDaysOfWeek(Arrays.asList(1));
+        seriesDTO.setStartTime(LocalTime.of(9, 0));
+        seriesDTO.setEndTime(LocalTime.of(10, 0));
+        seriesDTO.setCapacity(10);
+        seriesDTO.setStatus(1);
+        // 第二周周一其他节点已排课
+        LocalDateTime secondWeek = monday.plusWeeks(1).atTime(9, 30);
+        when(courseMapper.selectCoachCourses(1L, monday.atTime(9, 0), monday.plusWeeks(2).atTime(10, 0)))
+                .thenReturn(Arrays.asList(course(99L, secondWeek, secondWeek.plusHours(1))));
+
+        RuntimeException e = assertThrows(RuntimeException.class, () -> courseService.addCourseSeries(seriesDTO));
+
+        assertTrue(e.getMessage().contains(monday.plusWeeks(1).toString()));
+        verify(coachMapper).selectByIdForUpdate(1L);
+        verify(courseMapper, never()).insert(any(Course.class));
+    }
+
+    private Course course(Long id, LocalDateTime startTime, LocalDateTime endTime) {
+        Course course = new Course();
+        course.setId(id);
+        course.setCourseName("已排课程");
+        course.setCoachId(1L);
+        course.setStartTime(startTime);
+        course.setEndTime(endTime);
+        course.setCurrentCount(0);
+        course.setIsDelete(0);
+        return course;
+    }
+}
@@ -0,0 +1,156 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.mapper.EntranceRecordMapper;
+import com.swimmingsys.model.entity.EntranceRecord;
+import com.swimmingsys.model.vo.EntranceWriteMetricsVO;
+import com.swimmingsys.service.StatisticsService;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.when;
+
+/**
+ * 入场记录异步写入服务测试
+ * 本地日志写入临时目录，数据访问层为Mock
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EntranceRecordWriteServiceImplTest {
+
+    @Mock
+    private EntranceRecordMapper entranceRecordMapper;
+
+    @Mock
+    private StatisticsService statisticsService;
+
+    @InjectMocks
+    private EntranceRecordWriteServiceImpl entranceRecordWriteService;
+
+    @TempDir
+    Path journalDir;
+
+    /**
+     * 已写入数据库的入场码
+     */
+    private final List<String> insertedTokens = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws Exception {
+        ReflectionTestUtils.setField(entranceRecordWriteService, "objectMapper", Jackson2ObjectMapperBuilder.json().build());
+        ReflectionTestUtils.setField(entranceRecordWriteService, "enabled", true);
+        ReflectionTestUtils.setField(entranceRecordWriteService, "journalDir", journalDir.toString());
+        ReflectionTestUtils.setField(entranceRecordWriteService, "batchSize", 100);
+        ReflectionTestUtils.setField(entranceRecordWriteService, "fsync", false);
+        ReflectionTestUtils.setField(entranceRecordWriteService, "maxAttempts", 2);
+        entranceRecordWriteService.init();
+    }
+
+    @AfterEach
+    void tearDown() {
+        entranceRecordWriteService.shutdown();
+    }
+
+    /**
+     * 无法写入的记录在连续失败达到上限后移入死信目录，同一日志文件中的其他记录和后续日志文件正常写入
+     */
+    @Test
+    void poisonRecordIsDeadLetteredAfterMaxAttempts() throws Exception {
+        when(entranceRecordMapper.insertBatchSkipExisting(anyList())).thenAnswer(invocation -> {
+            List<EntranceRecord> records = invocation.getArgument(0);
+            for (EntranceRecord record : records) {
+                if ("bad".equals(record.getQrcodeToken())) {
+                    throw new DataIntegrityViolationException("Data too long for column 'user_name'");
+                }
+            }
+            records.forEach(record -> insertedTokens.add(record.getQrcodeToken()));
+            return records.size();
+        });
+        // 第一个日志文件：token-1、bad，第一次写入失败，保留等待重试
+        entranceRecordWriteService.append(record("token-1"));
+        entranceRecordWriteService.append(record("bad"));
+        entranceRecordWriteService.flush();
+        assertTrue(insertedTokens.isEmpty());
+        assertEquals(2, entranceRecordWriteService.getMetrics().getPendingCount());
+
+        // 第二个日志文件：token-3；第一个日志文件再次失败达到上限，逐条写入，bad 移入死信目录，继续写入后续日志文件
+        entranceRecordWriteService.append(record("token-3"));
+        entranceRecordWriteService.flush();
+        assertEquals(2, insertedTokens.size());
+        assertTrue(insertedTokens.contains("token-1"));
+        assertTrue(insertedTokens.contains("token-3"));
+
+        EntranceWriteMetricsVO metrics = entranceRecordWriteService.getMetrics();
+        assertEquals(0, metrics.getPendingCount());
+        assertEquals(1L, metrics.getDeadLetterCount());
+        List<String> deadLetters = readDeadLetters();
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.get(0).contains("\"bad\""));
+    }
+
+    /**
+     * 数据库不可用时不移入死信目录，日志文件保留等待重试
+     */
+    @Test
+    void databaseOutageKeepsSegmentsForRetry() throws Exception {
+        when(entranceRecordMapper.insertBatchSkipExisting(anyList()))
+                .thenThrow(new DataAccessResourceFailureException("Communications link failure"));
+        entranceRecordWriteService.append(record("token-1"));
+        entranceRecordWriteService.append(record("token-2"));
+
+        for (int i = 0; i < 5; i++) {
+            entranceRecordWriteService.flush();
+        }
+
+        EntranceWriteMetricsVO metrics = entranceRecordWriteService.getMetrics();
+        assertEquals(2, metrics.getPendingCount());
+        assertEquals(0L, metrics.getDeadLetterCount());
+        assertEquals(5L, metrics.getFailedFlushCount());
+        assertFalse(Files.exists(journalDir.resolve("dead-letter")));
+    }
+
+    private EntranceRecord record(String qrcodeToken) {
+        EntranceRecord record = new EntranceRecord();
+        record.setUserId(7L);
+        record.setUserName("张三");
+        record.setQrcodeToken(qrcodeToken);
+        record.setEntranceTime(LocalDateTime.now());
+        record.setVerifierId(1L);
+        record.setVerifierName("管理员");
+        return record;
+    }
+
+    private List<String> readDeadLetters() throws Exception {
+        List<String> lines = new ArrayList<>();
+        try (Stream<Path> files = Files.list(journalDir.resolve("dead-letter"))) {
+            for (Path file : files.collect(Collectors.toList())) {
+                lines.addAll(Files.readAllLines(file, StandardCharsets.UTF_8));
+            }
+        }
+        return lines;
+    }
+}
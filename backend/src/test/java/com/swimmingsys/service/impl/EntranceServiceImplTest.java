@@ -0,0 +1,185 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.mapper.BookingMapper;
+import com.swimmingsys.mapper.EntranceQrcodeMapper;
+import com.swimmingsys.mapper.EntranceRecordMapper;
+import com.swimmingsys.mapper.UserMapper;
+import com.swimmingsys.model.dto.EntranceVerifyDTO;
+import com.swimmingsys.model.entity.EntranceQrcode;
+import com.swimmingsys.model.entity.EntranceRecord;
+import com.swimmingsys.model.entity.User;
+import com.swimmingsys.model.vo.EntranceVerifyResultVO;
+import com.swimmingsys.service.EntranceRecordWriteService;
+import com.swimmingsys.service.EntranceTokenService;
+import com.swimmingsys.service.OccupancyService;
+import com.swimmingsys.service.StatisticsService;
+import com.swimmingsys.utils.EntranceCodeUtil;
+import com.swimmingsys.utils.JwtUtil;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.security.MessageDigest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+/**
+ * 入场服务测试
+ * 签名入场码使用真实的 EntranceCodeUtil，签名函数用SHA-256代替HMAC
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class EntranceServiceImplTest {
+
+    @Mock
+    private EntranceQrcodeMapper entranceQrcodeMapper;
+
+    @Mock
+    private EntranceRecordMapper entranceRecordMapper;
+
+    @Mock
+    private BookingMapper bookingMapper;
+
+    @Mock
+    private StatisticsService statisticsService;
+
+    @Mock
+    private EntranceTokenService entranceTokenService;
+
+    @Mock
+    private UserMapper userMapper;
+
+    @Mock
+    private EntranceRecordWriteService entranceRecordWriteService;
+
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    @Mock
+    private OccupancyService occupancyService;
+
+    @Mock
+    private JwtUtil jwtUtil;
+
+    private final EntranceCodeUtil entranceCodeUtil = new EntranceCodeUtil();
+
+    @InjectMocks
+    private EntranceServiceImpl entranceService;
+
+    private final User verifier = new User();
+
+    @BeforeEach
+    void setUp() {
+        when(jwtUtil.hmacSha256(any(byte[].class)))
+                .thenAnswer(invocation -> MessageDigest.getInstance("SHA-256").digest(invocation.getArgument(0)));
+        ReflectionTestUtils.setField(entranceCodeUtil, "jwtUtil", jwtUtil);
+        ReflectionTestUtils.setField(entranceService, "entranceCodeUtil", entranceCodeUtil);
+        ReflectionTestUtils.setField(entranceService, "tokenStore", "signed");
+        when(entranceTokenService.getTtlSeconds()).thenReturn(300L);
+        when(entranceRecordWriteService.isEnabled()).thenReturn(true);
+        verifier.setId(1L);
+        verifier.setUserName("管理员");
+    }
+
+    /**
+     * 签名入场码验证只访问一次Redis（防重放并取回显示信息），不查询数据库
+     */
+    @Test
+    void verifySignedCodeWithoutDatabaseLookup() {
+        String code = entranceCodeUtil.sign(7L, 11L, System.currentTimeMillis() / 1000L);
+        EntranceQrcode saved = new EntranceQrcode();
+        saved.setUserId(7L);
+        saved.setUserName("张三");
+        saved.setBookingId(11L);
+        saved.setCourseName("自由泳进阶");
+        saved.setCoachName("李教练");
+        when(entranceTokenService.claimSignedCode(eq(7L), anyString(), anyLong())).thenReturn(saved);
+
+        EntranceVerifyDTO verifyDTO = new EntranceVerifyDTO();
+        verifyDTO.setQrcodeToken(code);
+        EntranceVerifyResultVO resultVO = entranceService.verifyEntrance(verifyDTO, verifier);
+
+        assertEquals("张三", resultVO.getUserName());
+        assertEquals("自由泳进阶", resultVO.getCourseInfo().getCourseName());
+        assertEquals("李教练", resultVO.getCourseInfo().getCoachName());
+        verify(entranceRecordWriteService).append(any(EntranceRecord.class));
+        verifyNoInteractions(userMapper, bookingMapper, entranceQrcodeMapper, entranceRecordMapper);
+    }
+
+    /**
+     * 会员生成新入场码后旧码失效
+     */
+    @Test
+    void verifySignedCodeRejectsSupersededCode() {
+        String code = entranceCodeUtil.sign(7L, null, System.currentTimeMillis() / 1000L);
+        when(entranceTokenService.claimSignedCode(eq(7L), anyString(), anyLong()))
+                .thenThrow(new RuntimeException("会员已生成新的入场码，请使用最新的入场码"));
+
+        EntranceVerifyDTO verifyDTO = new EntranceVerifyDTO();
+        verifyDTO.setQrcodeToken(code);
+        assertThrows(RuntimeException.class, () -> entranceService.verifyEntrance(verifyDTO, verifier));
+        verifyNoInteractions(entranceRecordWriteService, userMapper);
+    }
+
+    /**
+     * 在馆人数已满拒绝入场时撤销签名入场码的使用标记，会员可以稍后再次使用
+     */
+    @Test
+    void verifySignedCodeUnclaimsWhenVenueFull() {
+        String code = entranceCodeUtil.sign(7L, null, System.currentTimeMillis() / 1000L);
+        String nonce = entranceCodeUtil.parse(code).getNonce();
+        EntranceQrcode saved = new EntranceQrcode();
+        saved.setUserId(7L);
+        saved.setUserName("张三");
+        when(entranceTokenService.claimSignedCode(eq(7L), eq(nonce), anyLong())).thenReturn(saved);
+        when(occupancyService.isEnabled()).thenReturn(true);
+        when(occupancyService.enter(7L)).thenThrow(new RuntimeException("场馆人数已满，请稍后入场"));
+
+        EntranceVerifyDTO verifyDTO = new EntranceVerifyDTO();
+        verifyDTO.setQrcodeToken(code);
+        assertThrows(RuntimeException.class, () -> entranceService.verifyEntrance(verifyDTO, verifier));
+        verify(entranceTokenService).unclaimSignedCode(7L, nonce);
+        verify(entranceTokenService, never()).restore(any(EntranceQrcode.class));
+        verifyNoInteractions(entranceRecordWriteService);
+    }
+
+    /**
+     * 入场记录保存失败时撤销在馆人数和签名入场码的使用标记
+     */
+    @Test
+    void verifySignedCodeUnclaimsWhenRecordSaveFails() {
+        String code = entranceCodeUtil.sign(7L, null, System.currentTimeMillis() / 1000L);
+        String nonce = entranceCodeUtil.parse(code).getNonce();
+        EntranceQrcode saved = new EntranceQrcode();
+        saved.setUserId(7L);
+        saved.setUserName("张三");
+        when(entranceTokenService.claimSignedCode(eq(7L), eq(nonce), anyLong())).thenReturn(saved);
+        when(occupancyService.isEnabled()).thenReturn(true);
+        when(occupancyService.enter(7L)).thenReturn(1L);
+        doThrow(new RuntimeException("入场记录队列已满，请稍后重试"))
+                .when(entranceRecordWriteService).append(any(EntranceRecord.class));
+
+        EntranceVerifyDTO verifyDTO = new EntranceVerifyDTO();
+        verifyDTO.setQrcodeToken(code);
+        assertThrows(RuntimeException.class, () -> entranceService.verifyEntrance(verifyDTO, verifier));
+        verify(occupancyService).exit(7L);
+        verify(entranceTokenService).unclaimSignedCode(7L, nonce);
+    }
+}
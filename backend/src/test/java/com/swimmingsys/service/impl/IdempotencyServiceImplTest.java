@@ -0,0 +1,154 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.common.Result;
+import com.swimmingsys.common.ResultCode;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.when;
+
+/**
+ * 幂等请求服务测试
+ * Redis读写用内存Map模拟
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class IdempotencyServiceImplTest {
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @InjectMocks
+    private IdempotencyServiceImpl idempotencyService;
+
+    private final Map<String, Object> store = new HashMap<>();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(idempotencyService, "ttlSeconds", 86400L);
+        ReflectionTestUtils.setField(idempotencyService, "processingTimeoutSeconds", 30L);
+        ReflectionTestUtils.setField(idempotencyService, "waitTimeoutMillis", 200L);
+
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(valueOperations.setIfAbsent(anyString(), any(), anyLong(), eq(TimeUnit.SECONDS)))
+                .thenAnswer(invocation -> store.putIfAbsent(invocation.getArgument(0), invocation.getArgument(1)) == null);
+        when(valueOperations.get(anyString())).thenAnswer(invocation -> store.get(invocation.<String>getArgument(0)));
+        doAnswer(invocation -> store.put(invocation.getArgument(0), invocation.getArgument(1)))
+                .when(valueOperations).set(anyString(), any(), anyLong(), eq(TimeUnit.SECONDS));
+        when(redisTemplate.delete(anyString())).thenAnswer(invocation -> store.remove(invocation.<String>getArgument(0)) != null);
+    }
+
+    @Test
+    void replayOfQueuedResultReturnsLatestOutcome() {
+        AtomicInteger executions = new AtomicInteger();
+        AtomicInteger resolutions = new AtomicInteger();
+        Result<String> queued = Result.success(ResultCode.BOOKING_QUEUED, "已进入排队，当前第3位", "ticket-1");
+        Result<String> booked = Result.success("预约成功", "booking-1");
+
+        // 首次请求：排队中
+        Result<String> first = idempotencyService.execute("booking:confirm", 1L, "key-1", () -> {
+            executions.incrementAndGet();
+            return queued;
+        }, stored -> {
+            resolutions.incrementAndGet();
+            return stored;
+        });
+        assertEquals(ResultCode.BOOKING_QUEUED.getCode(), first.getCode());
+
+        // 重放：仍在排队，返回最新排队结果，不重新执行
+        Result<String> stillQueued = idempotencyService.execute("booking:confirm", 1L, "key-1", () -> {
+            executions.incrementAndGet();
+            return queued;
+        }, stored -> {
+            resolutions.incrementAndGet();
+            return Result.success(ResultCode.BOOKING_QUEUED, "已进入排队，当前第1位", stored.getData());
+        });
+        assertEquals("已进入排队，当前第1位", stillQueued.getMessage());
+
+        // 重放：排队已完成，返回预约成功并保存为最终结果
+        Result<String> replay = idempotencyService.execute("booking:confirm", 1L, "key-1", () -> {
+            executions.incrementAndGet();
+            return queued;
+        }, stored -> {
+            resolutions.incrementAndGet();
+            return booked;
+        });
+        assertEquals("预约成功", replay.getMessage());
+        assertEquals("booking-1", replay.getData());
+
+        // 再次重放：直接返回保存的成功结果
+        Result<String> again = idempotencyService.execute("booking:confirm", 1L, "key-1", () -> {
+            executions.incrementAndGet();
+            return queued;
+        }, stored -> {
+            resolutions.incrementAndGet();
+            return stored;
+        });
+        assertEquals("预约成功", again.getMessage());
+
+        assertEquals(1, executions.get());
+        assertEquals(2, resolutions.get());
+    }
+
+    @Test
+    void replayOfQueuedResultThatFailedReleasesKey() {
+        Result<String> queued = Result.success(ResultCode.BOOKING_QUEUED, "已进入排队，当前第2位", "ticket-2");
+        idempotencyService.execute("booking:confirm", 1L, "key-2", () -> queued, stored -> stored);
+
+        Result<String> failed = idempotencyService.execute("booking:confirm", 1L, "key-2", () -> queued,
+                stored -> Result.error("课程名额已满"));
+        assertFalse(failed.getSuccess());
+        assertTrue(store.isEmpty());
+    }
+
+    @Test
+    void replayOfExpiredTicketExecutesAgain() {
+        AtomicInteger executions = new AtomicInteger();
+        Result<String> queued = Result.success(ResultCode.BOOKING_QUEUED, "已进入排队，当前第2位", "ticket-3");
+        idempotencyService.execute("booking:confirm", 1L, "key-3", () -> {
+            executions.incrementAndGet();
+            return queued;
+        }, stored -> stored);
+
+        Result<String> replay = idempotencyService.execute("booking:confirm", 1L, "key-3", () -> {
+            executions.incrementAndGet();
+            return Result.success("预约成功", "booking-3");
+        }, stored -> {
+            throw new RuntimeException("排队凭证不存在或已过期");
+        });
+        assertEquals("预约成功", replay.getMessage());
+        assertEquals(2, executions.get());
+    }
+
+    @Test
+    void queuedResultIsNotStoredWithoutResolver() {
+        Result<String> queued = Result.success(ResultCode.BOOKING_QUEUED, "已进入排队，当前第1位", "ticket-4");
+        idempotencyService.execute("booking:confirm", 1L, "key-4", () -> queued);
+        assertTrue(store.isEmpty());
+    }
+}
@@ -0,0 +1,91 @@
+package com.swimmingsys.service.impl;
+
+import com.swimmingsys.mapper.StatisticsMapper;
+import com.swimmingsys.service.BookingArchiveService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.mockito.junit.jupiter.MockitoSettings;
+import org.mockito.quality.Strictness;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * 统计分析服务测试
+ * 缓存均未命中，只验证统计范围早于归档保留期时合并归档表
+ */
+@ExtendWith(MockitoExtension.class)
+@MockitoSettings(strictness = Strictness.LENIENT)
+class StatisticsServiceImplTest {
+
+    @Mock
+    private StatisticsMapper statisticsMapper;
+
+    @Mock
+    private RedisTemplate<String, Object> redisTemplate;
+
+    @Mock
+    private ValueOperations<String, Object> valueOperations;
+
+    @Mock
+    private BookingArchiveService bookingArchiveService;
+
+    @InjectMocks
+    private StatisticsServiceImpl statisticsService;
+
+    /**
+     * 测试中的归档保留期：早于30天前的预约可能已归档
+     */
+    private static final int RETENTION_DAYS = 30;
+
+    @BeforeEach
+    void setUp() {
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+        when(bookingArchiveService.coversArchive(any(LocalDateTime.class))).thenAnswer(invocation ->
+                invocation.<LocalDateTime>getArgument(0).isBefore(LocalDateTime.now().minusDays(RETENTION_DAYS)));
+        when(statisticsMapper.getBookingTrendByDay(anyInt(), anyBoolean())).thenReturn(Collections.emptyList());
+        when(statisticsMapper.getMonthBookingCount(anyBoolean())).thenReturn(0L);
+        when(statisticsMapper.getLastMonthBookingCount(anyBoolean())).thenReturn(0L);
+        when(statisticsMapper.getMemberCountStats()).thenReturn(Collections.singletonMap("totalMembers", 0L));
+    }
+
+    @Test
+    void bookingTrendWithinRetentionReadsBookingTableOnly() {
+        statisticsService.getBookingTrend(7);
+        verify(statisticsMapper).getBookingTrendByDay(7, false);
+    }
+
+    @Test
+    void bookingTrendBeyondRetentionIncludesArchive() {
+        statisticsService.getBookingTrend(90);
+        verify(statisticsMapper).getBookingTrendByDay(90, true);
+    }
+
+    /**
+     * 上月早于归档保留期时，上月预约数合并归档表
+     */
+    @Test
+    void dashboardMonthCountsFollowRetention() {
+        LocalDateTime monthStart = LocalDate.now().withDayOfMonth(1).atStartOfDay();
+        boolean monthCovered = monthStart.isBefore(LocalDateTime.now().minusDays(RETENTION_DAYS));
+        boolean lastMonthCovered = monthStart.minusMonths(1).isBefore(LocalDateTime.now().minusDays(RETENTION_DAYS));
+
+        statisticsService.getDashboard();
+
+        verify(statisticsMapper).getMonthBookingCount(monthCovered);
+        verify(statisticsMapper).getLastMonthBookingCount(lastMonthCovered);
+    }
+}
@@ -0,0 +1,112 @@
+-- ============================================
+-- 预约压测和数据访问层测试使用的嵌入式数据库表结构（H2 MySQL兼容模式）
+-- 只包含预约流程用到的表，字段和唯一约束与 sql 目录下的建表脚本保持一致
+-- ============================================
+
+CREATE TABLE IF NOT EXISTS `user` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `user_account` VARCHAR(50) NOT NULL,
+    `password` VARCHAR(64) NOT NULL,
+    `user_name` VARCHAR(50) DEFAULT NULL,
+    `phone` VARCHAR(20) DEFAULT NULL,
+    `email` VARCHAR(100) DEFAULT NULL,
+    `gender` TINYINT DEFAULT 0,
+    `avatar` VARCHAR(255) DEFAULT NULL,
+    `role` TINYINT NOT NULL DEFAULT 2,
+    `status` TINYINT NOT NULL DEFAULT 1,
+    `expiration_time` DATETIME DEFAULT NULL,
+    `guardian_id` BIGINT NOT NULL DEFAULT 0,
+    `is_delete` TINYINT NOT NULL DEFAULT 0,
+    `created_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    `updated_time` DATETIME NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`id`),
+    UNIQUE KEY `uk_user_account` (`user_account`)
+);
+
+CREATE TABLE IF NOT EXISTS `coach` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `name` VARCHAR(50) NOT NULL,
+    `phone` VARCHAR(20) NOT NULL,
+    `gender` TINYINT NOT NULL DEFAULT 0,
+    `avatar` VARCHAR(255) DEFAULT NULL,
+    `specialty` VARCHAR(200) NOT NULL,
+    `description` VARCHAR(500) DEFAULT NULL,
+    `status` TINYINT NOT NULL DEFAULT 1,
+    `is_delete` TINYINT NOT NULL DEFAULT 0,
+    `created_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    `updated_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`id`)
+);
+
+CREATE TABLE IF NOT EXISTS `course` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `course_name` VARCHAR(100) NOT NULL,
+    `course_type` VARCHAR(50) NOT NULL,
+    `coach_id` BIGINT NOT NULL,
+    `start_time` DATETIME NOT NULL,
+    `end_time` DATETIME NOT NULL,
+    `capacity` INT NOT NULL,
+    `current_count` INT NOT NULL DEFAULT 0,
+    `description` VARCHAR(500) DEFAULT NULL,
+    `status` TINYINT NOT NULL DEFAULT 1,
+    `series_key` VARCHAR(64) DEFAULT NULL,
+    `version` INT NOT NULL DEFAULT 0,
+    `is_delete` TINYINT NOT NULL DEFAULT 0,
+    `created_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    `updated_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`id`),
+    INDEX `idx_coach_start_time` (`coach_id`, `start_time`),
+    INDEX `idx_start_end_time` (`start_time`, `end_time`),
+    UNIQUE INDEX `uk_series_start` (`series_key`, `start_time`)
+);
+
+CREATE TABLE IF NOT EXISTS `booking` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `user_id` BIGINT NOT NULL,
+    `course_id` BIGINT NOT NULL,
+    `booking_time` DATETIME NOT NULL,
+    `status` TINYINT NOT NULL DEFAULT 1,
+    `cancel_time` DATETIME DEFAULT NULL,
+    `is_delete` TINYINT NOT NULL DEFAULT 0,
+    `created_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    `updated_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    `active_course_id` BIGINT GENERATED ALWAYS AS (CASE WHEN `status` = 1 AND `is_delete` = 0 THEN `course_id` END),
+    PRIMARY KEY (`id`),
+    INDEX `idx_course_status_delete` (`course_id`, `status`, `is_delete`),
+    INDEX `idx_user_status_delete` (`user_id`, `status`, `is_delete`),
+    INDEX `idx_user_course` (`user_id`, `course_id`, `status`),
+    UNIQUE INDEX `uk_user_active_course` (`user_id`, `active_course_id`)
+);
+
+CREATE TABLE IF NOT EXISTS `booking_archive` (
+    `id` BIGINT NOT NULL,
+    `user_id` BIGINT NOT NULL,
+    `course_id` BIGINT NOT NULL,
+    `booking_time` DATETIME NOT NULL,
+    `status` TINYINT NOT NULL,
+    `cancel_time` DATETIME DEFAULT NULL,
+    `is_delete` TINYINT NOT NULL DEFAULT 0,
+    `created_time` DATETIME DEFAULT NULL,
+    `updated_time` DATETIME DEFAULT NULL,
+    `archived_time` DATETIME NOT NULL,
+    PRIMARY KEY (`id`)
+);
+
+CREATE TABLE IF NOT EXISTS `course_waitlist` (
+    `id` BIGINT NOT NULL AUTO_INCREMENT,
+    `course_id` BIGINT NOT NULL,
+    `user_id` BIGINT NOT NULL,
+    `join_time` DATETIME NOT NULL,
+    `status` TINYINT NOT NULL DEFAULT 1,
+    `booking_id` BIGINT DEFAULT NULL,
+    `promoted_time` DATETIME DEFAULT NULL,
+    `is_delete` TINYINT NOT NULL DEFAULT 0,
+    `created_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    `updated_time` DATETIME DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (`id`),
+    INDEX `idx_course_status_id` (`course_id`, `status`, `id`)
+);
+
+-- 压测课程的授课教练
+INSERT INTO `coach` (`name`, `phone`, `gender`, `specialty`, `description`, `status`) VALUES
+('压测教练', '13800009999', 1, '自由泳', '预约并发压测使用', 1);
@@ -23,13 +23,15 @@ export function requestBooking(data) {
  * @param {number} data.courseId - 课程ID
  * @param {boolean} data.forceReplace - 是否强制替换
  * @param {number} data.replaceBookingId - 要替换的预约ID
- * @returns {Promise} 预约信息
+ * @param {string} [idempotencyKey] - 幂等键，超时重试时使用相同的值，避免重复预约
+ * @returns {Promise} 预约信息；启用排队时可能返回 code 202 和排队凭证
  */
-export function confirmBooking(data) {
+export function confirmBooking(data, idempotencyKey) {
   return request({
     url: '/api/v1/bookings/confirm',
     method: 'post',
-    data
+    data,
+    headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {}
   })
 }
 
@@ -51,6 +53,7 @@ export function cancelBooking(id) {
  * @param {number} params.pageNum - 页码
  * @param {number} params.pageSize - 每页大小
  * @param {number} params.status - 预约状态
+ * @param {boolean} params.includeArchived - 是否包含已归档的历史预约
  * @returns {Promise} 预约分页列表
  */
 export function getMyBookings(params) {
@@ -69,6 +72,7 @@ export function getMyBookings(params) {
  * @param {number} params.userId - 用户ID
  * @param {number} params.courseId - 课程ID
  * @param {number} params.status - 预约状态
+ * @param {boolean} params.includeArchived - 是否包含已归档的历史预约
  * @returns {Promise} 预约分页列表
  */
 export function getAllBookings(params) {
@@ -79,6 +83,40 @@ export function getAllBookings(params) {
   })
 }
 
+/**
+ * 游标分页获取我的预约记录（不返回总数）
+ * @param {Object} params - 查询参数
+ * @param {string} params.cursor - 上一页返回的nextCursor，首页不传
+ * @param {number} params.pageSize - 每页大小
+ * @param {number} params.status - 预约状态
+ * @returns {Promise} { records, nextCursor, hasMore }
+ */
+export function getMyBookingsByCursor(params) {
+  return request({
+    url: '/api/v1/bookings/my/cursor',
+    method: 'get',
+    params
+  })
+}
+
+/**
+ * 游标分页获取所有预约记录（管理员，不返回总数）
+ * @param {Object} params - 查询参数
+ * @param {string} params.cursor - 上一页返回的nextCursor，首页不传
+ * @param {number} params.pageSize - 每页大小
+ * @param {number} params.userId - 用户ID
+ * @param {number} params.courseId - 课程ID
+ * @param {number} params.status - 预约状态
+ * @returns {Promise} { records, nextCursor, hasMore }
+ */
+export function getAllBookingsByCursor(params) {
+  return request({
+    url: '/api/v1/bookings/cursor',
+    method: 'get',
+    params
+  })
+}
+
 /**
  * 获取指定课程的预约列表（管理员）
  * @param {number} courseId - 课程ID
@@ -104,3 +142,151 @@ export function getBookingById(id) {
     method: 'get'
   })
 }
+
+/**
+ * 加入课程候补名单
+ * @param {Object} data - 候补信息
+ * @param {number} data.courseId - 课程ID
+ * @returns {Promise} 候补信息（含排队位置）
+ */
+export function joinWaitlist(data) {
+  return request({
+    url: '/api/v1/bookings/waitlist',
+    method: 'post',
+    data
+  })
+}
+
+/**
+ * 退出课程候补名单
+ * @param {number} id - 候补ID
+ * @returns {Promise} 退出结果
+ */
+export function leaveWaitlist(id) {
+  return request({
+    url: `/api/v1/bookings/waitlist/${id}`,
+    method: 'delete'
+  })
+}
+
+/**
+ * 获取我的候补记录
+ * @returns {Promise} 候补列表
+ */
+export function getMyWaitlist() {
+  return request({
+    url: '/api/v1/bookings/waitlist/my',
+    method: 'get'
+  })
+}
+
+/**
+ * 查询预约排队结果
+ * @param {string} ticketId - 排队凭证ID
+ * @returns {Promise} 排队凭证（状态、排队位置、预约信息）
+ */
+export function getAdmissionTicket(ticketId) {
+  return request({
+    url: `/api/v1/bookings/admission/${ticketId}`,
+    method: 'get'
+  })
+}
+
+/**
+ * 获取预约排队监控指标（仅管理员）
+ * @returns {Promise} 各课程排队深度和等待时长
+ */
+export function getAdmissionMetrics() {
+  return request({
+    url: '/api/v1/bookings/admission/metrics',
+    method: 'get'
+  })
+}
+
+/**
+ * 手动执行预约自动完成任务（仅管理员）
+ * @returns {Promise} 运行报告
+ */
+export function runBookingCompletion() {
+  return request({
+    url: '/api/v1/bookings/completion/run',
+    method: 'post'
+  })
+}
+
+/**
+ * 获取预约自动完成任务最近一次运行报告（仅管理员）
+ * @returns {Promise} 运行报告
+ */
+export function getBookingCompletionReport() {
+  return request({
+    url: '/api/v1/bookings/completion/report',
+    method: 'get'
+  })
+}
+
+/**
+ * 手动执行预约归档任务（仅管理员）
+ * @returns {Promise} 运行报告
+ */
+export function runBookingArchive() {
+  return request({
+    url: '/api/v1/bookings/archive/run',
+    method: 'post'
+  })
+}
+
+/**
+ * 获取预约归档任务最近一次运行报告（仅管理员）
+ * @returns {Promise} 运行报告
+ */
+export function getBookingArchiveReport() {
+  return request({
+    url: '/api/v1/bookings/archive/report',
+    method: 'get'
+  })
+}
+
+/**
+ * 按课程批量取消预约（仅管理员）
+ * @param {Object} data - 批量取消信息
+ * @param {number[]} data.courseIds - 课程ID列表
+ * @param {boolean} [data.cancelCourse] - 是否同时取消课程（下架并使候补名单失效）
+ * @returns {Promise} 操作结果（courseCount、cancelledCount、expiredWaitlistCount、promotedCount）
+ */
+export function cancelCourseBookings(data) {
+  return request({
+    url: '/api/v1/bookings/course-cancel',
+    method: 'post',
+    data
+  })
+}
+
+/**
+ * 释放预约请求阶段保留的名额（放弃预约时调用）
+ * @param {number} courseId - 课程ID
+ * @returns {Promise} 释放结果
+ */
+export function releaseSeatHold(courseId) {
+  return request({
+    url: `/api/v1/bookings/hold/${courseId}`,
+    method: 'delete'
+  })
+}
+
+/**
+ * 团体预约：为多名会员一次性预约同一课程
+ * 管理员可为任意会员预约；会员只能为本人和已关联到本人的家庭成员预约
+ * 任一会员无法预约时整体不生效，返回各会员的失败原因
+ * @param {Object} data - 团体预约信息
+ * @param {number} data.courseId - 课程ID
+ * @param {number[]} data.userIds - 会员ID列表
+ * @returns {Promise} 团体预约结果（success、bookedCount、results）
+ */
+export function groupBooking(data) {
+  return request({
+    url: '/api/v1/bookings/group',
+    method: 'post',
+    data
+  })
+}
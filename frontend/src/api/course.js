@@ -56,6 +56,32 @@ export function addCourse(data) {
   })
 }
 
+/**
+ * 周期排课：按规则批量生成系列课程（仅管理员）
+ * 同一规则重复提交只补充缺少的课程
+ * @param {Object} data - 排课规则
+ * @param {string} [data.seriesKey] - 系列标识，为空时按规则生成
+ * @param {string} data.courseName - 课程名称
+ * @param {string} data.courseType - 课程类型
+ * @param {number} data.coachId - 教练ID
+ * @param {string} data.startDate - 首周开始日期（yyyy-MM-dd）
+ * @param {number} data.weeks - 持续周数
+ * @param {number[]} data.daysOfWeek - 每周上课星期（1-7）
+ * @param {string} data.startTime - 上课时间（HH:mm）
+ * @param {string} data.endTime - 下课时间（HH:mm）
+ * @param {number} data.capacity - 课程容量
+ * @param {string} data.description - 课程描述
+ * @param {number} data.status - 状态
+ * @returns {Promise} 排课结果（seriesKey、createdCount、skippedCount、deletedSkippedCount）
+ */
+export function addCourseSeries(data) {
+  return request({
+    url: '/api/v1/courses/series',
+    method: 'post',
+    data
+  })
+}
+
 /**
  * 更新课程信息（管理员）
  * @param {number} id - 课程ID
@@ -95,3 +121,87 @@ export function updateCourseStatus(id, status) {
     params: { status }
   })
 }
+
+/**
+ * 查询教练排课重叠（仅管理员）
+ * @returns {Promise} 同一教练时间重叠的课程列表
+ */
+export function getCoachOverlaps() {
+  return request({
+    url: '/api/v1/courses/coach-overlaps',
+    method: 'get'
+  })
+}
+
+/**
+ * 订阅课程剩余名额变化（Server-Sent Events）
+ * EventSource 无法携带 Authorization 请求头，这里用 fetch 读取事件流
+ * @param {number[]} courseIds - 课程ID列表
+ * @param {Function} onUpdate - 名额变化回调，参数为 { 课程ID: 剩余名额 }
+ * @returns {Function} 关闭订阅的函数
+ */
+export function subscribeSeatUpdates(courseIds, onUpdate) {
+  const controller = new AbortController()
+  const token = localStorage.getItem('token')
+  const query = courseIds.map(id => `courseIds=${encodeURIComponent(id)}`).join('&')
+
+  fetch(`/api/v1/courses/seats/stream?${query}`, {
+    headers: {
+      Accept: 'text/event-stream',
+      ...(token ? { Authorization: 'Bearer ' + token } : {})
+    },
+    signal: controller.signal
+  }).then(async response => {
+    if (!response.ok || !response.body) {
+      return
+    }
+    const reader = response.body.getReader()
+    const decoder = new TextDecoder()
+    let buffer = ''
+    for (;;) {
+      const { value, done } = await reader.read()
+      if (done) {
+        break
+      }
+      buffer += decoder.decode(value, { stream: true })
+      // 事件之间以空行分隔
+      let index
+      while ((index = buffer.search(/\r?\n\r?\n/)) >= 0) {
+        const block = buffer.slice(0, index)
+        buffer = buffer.slice(index).replace(/^\r?\n\r?\n/, '')
+        let event = 'message'
+        const data = []
+        block.split(/\r?\n/).forEach(line => {
+          if (line.startsWith('event:')) {
+            event = line.slice(6).trim()
+          } else if (line.startsWith('data:')) {
+            data.push(line.slice(5).trim())
+          }
+        })
+        if (event === 'seat' && data.length) {
+          onUpdate(JSON.parse(data.join('\n')))
+        }
+      }
+    }
+  }).catch(error => {
+    if (error.name !== 'AbortError') {
+      console.error('订阅名额变化失败:', error)
+    }
+  })
+
+  return () => controller.abort()
+}
+
+/**
+ * 获取周课表
+ * 响应带ETag，浏览器缓存的课表未变化时服务端返回304
+ * @param {string} [date] - 日期（yyyy-MM-dd），为空时取本周
+ * @returns {Promise} 按天分组的周课表
+ */
+export function getWeeklyTimetable(date) {
+  return request({
+    url: '/api/v1/courses/timetable',
+    method: 'get',
+    params: date ? { date } : {}
+  })
+}
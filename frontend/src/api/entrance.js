@@ -15,12 +15,50 @@ export function generateEntranceQrcode() {
  * 验证入场二维码
  * 管理员扫码验证会员入场
  * @param {Object} data - { qrcodeToken: string }
+ * @param {string} [idempotencyKey] - 幂等键，扫码超时重试时使用相同的值
  */
-export function verifyEntrance(data) {
+export function verifyEntrance(data, idempotencyKey) {
   return request({
     url: '/api/v1/entrance/verify',
     method: 'post',
-    data
+    data,
+    headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {}
+  })
+}
+
+/**
+ * 扫码离场
+ * 管理员扫描会员离场时出示的入场码，在馆人数减一
+ * @param {Object} data - { qrcodeToken: string }
+ * @param {string} [idempotencyKey] - 幂等键，扫码超时重试时使用相同的值
+ */
+export function exitEntrance(data, idempotencyKey) {
+  return request({
+    url: '/api/v1/entrance/exit',
+    method: 'post',
+    data,
+    headers: idempotencyKey ? { 'Idempotency-Key': idempotencyKey } : {}
+  })
+}
+
+/**
+ * 获取当前在馆人数（管理员）
+ * @returns {Promise} 在馆人数、容纳上限和最近的每分钟人数
+ */
+export function getOccupancy() {
+  return request({
+    url: '/api/v1/entrance/occupancy',
+    method: 'get'
+  })
+}
+
+/**
+ * 清空在馆人数（管理员）
+ */
+export function resetOccupancy() {
+  return request({
+    url: '/api/v1/entrance/occupancy/reset',
+    method: 'post'
   })
 }
 
@@ -49,6 +87,30 @@ export function getAllEntranceRecords(params) {
   })
 }
 
+/**
+ * 游标分页获取我的入场记录（不返回总数）
+ * @param {Object} params - { cursor, pageSize, startTime, endTime }，首页不传cursor
+ */
+export function getMyEntranceRecordsByCursor(params) {
+  return request({
+    url: '/api/v1/entrance/my/cursor',
+    method: 'get',
+    params
+  })
+}
+
+/**
+ * 游标分页获取所有入场记录（管理员，不返回总数）
+ * @param {Object} params - { cursor, pageSize, userId, startTime, endTime }，首页不传cursor
+ */
+export function getAllEntranceRecordsByCursor(params) {
+  return request({
+    url: '/api/v1/entrance/cursor',
+    method: 'get',
+    params
+  })
+}
+
 /**
  * 获取指定入场记录详情
  * @param {Number} id - 记录ID
@@ -70,3 +132,14 @@ export function deleteEntranceRecord(id) {
     method: 'delete'
   })
 }
+
+/**
+ * 获取入场记录异步写入指标（管理员）
+ * @returns {Promise} 待写入记录数、写入延迟等指标
+ */
+export function getEntranceWriteMetrics() {
+  return request({
+    url: '/api/v1/entrance/write-behind/metrics',
+    method: 'get'
+  })
+}
@@ -50,6 +50,19 @@ export function getUserList(params) {
   })
 }
 
+/**
+ * 游标分页获取用户列表（不返回总数）
+ * @param {Object} params - 查询参数，cursor为上一页返回的nextCursor，首页不传
+ * @returns {Promise} { records, nextCursor, hasMore }
+ */
+export function getUserListByCursor(params) {
+  return request({
+    url: '/api/v1/users/cursor',
+    method: 'get',
+    params
+  })
+}
+
 /**
  * 根据ID获取用户信息
  * @param {Number} id - 用户ID
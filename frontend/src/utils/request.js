@@ -29,8 +29,8 @@ service.interceptors.response.use(
   response => {
     const res = response.data
     
-    // 如果返回的状态码不是200，则判断为错误
-    if (res.code !== 200) {
+    // 如果返回的状态码不是200（202为预约排队中），则判断为错误
+    if (res.code !== 200 && res.code !== 202) {
       ElMessage.error(res.message || '请求失败')
       return Promise.reject(new Error(res.message || '请求失败'))
     }